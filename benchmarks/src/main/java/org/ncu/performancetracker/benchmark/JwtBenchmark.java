@@ -0,0 +1,68 @@
+package org.ncu.performancetracker.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.ncu.performancetracker.security.AppUserDetails;
+import org.ncu.performancetracker.security.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Token issue and validation. "cached" is the steady state of a client reusing its token; "verified" rotates
+// through more tokens than the verified-token cache holds, so every call parses and checks the signature.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final int ROTATED_TOKENS = 4096;
+
+    // Authorities signed into each token, which sets the token's size
+    @Param({"1", "8"})
+    private int roles;
+
+    private JwtUtil jwtUtil;
+    private JwtUtil smallCacheJwtUtil;
+    private AppUserDetails user;
+    private String token;
+    private String[] rotatedTokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(new SimpleMeterRegistry(), 10_000);
+        smallCacheJwtUtil = new JwtUtil(new SimpleMeterRegistry(), 16);
+        user = new AppUserDetails("coach", "hash", IntStream.range(0, roles)
+                .mapToObj(i -> new SimpleGrantedAuthority("ROLE_" + i))
+                .toList(), 0);
+        token = jwtUtil.generateToken(user);
+        rotatedTokens = IntStream.range(0, ROTATED_TOKENS)
+                .mapToObj(i -> jwtUtil.generateToken(new AppUserDetails("coach" + i, "hash",
+                        List.copyOf(user.getAuthorities()), 0)))
+                .toArray(String[]::new);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean validateCached() {
+        Claims claims = jwtUtil.extractClaims(token);
+        return jwtUtil.validateToken(claims, jwtUtil.buildUserDetails(claims));
+    }
+
+    @Benchmark
+    public boolean validateVerified() {
+        String rotated = rotatedTokens[next++ & (ROTATED_TOKENS - 1)];
+        Claims claims = smallCacheJwtUtil.extractClaims(rotated);
+        return smallCacheJwtUtil.validateToken(claims, smallCacheJwtUtil.buildUserDetails(claims));
+    }
+}
@@ -0,0 +1,66 @@
+package org.ncu.performancetracker.benchmark;
+
+import jakarta.servlet.FilterChain;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.ncu.performancetracker.security.AppUserDetails;
+import org.ncu.performancetracker.security.JwtRequestFilter;
+import org.ncu.performancetracker.security.JwtUtil;
+import org.ncu.performancetracker.security.TokenRevocationRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// One authenticated request through the JWT filter with the token already verified, i.e. the per-request cost
+// every API call pays: claims lookup, authorities from the claims, revocation check and security context.
+// The context is cleared after each request, as SecurityContextHolderFilter does.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtRequestFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    @Param({"true", "false"})
+    private boolean authenticated;
+
+    private JwtRequestFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = new JwtUtil(new SimpleMeterRegistry(), 10_000);
+        filter = new JwtRequestFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "revocationRegistry", new TokenRevocationRegistry());
+        ReflectionTestUtils.setField(filter, "statelessAuthorities", true);
+
+        request = new MockHttpServletRequest("GET", "/api/performance-records/1/personal-bests");
+        if (authenticated) {
+            String token = jwtUtil.generateToken(new AppUserDetails("coach", "hash",
+                    List.of(new SimpleGrantedAuthority("ROLE_USER")), 0));
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object filter() throws Exception {
+        try {
+            filter.doFilter(request, response, NO_OP_CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.ncu.performancetracker.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.ncu.performancetracker.aspect.PerformanceMetricsAspect;
+import org.ncu.performancetracker.model.Athlete;
+import org.ncu.performancetracker.model.PerformanceRecord;
+import org.ncu.performancetracker.service.PerformanceRecordService;
+import org.ncu.performancetracker.service.PersonalBestService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.aop.support.AopUtils;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// What PerformanceMetricsAspect adds to addRecordToAthlete: the same call made directly and through proxies
+// carrying the aspect, as Spring wires it, on both the record service and the personal-best index it updates.
+// The services' own work is stubbed out and every value is a new best, so the difference between the two is
+// the advice itself: pointcut dispatch, argument binding and two counter increments.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PerformanceMetricsAspectBenchmark {
+
+    // Stands in for the personal-best index update
+    static class ImprovingPersonalBestService extends PersonalBestService {
+
+        ImprovingPersonalBestService() {
+            super(null, null, null, null, null);
+        }
+
+        @Override
+        public boolean recordValue(Long athleteId, String metricName, double value) {
+            return true;
+        }
+    }
+
+    // Stands in for the transactional write path
+    static class StoringRecordService extends PerformanceRecordService {
+
+        private final Athlete athlete = new Athlete("Ann", "Rugby", "Wing");
+        private final PersonalBestService personalBestService;
+
+        StoringRecordService(PersonalBestService personalBestService) {
+            super(null, null, null, null, null, null, null, null, null, null);
+            this.personalBestService = personalBestService;
+        }
+
+        @Override
+        public PerformanceRecord addRecordToAthlete(Long athleteId, PerformanceRecord record) {
+            record.setAthlete(athlete);
+            personalBestService.recordValue(athleteId, record.getMetricName(), record.getValue());
+            return record;
+        }
+    }
+
+    private PerformanceRecordService direct;
+    private PerformanceRecordService advised;
+    private PerformanceRecord record;
+
+    @Setup
+    public void setUp() {
+        PerformanceMetricsAspect aspect = new PerformanceMetricsAspect(new SimpleMeterRegistry());
+
+        direct = new StoringRecordService(new ImprovingPersonalBestService());
+        PersonalBestService advisedPersonalBests = advise(new ImprovingPersonalBestService(), aspect);
+        advised = advise(new StoringRecordService(advisedPersonalBests), aspect);
+
+        record = new PerformanceRecord("Speed", 20.0, LocalDate.of(2024, 5, 1), null);
+    }
+
+    @Benchmark
+    public PerformanceRecord direct() {
+        return direct.addRecordToAthlete(1L, record);
+    }
+
+    @Benchmark
+    public PerformanceRecord advised() {
+        return advised.addRecordToAthlete(1L, record);
+    }
+
+    private static <T> T advise(T target, PerformanceMetricsAspect aspect) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(aspect);
+        T proxy = proxyFactory.getProxy();
+        if (!AopUtils.isAopProxy(proxy)) {
+            throw new IllegalStateException("Aspect was not applied");
+        }
+        return proxy;
+    }
+}
@@ -0,0 +1,53 @@
+package org.ncu.performancetracker.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.ncu.performancetracker.model.PersonalBest;
+import org.ncu.performancetracker.repository.PersonalBestRepository;
+import org.ncu.performancetracker.service.PersonalBestService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// The personal-bests response for an athlete with a given number of metrics: mapping the index rows to the
+// metric-to-value map that findPersonalBestsByAthleteId returns (and caches), and that map written as JSON.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonalBestMappingBenchmark {
+
+    @Param({"4", "16", "64"})
+    private int metrics;
+
+    private PersonalBestService personalBestService;
+    private ObjectMapper objectMapper;
+    private Map<String, Double> personalBests;
+
+    @Setup
+    public void setUp() {
+        List<PersonalBest> rows = IntStream.range(0, metrics)
+                .mapToObj(i -> new PersonalBest(1L, "Metric " + i, 10.0 + i))
+                .toList();
+        PersonalBestRepository personalBestRepository = Repositories.stub(PersonalBestRepository.class,
+                Map.of("findByAthleteId", args -> rows));
+        personalBestService = new PersonalBestService(personalBestRepository, null, null, null, null);
+        objectMapper = SerializationBenchmark.objectMapper();
+        personalBests = personalBestService.findPersonalBests(1L);
+    }
+
+    @Benchmark
+    public Map<String, Double> map() {
+        return personalBestService.findPersonalBests(1L);
+    }
+
+    @Benchmark
+    public byte[] write() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(personalBests);
+    }
+}
@@ -0,0 +1,24 @@
+package org.ncu.performancetracker.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+// In-memory stand-ins for Spring Data repositories, answering only the named methods. A plain JDK proxy
+// keeps the per-call cost small and constant, unlike a mocking library's invocation recording.
+final class Repositories {
+
+    private Repositories() {
+    }
+
+    static <T> T stub(Class<T> repositoryType, Map<String, Function<Object[], Object>> answers) {
+        return repositoryType.cast(Proxy.newProxyInstance(repositoryType.getClassLoader(),
+                new Class<?>[]{repositoryType}, (proxy, method, args) -> {
+                    Function<Object[], Object> answer = answers.get(method.getName());
+                    if (answer == null) {
+                        throw new UnsupportedOperationException(method.getName() + " is not stubbed");
+                    }
+                    return answer.apply(args);
+                }));
+    }
+}
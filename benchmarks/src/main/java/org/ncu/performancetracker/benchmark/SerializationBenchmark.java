@@ -0,0 +1,81 @@
+package org.ncu.performancetracker.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.ncu.performancetracker.dto.CursorPage;
+import org.ncu.performancetracker.model.Athlete;
+import org.ncu.performancetracker.model.PerformanceRecord;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Response bodies as the API writes them: pages of athletes and of performance records, and the unpaginated
+// athlete name search. 100 is the default page size and 1000 the maximum.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final String[] SPORTS = {"Rugby", "Basketball", "Football", "Athletics"};
+    private static final String[] METRICS = {"Speed", "Agility", "Reflex", "Stamina", "Sprint 100m"};
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private CursorPage<Athlete> athletePage;
+    private List<Athlete> athletes;
+    private CursorPage<PerformanceRecord> recordPage;
+
+    // Configured as the application's (Spring Boot builds its mapper through the same builder)
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+                .build();
+    }
+
+    @Setup
+    public void setUp() {
+        objectMapper = objectMapper();
+
+        athletes = new ArrayList<>(size);
+        List<PerformanceRecord> records = new ArrayList<>(size);
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < size; i++) {
+            Athlete athlete = new Athlete("Athlete " + i, SPORTS[i % SPORTS.length], "Position " + i % 7);
+            athlete.setId((long) i + 1);
+            athletes.add(athlete);
+
+            PerformanceRecord record = new PerformanceRecord(METRICS[i % METRICS.length], 10 + i % 97 / 10.0,
+                    day.plusDays(i / METRICS.length), i % 3 == 0 ? "Session " + i : null);
+            record.setId((long) i + 1);
+            record.setAthlete(athlete);
+            records.add(record);
+        }
+        athletePage = new CursorPage<>(athletes, "eyJpZCI6MTAwfQ");
+        recordPage = new CursorPage<>(records, "eyJkYXRlIjoiMjAyNC0wNC0wMSIsImlkIjoxMDB9");
+    }
+
+    @Benchmark
+    public byte[] athletePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(athletePage);
+    }
+
+    @Benchmark
+    public byte[] athleteList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(athletes);
+    }
+
+    @Benchmark
+    public byte[] recordPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(recordPage);
+    }
+}
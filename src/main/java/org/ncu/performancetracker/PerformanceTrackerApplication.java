@@ -1,21 +1,60 @@
 package org.ncu.performancetracker;
 
+import org.ncu.performancetracker.config.SchemaIndexVerifier;
 import org.ncu.performancetracker.model.Athlete;
 import org.ncu.performancetracker.model.PerformanceRecord;
 import org.ncu.performancetracker.repository.AthleteRepository;
-import org.springframework.boot.CommandLineRunner;
+import org.ncu.performancetracker.service.AthleteSearchIndex;
+import org.ncu.performancetracker.service.LeaderboardService;
+import org.ncu.performancetracker.service.MetricDistributionService;
+import org.ncu.performancetracker.service.MetricCatalog;
+import org.ncu.performancetracker.service.PersonalBestService;
+import org.ncu.performancetracker.service.RollupService;
+import org.ncu.performancetracker.service.SyntheticDataGenerator;
+import org.ncu.performancetracker.service.TrendService;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 import java.time.LocalDate;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+// Seeds the database and loads the in-memory leaderboards, search index and sketches once every bean exists but
+// before the web server starts, so no request is served from half-built state. Changes committed meanwhile (e.g. by
+// the write-behind journal replay) are queued by the loaders and replayed once they publish.
 @SpringBootApplication
-public class PerformanceTrackerApplication implements CommandLineRunner {
+public class PerformanceTrackerApplication implements SmartInitializingSingleton {
 
     private final AthleteRepository athleteRepository;
+    private final MetricCatalog metricCatalog;
+    private final PersonalBestService personalBestService;
+    private final RollupService rollupService;
+    private final TrendService trendService;
+    private final LeaderboardService leaderboardService;
+    private final AthleteSearchIndex athleteSearchIndex;
+    private final MetricDistributionService metricDistributionService;
+    private final SchemaIndexVerifier schemaIndexVerifier;
+    private final Optional<SyntheticDataGenerator> syntheticDataGenerator;
 
-    public PerformanceTrackerApplication(AthleteRepository athleteRepository) {
+    public PerformanceTrackerApplication(AthleteRepository athleteRepository, MetricCatalog metricCatalog,
+                                         PersonalBestService personalBestService,
+                                         RollupService rollupService, TrendService trendService,
+                                         LeaderboardService leaderboardService,
+                                         AthleteSearchIndex athleteSearchIndex,
+                                         MetricDistributionService metricDistributionService,
+                                         SchemaIndexVerifier schemaIndexVerifier,
+                                         Optional<SyntheticDataGenerator> syntheticDataGenerator) {
         this.athleteRepository = athleteRepository;
+        this.metricCatalog = metricCatalog;
+        this.personalBestService = personalBestService;
+        this.rollupService = rollupService;
+        this.trendService = trendService;
+        this.leaderboardService = leaderboardService;
+        this.athleteSearchIndex = athleteSearchIndex;
+        this.metricDistributionService = metricDistributionService;
+        this.schemaIndexVerifier = schemaIndexVerifier;
+        this.syntheticDataGenerator = syntheticDataGenerator;
     }
 
     public static void main(String[] args) {
@@ -23,8 +62,15 @@ public class PerformanceTrackerApplication implements CommandLineRunner {
     }
 
     @Override
-    public void run(String... args) {
-        if (athleteRepository.count() == 0) {
+    public void afterSingletonsInstantiated() {
+        schemaIndexVerifier.verify();
+
+        boolean empty = athleteRepository.count() == 0;
+        if (empty && syntheticDataGenerator.isPresent()) {
+            // Load-test profile: a generated dataset instead of the samples
+            long generated = syntheticDataGenerator.get().generate();
+            System.out.println("Synthetic dataset generated with " + generated + " performance records.");
+        } else if (empty) {
             Athlete john = new Athlete("John Doe", "Basketball", "Forward");
             Athlete jane = new Athlete("Jane Smith", "Soccer", "Goalkeeper");
 
@@ -40,6 +86,10 @@ public class PerformanceTrackerApplication implements CommandLineRunner {
             jane.addPerformanceRecord(janeReflex);
             jane.addPerformanceRecord(janeStamina);
 
+            // Records store catalog ids, so their metrics are registered first
+            Stream.of(john, jane).flatMap(athlete -> athlete.getPerformanceRecords().stream())
+                    .forEach(record -> metricCatalog.resolve(record.getMetricName()));
+
             athleteRepository.save(john);
             athleteRepository.save(jane);
 
@@ -48,6 +98,27 @@ public class PerformanceTrackerApplication implements CommandLineRunner {
             System.out.println("Sample data already present.");
         }
 
+        // Backfill the personal-best index, rollups and trends for data written before it existed (or by the sample seeding above)
+        if (personalBestService.isEmpty()) {
+            int rebuilt = personalBestService.rebuild();
+            System.out.println("Personal-best index rebuilt with " + rebuilt + " entries.");
+        }
+        if (rollupService.isEmpty()) {
+            int rebuilt = rollupService.rebuild();
+            System.out.println("Performance rollups rebuilt with " + rebuilt + " buckets.");
+        }
+        if (trendService.isEmpty()) {
+            int rebuilt = trendService.rebuild();
+            System.out.println("Performance trends rebuilt with " + rebuilt + " entries.");
+        }
+
+        int ranked = leaderboardService.rebuild();
+        System.out.println("Leaderboards loaded with " + ranked + " personal bests.");
+        int indexed = athleteSearchIndex.rebuild();
+        System.out.println("Athlete search index loaded with " + indexed + " athletes.");
+        int sketched = metricDistributionService.load();
+        System.out.println("Metric distributions loaded with " + sketched + " sketches.");
+
         System.out.println("Performance Tracker is running!");
     }
 }
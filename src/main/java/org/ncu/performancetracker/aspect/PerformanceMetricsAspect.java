@@ -0,0 +1,60 @@
+package org.ncu.performancetracker.aspect;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.ncu.performancetracker.model.PerformanceRecord;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Counts added records and new personal bests per metric. Counters replace the INFO lines this used to write,
+// so the write path no longer formats log output, and the personal-best outcome comes from the index update
+// itself instead of a lookup before every insert.
+@Aspect
+@Component
+public class PerformanceMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> recordCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> personalBestCounters = new ConcurrentHashMap<>();
+
+    public PerformanceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @AfterReturning(
+            pointcut = "execution(* org.ncu.performancetracker.service.PerformanceRecordService.addRecordToAthlete(..))",
+            returning = "savedRecord"
+    )
+    public void countRecordAddition(PerformanceRecord savedRecord) {
+        if (savedRecord != null) {
+            counter(recordCounters, "performance.records.added", "Records added one at a time",
+                    savedRecord.getMetricName()).increment();
+        }
+    }
+
+    // Every write path (single, batch and edits) goes through the personal-best index
+    @AfterReturning(
+            pointcut = "execution(boolean org.ncu.performancetracker.service.PersonalBestService.recordValue(..))"
+                    + " && args(athleteId, metricName, value)",
+            returning = "newBest",
+            argNames = "athleteId,metricName,value,newBest"
+    )
+    public void countPersonalBest(Long athleteId, String metricName, double value, boolean newBest) {
+        if (newBest) {
+            counter(personalBestCounters, "performance.personal-bests", "New personal bests set", metricName)
+                    .increment();
+        }
+    }
+
+    // Registered once per metric; later calls are a map lookup
+    private Counter counter(Map<String, Counter> counters, String name, String description, String metricName) {
+        return counters.computeIfAbsent(metricName, metric -> Counter.builder(name)
+                .description(description)
+                .tag("metric", metric)
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,112 @@
+package org.ncu.performancetracker.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Caps the number of connections in use at once, independently of how many threads ask for one.
+// A permit is taken before a connection is borrowed and returned when the connection is closed.
+// Waiting happens on a fair java.util.concurrent.Semaphore, which parks virtual threads without pinning.
+// A thread that already holds a connection borrows further ones (REQUIRES_NEW transactions) under the same permit:
+// waiting for a second permit while holding the first could deadlock once every permit is held that way.
+public class ConcurrencyLimitingDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMillis;
+    // Open connections per thread; captured by each connection so closing it elsewhere updates the right count
+    private final ThreadLocal<AtomicInteger> openConnections = ThreadLocal.withInitial(AtomicInteger::new);
+
+    public ConcurrencyLimitingDataSource(DataSource targetDataSource, int maxConcurrency, long acquireTimeoutMillis) {
+        super(targetDataSource);
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return limited(super::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return limited(() -> super.getConnection(username, password));
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int getWaitingThreads() {
+        return permits.getQueueLength();
+    }
+
+    private interface ConnectionSource {
+        Connection get() throws SQLException;
+    }
+
+    private Connection limited(ConnectionSource source) throws SQLException {
+        AtomicInteger open = openConnections.get();
+        boolean nested = open.get() > 0;
+        if (!nested) {
+            acquirePermit();
+        }
+        try {
+            Connection connection = source.get();
+            open.incrementAndGet();
+            return releasingOnClose(connection, open, !nested);
+        } catch (SQLException | RuntimeException ex) {
+            if (!nested) {
+                permits.release();
+            }
+            throw ex;
+        }
+    }
+
+    private void acquirePermit() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "Timed out after " + acquireTimeoutMillis + " ms waiting for a database permit");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database permit", ex);
+        }
+    }
+
+    private Connection releasingOnClose(Connection connection, AtomicInteger open, boolean holdsPermit) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                ConcurrencyLimitingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && method.getParameterCount() == 0) {
+                        try {
+                            connection.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                open.decrementAndGet();
+                                if (holdsPermit) {
+                                    permits.release();
+                                }
+                            }
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,47 @@
+package org.ncu.performancetracker.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+// Wraps the application DataSource in a ConcurrencyLimitingDataSource when app.db.max-concurrency is set.
+// Mainly meant for the virtual-threads profile, where request concurrency is no longer bounded by a thread pool.
+@Configuration
+@ConditionalOnProperty(name = "app.db.max-concurrency")
+public class DatabaseConcurrencyConfig {
+
+    @Bean
+    public static BeanPostProcessor databaseConcurrencyLimiter(
+            Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        int maxConcurrency = environment.getRequiredProperty("app.db.max-concurrency", Integer.class);
+        long acquireTimeoutMillis = environment.getProperty("app.db.acquire-timeout-ms", Long.class, 30_000L);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitingDataSource
+                        || maxConcurrency <= 0) {
+                    return bean;
+                }
+                ConcurrencyLimitingDataSource limited =
+                        new ConcurrencyLimitingDataSource(dataSource, maxConcurrency, acquireTimeoutMillis);
+                meterRegistry.ifAvailable(registry -> {
+                    Gauge.builder("db.concurrency.available", limited, ConcurrencyLimitingDataSource::getAvailablePermits)
+                            .description("Database permits currently free")
+                            .register(registry);
+                    Gauge.builder("db.concurrency.waiting", limited, ConcurrencyLimitingDataSource::getWaitingThreads)
+                            .description("Threads waiting for a database permit")
+                            .register(registry);
+                });
+                return limited;
+            }
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package org.ncu.performancetracker.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Counts the SQL statements Hibernate prepares on the current thread between start() and stop(), which is how
+// RequestQueryMetricsFilter measures queries per request. Registered through
+// spring.jpa.properties.hibernate.session_factory.statement_inspector; outside a counted span it only passes the
+// statement through.
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        long[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    public static void start() {
+        COUNT.set(new long[1]);
+    }
+
+    // Statements counted since start(), or 0 when counting was not started on this thread
+    public static long stop() {
+        long[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+}
@@ -0,0 +1,69 @@
+package org.ncu.performancetracker.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Replaces the auto-configured DataSource with a ReadWriteRoutingDataSource when
+// app.datasource.replicas.urls lists one or more replica JDBC urls (comma separated).
+// The primary keeps the spring.datasource.* settings. Replicas share its driver and spring.datasource.hikari.*
+// pool settings, and its credentials unless app.datasource.replicas.username/password are set.
+// Every pool publishes hikaricp.* meters tagged with its pool name (primary, replica-0, ...).
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.urls")
+public class ReadReplicaConfig {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment, ReadYourWrites readYourWrites,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        Binder binder = Binder.get(environment);
+        List<String> urls = binder.bind("app.datasource.replicas.urls", Bindable.listOf(String.class)).orElse(List.of());
+        String username = environment.getProperty("app.datasource.replicas.username", properties.determineUsername());
+        String password = environment.getProperty("app.datasource.replicas.password", properties.determinePassword());
+        ReadWriteRoutingDataSource.Selection selection = binder
+                .bind("app.datasource.replicas.selection", ReadWriteRoutingDataSource.Selection.class)
+                .orElse(ReadWriteRoutingDataSource.Selection.ROUND_ROBIN);
+
+        HikariDataSource primary = pool(properties, binder, properties.determineUrl(),
+                properties.determineUsername(), properties.determinePassword(), "primary", meterRegistry);
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = pool(properties, binder, urls.get(i).trim(), username, password, "replica-" + i,
+                    meterRegistry);
+            binder.bind("app.datasource.replicas.maximum-pool-size", Integer.class)
+                    .ifBound(replica::setMaximumPoolSize);
+            replicas.add(replica);
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, selection, readYourWrites);
+    }
+
+    private static HikariDataSource pool(
+            DataSourceProperties properties, Binder binder, String url, String username, String password, String poolName,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(poolName);
+        // Unwrapping the routing DataSource only reaches the primary, so the auto-configured binding would
+        // miss the replicas
+        meterRegistry.ifAvailable(registry ->
+                dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        return dataSource;
+    }
+}
@@ -0,0 +1,146 @@
+package org.ncu.performancetracker.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sends read-only transactions to a pool of replicas and everything else to the primary. Connections are handed
+// out lazily, so the target is picked on first use, after the transaction manager has marked the connection
+// read-only (@Transactional(readOnly = true), and Spring Data's read methods). ReadYourWrites can pin reads
+// back to the primary. A replica that fails to hand out a connection is skipped for that read.
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    public enum Selection { ROUND_ROBIN, LEAST_LOADED }
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Selection selection;
+    private final ReadYourWrites readYourWrites;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(
+            DataSource primary, List<DataSource> replicas, Selection selection, ReadYourWrites readYourWrites) {
+        super(primary);
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is required");
+        }
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.selection = selection;
+        this.readYourWrites = readYourWrites;
+        setReadOnlyDataSource(new ReadOnlyTarget());
+    }
+
+    // Connections currently borrowed from each replica, in configuration order
+    public List<Integer> getReplicaConnectionsInUse() {
+        return replicas.stream().map(replica -> replica.inUse.get()).toList();
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection readOnlyConnection() throws SQLException {
+        if (readYourWrites.requiresPrimary()) {
+            return primary.getConnection();
+        }
+        int first = selection == Selection.LEAST_LOADED
+                ? leastLoaded()
+                : Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            int index = (first + i) % replicas.size();
+            try {
+                return replicas.get(index).getConnection();
+            } catch (SQLException ex) {
+                logger.warn("Replica {} unavailable, trying the next target: {}", index, ex.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    private int leastLoaded() {
+        // Start the scan at a rotating offset so ties are spread instead of always landing on the first replica
+        int offset = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        int best = offset;
+        for (int i = 1; i < replicas.size(); i++) {
+            int candidate = (offset + i) % replicas.size();
+            if (replicas.get(candidate).inUse.get() < replicas.get(best).inUse.get()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private class ReadOnlyTarget extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return readOnlyConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new UnsupportedOperationException("Replica connections use the configured credentials");
+        }
+    }
+
+    private static class Replica {
+
+        private final DataSource dataSource;
+        private final AtomicInteger inUse = new AtomicInteger();
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private Connection getConnection() throws SQLException {
+            Connection connection = dataSource.getConnection();
+            inUse.incrementAndGet();
+            return countingUntilClosed(connection);
+        }
+
+        private Connection countingUntilClosed(Connection connection) {
+            AtomicBoolean closed = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(
+                    ReadWriteRoutingDataSource.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("close") && method.getParameterCount() == 0) {
+                            try {
+                                connection.close();
+                            } finally {
+                                if (closed.compareAndSet(false, true)) {
+                                    inUse.decrementAndGet();
+                                }
+                            }
+                            return null;
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException ex) {
+                            throw ex.getTargetException();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.ncu.performancetracker.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Decides whether a read-only transaction may be served by a replica. Reads stay on the primary
+//  - for a window after the current client's last committed write, so clients always see their own changes, and
+//  - inside onPrimary(...), for loaders of shared in-memory state that must never keep a lagging replica's view.
+// Registered with the transaction manager as an execution listener; ReadYourWritesFilter binds the client per request.
+@Component
+public class ReadYourWrites implements TransactionExecutionListener {
+
+    private final Cache<String, Boolean> recentWriters;
+    private final ThreadLocal<List<String>> currentClient = new ThreadLocal<>();
+    private final ThreadLocal<Integer> primaryScopes = ThreadLocal.withInitial(() -> 0);
+
+    @Autowired
+    public ReadYourWrites(
+            @Value("${app.datasource.read-your-writes.window:5s}") Duration window,
+            @Value("${app.datasource.read-your-writes.max-clients:100000}") long maxClients) {
+        this(window, maxClients, Ticker.systemTicker());
+    }
+
+    ReadYourWrites(Duration window, long maxClients, Ticker ticker) {
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterWrite(window)
+                .ticker(ticker)
+                .build();
+    }
+
+    // The keys a request is known by, e.g. the authenticated user and the client id header. A write marks all of
+    // them and a read matching any of them is pinned, so a client that writes signed in and polls anonymously
+    // with the same client id still reads its own writes.
+    public void bindClient(List<String> clientKeys) {
+        currentClient.set(clientKeys);
+    }
+
+    public void clearClient() {
+        currentClient.remove();
+    }
+
+    public boolean requiresPrimary() {
+        if (primaryScopes.get() > 0) {
+            return true;
+        }
+        List<String> clientKeys = currentClient.get();
+        return clientKeys != null && clientKeys.stream().anyMatch(key -> recentWriters.getIfPresent(key) != null);
+    }
+
+    // Runs the work with every read-only connection it opens taken from the primary
+    public <T> T onPrimary(Supplier<T> work) {
+        primaryScopes.set(primaryScopes.get() + 1);
+        try {
+            return work.get();
+        } finally {
+            int depth = primaryScopes.get() - 1;
+            if (depth == 0) {
+                primaryScopes.remove();
+            } else {
+                primaryScopes.set(depth);
+            }
+        }
+    }
+
+    // The window starts when the write becomes visible on the primary, i.e. at commit
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        List<String> clientKeys = currentClient.get();
+        if (commitFailure == null && !transaction.isReadOnly() && clientKeys != null) {
+            clientKeys.forEach(key -> recentWriters.put(key, Boolean.TRUE));
+        }
+    }
+}
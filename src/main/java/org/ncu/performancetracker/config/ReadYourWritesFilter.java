@@ -0,0 +1,66 @@
+package org.ncu.performancetracker.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Binds the requesting client for ReadYourWrites. Runs after the security filter chain, so authenticated
+// requests are known by their user. Anonymous clients are known by the client id header they send, and by their
+// address only when key-by-address is on: behind a load balancer every request shares the proxy's address unless
+// server.forward-headers-strategy resolves the forwarded one from a trusted proxy.
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final int MAX_CLIENT_ID_LENGTH = 128;
+
+    private final ReadYourWrites readYourWrites;
+    private final String clientIdHeader;
+    private final boolean keyByAddress;
+
+    @Autowired
+    public ReadYourWritesFilter(
+            ReadYourWrites readYourWrites,
+            @Value("${app.datasource.read-your-writes.client-id-header:X-Client-Id}") String clientIdHeader,
+            @Value("${app.datasource.read-your-writes.key-by-address:false}") boolean keyByAddress) {
+        this.readYourWrites = readYourWrites;
+        this.clientIdHeader = clientIdHeader;
+        this.keyByAddress = keyByAddress;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        List<String> clientKeys = new ArrayList<>(3);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            clientKeys.add("user:" + authentication.getName());
+        }
+        String clientId = clientIdHeader.isBlank() ? null : request.getHeader(clientIdHeader);
+        if (clientId != null && !clientId.isBlank() && clientId.length() <= MAX_CLIENT_ID_LENGTH) {
+            clientKeys.add("client:" + clientId);
+        }
+        if (keyByAddress) {
+            clientKeys.add("addr:" + request.getRemoteAddr());
+        }
+
+        readYourWrites.bindClient(clientKeys);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            readYourWrites.clearClient();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.ncu.performancetracker.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Publishes the number of SQL statements each request ran as http.server.queries, tagged by method and
+// uri template like http.server.requests. Runs ahead of the security filter chain so token checks that load the
+// user are counted too. Statements run on other threads, e.g. by streaming exports, are not.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class RequestQueryMetricsFilter extends OncePerRequestFilter {
+
+    private final Meter.MeterProvider<DistributionSummary> queries;
+
+    @Autowired
+    public RequestQueryMetricsFilter(MeterRegistry meterRegistry) {
+        this.queries = DistributionSummary.builder("http.server.queries")
+                .description("SQL statements run per request")
+                .baseUnit("statements")
+                .serviceLevelObjectives(1, 2, 5, 10, 20, 50, 100)
+                .withRegistry(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryCounter.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long statements = QueryCounter.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            queries.withTags("method", request.getMethod(), "uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                    .record(statements);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.ncu.performancetracker.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+// Fails startup when an index the repository queries depend on is missing, e.g. after a hand-edited schema
+// or a migration that did not apply. Indexes are matched by their leading columns, not by name.
+@Component
+public class SchemaIndexVerifier {
+
+    public record ExpectedIndex(String table, List<String> columns) {
+    }
+
+    public static final List<ExpectedIndex> EXPECTED_INDEXES = List.of(
+            new ExpectedIndex("performance_record", List.of("athlete_id", "date")),
+            new ExpectedIndex("performance_record", List.of("athlete_id", "metric_id", "date")),
+            new ExpectedIndex("performance_record", List.of("athlete_id", "metric_id", "value")),
+            new ExpectedIndex("personal_best", List.of("athlete_id", "metric_id")),
+            new ExpectedIndex("performance_rollup", List.of("athlete_id", "metric_id", "granularity", "bucket_start")));
+
+    private final DataSource dataSource;
+
+    @Autowired
+    public SchemaIndexVerifier(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public void verify() {
+        List<ExpectedIndex> missing = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            Map<String, Collection<List<String>>> indexesByTable = new HashMap<>();
+            for (ExpectedIndex expected : EXPECTED_INDEXES) {
+                Collection<List<String>> indexes = indexesByTable.computeIfAbsent(expected.table(),
+                        table -> readIndexes(metaData, connection, table));
+                if (indexes.stream().noneMatch(columns -> startsWith(columns, expected.columns()))) {
+                    missing.add(expected);
+                }
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Could not read index metadata", ex);
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Missing required database indexes: " + missing);
+        }
+    }
+
+    // Column lists of every index on the table, in index order
+    private static Collection<List<String>> readIndexes(DatabaseMetaData metaData, Connection connection, String table) {
+        Map<String, SortedMap<Short, String>> indexes = new HashMap<>();
+        try (ResultSet rows = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, false, false)) {
+            while (rows.next()) {
+                String indexName = rows.getString("INDEX_NAME");
+                String column = rows.getString("COLUMN_NAME");
+                if (indexName != null && column != null) {
+                    indexes.computeIfAbsent(indexName, name -> new TreeMap<>())
+                            .put(rows.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+                }
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Could not read indexes of table " + table, ex);
+        }
+        return indexes.values().stream().<List<String>>map(columns -> new ArrayList<>(columns.values())).toList();
+    }
+
+    private static boolean startsWith(List<String> columns, List<String> prefix) {
+        return columns.size() >= prefix.size() && columns.subList(0, prefix.size()).equals(prefix);
+    }
+}
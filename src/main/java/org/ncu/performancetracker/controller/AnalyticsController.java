@@ -0,0 +1,83 @@
+package org.ncu.performancetracker.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import org.ncu.performancetracker.dto.BestWindow;
+import org.ncu.performancetracker.dto.SeriesPercentiles;
+import org.ncu.performancetracker.dto.SeriesPoint;
+import org.ncu.performancetracker.dto.SeriesSummary;
+import org.ncu.performancetracker.service.SeriesAnalyticsService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/performance-records/{athleteId}/analytics/{metricName}")
+public class AnalyticsController {
+
+    private final SeriesAnalyticsService analyticsService;
+    private final AthleteETags athleteETags;
+
+    @Autowired
+    public AnalyticsController(SeriesAnalyticsService analyticsService, AthleteETags athleteETags) {
+        this.analyticsService = analyticsService;
+        this.athleteETags = athleteETags;
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<SeriesSummary> getSummary(
+            @PathVariable Long athleteId,
+            @PathVariable String metricName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            ServletWebRequest request) {
+        if (athleteETags.checkNotModified(athleteId, request)) {
+            return null;
+        }
+        return ResponseEntity.ok(analyticsService.summarize(athleteId, metricName, start, end));
+    }
+
+    @GetMapping("/percentiles")
+    public ResponseEntity<SeriesPercentiles> getPercentiles(
+            @PathVariable Long athleteId,
+            @PathVariable String metricName,
+            @RequestParam(defaultValue = "50,90,99") List<Double> p,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            ServletWebRequest request) {
+        if (athleteETags.checkNotModified(athleteId, request)) {
+            return null;
+        }
+        return ResponseEntity.ok(analyticsService.percentiles(athleteId, metricName, start, end, p));
+    }
+
+    @GetMapping("/moving-average")
+    public ResponseEntity<List<SeriesPoint>> getMovingAverage(
+            @PathVariable Long athleteId,
+            @PathVariable String metricName,
+            @RequestParam(defaultValue = "7") int window,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            ServletWebRequest request) {
+        if (athleteETags.checkNotModified(athleteId, request)) {
+            return null;
+        }
+        return ResponseEntity.ok(analyticsService.movingAverage(athleteId, metricName, start, end, window));
+    }
+
+    @GetMapping("/best-window")
+    public ResponseEntity<BestWindow> getBestWindow(
+            @PathVariable Long athleteId,
+            @PathVariable String metricName,
+            @RequestParam(defaultValue = "7") int days,
+            ServletWebRequest request) {
+        if (athleteETags.checkNotModified(athleteId, request)) {
+            return null;
+        }
+        return ResponseEntity.ok(analyticsService.bestWindow(athleteId, metricName, days));
+    }
+}
@@ -8,7 +8,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import org.ncu.performancetracker.dto.AthleteSearchResult;
+import org.ncu.performancetracker.dto.CursorPage;
 import org.ncu.performancetracker.model.Athlete;
 import org.ncu.performancetracker.service.AthleteService;
 
@@ -19,20 +22,27 @@ import java.util.List;
 public class AthleteController {
 
     private final AthleteService athleteService;
+    private final AthleteETags athleteETags;
 
     @Autowired
-    public AthleteController(AthleteService athleteService) {
+    public AthleteController(AthleteService athleteService, AthleteETags athleteETags) {
         this.athleteService = athleteService;
+        this.athleteETags = athleteETags;
     }
 
     @GetMapping
-    public ResponseEntity<List<Athlete>> getAllAthletes() {
-        List<Athlete> athletes = athleteService.findAllAthletes();
+    public ResponseEntity<CursorPage<Athlete>> getAllAthletes(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        CursorPage<Athlete> athletes = athleteService.findAthletePage(cursor, size);
         return ResponseEntity.ok(athletes);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Athlete> getAthleteById(@PathVariable Long id) {
+    public ResponseEntity<Athlete> getAthleteById(@PathVariable Long id, ServletWebRequest request) {
+        if (athleteETags.checkNotModified(id, request)) {
+            return null;
+        }
         return athleteService.findAthleteById(id)
                 .map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
     }
@@ -42,6 +52,20 @@ public class AthleteController {
         return ResponseEntity.ok(athleteService.findAthletesByName(name));
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<List<AthleteSearchResult>> searchAthletes(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") Integer limit) {
+        return ResponseEntity.ok(athleteService.searchAthletes(q, limit));
+    }
+
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<AthleteSearchResult>> autocompleteAthletes(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") Integer limit) {
+        return ResponseEntity.ok(athleteService.autocompleteAthletes(prefix, limit));
+    }
+
     @PostMapping
     public ResponseEntity<Athlete> createAthlete(@Valid @RequestBody Athlete athlete) {
         Athlete createdAthlete = athleteService.saveAthlete(athlete);
@@ -56,11 +80,8 @@ public class AthleteController {
 
     @PutMapping("/{id}")
     public ResponseEntity<Athlete> updateAthlete(@PathVariable Long id, @Valid @RequestBody Athlete athlete) {
-        return athleteService.findAthleteById(id)
-                .map(existingAthlete -> {
-                    athlete.setId(id);
-                    return ResponseEntity.ok(athleteService.saveAthlete(athlete));
-                }).orElse(ResponseEntity.notFound().build());
+        return athleteService.updateAthlete(id, athlete)
+                .map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,37 @@
+package org.ncu.performancetracker.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import org.ncu.performancetracker.service.AthleteCache;
+
+import java.util.Optional;
+
+// Conditional GETs for the per-athlete endpoints, keyed by the athlete's data version. The version is read before
+// the data, so a write landing in between can only cost the client one extra full response, never a stale 304.
+@Component
+public class AthleteETags {
+
+    private final AthleteCache athleteCache;
+
+    @Autowired
+    public AthleteETags(AthleteCache athleteCache) {
+        this.athleteCache = athleteCache;
+    }
+
+    // Tags the response and returns true when the client's copy is current; the status is then already 304 and
+    // the handler must return without a body. Unknown athletes are not tagged and fall through to the 404.
+    public boolean checkNotModified(Long athleteId, ServletWebRequest request) {
+        Optional<Long> dataVersion = athleteCache.findDataVersion(athleteId);
+        if (dataVersion.isEmpty()) {
+            return false;
+        }
+        // Revalidate on every poll instead of Spring Security's default no-store, which rules out If-None-Match
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        }
+        return request.checkNotModified("\"" + athleteId + "." + dataVersion.get() + "\"");
+    }
+}
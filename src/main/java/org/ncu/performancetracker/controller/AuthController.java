@@ -4,21 +4,33 @@ import org.ncu.performancetracker.dto.*;
 import org.ncu.performancetracker.model.AppUser;
 import org.ncu.performancetracker.repository.AppUserRepository;
 import org.ncu.performancetracker.security.JwtUtil;
+import org.ncu.performancetracker.security.PasswordHashingExecutor;
+import org.ncu.performancetracker.security.TokenRevocationRegistry;
+import org.ncu.performancetracker.security.UserDetailsServiceImpl;
 
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.*;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsChecker;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
 
     @Autowired
-    private AuthenticationManager authManager;
+    private UserDetailsServiceImpl userDetailsService;
 
     @Autowired
     private AppUserRepository userRepo;
@@ -29,23 +41,83 @@ public class AuthController {
     @Autowired
     private BCryptPasswordEncoder encoder;
 
+    @Autowired
+    private TokenRevocationRegistry revocationRegistry;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    // MVC's async executor (virtual threads in the virtual-threads profile); everything after the hash runs here
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private Executor requestExecutor;
+
+    private final UserDetailsChecker accountStatusChecker = new AccountStatusUserDetailsChecker();
+
+    // Checked against for unknown usernames, so they take as long to refuse as a wrong password
+    private String unknownUserHash;
+
+    @PostConstruct
+    public void prepareUnknownUserHash() {
+        unknownUserHash = encoder.encode("unknown-user-password");
+    }
+
+    // Only BCrypt itself runs on the bounded hashing pool; database work and token signing stay off it,
+    // and the request thread is released while the hash is computed
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody AppUser user) {
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody AppUser user) {
         if (userRepo.findByUsername(user.getUsername()).isPresent()) {
-            return ResponseEntity.badRequest().body("Username is already in use");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Username is already in use"));
         }
-        user.setPassword(encoder.encode(user.getPassword()));
-        userRepo.save(user);
-        return ResponseEntity.ok("User registered successfully.");
+        return passwordHashingExecutor.submit(() -> encoder.encode(user.getPassword()))
+                .thenApplyAsync(encodedPassword -> {
+                    user.setPassword(encodedPassword);
+                    userRepo.save(user);
+                    return ResponseEntity.ok("User registered successfully.");
+                }, requestExecutor);
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody AuthRequest request) {
-        Authentication authentication = authManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
-        );
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String token = jwtUtil.generateToken(userDetails);
-        return ResponseEntity.ok(new AuthResponse(token));
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody AuthRequest request) {
+        UserDetails userDetails = findUser(request.getUsername());
+        String storedHash = userDetails == null ? unknownUserHash : userDetails.getPassword();
+        return passwordHashingExecutor.submit(() -> encoder.matches(request.getPassword(), storedHash))
+                .thenComposeAsync(matches -> {
+                    if (userDetails == null || !matches) {
+                        throw new BadCredentialsException("Bad credentials");
+                    }
+                    accountStatusChecker.check(userDetails);
+                    return upgradeIfNeeded(userDetails, request.getPassword());
+                }, requestExecutor)
+                .thenApplyAsync(user -> ResponseEntity.ok(new AuthResponse(jwtUtil.generateToken(user))),
+                        requestExecutor);
+    }
+
+    // Signs the caller out everywhere by invalidating all tokens issued to them so far
+    @PostMapping("/revoke")
+    public ResponseEntity<?> revokeTokens(Authentication authentication) {
+        if (authentication == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authentication required");
+        }
+        revocationRegistry.revokeAll(authentication.getName());
+        return ResponseEntity.ok("All tokens for " + authentication.getName() + " were revoked.");
+    }
+
+    private UserDetails findUser(String username) {
+        try {
+            return username == null ? null : userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException ex) {
+            return null;
+        }
+    }
+
+    // Rehashes a stored password whose cost is below the calibrated one, now that the plain password is known
+    private CompletableFuture<UserDetails> upgradeIfNeeded(UserDetails userDetails, String password) {
+        if (!encoder.upgradeEncoding(userDetails.getPassword())) {
+            return CompletableFuture.completedFuture(userDetails);
+        }
+        return passwordHashingExecutor.submit(() -> encoder.encode(password))
+                .thenApplyAsync(encodedPassword -> userDetailsService.updatePassword(userDetails, encodedPassword),
+                        requestExecutor);
     }
 }
@@ -0,0 +1,36 @@
+package org.ncu.performancetracker.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import org.ncu.performancetracker.model.PerformanceRecord;
+import org.ncu.performancetracker.service.WriteBehindIngestion;
+
+import java.util.Map;
+
+// Asynchronous counterpart of POST /api/performance-records/{athleteId}: 202 once the record is journaled,
+// with the journal sequence instead of the saved record. Only mapped when write-behind ingestion is enabled.
+@RestController
+@RequestMapping("/api/performance-records")
+@ConditionalOnProperty(name = "app.ingestion.write-behind.enabled", havingValue = "true")
+public class BufferedIngestionController {
+
+    private final WriteBehindIngestion writeBehindIngestion;
+
+    @Autowired
+    public BufferedIngestionController(WriteBehindIngestion writeBehindIngestion) {
+        this.writeBehindIngestion = writeBehindIngestion;
+    }
+
+    @PostMapping("/{athleteId}/buffered")
+    public ResponseEntity<Map<String, Long>> addRecordBuffered(
+            @PathVariable Long athleteId,
+            @Valid @RequestBody PerformanceRecord record) {
+        long sequence = writeBehindIngestion.submit(athleteId, record);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("sequence", sequence));
+    }
+}
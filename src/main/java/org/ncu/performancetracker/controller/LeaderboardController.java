@@ -0,0 +1,62 @@
+package org.ncu.performancetracker.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import org.ncu.performancetracker.dto.LeaderboardEntry;
+import org.ncu.performancetracker.dto.MetricPercentile;
+import org.ncu.performancetracker.service.LeaderboardService;
+import org.ncu.performancetracker.service.MetricDistributionService;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/leaderboards")
+public class LeaderboardController {
+
+    private final LeaderboardService leaderboardService;
+    private final MetricDistributionService distributionService;
+
+    @Autowired
+    public LeaderboardController(LeaderboardService leaderboardService, MetricDistributionService distributionService) {
+        this.leaderboardService = leaderboardService;
+        this.distributionService = distributionService;
+    }
+
+    @GetMapping("/{metricName}")
+    public ResponseEntity<List<LeaderboardEntry>> getTopAthletes(
+            @PathVariable String metricName,
+            @RequestParam(required = false) String sport,
+            @RequestParam(required = false) String position,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<LeaderboardEntry> entries = leaderboardService.findTop(metricName, sport, position, limit);
+        return ResponseEntity.ok(entries);
+    }
+
+    @GetMapping("/{metricName}/athletes/{athleteId}")
+    public ResponseEntity<LeaderboardEntry> getAthleteRank(
+            @PathVariable String metricName,
+            @PathVariable Long athleteId,
+            @RequestParam(required = false) String sport,
+            @RequestParam(required = false) String position) {
+        LeaderboardEntry entry = leaderboardService.findRank(metricName, sport, position, athleteId);
+        return ResponseEntity.ok(entry);
+    }
+
+    @GetMapping("/{metricName}/athletes/{athleteId}/percentile")
+    public ResponseEntity<MetricPercentile> getAthletePercentile(
+            @PathVariable String metricName,
+            @PathVariable Long athleteId) {
+        MetricPercentile percentile = distributionService.findPercentile(athleteId, metricName);
+        return ResponseEntity.ok(percentile);
+    }
+
+    // Admin only (SecurityConfig)
+    @PostMapping("/distributions/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildDistributions() {
+        int rebuilt = distributionService.rebuild();
+        return ResponseEntity.ok(Map.of("sketches", rebuilt));
+    }
+}
@@ -0,0 +1,49 @@
+package org.ncu.performancetracker.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import org.ncu.performancetracker.exception.ResourceNotFoundException;
+import org.ncu.performancetracker.model.Metric;
+import org.ncu.performancetracker.service.MetricCatalog;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricController {
+
+    private final MetricCatalog metricCatalog;
+
+    @Autowired
+    public MetricController(MetricCatalog metricCatalog) {
+        this.metricCatalog = metricCatalog;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<Metric>> getAllMetrics() {
+        return ResponseEntity.ok(metricCatalog.findAll());
+    }
+
+    @GetMapping("/{name}")
+    public ResponseEntity<Metric> getMetric(@PathVariable String name) {
+        Metric metric = metricCatalog.find(name)
+                .orElseThrow(() -> new ResourceNotFoundException("Metric not found: " + name));
+        return ResponseEntity.ok(metric);
+    }
+
+    @PostMapping
+    public ResponseEntity<Metric> createMetric(@Valid @RequestBody Metric metric) {
+        Metric savedMetric = metricCatalog.create(metric);
+        return ResponseEntity.status(HttpStatus.CREATED).body(savedMetric);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<Metric> updateMetric(@PathVariable Integer id, @Valid @RequestBody Metric metric) {
+        Metric updatedMetric = metricCatalog.update(id, metric);
+        return ResponseEntity.ok(updatedMetric);
+    }
+}
@@ -4,11 +4,23 @@ import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import org.ncu.performancetracker.dto.BatchIngestResponse;
+import org.ncu.performancetracker.dto.BatchRecordRequest;
+import org.ncu.performancetracker.dto.CursorPage;
+import org.ncu.performancetracker.dto.MetricSummary;
+import org.ncu.performancetracker.dto.MetricTrend;
+import org.ncu.performancetracker.dto.RangeStats;
 import org.ncu.performancetracker.model.PerformanceRecord;
+import org.ncu.performancetracker.service.BatchIngestionService;
 import org.ncu.performancetracker.service.PerformanceRecordService;
+import org.ncu.performancetracker.service.RecordArchive;
+import org.ncu.performancetracker.service.RecordExportService;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -20,10 +32,23 @@ import java.util.Optional;
 public class PerformanceRecordController {
 
     private final PerformanceRecordService recordService;
+    private final BatchIngestionService batchIngestionService;
+    private final RecordExportService recordExportService;
+    private final RecordArchive recordArchive;
+    private final AthleteETags athleteETags;
 
     @Autowired
-    public PerformanceRecordController(PerformanceRecordService recordService) {
+    public PerformanceRecordController(
+            PerformanceRecordService recordService,
+            BatchIngestionService batchIngestionService,
+            RecordExportService recordExportService,
+            RecordArchive recordArchive,
+            AthleteETags athleteETags) {
         this.recordService = recordService;
+        this.batchIngestionService = batchIngestionService;
+        this.recordExportService = recordExportService;
+        this.recordArchive = recordArchive;
+        this.athleteETags = athleteETags;
     }
 
     @PostMapping("/{athleteId}")
@@ -34,41 +59,118 @@ public class PerformanceRecordController {
         return ResponseEntity.status(HttpStatus.CREATED).body(savedRecord);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<BatchIngestResponse> addRecordsBatch(@RequestBody List<BatchRecordRequest> records) {
+        BatchIngestResponse response = batchIngestionService.ingest(records);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{athleteId}")
-    public ResponseEntity<List<PerformanceRecord>> getAthleteRecords(@PathVariable Long athleteId) {
-        List<PerformanceRecord> records = recordService.findRecordsByAthleteId(athleteId);
+    public ResponseEntity<CursorPage<PerformanceRecord>> getAthleteRecords(
+            @PathVariable Long athleteId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            ServletWebRequest request) {
+        if (athleteETags.checkNotModified(athleteId, request)) {
+            return null;
+        }
+        CursorPage<PerformanceRecord> records = recordService.findRecordPageByAthleteId(athleteId, cursor, size);
         return ResponseEntity.ok(records);
     }
 
     @GetMapping("/{athleteId}/metric/{metricName}")
-    public ResponseEntity<List<PerformanceRecord>> getAthleteRecordsByMetric(
+    public ResponseEntity<CursorPage<PerformanceRecord>> getAthleteRecordsByMetric(
             @PathVariable Long athleteId,
-            @PathVariable String metricName) {
-        List<PerformanceRecord> records = recordService.findRecordsByAthleteIdAndMetric(athleteId, metricName);
+            @PathVariable String metricName,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            ServletWebRequest request) {
+        if (athleteETags.checkNotModified(athleteId, request)) {
+            return null;
+        }
+        CursorPage<PerformanceRecord> records =
+                recordService.findRecordPageByAthleteIdAndMetric(athleteId, metricName, cursor, size);
         return ResponseEntity.ok(records);
     }
 
     @GetMapping("/{athleteId}/date-range")
-    public ResponseEntity<List<PerformanceRecord>> getAthleteRecordsByDateRange(
+    public ResponseEntity<CursorPage<PerformanceRecord>> getAthleteRecordsByDateRange(
             @PathVariable Long athleteId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
-        List<PerformanceRecord> records = recordService.findRecordsByAthleteIdAndDateRange(athleteId, start, end);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            ServletWebRequest request) {
+        if (athleteETags.checkNotModified(athleteId, request)) {
+            return null;
+        }
+        CursorPage<PerformanceRecord> records =
+                recordService.findRecordPageByAthleteIdAndDateRange(athleteId, start, end, cursor, size);
         return ResponseEntity.ok(records);
     }
 
+    @GetMapping(value = "/{athleteId}/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAthleteRecords(@PathVariable Long athleteId) {
+        // Checked up front: once streaming starts the status can no longer change to 404
+        recordExportService.verifyAthleteExists(athleteId);
+
+        StreamingResponseBody body = outputStream -> recordExportService.exportRecords(athleteId, outputStream);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/{athleteId}/stats")
+    public ResponseEntity<RangeStats> getAthleteRangeStats(
+            @PathVariable Long athleteId,
+            @RequestParam String metricName,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            ServletWebRequest request) {
+        if (athleteETags.checkNotModified(athleteId, request)) {
+            return null;
+        }
+        RangeStats stats = recordService.findRangeStats(athleteId, metricName, start, end);
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/{athleteId}/trends/{metricName}")
+    public ResponseEntity<MetricTrend> getAthleteTrend(
+            @PathVariable Long athleteId,
+            @PathVariable String metricName,
+            ServletWebRequest request) {
+        if (athleteETags.checkNotModified(athleteId, request)) {
+            return null;
+        }
+        MetricTrend trend = recordService.findTrend(athleteId, metricName);
+        return ResponseEntity.ok(trend);
+    }
+
+    // Admin only (SecurityConfig)
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildRollups() {
+        return ResponseEntity.ok(recordService.rebuildRollups());
+    }
+
+    // Admin only (SecurityConfig)
+    @PostMapping("/archive/run")
+    public ResponseEntity<Map<String, Long>> archiveRecords() {
+        long archived = recordArchive.archive();
+        return ResponseEntity.ok(Map.of("archived", archived));
+    }
+
     @GetMapping("/{athleteId}/personal-bests")
-    public ResponseEntity<Map<String, Double>> getPersonalBests(@PathVariable Long athleteId) {
+    public ResponseEntity<Map<String, Double>> getPersonalBests(@PathVariable Long athleteId, ServletWebRequest request) {
+        if (athleteETags.checkNotModified(athleteId, request)) {
+            return null;
+        }
         Map<String, Double> personalBests = recordService.findPersonalBestsByAthleteId(athleteId);
         return ResponseEntity.ok(personalBests);
     }
 
     @GetMapping("/compare")
-    public ResponseEntity<Map<String, Double>> compareAthletes(
-            @RequestParam Long athlete1Id,
-            @RequestParam Long athlete2Id,
-            @RequestParam String metricName) {
-        Map<String, Double> comparison = recordService.compareAthletes(athlete1Id, athlete2Id, metricName);
+    public ResponseEntity<Map<Long, Map<String, MetricSummary>>> compareAthletes(
+            @RequestParam List<Long> athleteIds,
+            @RequestParam List<String> metricNames) {
+        Map<Long, Map<String, MetricSummary>> comparison = recordService.compareAthletes(athleteIds, metricNames);
         return ResponseEntity.ok(comparison);
     }
 
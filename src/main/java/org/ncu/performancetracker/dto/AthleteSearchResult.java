@@ -0,0 +1,13 @@
+package org.ncu.performancetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class AthleteSearchResult {
+    private Long id;
+    private String name;
+    private String sport;
+    private String position;
+}
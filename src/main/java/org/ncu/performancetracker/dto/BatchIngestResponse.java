@@ -0,0 +1,14 @@
+package org.ncu.performancetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BatchIngestResponse {
+    private int received;
+    private int accepted;
+    private List<BatchItemError> errors;
+}
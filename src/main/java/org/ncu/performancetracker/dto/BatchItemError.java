@@ -0,0 +1,12 @@
+package org.ncu.performancetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BatchItemError {
+    private int index;
+    private Long athleteId;
+    private String message;
+}
@@ -0,0 +1,18 @@
+package org.ncu.performancetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchRecordRequest {
+    private Long athleteId;
+    private String metricName;
+    private Double value;
+    private LocalDate date;
+    private String remarks;
+}
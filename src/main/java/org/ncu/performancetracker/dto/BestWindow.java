@@ -0,0 +1,20 @@
+package org.ncu.performancetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+// The span of the given number of calendar days whose records have the best mean, judged by the metric's
+// direction. Dates and mean are null when the athlete has no records of the metric.
+@Data
+@AllArgsConstructor
+public class BestWindow {
+    private Long athleteId;
+    private String metricName;
+    private int days;
+    private LocalDate start;
+    private LocalDate end;
+    private long count;
+    private Double mean;
+}
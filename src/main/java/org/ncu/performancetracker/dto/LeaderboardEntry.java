@@ -0,0 +1,13 @@
+package org.ncu.performancetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class LeaderboardEntry {
+    // Competition ranking: athletes with equal values share a rank
+    private int rank;
+    private Long athleteId;
+    private double value;
+}
@@ -0,0 +1,17 @@
+package org.ncu.performancetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Where an athlete's personal best falls among all recorded values of the metric, overall and within the
+// athlete's sport (null when the athlete has no sport)
+@Data
+@AllArgsConstructor
+public class MetricPercentile {
+    private Long athleteId;
+    private String metricName;
+    private String sport;
+    private double value;
+    private ValueDistribution overall;
+    private ValueDistribution withinSport;
+}
@@ -0,0 +1,17 @@
+package org.ncu.performancetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class MetricSummary {
+    private long count;
+    // Max or min, depending on the metric's direction
+    private double best;
+    private double max;
+    private double min;
+    private double average;
+    // Value of the most recent record (by date, then id)
+    private Double latestValue;
+}
@@ -0,0 +1,24 @@
+package org.ncu.performancetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+// Trend statistics as of the day of the athlete's latest record for the metric
+@Data
+@AllArgsConstructor
+public class MetricTrend {
+    private Long athleteId;
+    private String metricName;
+    private LocalDate lastRecordDate;
+    private double halfLifeDays;
+    private double ewma;
+    // Means over the 7 and 28 days ending at lastRecordDate
+    private Double rollingMean7;
+    private Double rollingMean28;
+    // Least-squares change per day over the 28-day window, null while it holds a single day;
+    // improvementPerDay has the sign flipped for metrics where lower is better
+    private Double slopePerDay;
+    private Double improvementPerDay;
+}
@@ -0,0 +1,19 @@
+package org.ncu.performancetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Unmanaged projection of a record, used for exports so streamed rows never enter the persistence context
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PerformanceRecordExport {
+    private Long id;
+    private String metricName;
+    private Double value;
+    private LocalDate date;
+    private String remarks;
+}
@@ -0,0 +1,24 @@
+package org.ncu.performancetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class RangeStats {
+    private Long athleteId;
+    private String metricName;
+    private LocalDate start;
+    private LocalDate end;
+    private long count;
+    private double sum;
+    // Null when the range holds no records
+    private Double min;
+    private Double max;
+    private Double mean;
+    private Double standardDeviation;
+    // Number of rollup buckets read to answer the query
+    private int bucketsRead;
+}
@@ -0,0 +1,19 @@
+package org.ncu.performancetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class SeriesPercentiles {
+    private Long athleteId;
+    private String metricName;
+    private LocalDate start;
+    private LocalDate end;
+    private long count;
+    // Keyed "p50", "p99.9", ... in request order; empty when the range holds no records
+    private Map<String, Double> percentiles;
+}
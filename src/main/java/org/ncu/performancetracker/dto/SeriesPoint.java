@@ -0,0 +1,13 @@
+package org.ncu.performancetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class SeriesPoint {
+    private LocalDate date;
+    private double value;
+}
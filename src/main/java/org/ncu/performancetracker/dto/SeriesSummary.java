@@ -0,0 +1,22 @@
+package org.ncu.performancetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class SeriesSummary {
+    private Long athleteId;
+    private String metricName;
+    // Null bounds mean the whole history
+    private LocalDate start;
+    private LocalDate end;
+    private long count;
+    // Null when the range holds no records
+    private Double min;
+    private Double max;
+    private Double mean;
+    private Double standardDeviation;
+}
@@ -0,0 +1,21 @@
+package org.ncu.performancetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Approximate distribution of every recorded value of a metric within one scope. Quantiles are within the
+// sketch's relative accuracy (app.sketches.relative-accuracy) of a recorded value.
+@Data
+@AllArgsConstructor
+public class ValueDistribution {
+    private long count;
+    // Share of recorded values the athlete's value beats, in percent; values in its own bucket count half
+    private double percentile;
+    private double min;
+    private double p10;
+    private double p25;
+    private double median;
+    private double p75;
+    private double p90;
+    private double max;
+}
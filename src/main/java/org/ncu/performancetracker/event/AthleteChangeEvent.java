@@ -0,0 +1,13 @@
+package org.ncu.performancetracker.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// Published when athletes are created, updated or deleted; listeners reload them after commit.
+@Data
+@AllArgsConstructor
+public class AthleteChangeEvent {
+    private List<Long> athleteIds;
+}
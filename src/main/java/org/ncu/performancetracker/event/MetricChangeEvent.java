@@ -0,0 +1,13 @@
+package org.ncu.performancetracker.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.ncu.performancetracker.model.Metric;
+
+// Published when a catalog entry is registered or its unit or direction changes
+@Data
+@AllArgsConstructor
+public class MetricChangeEvent {
+    private Metric metric;
+    private boolean directionChanged;
+}
@@ -0,0 +1,29 @@
+package org.ncu.performancetracker.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+// A single record value that was added to or removed from an athlete's history.
+// An update is described as the removal of the old value followed by the addition of the new one.
+@Data
+@AllArgsConstructor
+public class RecordChange {
+
+    public enum Kind { ADDED, REMOVED }
+
+    private Kind kind;
+    private Long athleteId;
+    private String metricName;
+    private LocalDate date;
+    private double value;
+
+    public static RecordChange added(Long athleteId, String metricName, LocalDate date, double value) {
+        return new RecordChange(Kind.ADDED, athleteId, metricName, date, value);
+    }
+
+    public static RecordChange removed(Long athleteId, String metricName, LocalDate date, double value) {
+        return new RecordChange(Kind.REMOVED, athleteId, metricName, date, value);
+    }
+}
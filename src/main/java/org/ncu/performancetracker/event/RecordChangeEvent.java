@@ -0,0 +1,14 @@
+package org.ncu.performancetracker.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// Published from record-write transactions. In-memory read models listen with @TransactionalEventListener,
+// so they only ever see committed changes and a rolled-back write never reaches them.
+@Data
+@AllArgsConstructor
+public class RecordChangeEvent {
+    private List<RecordChange> changes;
+}
@@ -1,5 +1,7 @@
 package org.ncu.performancetracker.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -20,5 +22,11 @@ public class AppUser {
 
     private String password;
 
+    // Never taken from a registration body; admins are promoted in the database
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     private String role = "USER";
+
+    // Embedded in issued tokens; bumping it invalidates every token issued before
+    @JsonIgnore
+    private int tokenVersion;
 }
@@ -0,0 +1,62 @@
+package org.ncu.performancetracker.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDate;
+
+// Manifest entry for one archive segment file. Inserted in the same transaction that deletes the archived rows
+// from performance_record, so the database decides which segment files hold live data.
+@Data
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "archived_segment")
+public class ArchivedSegment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "athlete_id", nullable = false)
+    private Long athleteId;
+
+    @JdbcTypeCode(SqlTypes.SMALLINT)
+    @Column(name = "metric_id", nullable = false)
+    private Integer metricId;
+
+    // Relative to app.archive.dir
+    @Column(name = "file_name", nullable = false, unique = true)
+    private String fileName;
+
+    @Column(name = "record_count", nullable = false)
+    private Integer recordCount;
+
+    @Column(name = "first_date", nullable = false)
+    private LocalDate firstDate;
+
+    @Column(name = "last_date", nullable = false)
+    private LocalDate lastDate;
+
+    @Column(name = "min_value", nullable = false)
+    private Double minValue;
+
+    @Column(name = "max_value", nullable = false)
+    private Double maxValue;
+
+    public ArchivedSegment(Long athleteId, Integer metricId, String fileName, Integer recordCount,
+                           LocalDate firstDate, LocalDate lastDate, Double minValue, Double maxValue) {
+        this.athleteId = athleteId;
+        this.metricId = metricId;
+        this.fileName = fileName;
+        this.recordCount = recordCount;
+        this.firstDate = firstDate;
+        this.lastDate = lastDate;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+    }
+}
@@ -1,5 +1,7 @@
 package org.ncu.performancetracker.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
@@ -13,8 +15,12 @@ import java.util.List;
 @NoArgsConstructor
 public class Athlete {
 
+    // Pooled sequence ids (instead of IDENTITY) so Hibernate can batch inserts. Read-only in JSON: a request body
+    // is always a new athlete, as saving one with an id would merge it over the stored athlete and its records.
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "athlete_seq")
+    @SequenceGenerator(name = "athlete_seq", sequenceName = "athlete_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Name is required")
@@ -24,7 +30,14 @@ public class Athlete {
     @NotBlank(message = "position is required")
     private String position;
 
+    // Only ever changed by the AthleteRepository version updates, so saving a client-supplied athlete cannot reset it
+    @JsonIgnore
+    @Column(name = "data_version", insertable = false, updatable = false)
+    private Long dataVersion;
+
+    // Not serialized: histories are served by the paginated /api/performance-records endpoints
     @OneToMany(mappedBy = "athlete", cascade = CascadeType.ALL, orphanRemoval = true)
+    @JsonIgnore
     private List<PerformanceRecord> performanceRecords = new ArrayList<>();
 
     public Athlete(String name, String sport, String position) {
@@ -0,0 +1,23 @@
+package org.ncu.performancetracker.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Highest journal sequence whose record is in the database, one row per write-behind journal.
+// Written in the same transaction as the records, so replay after a crash never inserts a record twice.
+@Data
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "ingestion_checkpoint")
+public class IngestionCheckpoint {
+
+    @Id
+    @Column(name = "journal_id", length = 64)
+    private String journalId;
+
+    @Column(name = "last_sequence", nullable = false)
+    private Long lastSequence;
+}
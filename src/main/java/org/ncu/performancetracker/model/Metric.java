@@ -0,0 +1,60 @@
+package org.ncu.performancetracker.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.util.Locale;
+
+// Catalog entry for a metric. Records, personal bests and rollups store the small id instead of the name.
+@Data
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "metric",
+        uniqueConstraints = @UniqueConstraint(name = "uk_metric_name_key", columnNames = "name_key"))
+public class Metric {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @JdbcTypeCode(SqlTypes.SMALLINT)
+    private Integer id;
+
+    @NotBlank(message = "Metric name is required")
+    @Column(nullable = false)
+    private String name;
+
+    // Trimmed, lower-cased name; "Speed" and " speed" resolve to the same metric
+    @JsonIgnore
+    @Column(name = "name_key", nullable = false)
+    private String nameKey;
+
+    @Size(max = 32, message = "Unit must be at most 32 characters")
+    @Column(length = 32)
+    private String unit;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private MetricDirection direction = MetricDirection.HIGHER_IS_BETTER;
+
+    public Metric(String name, String unit, MetricDirection direction) {
+        this.name = name;
+        this.nameKey = keyOf(name);
+        this.unit = unit;
+        this.direction = direction;
+    }
+
+    public Metric(Metric other) {
+        this(other.id, other.name, other.nameKey, other.unit, other.direction);
+    }
+
+    public static String keyOf(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
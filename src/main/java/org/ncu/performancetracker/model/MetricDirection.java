@@ -0,0 +1,15 @@
+package org.ncu.performancetracker.model;
+
+// Which way a metric improves: distances and scores go up, times go down
+public enum MetricDirection {
+    HIGHER_IS_BETTER,
+    LOWER_IS_BETTER;
+
+    public boolean isBetter(double candidate, double current) {
+        return this == HIGHER_IS_BETTER ? candidate > current : candidate < current;
+    }
+
+    public double best(double first, double second) {
+        return isBetter(second, first) ? second : first;
+    }
+}
@@ -0,0 +1,41 @@
+package org.ncu.performancetracker.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.ncu.performancetracker.service.MetricCatalog;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+// Stores metric names as catalog ids. Also applied to query parameters, so repository queries keep
+// filtering and grouping by name. Writers must resolve new names through MetricCatalog before saving.
+@Converter
+public class MetricIdConverter implements AttributeConverter<String, Integer> {
+
+    // Looked up on first use: the catalog's repository needs the entity manager factory that creates this converter
+    private final ObjectProvider<MetricCatalog> metricCatalogProvider;
+    private volatile MetricCatalog metricCatalog;
+
+    @Autowired
+    public MetricIdConverter(ObjectProvider<MetricCatalog> metricCatalogProvider) {
+        this.metricCatalogProvider = metricCatalogProvider;
+    }
+
+    @Override
+    public Integer convertToDatabaseColumn(String metricName) {
+        return metricName == null ? null : catalog().idOf(metricName);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Integer metricId) {
+        return metricId == null ? null : catalog().nameOf(metricId);
+    }
+
+    private MetricCatalog catalog() {
+        MetricCatalog catalog = metricCatalog;
+        if (catalog == null) {
+            catalog = metricCatalogProvider.getObject();
+            metricCatalog = catalog;
+        }
+        return catalog;
+    }
+}
@@ -0,0 +1,44 @@
+package org.ncu.performancetracker.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+// Persisted QuantileSketch of every recorded value of one metric, across all athletes (sport null) or the
+// athletes of one sport. Written periodically from memory, so it may trail the records by a flush interval.
+// One row per (metric, sport): the unique key goes through a generated sport_key column, as sport may be null.
+@Data
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "metric_sketch")
+public class MetricSketch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JdbcTypeCode(SqlTypes.SMALLINT)
+    @Column(name = "metric_id", nullable = false)
+    private Integer metricId;
+
+    private String sport;
+
+    @Column(name = "value_count", nullable = false)
+    private Long valueCount;
+
+    // QuantileSketch.toBytes
+    @Lob
+    @Column(nullable = false)
+    private byte[] sketch;
+
+    public MetricSketch(Integer metricId, String sport, Long valueCount, byte[] sketch) {
+        this.metricId = metricId;
+        this.sport = sport;
+        this.valueCount = valueCount;
+        this.sketch = sketch;
+    }
+}
@@ -7,6 +7,8 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDate;
 
@@ -16,11 +18,16 @@ import java.time.LocalDate;
 @NoArgsConstructor
 public class PerformanceRecord {
 
+    // Pooled sequence ids (instead of IDENTITY) so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "performance_record_seq")
+    @SequenceGenerator(name = "performance_record_seq", sequenceName = "performance_record_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Metric name is required")
+    @Convert(converter = MetricIdConverter.class)
+    @JdbcTypeCode(SqlTypes.SMALLINT)
+    @Column(name = "metric_id", nullable = false)
     private String metricName;
 
     @NotNull(message = "Value is required")
@@ -0,0 +1,67 @@
+package org.ncu.performancetracker.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDate;
+
+// Pre-aggregated statistics for one (athlete, metric, granularity, bucket).
+// Maintained by RollupService inside the same transaction as the record writes.
+@Data
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "performance_rollup",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_performance_rollup_bucket",
+                columnNames = {"athlete_id", "metric_id", "granularity", "bucket_start"}))
+public class PerformanceRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "performance_rollup_seq")
+    @SequenceGenerator(name = "performance_rollup_seq", sequenceName = "performance_rollup_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "athlete_id", nullable = false)
+    private Long athleteId;
+
+    @Convert(converter = MetricIdConverter.class)
+    @JdbcTypeCode(SqlTypes.SMALLINT)
+    @Column(name = "metric_id", nullable = false)
+    private String metricName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private RollupGranularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDate bucketStart;
+
+    @Column(name = "record_count", nullable = false)
+    private long count;
+
+    @Column(name = "value_sum", nullable = false)
+    private double sum;
+
+    @Column(name = "value_min", nullable = false)
+    private double min;
+
+    @Column(name = "value_max", nullable = false)
+    private double max;
+
+    @Column(name = "value_sum_of_squares", nullable = false)
+    private double sumOfSquares;
+
+    public PerformanceRollup(Long athleteId, String metricName, RollupGranularity granularity, LocalDate bucketStart) {
+        this.athleteId = athleteId;
+        this.metricName = metricName;
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.min = Double.POSITIVE_INFINITY;
+        this.max = Double.NEGATIVE_INFINITY;
+    }
+}
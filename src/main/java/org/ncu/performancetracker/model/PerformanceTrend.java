@@ -0,0 +1,50 @@
+package org.ncu.performancetracker.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDate;
+
+// Exponentially weighted sum and weight of one athlete's metric history, both decayed to lastDate, the day of
+// the latest record. Maintained by TrendService inside the same transaction as the record writes.
+@Data
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "performance_trend",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_performance_trend_athlete_metric",
+                columnNames = {"athlete_id", "metric_id"}))
+public class PerformanceTrend {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "athlete_id", nullable = false)
+    private Long athleteId;
+
+    @Convert(converter = MetricIdConverter.class)
+    @JdbcTypeCode(SqlTypes.SMALLINT)
+    @Column(name = "metric_id", nullable = false)
+    private String metricName;
+
+    @Column(name = "last_date", nullable = false)
+    private LocalDate lastDate;
+
+    @Column(name = "ewma_sum", nullable = false)
+    private double ewmaSum;
+
+    @Column(name = "ewma_weight", nullable = false)
+    private double ewmaWeight;
+
+    public PerformanceTrend(Long athleteId, String metricName, LocalDate lastDate) {
+        this.athleteId = athleteId;
+        this.metricName = metricName;
+        this.lastDate = lastDate;
+    }
+}
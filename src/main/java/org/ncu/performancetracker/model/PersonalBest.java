@@ -0,0 +1,42 @@
+package org.ncu.performancetracker.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+// One row per (athlete, metric) holding the best value recorded so far.
+// Maintained by PersonalBestService inside the same transaction as the record writes.
+@Data
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "personal_best",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_personal_best_athlete_metric",
+                columnNames = {"athlete_id", "metric_id"}))
+public class PersonalBest {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "athlete_id", nullable = false)
+    private Long athleteId;
+
+    @Convert(converter = MetricIdConverter.class)
+    @JdbcTypeCode(SqlTypes.SMALLINT)
+    @Column(name = "metric_id", nullable = false)
+    private String metricName;
+
+    @Column(nullable = false)
+    private Double value;
+
+    public PersonalBest(Long athleteId, String metricName, Double value) {
+        this.athleteId = athleteId;
+        this.metricName = metricName;
+        this.value = value;
+    }
+}
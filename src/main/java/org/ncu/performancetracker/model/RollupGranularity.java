@@ -0,0 +1,37 @@
+package org.ncu.performancetracker.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+public enum RollupGranularity {
+
+    DAY,
+    WEEK,
+    MONTH,
+    // A single bucket per (athlete, metric) covering the whole history
+    ALL_TIME;
+
+    private static final LocalDate ALL_TIME_START = LocalDate.EPOCH;
+    private static final LocalDate ALL_TIME_END = LocalDate.of(9999, 12, 31);
+
+    // First day of the bucket containing the date. Weeks are ISO weeks, starting on Monday.
+    public LocalDate bucketStart(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+            case ALL_TIME -> ALL_TIME_START;
+        };
+    }
+
+    // Last day (inclusive) of the bucket starting at bucketStart
+    public LocalDate bucketEnd(LocalDate bucketStart) {
+        return switch (this) {
+            case DAY -> bucketStart;
+            case WEEK -> bucketStart.plusDays(6);
+            case MONTH -> bucketStart.with(TemporalAdjusters.lastDayOfMonth());
+            case ALL_TIME -> ALL_TIME_END;
+        };
+    }
+}
@@ -5,9 +5,12 @@ import org.ncu.performancetracker.model.AppUser;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AppUserRepository extends JpaRepository<AppUser, Long> {
     Optional<AppUser> findByUsername(String username);
+
+    List<AppUser> findByTokenVersionGreaterThan(int tokenVersion);
 }
@@ -0,0 +1,39 @@
+package org.ncu.performancetracker.repository;
+
+import org.ncu.performancetracker.model.ArchivedSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ArchivedSegmentRepository extends JpaRepository<ArchivedSegment, Long> {
+
+    List<ArchivedSegment> findByAthleteId(Long athleteId);
+
+    List<ArchivedSegment> findAllByOrderByAthleteIdAscMetricIdAsc();
+
+    @Query("SELECT s.fileName FROM ArchivedSegment s")
+    List<String> findAllFileNames();
+
+    @Query("SELECT s.athleteId, s.metricId, MIN(s.minValue), MAX(s.maxValue) FROM ArchivedSegment s " +
+            "GROUP BY s.athleteId, s.metricId")
+    List<Object[]> findAllValueRanges();
+
+    @Query("SELECT s.athleteId, MIN(s.minValue), MAX(s.maxValue) FROM ArchivedSegment s WHERE s.metricId = :metricId " +
+            "GROUP BY s.athleteId")
+    List<Object[]> findValueRangesByMetricId(@Param("metricId") Integer metricId);
+
+    @Query("SELECT s.athleteId, s.metricId, MAX(s.lastDate) FROM ArchivedSegment s WHERE s.athleteId IN :athleteIds " +
+            "GROUP BY s.athleteId, s.metricId")
+    List<Object[]> findLastDatesByAthleteIds(@Param("athleteIds") Collection<Long> athleteIds);
+
+    @Query("SELECT s.metricId, SUM(s.recordCount) FROM ArchivedSegment s GROUP BY s.metricId")
+    List<Object[]> countRecordsByMetricId();
+
+    @Modifying
+    @Query("DELETE FROM ArchivedSegment s WHERE s.athleteId = :athleteId")
+    void deleteByAthleteId(@Param("athleteId") Long athleteId);
+}
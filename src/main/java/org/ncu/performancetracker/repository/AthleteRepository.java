@@ -1,16 +1,62 @@
 package org.ncu.performancetracker.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.ncu.performancetracker.model.Athlete;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface AthleteRepository extends JpaRepository<Athlete, Long> {
 
-    @Query("SELECT a FROM Athlete a WHERE LOWER(a.name) LIKE LOWER(CONCAT('%', :name,'%'))")
-    List<Athlete> findAthletesByName(@Param("name") String name);
+    // Loads the in-memory search index; must be consumed (and closed) inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT a.id, a.name, a.sport, a.position FROM Athlete a ORDER BY a.id")
+    Stream<Object[]> streamSearchFields();
 
-}
+    @Query("SELECT a.id FROM Athlete a WHERE a.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT a.dataVersion FROM Athlete a WHERE a.id = :id")
+    Optional<Long> findDataVersionById(@Param("id") Long id);
+
+    Window<Athlete> findAllByOrderByIdAsc(ScrollPosition position, Limit limit);
+
+    // Serializes concurrent record writes for the same athlete so derived indexes stay consistent
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Athlete a WHERE a.id = :id")
+    Optional<Athlete> findByIdForUpdate(@Param("id") Long id);
 
+    // Locks in primary key order so overlapping batches cannot deadlock each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Athlete a WHERE a.id IN :ids ORDER BY a.id")
+    List<Athlete> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Every athlete row lock, in primary key order: holds off all record writes, e.g. while derived data is rebuilt
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Athlete a ORDER BY a.id")
+    List<Athlete> findAllForUpdate();
+
+    // The data version backs the ETags of the athlete's endpoints; every write that changes what they return
+    // advances it in the same transaction
+    @Modifying
+    @Query("UPDATE Athlete a SET a.dataVersion = a.dataVersion + 1 WHERE a.id IN :ids")
+    int incrementDataVersions(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Athlete a SET a.dataVersion = a.dataVersion + 1 " +
+            "WHERE a.id IN (SELECT pb.athleteId FROM PersonalBest pb WHERE pb.metricName = :metricName)")
+    int incrementDataVersionsWithPersonalBest(@Param("metricName") String metricName);
+}
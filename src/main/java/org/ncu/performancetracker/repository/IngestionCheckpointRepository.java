@@ -0,0 +1,7 @@
+package org.ncu.performancetracker.repository;
+
+import org.ncu.performancetracker.model.IngestionCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface IngestionCheckpointRepository extends JpaRepository<IngestionCheckpoint, String> {
+}
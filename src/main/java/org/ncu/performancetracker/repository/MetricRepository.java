@@ -0,0 +1,11 @@
+package org.ncu.performancetracker.repository;
+
+import org.ncu.performancetracker.model.Metric;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface MetricRepository extends JpaRepository<Metric, Integer> {
+
+    Optional<Metric> findByNameKey(String nameKey);
+}
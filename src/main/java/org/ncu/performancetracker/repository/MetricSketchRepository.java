@@ -0,0 +1,7 @@
+package org.ncu.performancetracker.repository;
+
+import org.ncu.performancetracker.model.MetricSketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface MetricSketchRepository extends JpaRepository<MetricSketch, Long> {
+}
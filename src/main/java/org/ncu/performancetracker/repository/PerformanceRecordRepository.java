@@ -1,14 +1,24 @@
 // src/main/java/com/sportstracker/app/repository/PerformanceRecordRepository.java
 package org.ncu.performancetracker.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import org.ncu.performancetracker.dto.PerformanceRecordExport;
 import org.ncu.performancetracker.model.PerformanceRecord;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PerformanceRecordRepository extends JpaRepository<PerformanceRecord, Long> {
 
@@ -18,6 +28,81 @@ public interface PerformanceRecordRepository extends JpaRepository<PerformanceRe
 
     List<PerformanceRecord> findByAthleteIdAndDateBetween(Long athleteId, LocalDate startDate, LocalDate endDate);
 
-    @Query("SELECT p.metricName, MAX(p.value) FROM PerformanceRecord p WHERE p.athlete.id = :athleteId GROUP BY p.metricName")
+    // Keyset-paginated variants, ordered by (date, id) so every page is an index range scan
+    Window<PerformanceRecord> findByAthleteIdOrderByDateAscIdAsc(
+            Long athleteId, ScrollPosition position, Limit limit);
+
+    Window<PerformanceRecord> findByAthleteIdAndMetricNameOrderByDateAscIdAsc(
+            Long athleteId, String metricName, ScrollPosition position, Limit limit);
+
+    Window<PerformanceRecord> findByAthleteIdAndDateBetweenOrderByDateAscIdAsc(
+            Long athleteId, LocalDate startDate, LocalDate endDate, ScrollPosition position, Limit limit);
+
+    // Cursor-backed stream for exports; must be consumed (and closed) inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new org.ncu.performancetracker.dto.PerformanceRecordExport(p.id, p.metricName, p.value, p.date, p.remarks) " +
+            "FROM PerformanceRecord p WHERE p.athlete.id = :athleteId ORDER BY p.date, p.id")
+    Stream<PerformanceRecordExport> streamExportByAthleteId(@Param("athleteId") Long athleteId);
+
+    // (date, id, value) of one metric's history for the in-memory series; must be consumed (and closed)
+    // inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.date, p.id, p.value FROM PerformanceRecord p WHERE p.athlete.id = :athleteId " +
+            "AND p.metricName = :metricName ORDER BY p.date, p.id")
+    Stream<Object[]> streamSeries(@Param("athleteId") Long athleteId, @Param("metricName") String metricName);
+
+    // Both extremes per metric; which one is the personal best depends on the metric's direction
+    @Query("SELECT p.metricName, MAX(p.value), MIN(p.value) FROM PerformanceRecord p WHERE p.athlete.id = :athleteId " +
+            "GROUP BY p.metricName")
     List<Object[]> findPersonalBestsByAthleteId(@Param("athleteId") Long athleteId);
-}
\ No newline at end of file
+
+    @Query("SELECT p.athlete.id, p.metricName, MAX(p.value), MIN(p.value) FROM PerformanceRecord p " +
+            "GROUP BY p.athlete.id, p.metricName")
+    List<Object[]> findAllPersonalBests();
+
+    @Query("SELECT p.athlete.id, MAX(p.value), MIN(p.value) FROM PerformanceRecord p WHERE p.metricName = :metricName " +
+            "GROUP BY p.athlete.id")
+    List<Object[]> findPersonalBestsByMetricName(@Param("metricName") String metricName);
+
+    Optional<PerformanceRecord> findFirstByAthleteIdAndMetricNameOrderByValueDesc(Long athleteId, String metricName);
+
+    Optional<PerformanceRecord> findFirstByAthleteIdAndMetricNameOrderByValueAsc(Long athleteId, String metricName);
+
+    @Query("SELECT MIN(p.value), MAX(p.value) FROM PerformanceRecord p WHERE p.athlete.id = :athleteId " +
+            "AND p.metricName = :metricName AND p.date BETWEEN :startDate AND :endDate")
+    List<Object[]> findValueRange(@Param("athleteId") Long athleteId, @Param("metricName") String metricName,
+                                  @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT MIN(p.value), MAX(p.value) FROM PerformanceRecord p WHERE p.athlete.id = :athleteId " +
+            "AND p.metricName = :metricName")
+    List<Object[]> findValueRange(@Param("athleteId") Long athleteId, @Param("metricName") String metricName);
+
+    // Day-level aggregates for rebuilding rollups; must be consumed (and closed) inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.athlete.id, p.metricName, p.date, COUNT(p), SUM(p.value), MIN(p.value), MAX(p.value), " +
+            "SUM(p.value * p.value) FROM PerformanceRecord p " +
+            "GROUP BY p.athlete.id, p.metricName, p.date ORDER BY p.athlete.id, p.metricName, p.date")
+    Stream<Object[]> streamDailyRollups();
+
+    // Every value with its athlete, for rebuilding the metric sketches; must be consumed (and closed) inside a
+    // transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.athlete.id, p.metricName, p.value FROM PerformanceRecord p")
+    Stream<Object[]> streamAllValues();
+
+    @Query("SELECT p.metricName, COUNT(p) FROM PerformanceRecord p GROUP BY p.metricName")
+    List<Object[]> countByMetricName();
+
+    // Archiving: athletes with records dated before the cutoff, their rows in segment order, and the bulk removal
+    @Query("SELECT DISTINCT p.athlete.id FROM PerformanceRecord p WHERE p.date < :cutoff")
+    List<Long> findAthleteIdsWithRecordsBefore(@Param("cutoff") LocalDate cutoff);
+
+    @Query("SELECT new org.ncu.performancetracker.dto.PerformanceRecordExport(p.id, p.metricName, p.value, p.date, p.remarks) " +
+            "FROM PerformanceRecord p WHERE p.athlete.id = :athleteId AND p.date < :cutoff ORDER BY p.date, p.id")
+    List<PerformanceRecordExport> findExportByAthleteIdBefore(@Param("athleteId") Long athleteId,
+                                                              @Param("cutoff") LocalDate cutoff);
+
+    @Modifying
+    @Query("DELETE FROM PerformanceRecord p WHERE p.athlete.id = :athleteId AND p.date < :cutoff")
+    int deleteByAthleteIdBefore(@Param("athleteId") Long athleteId, @Param("cutoff") LocalDate cutoff);
+}
@@ -0,0 +1,55 @@
+package org.ncu.performancetracker.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.ncu.performancetracker.model.PerformanceRollup;
+import org.ncu.performancetracker.model.RollupGranularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface PerformanceRollupRepository extends JpaRepository<PerformanceRollup, Long> {
+
+    Optional<PerformanceRollup> findByAthleteIdAndMetricNameAndGranularityAndBucketStart(
+            Long athleteId, String metricName, RollupGranularity granularity, LocalDate bucketStart);
+
+    List<PerformanceRollup> findByAthleteIdAndMetricNameAndGranularityAndBucketStartIn(
+            Long athleteId, String metricName, RollupGranularity granularity, Collection<LocalDate> bucketStarts);
+
+    List<PerformanceRollup> findByAthleteIdAndMetricNameAndGranularityAndBucketStartBetweenOrderByBucketStartAsc(
+            Long athleteId, String metricName, RollupGranularity granularity, LocalDate from, LocalDate to);
+
+    Optional<PerformanceRollup> findFirstByAthleteIdAndMetricNameAndGranularityOrderByBucketStartDesc(
+            Long athleteId, String metricName, RollupGranularity granularity);
+
+    // Every day bucket in (athlete, metric, day) order, for rebuilding the trends; must be consumed (and closed)
+    // inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT r FROM PerformanceRollup r WHERE r.granularity = org.ncu.performancetracker.model.RollupGranularity.DAY " +
+            "ORDER BY r.athleteId, r.metricName, r.bucketStart")
+    Stream<PerformanceRollup> streamDays();
+
+    // All-time aggregates for several athletes and metrics in one query. Each result row also carries the
+    // value and date of the pair's latest live record, found through correlated subqueries on
+    // (athlete, metric, date); archived records are not seen here.
+    @Query("SELECT r.athleteId, r.metricName, r.count, r.sum, r.min, r.max, " +
+            "(SELECT p.value FROM PerformanceRecord p WHERE p.athlete.id = r.athleteId AND p.metricName = r.metricName " +
+            "ORDER BY p.date DESC, p.id DESC LIMIT 1), " +
+            "(SELECT MAX(p.date) FROM PerformanceRecord p WHERE p.athlete.id = r.athleteId AND p.metricName = r.metricName) " +
+            "FROM PerformanceRollup r WHERE r.granularity = org.ncu.performancetracker.model.RollupGranularity.ALL_TIME " +
+            "AND r.athleteId IN :athleteIds AND r.metricName IN :metricNames")
+    List<Object[]> findAllTimeSummaries(@Param("athleteIds") Collection<Long> athleteIds,
+                                        @Param("metricNames") Collection<String> metricNames);
+
+    @Modifying
+    @Query("DELETE FROM PerformanceRollup r WHERE r.athleteId = :athleteId")
+    void deleteByAthleteId(@Param("athleteId") Long athleteId);
+}
@@ -0,0 +1,18 @@
+package org.ncu.performancetracker.repository;
+
+import org.ncu.performancetracker.model.PerformanceTrend;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface PerformanceTrendRepository extends JpaRepository<PerformanceTrend, Long> {
+
+    Optional<PerformanceTrend> findByAthleteIdAndMetricName(Long athleteId, String metricName);
+
+    @Modifying
+    @Query("DELETE FROM PerformanceTrend t WHERE t.athleteId = :athleteId")
+    void deleteByAthleteId(@Param("athleteId") Long athleteId);
+}
@@ -0,0 +1,40 @@
+package org.ncu.performancetracker.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.ncu.performancetracker.model.PersonalBest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface PersonalBestRepository extends JpaRepository<PersonalBest, Long> {
+
+    Optional<PersonalBest> findByAthleteIdAndMetricName(Long athleteId, String metricName);
+
+    List<PersonalBest> findByAthleteId(Long athleteId);
+
+    @Modifying
+    @Query("DELETE FROM PersonalBest pb WHERE pb.athleteId = :athleteId")
+    void deleteByAthleteId(@Param("athleteId") Long athleteId);
+
+    @Modifying
+    @Query("DELETE FROM PersonalBest pb WHERE pb.metricName = :metricName")
+    void deleteByMetricName(@Param("metricName") String metricName);
+
+    // Every personal best with the athlete's sport and position, for loading leaderboards;
+    // must be consumed (and closed) inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT pb.athleteId, pb.metricName, pb.value, a.sport, a.position " +
+            "FROM PersonalBest pb JOIN Athlete a ON a.id = pb.athleteId")
+    Stream<Object[]> streamAllWithAthleteScope();
+
+    @Query("SELECT pb.athleteId, pb.metricName, pb.value, a.sport, a.position " +
+            "FROM PersonalBest pb JOIN Athlete a ON a.id = pb.athleteId WHERE pb.metricName = :metricName")
+    List<Object[]> findByMetricNameWithAthleteScope(@Param("metricName") String metricName);
+}
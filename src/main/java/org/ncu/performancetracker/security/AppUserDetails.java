@@ -0,0 +1,22 @@
+package org.ncu.performancetracker.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+// UserDetails that also carries the user's token version, so it can be signed into issued tokens
+public class AppUserDetails extends User {
+
+    private final int tokenVersion;
+
+    public AppUserDetails(String username, String password, Collection<? extends GrantedAuthority> authorities,
+                          int tokenVersion) {
+        super(username, password, authorities);
+        this.tokenVersion = tokenVersion;
+    }
+
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+}
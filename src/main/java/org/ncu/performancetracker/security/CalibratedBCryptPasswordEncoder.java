@@ -0,0 +1,78 @@
+package org.ncu.performancetracker.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// BCrypt encoder whose cost is measured on the current hardware at startup.
+// Stored hashes with a lower cost are reported for upgrade, so they are rehashed on the next successful
+// login. Higher costs are left alone: a slower or noisier calibration must not weaken existing hashes.
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(CalibratedBCryptPasswordEncoder.class);
+    private static final int WARMUP_HASHES = 3;
+    private static final int SAMPLES_PER_COST = 5;
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private final int strength;
+
+    public CalibratedBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        if (!matcher.matches()) {
+            return false;
+        }
+        return Integer.parseInt(matcher.group(1)) < strength;
+    }
+
+    // Returns the lowest cost in [minCost, maxCost] whose median hash time reaches targetMillis.
+    // The first hashes run before the JIT has compiled BCrypt and are discarded; the median keeps a single
+    // GC pause or noisy neighbour from picking the cost. Takes roughly SAMPLES_PER_COST * 2 * targetMillis.
+    public static int calibrate(long targetMillis, int minCost, int maxCost) {
+        for (int i = 0; i < WARMUP_HASHES; i++) {
+            hashMillis(minCost);
+        }
+        for (int cost = minCost; cost <= maxCost; cost++) {
+            long elapsedMillis = medianHashMillis(cost);
+
+            if (elapsedMillis >= targetMillis) {
+                logger.info("BCrypt cost calibrated to {} ({} ms per hash, target {} ms)", cost, elapsedMillis, targetMillis);
+                return cost;
+            }
+        }
+        logger.info("BCrypt cost capped at {} (target {} ms not reached)", maxCost, targetMillis);
+        return maxCost;
+    }
+
+    private static long medianHashMillis(int cost) {
+        long[] samples = new long[SAMPLES_PER_COST];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = hashMillis(cost);
+        }
+        Arrays.sort(samples);
+        return samples[samples.length / 2];
+    }
+
+    private static long hashMillis(int cost) {
+        long start = System.nanoTime();
+        BCrypt.hashpw("calibration-password", BCrypt.gensalt(cost));
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -1,8 +1,10 @@
 package org.ncu.performancetracker.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.*;
 import jakarta.servlet.http.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.*;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -21,6 +23,12 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private TokenRevocationRegistry revocationRegistry;
+
+    @Value("${jwt.stateless-authorities:true}")
+    private boolean statelessAuthorities;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
@@ -28,17 +36,30 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         final String authHeader = request.getHeader("Authorization");
 
         String username = null;
-        String jwt = null;
+        Claims claims = null;
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwt = authHeader.substring(7);
-            username = jwtUtil.extractUsername(jwt);
+            // Verified once per request (or not at all when the token is already in the verified cache)
+            claims = jwtUtil.extractClaims(authHeader.substring(7));
+            username = claims.getSubject();
         }
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails;
+            boolean revoked = false;
+
+            if (statelessAuthorities && jwtUtil.hasAuthorities(claims)) {
+                // Authorities come from the signed claims; revocation is an in-memory version check
+                userDetails = jwtUtil.buildUserDetails(claims);
+                revoked = revocationRegistry.isRevoked(username, jwtUtil.extractTokenVersion(claims));
+            } else {
+                // The freshly loaded user carries the current token version, so any other version is revoked
+                userDetails = userDetailsService.loadUserByUsername(username);
+                revoked = userDetails instanceof AppUserDetails appUser
+                        && appUser.getTokenVersion() != jwtUtil.extractTokenVersion(claims);
+            }
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            if (!revoked && jwtUtil.validateToken(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
 
@@ -1,54 +1,157 @@
 package org.ncu.performancetracker.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
 
     private final String SECRET_KEY = "my_super_secret_key_which_is_very_secure_123!"; // Must be 32+ characters
     private final long EXPIRATION_TIME = 1000 * 60 * 60 * 10; // 10 hours
+    private final String AUTHORITIES_CLAIM = "roles";
+    private final String TOKEN_VERSION_CLAIM = "ver";
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+    // Built once; both are immutable and safe to share between request threads
+    private final Key signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+
+    // Tokens whose signature has already been verified, kept until the token itself expires.
+    // Its hit rate is published as cache.* meters tagged cache=jwt-verified-tokens.
+    private final Cache<String, Claims> verifiedTokens;
+    private final Timer validVerificationTimer;
+    private final Timer invalidVerificationTimer;
+
+    public JwtUtil(
+            MeterRegistry meterRegistry,
+            @Value("${jwt.verified-cache.max-size:10000}") long verifiedCacheMaxSize) {
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt-verified-tokens");
+        this.validVerificationTimer = verificationTimer(meterRegistry, "valid");
+        this.invalidVerificationTimer = verificationTimer(meterRegistry, "invalid");
     }
 
+    // Authorities and the user's token version are signed into the token so requests can be
+    // authenticated from the claims alone, without loading the user
     public String generateToken(UserDetails userDetails) {
+        List<String> authorities = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        int tokenVersion = userDetails instanceof AppUserDetails appUser ? appUser.getTokenVersion() : 0;
+
         return Jwts.builder()
                 .setSubject(userDetails.getUsername())
+                .claim(AUTHORITIES_CLAIM, authorities)
+                .claim(TOKEN_VERSION_CLAIM, tokenVersion)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    // Parses and verifies the token once; repeat calls with the same token are served from the cache.
+    // Throws JwtException (e.g. ExpiredJwtException) for invalid tokens, which are never cached.
+    public Claims extractClaims(String token) {
+        Claims claims = verifiedTokens.getIfPresent(token);
+        if (claims == null) {
+            long startedAt = System.nanoTime();
+            try {
+                claims = parser.parseClaimsJws(token).getBody();
+            } catch (RuntimeException ex) {
+                invalidVerificationTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                throw ex;
+            }
+            validVerificationTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            verifiedTokens.put(token, claims);
+        }
+        return claims;
+    }
+
     public String extractUsername(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return extractClaims(token).getSubject();
     }
 
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        Date expiration = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getExpiration();
-        return expiration.before(new Date());
+        return validateToken(extractClaims(token), userDetails);
+    }
+
+    public boolean validateToken(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims);
+    }
+
+    // Tokens issued before authorities were embedded lack the claim and need a user lookup
+    public boolean hasAuthorities(Claims claims) {
+        return claims.get(AUTHORITIES_CLAIM) instanceof List<?>;
+    }
+
+    public int extractTokenVersion(Claims claims) {
+        Integer tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Integer.class);
+        return tokenVersion == null ? 0 : tokenVersion;
+    }
+
+    public UserDetails buildUserDetails(Claims claims) {
+        List<SimpleGrantedAuthority> authorities = ((List<?>) claims.get(AUTHORITIES_CLAIM)).stream()
+                .map(authority -> new SimpleGrantedAuthority(authority.toString()))
+                .toList();
+        return new User(claims.getSubject(), "", authorities);
+    }
+
+    private static Timer verificationTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("jwt.verification")
+                .description("Time spent parsing and verifying tokens missing from the verified cache")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private boolean isTokenExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
+    }
+
+    private static class TokenExpiry implements Expiry<String, Claims> {
+
+        private static final long NO_EXPIRATION_CLAIM_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+        @Override
+        public long expireAfterCreate(String token, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return NO_EXPIRATION_CLAIM_NANOS;
+            }
+            long remainingMillis = expiration.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,82 @@
+package org.ncu.performancetracker.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Runs password hashing (BCrypt encode/match) on a small dedicated pool so login storms cannot
+// occupy the request threads that serve everything else. When the queue is full new work is
+// rejected immediately instead of piling up.
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Timer hashTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public PasswordHashingExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${security.password.hashing.threads:0}") int threads,
+            @Value("${security.password.hashing.queue-capacity:200}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        // Pool size, active threads and queue depth
+        new ExecutorServiceMetrics(executor, "password.hashing", Tags.empty()).bindTo(meterRegistry);
+        this.hashTimer = Timer.builder("password.hashing.duration")
+                .description("Time spent hashing or verifying a password")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("password.hashing.queue.wait")
+                .description("Time a hashing task waited for a worker")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hashing.rejected")
+                .description("Hashing tasks rejected because the queue was full")
+                .register(meterRegistry);
+    }
+
+    // Throws RejectedExecutionException right away when the pool and its queue are saturated
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueWaitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return hashTimer.record(task);
+            }, executor);
+        } catch (RejectedExecutionException ex) {
+            rejectedCounter.increment();
+            throw new RejectedExecutionException("Too many concurrent login or registration requests, retry shortly", ex);
+        }
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,6 +1,7 @@
 package org.ncu.performancetracker.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.*;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.*;
@@ -9,6 +10,7 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.*;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.*;
 import org.springframework.security.web.*;
@@ -23,6 +25,15 @@ public class SecurityConfig {
     @Autowired
     private JwtRequestFilter jwtRequestFilter;
 
+    @Value("${security.password.target-hash-millis:250}")
+    private long targetHashMillis;
+
+    @Value("${security.password.min-cost:10}")
+    private int minBCryptCost;
+
+    @Value("${security.password.max-cost:16}")
+    private int maxBCryptCost;
+
     @Bean
     public UserDetailsService userDetailsService() {
         return new UserDetailsServiceImpl();
@@ -32,9 +43,14 @@ public class SecurityConfig {
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         return http.csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers(HttpMethod.GET, "/api/athletes/**","/api/performance-records/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/athletes/**","/api/performance-records/**","/api/leaderboards/**","/api/metrics/**").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/api/performance-records/rollups/rebuild",
+                                "/api/performance-records/archive/run",
+                                "/api/leaderboards/distributions/rebuild").hasRole("ADMIN")
                         .requestMatchers("/auth/**")
                         .permitAll()
+                        // Scraped without a token; set management.server.port to keep it off the public port
+                        .requestMatchers(HttpMethod.GET, "/actuator/health", "/actuator/prometheus").permitAll()
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authenticationProvider(authenticationProvider())
@@ -45,8 +61,13 @@ public class SecurityConfig {
     @Bean
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
-        authenticationProvider.setUserDetailsService(userDetailsService());
+        UserDetailsService userDetailsService = userDetailsService();
+        authenticationProvider.setUserDetailsService(userDetailsService);
         authenticationProvider.setPasswordEncoder(passwordEncoder());
+        // Rehashes stored passwords whose BCrypt cost is below the calibrated one on successful login
+        if (userDetailsService instanceof UserDetailsPasswordService passwordService) {
+            authenticationProvider.setUserDetailsPasswordService(passwordService);
+        }
         return authenticationProvider;
     }
 
@@ -58,6 +79,7 @@ public class SecurityConfig {
 
     @Bean
     public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new CalibratedBCryptPasswordEncoder(
+                CalibratedBCryptPasswordEncoder.calibrate(targetHashMillis, minBCryptCost, maxBCryptCost));
     }
 }
@@ -0,0 +1,102 @@
+package org.ncu.performancetracker.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.ncu.performancetracker.config.ReadYourWrites;
+import org.ncu.performancetracker.model.AppUser;
+import org.ncu.performancetracker.repository.AppUserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// In-memory view of the minimum token version each user still accepts.
+// Only users who have revoked tokens at least once are tracked; everyone else accepts version 0.
+// Loaded from the database at startup and reloaded every refresh-interval, so revocations made on other
+// instances take effect here within that interval.
+@Component
+public class TokenRevocationRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationRegistry.class);
+
+    private final Map<String, Integer> minimumVersions = new ConcurrentHashMap<>();
+
+    @Autowired
+    private AppUserRepository userRepo;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Value("${jwt.revocation.refresh-interval:30s}")
+    private Duration refreshInterval;
+
+    private ScheduledExecutorService refresher;
+
+    @PostConstruct
+    public void start() {
+        load();
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-revocation-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = refreshInterval.toMillis();
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    // Versions only grow, so a load racing a local revoke never lowers what that revoke set
+    public void load() {
+        for (AppUser user : readYourWrites.onPrimary(() -> userRepo.findByTokenVersionGreaterThan(0))) {
+            minimumVersions.merge(user.getUsername(), user.getTokenVersion(), Math::max);
+        }
+    }
+
+    public boolean isRevoked(String username, int tokenVersion) {
+        return tokenVersion < minimumVersions.getOrDefault(username, 0);
+    }
+
+    // Invalidates every token issued to the user so far
+    @Transactional
+    public int revokeAll(String username) {
+        AppUser user = userRepo.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        userRepo.save(user);
+        int minimumVersion = user.getTokenVersion();
+        // Only enforced once the new version is durable, so a rolled-back revoke doesn't lock the user out
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                minimumVersions.merge(username, minimumVersion, Math::max);
+            }
+        });
+        return minimumVersion;
+    }
+
+    private void refreshQuietly() {
+        try {
+            load();
+        } catch (RuntimeException ex) {
+            logger.warn("Could not refresh token revocations, will retry", ex);
+        }
+    }
+}
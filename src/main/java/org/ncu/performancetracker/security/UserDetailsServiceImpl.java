@@ -9,7 +9,7 @@ import org.springframework.stereotype.Service;
 import java.util.Collections;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private AppUserRepository userRepo;
@@ -19,10 +19,27 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         AppUser user = userRepo.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
 
-        return new org.springframework.security.core.userdetails.User(
+        return new AppUserDetails(
                 user.getUsername(),
                 user.getPassword(),
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole()))
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole())),
+                user.getTokenVersion()
+        );
+    }
+
+    // Called by DaoAuthenticationProvider after a successful login when the stored hash needs upgrading
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        AppUser user = userRepo.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        userRepo.save(user);
+
+        return new AppUserDetails(
+                user.getUsername(),
+                user.getPassword(),
+                userDetails.getAuthorities(),
+                user.getTokenVersion()
         );
     }
 }
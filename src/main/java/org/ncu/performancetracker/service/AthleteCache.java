@@ -0,0 +1,141 @@
+package org.ncu.performancetracker.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import org.ncu.performancetracker.config.ReadYourWrites;
+import org.ncu.performancetracker.event.AthleteChangeEvent;
+import org.ncu.performancetracker.event.MetricChangeEvent;
+import org.ncu.performancetracker.event.RecordChange;
+import org.ncu.performancetracker.event.RecordChangeEvent;
+import org.ncu.performancetracker.model.Athlete;
+import org.ncu.performancetracker.repository.AthleteRepository;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Supplier;
+
+// Read-through cache for the per-athlete lookups every endpoint starts with: the athlete itself (including
+// "does not exist"), and the personal-best map. Entries are dropped when the write that changed them commits.
+// Misses are loaded from the primary in their own transaction, so a lagging read replica never gets cached.
+// Hit, miss and eviction counts are published as cache.* meters tagged cache=athletes / cache=personal-bests.
+@Service
+public class AthleteCache {
+
+    private final AthleteRepository athleteRepository;
+    private final ReadYourWrites readYourWrites;
+    private final TransactionTemplate primaryRead;
+
+    // Detached copies without the record collection, so callers can neither mutate nor lazily load through them
+    private final LoadingCache<Long, Optional<Athlete>> athletes;
+    private final LoadingCache<Long, Map<String, Double>> personalBests;
+
+    @Autowired
+    public AthleteCache(
+            AthleteRepository athleteRepository,
+            PersonalBestService personalBestService,
+            ReadYourWrites readYourWrites,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.cache.athletes.max-size:10000}") long athletesMaxSize,
+            @Value("${app.cache.athletes.ttl:10m}") Duration athletesTtl,
+            @Value("${app.cache.personal-bests.max-size:10000}") long personalBestsMaxSize,
+            @Value("${app.cache.personal-bests.ttl:10m}") Duration personalBestsTtl) {
+        this.athleteRepository = athleteRepository;
+        this.readYourWrites = readYourWrites;
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.primaryRead.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.primaryRead.setReadOnly(true);
+        this.athletes = Caffeine.newBuilder()
+                .maximumSize(athletesMaxSize)
+                .expireAfterWrite(athletesTtl)
+                .recordStats()
+                .build(athleteId -> loadFromPrimary(() -> athleteRepository.findById(athleteId).map(AthleteCache::copy)));
+        this.personalBests = Caffeine.newBuilder()
+                .maximumSize(personalBestsMaxSize)
+                .expireAfterWrite(personalBestsTtl)
+                .recordStats()
+                .build(athleteId -> loadFromPrimary(
+                        () -> Collections.unmodifiableMap(personalBestService.findPersonalBests(athleteId))));
+        CaffeineCacheMetrics.monitor(meterRegistry, athletes, "athletes");
+        CaffeineCacheMetrics.monitor(meterRegistry, personalBests, "personal-bests");
+    }
+
+    public Optional<Athlete> findById(Long athleteId) {
+        return athletes.get(athleteId).map(AthleteCache::copy);
+    }
+
+    public boolean exists(Long athleteId) {
+        return athletes.get(athleteId).isPresent();
+    }
+
+    // Version of everything the athlete's endpoints return, advanced by every write that changes it
+    public Optional<Long> findDataVersion(Long athleteId) {
+        return athletes.get(athleteId).map(Athlete::getDataVersion);
+    }
+
+    // Ids among the given ones that belong to an athlete. Misses are checked with a single query but not cached:
+    // bulk loads are not atomic with invalidation and could otherwise leave a stale data version behind.
+    public Set<Long> findExistingIds(Collection<Long> athleteIds) {
+        Set<Long> existingIds = new HashSet<>();
+        Set<Long> missedIds = new HashSet<>(athleteIds);
+        athletes.getAllPresent(athleteIds).forEach((athleteId, athlete) -> {
+            missedIds.remove(athleteId);
+            if (athlete.isPresent()) {
+                existingIds.add(athleteId);
+            }
+        });
+        if (!missedIds.isEmpty()) {
+            existingIds.addAll(athleteRepository.findExistingIds(missedIds));
+        }
+        return existingIds;
+    }
+
+    // Unmodifiable best value per metric name
+    public Map<String, Double> findPersonalBests(Long athleteId) {
+        return personalBests.get(athleteId);
+    }
+
+    @TransactionalEventListener
+    public void onAthleteChange(AthleteChangeEvent event) {
+        athletes.invalidateAll(event.getAthleteIds());
+        personalBests.invalidateAll(event.getAthleteIds());
+    }
+
+    @TransactionalEventListener
+    public void onRecordChange(RecordChangeEvent event) {
+        Set<Long> athleteIds = new HashSet<>();
+        for (RecordChange change : event.getChanges()) {
+            athleteIds.add(change.getAthleteId());
+        }
+        athletes.invalidateAll(athleteIds);
+        personalBests.invalidateAll(athleteIds);
+    }
+
+    // A direction change recomputes the metric's bests, and advances the versions, of every athlete holding one
+    @TransactionalEventListener
+    public void onMetricChange(MetricChangeEvent event) {
+        if (event.isDirectionChanged()) {
+            athletes.invalidateAll();
+            personalBests.invalidateAll();
+        }
+    }
+
+    private <T> T loadFromPrimary(Supplier<T> loader) {
+        return readYourWrites.onPrimary(() -> primaryRead.execute(status -> loader.get()));
+    }
+
+    private static Athlete copy(Athlete athlete) {
+        return new Athlete(athlete.getId(), athlete.getName(), athlete.getSport(), athlete.getPosition(),
+                athlete.getDataVersion(), new ArrayList<>());
+    }
+}
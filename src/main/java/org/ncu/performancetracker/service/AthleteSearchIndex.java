@@ -0,0 +1,388 @@
+package org.ncu.performancetracker.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import org.ncu.performancetracker.dto.AthleteSearchResult;
+import org.ncu.performancetracker.event.AthleteChangeEvent;
+import org.ncu.performancetracker.model.Athlete;
+import org.ncu.performancetracker.repository.AthleteRepository;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// In-memory search over athlete name, sport and position, loaded at startup and kept in sync by
+// AthleteChangeEvent after every committed athlete write.
+//
+// Results come in tiers: names starting with the query, then names with a later word starting with it
+// (both read from prefix tries in order, stopping at the limit), then substring matches in the name and
+// finally in sport or position. The substring tiers intersect trigram posting lists and verify the
+// remaining candidates; they are only consulted when the prefix tiers do not fill the limit.
+@Service
+public class AthleteSearchIndex {
+
+    private record Document(long id, String name, String sport, String position,
+                            String normalizedName, String normalizedSport, String normalizedPosition) {
+    }
+
+    // Children and ids are allocated on first use; most nodes of a name trie have one child and no ids
+    private static final class TrieNode {
+        TreeMap<Character, TrieNode> children;
+        TreeSet<Long> athleteIds;
+
+        boolean isEmpty() {
+            return (children == null || children.isEmpty()) && (athleteIds == null || athleteIds.isEmpty());
+        }
+    }
+
+    // Sorted athlete ids sharing one trigram; a primitive array keeps millions of postings compact
+    private static final class PostingList {
+        long[] ids = new long[4];
+        int size;
+
+        boolean add(long athleteId) {
+            int index = Arrays.binarySearch(ids, 0, size, athleteId);
+            if (index >= 0) {
+                return false;
+            }
+            int insertAt = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = athleteId;
+            size++;
+            return true;
+        }
+
+        boolean remove(long athleteId) {
+            int index = Arrays.binarySearch(ids, 0, size, athleteId);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(long athleteId) {
+            return Arrays.binarySearch(ids, 0, size, athleteId) >= 0;
+        }
+    }
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Comparator<Document> BY_NAME =
+            Comparator.comparing(Document::normalizedName).thenComparingLong(Document::id);
+
+    private final AthleteRepository athleteRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, PostingList> trigrams = new HashMap<>();
+    // Whole names, and every word of every name
+    private TrieNode names = new TrieNode();
+    private TrieNode nameWords = new TrieNode();
+
+    @Autowired
+    public AthleteSearchIndex(AthleteRepository athleteRepository) {
+        this.athleteRepository = athleteRepository;
+    }
+
+    public List<AthleteSearchResult> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Set<Long> found = new LinkedHashSet<>();
+            collectPrefix(names, normalized, limit, found);
+            collectPrefix(nameWords, normalized, limit, found);
+            if (found.size() < limit && normalized.length() >= 3) {
+                Collection<Long> candidates = trigramCandidates(normalized);
+                collectBest(candidates, found, limit, document -> document.normalizedName().contains(normalized));
+                collectBest(candidates, found, limit, document -> document.normalizedSport().contains(normalized)
+                        || document.normalizedPosition().contains(normalized));
+            }
+            return toResults(found);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Athletes whose name, or a word of it, starts with the prefix
+    public List<AthleteSearchResult> autocomplete(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Set<Long> found = new LinkedHashSet<>();
+            collectPrefix(names, normalized, limit, found);
+            collectPrefix(nameWords, normalized, limit, found);
+            return toResults(found);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids of every athlete whose name contains the fragment, ignoring case and accents
+    public List<Long> findIdsByNameContaining(String fragment) {
+        String normalized = normalize(fragment);
+
+        lock.readLock().lock();
+        try {
+            Collection<Long> candidates = normalized.length() >= 3 ? trigramCandidates(normalized) : documents.keySet();
+            return candidates.stream()
+                    .filter(athleteId -> documents.get(athleteId).normalizedName().contains(normalized))
+                    .sorted()
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public int rebuild() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            trigrams.clear();
+            names = new TrieNode();
+            nameWords = new TrieNode();
+            try (Stream<Object[]> rows = athleteRepository.streamSearchFields()) {
+                rows.forEach(row -> add(document((Long) row[0], (String) row[1], (String) row[2], (String) row[3])));
+            }
+            return documents.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onAthleteChange(AthleteChangeEvent event) {
+        Map<Long, Athlete> athletes = new HashMap<>();
+        for (Athlete athlete : athleteRepository.findAllById(event.getAthleteIds())) {
+            athletes.put(athlete.getId(), athlete);
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Long athleteId : event.getAthleteIds()) {
+                remove(athleteId);
+                Athlete athlete = athletes.get(athleteId);
+                if (athlete != null) {
+                    add(document(athleteId, athlete.getName(), athlete.getSport(), athlete.getPosition()));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(Document document) {
+        documents.put(document.id(), document);
+        for (String field : fields(document)) {
+            for (String trigram : trigramsOf(field)) {
+                trigrams.computeIfAbsent(trigram, t -> new PostingList()).add(document.id());
+            }
+        }
+        insert(names, document.normalizedName(), document.id());
+        for (String word : wordsOf(document.normalizedName())) {
+            insert(nameWords, word, document.id());
+        }
+    }
+
+    private void remove(Long athleteId) {
+        Document document = documents.remove(athleteId);
+        if (document == null) {
+            return;
+        }
+        for (String field : fields(document)) {
+            for (String trigram : trigramsOf(field)) {
+                PostingList postings = trigrams.get(trigram);
+                if (postings != null && postings.remove(athleteId) && postings.size == 0) {
+                    trigrams.remove(trigram);
+                }
+            }
+        }
+        delete(names, document.normalizedName(), 0, athleteId);
+        for (String word : wordsOf(document.normalizedName())) {
+            delete(nameWords, word, 0, athleteId);
+        }
+    }
+
+    private static void insert(TrieNode root, String key, long athleteId) {
+        TrieNode node = root;
+        for (int i = 0; i < key.length(); i++) {
+            if (node.children == null) {
+                node.children = new TreeMap<>();
+            }
+            node = node.children.computeIfAbsent(key.charAt(i), c -> new TrieNode());
+        }
+        if (node.athleteIds == null) {
+            node.athleteIds = new TreeSet<>();
+        }
+        node.athleteIds.add(athleteId);
+    }
+
+    // Returns true when the node is left empty and can be pruned
+    private static boolean delete(TrieNode node, String key, int depth, Long athleteId) {
+        if (depth == key.length()) {
+            if (node.athleteIds != null) {
+                node.athleteIds.remove(athleteId);
+            }
+        } else if (node.children != null) {
+            TrieNode child = node.children.get(key.charAt(depth));
+            if (child != null && delete(child, key, depth + 1, athleteId)) {
+                node.children.remove(key.charAt(depth));
+            }
+        }
+        return node.isEmpty();
+    }
+
+    // Adds ids under the prefix in key order (ties by id) until the limit is reached
+    private static void collectPrefix(TrieNode root, String prefix, int limit, Set<Long> found) {
+        TrieNode node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children == null ? null : node.children.get(prefix.charAt(i));
+        }
+        if (node == null) {
+            return;
+        }
+
+        Deque<TrieNode> pending = new ArrayDeque<>();
+        pending.push(node);
+        while (!pending.isEmpty() && found.size() < limit) {
+            TrieNode current = pending.pop();
+            if (current.athleteIds != null) {
+                for (Iterator<Long> ids = current.athleteIds.iterator(); ids.hasNext() && found.size() < limit; ) {
+                    found.add(ids.next());
+                }
+            }
+            if (current.children != null) {
+                current.children.descendingMap().values().forEach(pending::push);
+            }
+        }
+    }
+
+    // Adds the alphabetically first matching candidates that are not already in the results
+    private void collectBest(Collection<Long> candidates, Set<Long> found, int limit,
+                             Predicate<Document> matches) {
+        int wanted = limit - found.size();
+        if (wanted <= 0) {
+            return;
+        }
+        PriorityQueue<Document> best = new PriorityQueue<>(BY_NAME.reversed());
+        for (Long athleteId : candidates) {
+            Document document = documents.get(athleteId);
+            if (!found.contains(athleteId) && matches.test(document)) {
+                best.add(document);
+                if (best.size() > wanted) {
+                    best.poll();
+                }
+            }
+        }
+        List<Document> ordered = new ArrayList<>(best);
+        ordered.sort(BY_NAME);
+        ordered.forEach(document -> found.add(document.id()));
+    }
+
+    // Intersection of the query's trigram posting lists, starting from the shortest one
+    private Collection<Long> trigramCandidates(String query) {
+        List<PostingList> postings = new ArrayList<>();
+        for (String trigram : trigramsOf(query)) {
+            PostingList ids = trigrams.get(trigram);
+            if (ids == null) {
+                return List.of();
+            }
+            postings.add(ids);
+        }
+        postings.sort(Comparator.comparingInt(postingList -> postingList.size));
+
+        List<Long> candidates = new ArrayList<>();
+        PostingList shortest = postings.get(0);
+        for (int candidate = 0; candidate < shortest.size; candidate++) {
+            long athleteId = shortest.ids[candidate];
+            boolean inAll = true;
+            for (int i = 1; i < postings.size() && inAll; i++) {
+                inAll = postings.get(i).contains(athleteId);
+            }
+            if (inAll) {
+                candidates.add(athleteId);
+            }
+        }
+        return candidates;
+    }
+
+    private List<AthleteSearchResult> toResults(Collection<Long> athleteIds) {
+        return athleteIds.stream()
+                .map(documents::get)
+                .map(document -> new AthleteSearchResult(
+                        document.id(), document.name(), document.sport(), document.position()))
+                .toList();
+    }
+
+    private static Document document(Long id, String name, String sport, String position) {
+        return new Document(id, name, sport, position, normalize(name), normalize(sport), normalize(position));
+    }
+
+    private static List<String> fields(Document document) {
+        return List.of(document.normalizedName(), document.normalizedSport(), document.normalizedPosition());
+    }
+
+    private static Set<String> trigramsOf(String text) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            result.add(text.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    private static List<String> wordsOf(String text) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    // Lower case without accents, so "José" and "jose" match
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String trimmed = text.trim();
+        if (trimmed.chars().allMatch(c -> c < 0x80)) {
+            return trimmed.toLowerCase(Locale.ROOT);
+        }
+        String decomposed = Normalizer.normalize(trimmed, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,49 +1,133 @@
 package org.ncu.performancetracker.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import org.ncu.performancetracker.dto.AthleteSearchResult;
+import org.ncu.performancetracker.dto.CursorPage;
+import org.ncu.performancetracker.event.AthleteChangeEvent;
 import org.ncu.performancetracker.model.Athlete;
 import org.ncu.performancetracker.repository.AthleteRepository;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 public class AthleteService {
 
     private final AthleteRepository athleteRepository;
+    private final AthleteCache athleteCache;
+    private final PersonalBestService personalBestService;
+    private final RollupService rollupService;
+    private final TrendService trendService;
+    private final RecordArchive recordArchive;
+    private final AthleteSearchIndex searchIndex;
+    private final KeysetPagination pagination;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public AthleteService(AthleteRepository athleteRepository) {
+    public AthleteService(
+            AthleteRepository athleteRepository,
+            AthleteCache athleteCache,
+            PersonalBestService personalBestService,
+            RollupService rollupService,
+            TrendService trendService,
+            RecordArchive recordArchive,
+            AthleteSearchIndex searchIndex,
+            KeysetPagination pagination,
+            ApplicationEventPublisher eventPublisher) {
         this.athleteRepository = athleteRepository;
+        this.athleteCache = athleteCache;
+        this.personalBestService = personalBestService;
+        this.rollupService = rollupService;
+        this.trendService = trendService;
+        this.recordArchive = recordArchive;
+        this.searchIndex = searchIndex;
+        this.pagination = pagination;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Transactional(readOnly = true)
     public List<Athlete> findAllAthletes() {
         return athleteRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<Athlete> findAthletePage(String cursor, Integer size) {
+        return pagination.athletePage(
+                athleteRepository.findAllByOrderByIdAsc(pagination.athletePosition(cursor), pagination.limit(size)));
+    }
+
     public Optional<Athlete> findAthleteById(Long id) {
-        return athleteRepository.findById(id);
+        return athleteCache.findById(id);
     }
 
+    // Case- and accent-insensitive substring match on the name, served by the search index
+    @Transactional(readOnly = true)
     public List<Athlete> findAthletesByName(String name) {
-        return athleteRepository.findAthletesByName(name);
+        List<Long> ids = searchIndex.findIdsByNameContaining(name);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Athlete> athletes = new HashMap<>();
+        for (Athlete athlete : athleteRepository.findAllById(ids)) {
+            athletes.put(athlete.getId(), athlete);
+        }
+        return ids.stream().map(athletes::get).filter(Objects::nonNull).toList();
+    }
+
+    public List<AthleteSearchResult> searchAthletes(String query, Integer limit) {
+        return searchIndex.search(query, pagination.limit(limit).max());
+    }
+
+    public List<AthleteSearchResult> autocompleteAthletes(String prefix, Integer limit) {
+        return searchIndex.autocomplete(prefix, pagination.limit(limit).max());
     }
 
     @Transactional
     public Athlete saveAthlete(Athlete athlete) {
-        return athleteRepository.save(athlete);
+        Athlete savedAthlete = athleteRepository.save(athlete);
+        athleteRepository.incrementDataVersions(List.of(savedAthlete.getId()));
+        eventPublisher.publishEvent(new AthleteChangeEvent(List.of(savedAthlete.getId())));
+        return savedAthlete;
+    }
+
+    // Copies the editable fields onto the managed athlete. Merging the request body instead would replace its
+    // record collection, which is never sent by clients, and orphan-delete every record behind the derived indexes.
+    @Transactional
+    public Optional<Athlete> updateAthlete(Long id, Athlete changes) {
+        return athleteRepository.findById(id).map(athlete -> {
+            athlete.setName(changes.getName());
+            athlete.setSport(changes.getSport());
+            athlete.setPosition(changes.getPosition());
+            athleteRepository.incrementDataVersions(List.of(id));
+            eventPublisher.publishEvent(new AthleteChangeEvent(List.of(id)));
+            return athlete;
+        });
     }
 
     @Transactional
     public List<Athlete> saveAthletes(List<Athlete> athletes) {
-        return athleteRepository.saveAll(athletes);
+        List<Athlete> savedAthletes = athleteRepository.saveAll(athletes);
+        List<Long> athleteIds = savedAthletes.stream().map(Athlete::getId).toList();
+        athleteRepository.incrementDataVersions(athleteIds);
+        eventPublisher.publishEvent(new AthleteChangeEvent(athleteIds));
+        return savedAthletes;
     }
 
     @Transactional
     public void deleteAthlete(Long id) {
         athleteRepository.deleteById(id);
+        personalBestService.deleteByAthleteId(id);
+        rollupService.deleteByAthleteId(id);
+        trendService.deleteByAthleteId(id);
+        recordArchive.deleteByAthleteId(id);
+        eventPublisher.publishEvent(new AthleteChangeEvent(List.of(id)));
     }
 }
\ No newline at end of file
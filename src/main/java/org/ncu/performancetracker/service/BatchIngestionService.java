@@ -0,0 +1,185 @@
+package org.ncu.performancetracker.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import org.ncu.performancetracker.dto.BatchIngestResponse;
+import org.ncu.performancetracker.dto.BatchItemError;
+import org.ncu.performancetracker.dto.BatchRecordRequest;
+import org.ncu.performancetracker.event.RecordChange;
+import org.ncu.performancetracker.event.RecordChangeEvent;
+import org.ncu.performancetracker.model.Athlete;
+import org.ncu.performancetracker.model.Metric;
+import org.ncu.performancetracker.model.PerformanceRecord;
+import org.ncu.performancetracker.repository.AthleteRepository;
+import org.ncu.performancetracker.repository.PerformanceRecordRepository;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+public class BatchIngestionService {
+
+    private final PerformanceRecordRepository recordRepository;
+    private final AthleteRepository athleteRepository;
+    private final AthleteCache athleteCache;
+    private final PersonalBestService personalBestService;
+    private final RollupService rollupService;
+    private final TrendService trendService;
+    private final MetricCatalog metricCatalog;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int jdbcBatchSize;
+    private final int maxItems;
+
+    @Autowired
+    public BatchIngestionService(
+            PerformanceRecordRepository recordRepository,
+            AthleteRepository athleteRepository,
+            AthleteCache athleteCache,
+            PersonalBestService personalBestService,
+            RollupService rollupService,
+            TrendService trendService,
+            MetricCatalog metricCatalog,
+            EntityManager entityManager,
+            Validator validator,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int jdbcBatchSize,
+            @Value("${app.ingestion.batch.max-items:10000}") int maxItems) {
+        this.recordRepository = recordRepository;
+        this.athleteRepository = athleteRepository;
+        this.athleteCache = athleteCache;
+        this.personalBestService = personalBestService;
+        this.rollupService = rollupService;
+        this.trendService = trendService;
+        this.metricCatalog = metricCatalog;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.jdbcBatchSize = jdbcBatchSize;
+        this.maxItems = maxItems;
+    }
+
+    // Invalid items are reported back individually; the remaining items are still inserted.
+    // Database errors during flush (e.g. constraint violations) still roll back the whole batch.
+    @Transactional
+    public BatchIngestResponse ingest(List<BatchRecordRequest> items) {
+        if (items == null || items.isEmpty()) {
+            return new BatchIngestResponse(0, 0, List.of());
+        }
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("Batch contains " + items.size() + " records, the maximum is " + maxItems);
+        }
+
+        Set<Long> athleteIds = items.stream()
+                .map(BatchRecordRequest::getAthleteId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(TreeSet::new));
+        Set<Long> existingIds = athleteIds.isEmpty() ? Set.of() : athleteCache.findExistingIds(athleteIds);
+
+        // Validate the items and resolve their metric names before the athlete locks are taken: registering a new
+        // metric commits on a connection of its own. Items of unknown athletes are rejected below, so their
+        // metrics are not registered.
+        PerformanceRecord[] records = new PerformanceRecord[items.size()];
+        String[] violationMessages = new String[items.size()];
+        Map<String, Metric> resolvedMetrics = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            PerformanceRecord record = toRecord(items.get(i));
+            Set<ConstraintViolation<PerformanceRecord>> violations = validator.validate(record);
+            if (violations.isEmpty()) {
+                records[i] = record;
+                Long athleteId = items.get(i).getAthleteId();
+                if (athleteId != null && existingIds.contains(athleteId)) {
+                    resolvedMetrics.computeIfAbsent(record.getMetricName(), metricCatalog::resolve);
+                }
+            } else {
+                violationMessages[i] = violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", "));
+            }
+        }
+
+        // Resolve (and lock) the athletes found above with a single query; one created since counts as not found
+        Map<Long, Athlete> athletes = new HashMap<>();
+        if (!existingIds.isEmpty()) {
+            for (Athlete athlete : athleteRepository.findAllByIdForUpdate(existingIds)) {
+                athletes.put(athlete.getId(), athlete);
+            }
+        }
+
+        List<BatchItemError> errors = new ArrayList<>();
+        Map<Long, Map<String, Double>> batchBests = new HashMap<>();
+        Map<Long, Map<String, Map<LocalDate, RollupAccumulator>>> batchRollups = new HashMap<>();
+        List<RecordChange> changes = new ArrayList<>();
+        int accepted = 0;
+
+        for (int i = 0; i < items.size(); i++) {
+            BatchRecordRequest item = items.get(i);
+            Athlete athlete = item.getAthleteId() == null ? null : athletes.get(item.getAthleteId());
+            if (athlete == null) {
+                String message = item.getAthleteId() == null
+                        ? "Athlete id is required"
+                        : "Athlete not found with id: " + item.getAthleteId();
+                errors.add(new BatchItemError(i, item.getAthleteId(), message));
+                continue;
+            }
+
+            PerformanceRecord record = records[i];
+            if (record == null) {
+                errors.add(new BatchItemError(i, item.getAthleteId(), violationMessages[i]));
+                continue;
+            }
+
+            Metric metric = resolvedMetrics.get(record.getMetricName());
+            record.setMetricName(metric.getName());
+            record.setAthlete(athlete);
+            recordRepository.save(record);
+            batchBests.computeIfAbsent(athlete.getId(), id -> new HashMap<>())
+                    .merge(metric.getName(), record.getValue(), metric.getDirection()::best);
+            batchRollups.computeIfAbsent(athlete.getId(), id -> new HashMap<>())
+                    .computeIfAbsent(record.getMetricName(), metricName -> new HashMap<>())
+                    .computeIfAbsent(record.getDate(), date -> new RollupAccumulator())
+                    .add(record.getValue());
+            changes.add(RecordChange.added(athlete.getId(), record.getMetricName(), record.getDate(), record.getValue()));
+
+            // Keep the persistence context small; each flush goes out as one JDBC batch
+            if (++accepted % jdbcBatchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        // One personal-best update per (athlete, metric) instead of one per record
+        batchBests.forEach((athleteId, bests) ->
+                bests.forEach((metricName, value) -> personalBestService.recordValue(athleteId, metricName, value)));
+        batchRollups.forEach((athleteId, metrics) ->
+                metrics.forEach((metricName, days) -> {
+                    rollupService.recordValues(athleteId, metricName, days);
+                    trendService.recordValues(athleteId, metricName, days);
+                }));
+        if (!changes.isEmpty()) {
+            athleteRepository.incrementDataVersions(batchBests.keySet());
+            eventPublisher.publishEvent(new RecordChangeEvent(changes));
+        }
+
+        return new BatchIngestResponse(items.size(), accepted, errors);
+    }
+
+    private PerformanceRecord toRecord(BatchRecordRequest item) {
+        PerformanceRecord record = new PerformanceRecord();
+        record.setMetricName(item.getMetricName());
+        record.setValue(item.getValue());
+        record.setDate(item.getDate());
+        record.setRemarks(item.getRemarks());
+        return record;
+    }
+}
@@ -0,0 +1,239 @@
+package org.ncu.performancetracker.service;
+
+import org.ncu.performancetracker.dto.PerformanceRecordExport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+// Immutable file holding the archived records of one athlete and metric, ordered by (date, id), column by column:
+//   header  magic, version, count, athlete id, metric id, first/last date, min/max value, column offsets
+//   ids     count 8-byte longs
+//   values  count 8-byte doubles
+//   dates   first date, then the gap in days to the previous record as a varint (usually a single byte)
+//   remarks per record a varint of the UTF-8 length + 1 (0 for null) followed by the bytes
+// Read through a read-only memory mapping: ids and values are LongBuffer/DoubleBuffer views of the mapped file,
+// and scans decode dates in place, so nothing is copied onto the heap until a record is materialized.
+public class ColumnarSegment {
+
+    private static final int MAGIC = 0x50544153;
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 72;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final long athleteId;
+    private final int metricId;
+    private final LocalDate firstDate;
+    private final LocalDate lastDate;
+    private final double minValue;
+    private final double maxValue;
+    private final LongBuffer ids;
+    private final DoubleBuffer values;
+    private final int datesOffset;
+    private final int remarksOffset;
+
+    private ColumnarSegment(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION) {
+            throw new IllegalStateException("Not an archive segment");
+        }
+        this.count = buffer.getInt(6);
+        this.athleteId = buffer.getLong(10);
+        this.metricId = buffer.getInt(18);
+        this.firstDate = LocalDate.ofEpochDay(buffer.getLong(22));
+        this.lastDate = LocalDate.ofEpochDay(buffer.getLong(30));
+        this.minValue = buffer.getDouble(38);
+        this.maxValue = buffer.getDouble(46);
+        int idsOffset = buffer.getInt(54);
+        int valuesOffset = buffer.getInt(58);
+        this.datesOffset = buffer.getInt(62);
+        this.remarksOffset = buffer.getInt(66);
+        this.ids = buffer.slice(idsOffset, count * Long.BYTES).asLongBuffer();
+        this.values = buffer.slice(valuesOffset, count * Double.BYTES).asDoubleBuffer();
+    }
+
+    public static ColumnarSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ColumnarSegment(mapped);
+        }
+    }
+
+    // Writes the records, which must be ordered by (date, id), to a temporary file that is synced and then moved
+    // into place, so a segment file either exists complete or not at all
+    public static void write(Path file, long athleteId, int metricId, List<PerformanceRecordExport> records)
+            throws IOException {
+        if (records.isEmpty()) {
+            throw new IllegalArgumentException("A segment needs at least one record");
+        }
+        int count = records.size();
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        ByteArrayOutputStream dates = new ByteArrayOutputStream(count + 8);
+        ByteArrayOutputStream remarks = new ByteArrayOutputStream();
+        long previousDay = records.get(0).getDate().toEpochDay();
+        for (PerformanceRecordExport record : records) {
+            min = Math.min(min, record.getValue());
+            max = Math.max(max, record.getValue());
+            long day = record.getDate().toEpochDay();
+            if (day < previousDay) {
+                throw new IllegalArgumentException("Records must be ordered by date");
+            }
+            writeVarint(dates, day - previousDay);
+            previousDay = day;
+            if (record.getRemarks() == null) {
+                writeVarint(remarks, 0);
+            } else {
+                byte[] bytes = record.getRemarks().getBytes(StandardCharsets.UTF_8);
+                writeVarint(remarks, bytes.length + 1L);
+                remarks.write(bytes);
+            }
+        }
+
+        int idsOffset = HEADER_BYTES;
+        int valuesOffset = idsOffset + count * Long.BYTES;
+        int datesOffset = valuesOffset + count * Double.BYTES;
+        int remarksOffset = datesOffset + dates.size();
+        ByteBuffer out = ByteBuffer.allocate(remarksOffset + remarks.size());
+        out.putInt(MAGIC).putShort(VERSION).putInt(count)
+                .putLong(athleteId).putInt(metricId)
+                .putLong(records.get(0).getDate().toEpochDay()).putLong(previousDay)
+                .putDouble(min).putDouble(max)
+                .putInt(idsOffset).putInt(valuesOffset).putInt(datesOffset).putInt(remarksOffset);
+        out.position(idsOffset);
+        records.forEach(record -> out.putLong(record.getId()));
+        records.forEach(record -> out.putDouble(record.getValue()));
+        out.put(dates.toByteArray()).put(remarks.toByteArray()).flip();
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getAthleteId() {
+        return athleteId;
+    }
+
+    public int getMetricId() {
+        return metricId;
+    }
+
+    public LocalDate getFirstDate() {
+        return firstDate;
+    }
+
+    public LocalDate getLastDate() {
+        return lastDate;
+    }
+
+    public double getMinValue() {
+        return minValue;
+    }
+
+    public double getMaxValue() {
+        return maxValue;
+    }
+
+    // The value column itself, not a copy
+    public DoubleBuffer values() {
+        return values.duplicate();
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    // Forward-only position over the rows. Remarks are only decoded when asked for.
+    public class Cursor {
+
+        private int row = -1;
+        private long day = firstDate.toEpochDay();
+        private int datePosition = datesOffset;
+        private int remarkPosition = remarksOffset;
+        private int currentRemarkPosition;
+        // Position just past the varint read last; cursors are confined to one thread
+        private int varintEnd;
+
+        public boolean next() {
+            if (row + 1 >= count) {
+                return false;
+            }
+            row++;
+            day += readVarint(datePosition);
+            datePosition = varintEnd;
+            currentRemarkPosition = remarkPosition;
+            long length = readVarint(remarkPosition);
+            remarkPosition = varintEnd + (int) Math.max(0, length - 1);
+            return true;
+        }
+
+        public long epochDay() {
+            return day;
+        }
+
+        public LocalDate date() {
+            return LocalDate.ofEpochDay(day);
+        }
+
+        public long id() {
+            return ids.get(row);
+        }
+
+        public double value() {
+            return values.get(row);
+        }
+
+        public String remarks() {
+            long length = readVarint(currentRemarkPosition);
+            if (length == 0) {
+                return null;
+            }
+            byte[] bytes = new byte[(int) length - 1];
+            buffer.get(varintEnd, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private long readVarint(int position) {
+            long result = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position++);
+                result |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            varintEnd = position;
+            return result;
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
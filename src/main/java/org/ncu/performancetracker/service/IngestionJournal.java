@@ -0,0 +1,376 @@
+package org.ncu.performancetracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.ncu.performancetracker.dto.BatchRecordRequest;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Append-only local log of accepted records, split into segment files named after their first sequence number.
+// Each entry is [payload length][CRC32][payload]; a torn or corrupt tail left by a crash is cut off on open.
+// Appends only write to the page cache. Callers then wait in awaitDurable, where one of them forces the file
+// for everything written so far while the others wait for that sync, so concurrent appends share one fsync.
+public class IngestionJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionJournal.class);
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_PAYLOAD_BYTES = 1 << 20;
+    // Remarks markers; entries written before remarks were length-prefixed use writeUTF, limited to 64KB
+    private static final byte NO_REMARKS = 0;
+    private static final byte UTF_REMARKS = 1;
+    private static final byte BYTES_REMARKS = 2;
+
+    public record Entry(long sequence, BatchRecordRequest record) {
+    }
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // First sequence of every segment file, including the one being appended to
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private FileChannel segment;
+    private long segmentBytes;
+    private long nextSequence;
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition synced = syncLock.newCondition();
+    private long durableSequence;
+    private boolean syncing;
+
+    private IngestionJournal(Path directory, long maxSegmentBytes) {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+
+    // Opens the journal in the directory, creating it if needed, and continues after the last intact entry
+    public static IngestionJournal open(Path directory, long maxSegmentBytes) throws IOException {
+        Files.createDirectories(directory);
+        IngestionJournal journal = new IngestionJournal(directory, maxSegmentBytes);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(IngestionJournal::isSegment)
+                    .forEach(file -> journal.segments.put(firstSequenceOf(file), file));
+        }
+
+        long lastSequence = 0;
+        if (!journal.segments.isEmpty()) {
+            Map.Entry<Long, Path> last = journal.segments.lastEntry();
+            lastSequence = last.getKey() - 1;
+            long validBytes = 0;
+            try (DataInputStream in = reader(last.getValue())) {
+                byte[] payload;
+                while ((payload = readPayload(in)) != null) {
+                    lastSequence = decode(payload).sequence();
+                    validBytes += HEADER_BYTES + payload.length;
+                }
+            }
+            journal.segment = FileChannel.open(last.getValue(), StandardOpenOption.WRITE);
+            if (journal.segment.size() > validBytes) {
+                logger.warn("Discarding {} bytes of torn journal tail in {}",
+                        journal.segment.size() - validBytes, last.getValue());
+                journal.segment.truncate(validBytes);
+                journal.segment.force(true);
+            }
+            journal.segment.position(validBytes);
+            journal.segmentBytes = validBytes;
+        }
+        journal.nextSequence = lastSequence + 1;
+        journal.durableSequence = lastSequence;
+        if (journal.segment == null) {
+            journal.startSegment();
+        }
+        return journal;
+    }
+
+    // Passes every intact entry with a sequence above afterSequence to the consumer, oldest first
+    public void replay(long afterSequence, Consumer<Entry> consumer) throws IOException {
+        List<Path> files;
+        writeLock.lock();
+        try {
+            Long first = segments.floorKey(afterSequence + 1);
+            files = new ArrayList<>(segments.tailMap(first == null ? segments.firstKey() : first).values());
+        } finally {
+            writeLock.unlock();
+        }
+        for (Path file : files) {
+            try (DataInputStream in = reader(file)) {
+                byte[] payload;
+                while ((payload = readPayload(in)) != null) {
+                    Entry entry = decode(payload);
+                    if (entry.sequence() > afterSequence) {
+                        consumer.accept(entry);
+                    }
+                }
+            }
+        }
+    }
+
+    // Writes the record and hands the numbered entry to onWritten while still holding the append lock, so
+    // entries reach onWritten in sequence order. The entry is not durable until awaitDurable returns.
+    public long append(BatchRecordRequest record, Consumer<Entry> onWritten) throws IOException {
+        writeLock.lock();
+        try {
+            Entry entry = new Entry(nextSequence, record);
+            byte[] payload = encode(entry);
+            if (payload.length > MAX_PAYLOAD_BYTES) {
+                throw new IllegalArgumentException("Record is too large to journal");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload.length)
+                    .putInt(payload.length)
+                    .putInt(checksum(payload))
+                    .put(payload)
+                    .flip();
+            if (segmentBytes > 0 && segmentBytes + buffer.remaining() > maxSegmentBytes) {
+                rollSegment();
+            }
+            writeFully(buffer);
+            nextSequence++;
+            onWritten.accept(entry);
+            return entry.sequence();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Returns once every entry up to the sequence has been forced to disk
+    public void awaitDurable(long sequence) throws IOException {
+        syncLock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (syncing) {
+                    synced.awaitUninterruptibly();
+                    continue;
+                }
+                syncing = true;
+                long target = durableSequence;
+                syncLock.unlock();
+                try {
+                    target = forceWritten();
+                } finally {
+                    syncLock.lock();
+                    syncing = false;
+                    durableSequence = Math.max(durableSequence, target);
+                    synced.signalAll();
+                }
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // Makes the next entry's sequence at least sequence + 1
+    public void continueAfter(long sequence) throws IOException {
+        writeLock.lock();
+        try {
+            if (nextSequence > sequence) {
+                return;
+            }
+            segment.force(false);
+            segment.close();
+            nextSequence = sequence + 1;
+            startSegment();
+        } finally {
+            writeLock.unlock();
+        }
+        syncLock.lock();
+        try {
+            durableSequence = Math.max(durableSequence, sequence);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // Deletes the segments whose entries are all at or below the sequence; the current segment is kept
+    public void release(long sequence) throws IOException {
+        List<Path> released = new ArrayList<>();
+        writeLock.lock();
+        try {
+            Iterator<Map.Entry<Long, Path>> iterator = segments.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Long, Path> current = iterator.next();
+                Long next = segments.higherKey(current.getKey());
+                if (next == null || next - 1 > sequence) {
+                    break;
+                }
+                released.add(current.getValue());
+                iterator.remove();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        for (Path file : released) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    public long lastSequence() {
+        writeLock.lock();
+        try {
+            return nextSequence - 1;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            segment.force(false);
+            segment.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Forces the current segment and returns the last sequence that is now durable
+    private long forceWritten() throws IOException {
+        long target;
+        FileChannel channel;
+        writeLock.lock();
+        try {
+            target = nextSequence - 1;
+            channel = segment;
+        } finally {
+            writeLock.unlock();
+        }
+        try {
+            channel.force(false);
+        } catch (ClosedChannelException ex) {
+            // Rolled over meanwhile; a segment is forced before it is closed
+        }
+        return target;
+    }
+
+    // A failed write is cut back to the previous entry, so a partial one cannot end up in front of the next
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        long start = segmentBytes;
+        try {
+            while (buffer.hasRemaining()) {
+                segmentBytes += segment.write(buffer);
+            }
+        } catch (IOException ex) {
+            try {
+                segment.truncate(start);
+                segment.position(start);
+                segmentBytes = start;
+            } catch (IOException truncateFailure) {
+                ex.addSuppressed(truncateFailure);
+            }
+            throw ex;
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        segment.force(false);
+        segment.close();
+        startSegment();
+    }
+
+    private void startSegment() throws IOException {
+        Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSequence, SEGMENT_SUFFIX));
+        segment = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        segment.truncate(0);
+        segmentBytes = 0;
+        segments.put(nextSequence, file);
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long firstSequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static DataInputStream reader(Path file) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024));
+    }
+
+    // Null at the end of the segment and at the first torn or corrupt entry
+    private static byte[] readPayload(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if (length <= 0 || length > MAX_PAYLOAD_BYTES) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            return checksum(payload) == checksum ? payload : null;
+        } catch (EOFException ex) {
+            return null;
+        }
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encode(Entry entry) throws IOException {
+        BatchRecordRequest record = entry.record();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(entry.sequence());
+            out.writeLong(record.getAthleteId());
+            out.writeUTF(record.getMetricName());
+            out.writeDouble(record.getValue());
+            out.writeLong(record.getDate().toEpochDay());
+            if (record.getRemarks() == null) {
+                out.writeByte(NO_REMARKS);
+            } else {
+                byte[] remarks = record.getRemarks().getBytes(StandardCharsets.UTF_8);
+                out.writeByte(BYTES_REMARKS);
+                out.writeInt(remarks.length);
+                out.write(remarks);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Entry decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        long sequence = in.readLong();
+        BatchRecordRequest record = new BatchRecordRequest(
+                in.readLong(),
+                in.readUTF(),
+                in.readDouble(),
+                LocalDate.ofEpochDay(in.readLong()),
+                readRemarks(in));
+        return new Entry(sequence, record);
+    }
+
+    private static String readRemarks(DataInputStream in) throws IOException {
+        return switch (in.readByte()) {
+            case NO_REMARKS -> null;
+            case UTF_REMARKS -> in.readUTF();
+            case BYTES_REMARKS -> {
+                byte[] remarks = new byte[in.readInt()];
+                in.readFully(remarks);
+                yield new String(remarks, StandardCharsets.UTF_8);
+            }
+            default -> throw new IOException("Unknown remarks marker in journal entry");
+        };
+    }
+}
@@ -0,0 +1,137 @@
+package org.ncu.performancetracker.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+
+import org.ncu.performancetracker.dto.CursorPage;
+import org.ncu.performancetracker.model.PerformanceRecord;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Page sizes and opaque cursor tokens for the keyset-paginated listings.
+// Record listings are ordered by (date, id), athlete listings by id.
+@Component
+public class KeysetPagination {
+
+    private static final String RECORD_PREFIX = "r:";
+    private static final String ATHLETE_PREFIX = "a:";
+
+    private final int defaultSize;
+    private final int maxSize;
+
+    @Autowired
+    public KeysetPagination(
+            @Value("${app.pagination.default-size:100}") int defaultSize,
+            @Value("${app.pagination.max-size:1000}") int maxSize) {
+        this.defaultSize = defaultSize;
+        this.maxSize = maxSize;
+    }
+
+    public Limit limit(Integer size) {
+        if (size == null) {
+            return Limit.of(defaultSize);
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return Limit.of(Math.min(size, maxSize));
+    }
+
+    public ScrollPosition recordPosition(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        String[] parts = decode(cursor, RECORD_PREFIX).split(":");
+        if (parts.length != 2) {
+            throw invalidCursor();
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("date", parseEpochDay(parts[0]));
+        keys.put("id", parseLong(parts[1]));
+        return ScrollPosition.forward(keys);
+    }
+
+    public ScrollPosition athletePosition(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        return ScrollPosition.forward(Map.of("id", parseLong(decode(cursor, ATHLETE_PREFIX))));
+    }
+
+    public <T> CursorPage<T> recordPage(Window<T> window) {
+        return toPage(window, keys -> RECORD_PREFIX
+                + ((LocalDate) keys.get("date")).toEpochDay() + ":" + keys.get("id"));
+    }
+
+    // For record pages assembled from more than one source
+    public CursorPage<PerformanceRecord> recordPage(List<PerformanceRecord> records, boolean hasNext) {
+        String nextCursor = null;
+        if (hasNext && !records.isEmpty()) {
+            PerformanceRecord last = records.get(records.size() - 1);
+            nextCursor = encode(RECORD_PREFIX + last.getDate().toEpochDay() + ":" + last.getId());
+        }
+        return new CursorPage<>(records, nextCursor);
+    }
+
+    public <T> CursorPage<T> athletePage(Window<T> window) {
+        return toPage(window, keys -> ATHLETE_PREFIX + keys.get("id"));
+    }
+
+    private <T> CursorPage<T> toPage(Window<T> window, Function<Map<String, Object>, String> cursorFormat) {
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            KeysetScrollPosition position = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+            nextCursor = encode(cursorFormat.apply(position.getKeys()));
+        }
+        return new CursorPage<>(window.getContent(), nextCursor);
+    }
+
+    private String encode(String cursor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String decode(String cursor, String prefix) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw invalidCursor();
+        }
+        if (!decoded.startsWith(prefix)) {
+            throw invalidCursor();
+        }
+        return decoded.substring(prefix.length());
+    }
+
+    private long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            throw invalidCursor();
+        }
+    }
+
+    private LocalDate parseEpochDay(String value) {
+        try {
+            return LocalDate.ofEpochDay(parseLong(value));
+        } catch (DateTimeException ex) {
+            throw invalidCursor();
+        }
+    }
+
+    private IllegalArgumentException invalidCursor() {
+        return new IllegalArgumentException("Invalid cursor");
+    }
+}
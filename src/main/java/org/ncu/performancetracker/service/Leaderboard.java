@@ -0,0 +1,219 @@
+package org.ncu.performancetracker.service;
+
+import org.ncu.performancetracker.dto.LeaderboardEntry;
+import org.ncu.performancetracker.model.MetricDirection;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Athletes ordered by their best value on one metric within one scope, best first (highest or lowest,
+// depending on the metric's direction).
+// Backed by a treap whose nodes carry subtree sizes, so updates, rank lookups and top-N are O(log n).
+public class Leaderboard {
+
+    private static final class Node {
+        final long athleteId;
+        final double value;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(long athleteId, double value) {
+            this.athleteId = athleteId;
+            this.value = value;
+        }
+    }
+
+    private final MetricDirection direction;
+    private final Map<Long, Double> values = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root;
+
+    public Leaderboard() {
+        this(MetricDirection.HIGHER_IS_BETTER);
+    }
+
+    public Leaderboard(MetricDirection direction) {
+        this.direction = direction;
+    }
+
+    public void put(long athleteId, double value) {
+        lock.writeLock().lock();
+        try {
+            Double previous = values.put(athleteId, value);
+            if (previous != null) {
+                if (previous == value) {
+                    return;
+                }
+                root = delete(root, athleteId, previous);
+            }
+            root = insert(root, new Node(athleteId, value));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long athleteId) {
+        lock.writeLock().lock();
+        try {
+            Double previous = values.remove(athleteId);
+            if (previous != null) {
+                root = delete(root, athleteId, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<LeaderboardEntry> top(int limit) {
+        lock.readLock().lock();
+        try {
+            List<LeaderboardEntry> entries = new ArrayList<>(Math.min(limit, size(root)));
+            Deque<Node> path = new ArrayDeque<>();
+            Node node = root;
+            while ((node != null || !path.isEmpty()) && entries.size() < limit) {
+                while (node != null) {
+                    path.push(node);
+                    node = node.left;
+                }
+                node = path.pop();
+                int rank = entries.size() + 1;
+                if (!entries.isEmpty() && entries.get(entries.size() - 1).getValue() == node.value) {
+                    rank = entries.get(entries.size() - 1).getRank();
+                }
+                entries.add(new LeaderboardEntry(rank, node.athleteId, node.value));
+                node = node.right;
+            }
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<LeaderboardEntry> rankOf(long athleteId) {
+        lock.readLock().lock();
+        try {
+            Double value = values.get(athleteId);
+            if (value == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new LeaderboardEntry(countBetterThan(value) + 1, athleteId, value));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Number of athletes with a strictly better value
+    private int countBetterThan(double value) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (direction.isBetter(node.value, value)) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    // Better values first, ties broken by athlete id so every key is unique
+    private int compare(long athleteId, double value, Node node) {
+        int byValue = direction == MetricDirection.HIGHER_IS_BETTER
+                ? Double.compare(node.value, value)
+                : Double.compare(value, node.value);
+        return byValue != 0 ? byValue : Long.compare(athleteId, node.athleteId);
+    }
+
+    private Node insert(Node node, Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (inserted.priority > node.priority) {
+            Node[] parts = split(node, inserted.athleteId, inserted.value);
+            inserted.left = parts[0];
+            inserted.right = parts[1];
+            return update(inserted);
+        }
+        if (compare(inserted.athleteId, inserted.value, node) < 0) {
+            node.left = insert(node.left, inserted);
+        } else {
+            node.right = insert(node.right, inserted);
+        }
+        return update(node);
+    }
+
+    private Node delete(Node node, long athleteId, double value) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = compare(athleteId, value, node);
+        if (comparison == 0) {
+            return merge(node.left, node.right);
+        }
+        if (comparison < 0) {
+            node.left = delete(node.left, athleteId, value);
+        } else {
+            node.right = delete(node.right, athleteId, value);
+        }
+        return update(node);
+    }
+
+    // Splits into the nodes ordered before the key and the rest
+    private Node[] split(Node node, long athleteId, double value) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (compare(athleteId, value, node) > 0) {
+            Node[] parts = split(node.right, athleteId, value);
+            node.right = parts[0];
+            return new Node[]{update(node), parts[1]};
+        }
+        Node[] parts = split(node.left, athleteId, value);
+        node.left = parts[1];
+        return new Node[]{parts[0], update(node)};
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+
+    private static Node update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+        return node;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+}
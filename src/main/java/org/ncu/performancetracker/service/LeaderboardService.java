@@ -0,0 +1,251 @@
+package org.ncu.performancetracker.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import org.ncu.performancetracker.config.ReadYourWrites;
+import org.ncu.performancetracker.dto.LeaderboardEntry;
+import org.ncu.performancetracker.event.AthleteChangeEvent;
+import org.ncu.performancetracker.event.MetricChangeEvent;
+import org.ncu.performancetracker.event.RecordChange;
+import org.ncu.performancetracker.event.RecordChangeEvent;
+import org.ncu.performancetracker.exception.ResourceNotFoundException;
+import org.ncu.performancetracker.model.Athlete;
+import org.ncu.performancetracker.model.MetricDirection;
+import org.ncu.performancetracker.repository.AthleteRepository;
+import org.ncu.performancetracker.repository.PersonalBestRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// In-memory leaderboards of personal bests per metric, overall and per sport, position and sport + position.
+// Loaded from the personal-best index at startup and refreshed after every committed record or athlete change.
+@Service
+public class LeaderboardService {
+
+    private record BoardKey(String metricName, String sport, String position) {
+    }
+
+    private record AthleteScope(String sport, String position) {
+    }
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final PersonalBestRepository personalBestRepository;
+    private final AthleteRepository athleteRepository;
+    private final MetricCatalog metricCatalog;
+    private final ReadYourWrites readYourWrites;
+    private final TransactionTemplate readOnly;
+    private final int maxLimit;
+
+    private volatile Map<BoardKey, Leaderboard> boards = new ConcurrentHashMap<>();
+    private volatile Map<Long, AthleteScope> athleteScopes = new ConcurrentHashMap<>();
+    // Refreshes for the same athlete run one at a time, so a slower refresh cannot overwrite a newer one
+    private final ReentrantLock[] athleteLocks = new ReentrantLock[LOCK_STRIPES];
+    // Until a rebuild publishes its boards, committed changes are also queued here and replayed onto the new
+    // boards afterwards, as the scan's snapshot may not include them. Queued from construction, so changes
+    // committed at startup before the first rebuild (e.g. journal replay) are kept too.
+    private final Lock changeLock = new ReentrantLock();
+    private List<Runnable> changesDuringRebuild = new ArrayList<>();
+
+    @Autowired
+    public LeaderboardService(
+            PersonalBestRepository personalBestRepository,
+            AthleteRepository athleteRepository,
+            MetricCatalog metricCatalog,
+            ReadYourWrites readYourWrites,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.pagination.max-size:1000}") int maxLimit) {
+        this.personalBestRepository = personalBestRepository;
+        this.athleteRepository = athleteRepository;
+        this.metricCatalog = metricCatalog;
+        this.readYourWrites = readYourWrites;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.maxLimit = maxLimit;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            athleteLocks[i] = new ReentrantLock();
+        }
+    }
+
+    public List<LeaderboardEntry> findTop(String metricName, String sport, String position, int limit) {
+        if (limit < 1 || limit > maxLimit) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxLimit);
+        }
+        Leaderboard board = boards.get(new BoardKey(metricCatalog.canonicalName(metricName), sport, position));
+        return board == null ? List.of() : board.top(limit);
+    }
+
+    public LeaderboardEntry findRank(String metricName, String sport, String position, Long athleteId) {
+        Leaderboard board = boards.get(new BoardKey(metricCatalog.canonicalName(metricName), sport, position));
+        return Optional.ofNullable(board)
+                .flatMap(b -> b.rankOf(athleteId))
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Athlete " + athleteId + " has no ranking for metric: " + metricName));
+    }
+
+    // Replaces all boards with ones loaded from the personal-best index
+    public int rebuild() {
+        changeLock.lock();
+        try {
+            if (changesDuringRebuild == null) {
+                changesDuringRebuild = new ArrayList<>();
+            }
+        } finally {
+            changeLock.unlock();
+        }
+        Map<BoardKey, Leaderboard> loadedBoards = new ConcurrentHashMap<>();
+        Map<Long, AthleteScope> loadedScopes = new ConcurrentHashMap<>();
+        int entries = readYourWrites.onPrimary(() -> readOnly.execute(status -> {
+            int scanned = 0;
+            try (Stream<Object[]> rows = personalBestRepository.streamAllWithAthleteScope()) {
+                for (Iterator<Object[]> iterator = rows.iterator(); iterator.hasNext(); ) {
+                    Object[] row = iterator.next();
+                    Long athleteId = (Long) row[0];
+                    AthleteScope scope = loadedScopes.computeIfAbsent(athleteId,
+                            id -> new AthleteScope((String) row[3], (String) row[4]));
+                    for (BoardKey key : boardKeys((String) row[1], scope)) {
+                        loadedBoards.computeIfAbsent(key, this::newBoard).put(athleteId, (Double) row[2]);
+                    }
+                    scanned++;
+                }
+            }
+            return scanned;
+        }));
+
+        List<Runnable> queued;
+        changeLock.lock();
+        try {
+            boards = loadedBoards;
+            athleteScopes = loadedScopes;
+            queued = changesDuringRebuild;
+            changesDuringRebuild = null;
+        } finally {
+            changeLock.unlock();
+        }
+        // Outside the scan's transaction, so the handlers read what has been committed since
+        queued.forEach(Runnable::run);
+        return entries;
+    }
+
+    @TransactionalEventListener
+    public void onRecordChange(RecordChangeEvent event) {
+        queueDuringRebuild(() -> onRecordChange(event));
+        Map<Long, Set<String>> touched = new LinkedHashMap<>();
+        for (RecordChange change : event.getChanges()) {
+            touched.computeIfAbsent(change.getAthleteId(), id -> new HashSet<>()).add(change.getMetricName());
+        }
+        touched.forEach((athleteId, metricNames) -> withAthleteLock(athleteId, () -> {
+            AthleteScope scope = athleteScopes.get(athleteId);
+            if (scope == null) {
+                Optional<Athlete> athlete = athleteRepository.findById(athleteId);
+                if (athlete.isEmpty()) {
+                    return;
+                }
+                scope = new AthleteScope(athlete.get().getSport(), athlete.get().getPosition());
+                athleteScopes.put(athleteId, scope);
+            }
+            for (String metricName : metricNames) {
+                // Read the committed best rather than applying the event's values, which may arrive out of order
+                Optional<Double> best = personalBestRepository.findByAthleteIdAndMetricName(athleteId, metricName)
+                        .map(personalBest -> personalBest.getValue());
+                for (BoardKey key : boardKeys(metricName, scope)) {
+                    if (best.isPresent()) {
+                        boards.computeIfAbsent(key, this::newBoard).put(athleteId, best.get());
+                    } else {
+                        Optional.ofNullable(boards.get(key)).ifPresent(board -> board.remove(athleteId));
+                    }
+                }
+            }
+        }));
+    }
+
+    // Sport or position changes move the athlete between boards; deleted athletes drop off every board
+    @TransactionalEventListener
+    public void onAthleteChange(AthleteChangeEvent event) {
+        queueDuringRebuild(() -> onAthleteChange(event));
+        for (Long athleteId : event.getAthleteIds()) {
+            withAthleteLock(athleteId, () -> {
+                boards.values().forEach(board -> board.remove(athleteId));
+                athleteScopes.remove(athleteId);
+
+                Optional<Athlete> athlete = athleteRepository.findById(athleteId);
+                if (athlete.isEmpty()) {
+                    return;
+                }
+                AthleteScope scope = new AthleteScope(athlete.get().getSport(), athlete.get().getPosition());
+                athleteScopes.put(athleteId, scope);
+                personalBestRepository.findByAthleteId(athleteId).forEach(personalBest -> {
+                    for (BoardKey key : boardKeys(personalBest.getMetricName(), scope)) {
+                        boards.computeIfAbsent(key, this::newBoard).put(athleteId, personalBest.getValue());
+                    }
+                });
+            });
+        }
+    }
+
+    // A direction change reverses the order of every board of the metric; they are reloaded from the
+    // personal bests, which were recomputed in the same transaction
+    @TransactionalEventListener
+    public void onMetricChange(MetricChangeEvent event) {
+        if (!event.isDirectionChanged()) {
+            return;
+        }
+        queueDuringRebuild(() -> onMetricChange(event));
+        String metricName = event.getMetric().getName();
+        MetricDirection direction = event.getMetric().getDirection();
+
+        Map<BoardKey, Leaderboard> reloaded = new HashMap<>();
+        for (Object[] row : personalBestRepository.findByMetricNameWithAthleteScope(metricName)) {
+            Long athleteId = (Long) row[0];
+            AthleteScope scope = athleteScopes.computeIfAbsent(athleteId,
+                    id -> new AthleteScope((String) row[3], (String) row[4]));
+            for (BoardKey key : boardKeys(metricName, scope)) {
+                reloaded.computeIfAbsent(key, k -> new Leaderboard(direction)).put(athleteId, (Double) row[2]);
+            }
+        }
+        boards.keySet().removeIf(key -> key.metricName().equals(metricName) && !reloaded.containsKey(key));
+        boards.putAll(reloaded);
+    }
+
+    // The handlers read the committed state rather than the event's values, so replaying one is harmless
+    private void queueDuringRebuild(Runnable replay) {
+        changeLock.lock();
+        try {
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(replay);
+            }
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    private Leaderboard newBoard(BoardKey key) {
+        return new Leaderboard(metricCatalog.directionOf(key.metricName()));
+    }
+
+    private void withAthleteLock(Long athleteId, Runnable action) {
+        ReentrantLock lock = athleteLocks[Math.floorMod(athleteId.hashCode(), LOCK_STRIPES)];
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static List<BoardKey> boardKeys(String metricName, AthleteScope scope) {
+        return List.of(
+                new BoardKey(metricName, null, null),
+                new BoardKey(metricName, scope.sport(), null),
+                new BoardKey(metricName, null, scope.position()),
+                new BoardKey(metricName, scope.sport(), scope.position()));
+    }
+}
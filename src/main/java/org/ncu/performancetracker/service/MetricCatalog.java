@@ -0,0 +1,221 @@
+package org.ncu.performancetracker.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import org.ncu.performancetracker.config.ReadYourWrites;
+import org.ncu.performancetracker.event.MetricChangeEvent;
+import org.ncu.performancetracker.exception.ResourceNotFoundException;
+import org.ncu.performancetracker.model.Metric;
+import org.ncu.performancetracker.model.MetricDirection;
+import org.ncu.performancetracker.repository.MetricRepository;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// In-memory name <-> id dictionary over the metric table. Metric names are matched case-insensitively and
+// ignoring surrounding whitespace; unknown names are registered on first write as higher-is-better.
+// Metrics registered or changed by other instances are picked up on a cache miss and every refresh-interval.
+@Service
+public class MetricCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricCatalog.class);
+
+    private final MetricRepository metricRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReadYourWrites readYourWrites;
+    private final TransactionTemplate newTransaction;
+    private final Duration refreshInterval;
+
+    private final Map<String, Metric> metricsByKey = new ConcurrentHashMap<>();
+    private final Map<Integer, Metric> metricsById = new ConcurrentHashMap<>();
+    // A Lock rather than a monitor: registration runs a transaction, which must not pin a virtual thread
+    private final Lock registrationLock = new ReentrantLock();
+    private ScheduledExecutorService refresher;
+
+    @Autowired
+    public MetricCatalog(
+            MetricRepository metricRepository,
+            ApplicationEventPublisher eventPublisher,
+            ReadYourWrites readYourWrites,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.metrics.refresh-interval:1m}") Duration refreshInterval) {
+        this.metricRepository = metricRepository;
+        this.eventPublisher = eventPublisher;
+        this.readYourWrites = readYourWrites;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.refreshInterval = refreshInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        load();
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metric-catalog-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = refreshInterval.toMillis();
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    // (Re)reads the whole table, replacing cached entries with their stored unit and direction
+    public void load() {
+        readYourWrites.onPrimary(metricRepository::findAll).forEach(this::cache);
+    }
+
+    public List<Metric> findAll() {
+        return metricsById.values().stream()
+                .sorted(Comparator.comparing(Metric::getId))
+                .map(Metric::new)
+                .toList();
+    }
+
+    public Optional<Metric> find(String name) {
+        return Optional.ofNullable(name).map(n -> metricsByKey.get(Metric.keyOf(n))).map(Metric::new);
+    }
+
+    // Catalog spelling of the name, or the name itself when it is not in the catalog
+    public String canonicalName(String name) {
+        Metric metric = name == null ? null : metricsByKey.get(Metric.keyOf(name));
+        return metric == null ? name : metric.getName();
+    }
+
+    // Null for unknown names, which then match no stored rows
+    public Integer idOf(String name) {
+        Metric metric = metricsByKey.get(Metric.keyOf(name));
+        return metric == null ? null : metric.getId();
+    }
+
+    // Ids missing from the cache were registered by another instance since the last refresh
+    public String nameOf(Integer id) {
+        Metric metric = metricsById.get(id);
+        if (metric == null) {
+            metric = metricRepository.findById(id).map(this::cache)
+                    .orElseThrow(() -> new IllegalStateException("Unknown metric id: " + id));
+        }
+        return metric.getName();
+    }
+
+    public MetricDirection directionOf(String name) {
+        if (name == null) {
+            return MetricDirection.HIGHER_IS_BETTER;
+        }
+        String key = Metric.keyOf(name);
+        Metric metric = metricsByKey.get(key);
+        if (metric == null) {
+            metric = metricRepository.findByNameKey(key).map(this::cache).orElse(null);
+        }
+        return metric == null ? MetricDirection.HIGHER_IS_BETTER : metric.getDirection();
+    }
+
+    // Catalog entry for a name about to be written, registering it if needed. Registration commits in its own
+    // transaction so the id is visible to every writer at once, whatever happens to the caller's transaction.
+    // That transaction needs a second connection, so callers resolve names before taking athlete row locks.
+    public Metric resolve(String name) {
+        String key = Metric.keyOf(name);
+        Metric metric = metricsByKey.get(key);
+        if (metric != null) {
+            return metric;
+        }
+        registrationLock.lock();
+        try {
+            metric = metricsByKey.get(key);
+            if (metric == null) {
+                metric = cache(register(name.trim()));
+            }
+            return metric;
+        } finally {
+            registrationLock.unlock();
+        }
+    }
+
+    @Transactional
+    public Metric create(Metric metric) {
+        String name = metric.getName().trim();
+        if (metricRepository.findByNameKey(Metric.keyOf(name)).isPresent()) {
+            throw new IllegalArgumentException("Metric already exists: " + name);
+        }
+        MetricDirection direction = metric.getDirection() == null ? MetricDirection.HIGHER_IS_BETTER : metric.getDirection();
+        Metric savedMetric = metricRepository.save(new Metric(name, metric.getUnit(), direction));
+        eventPublisher.publishEvent(new MetricChangeEvent(new Metric(savedMetric), false));
+        return savedMetric;
+    }
+
+    // Only the unit and direction can change; a direction change re-ranks every personal best of the metric
+    @Transactional
+    public Metric update(Integer id, Metric changes) {
+        Metric metric = metricRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Metric not found with id: " + id));
+
+        boolean directionChanged = changes.getDirection() != null && changes.getDirection() != metric.getDirection();
+        metric.setUnit(changes.getUnit());
+        if (changes.getDirection() != null) {
+            metric.setDirection(changes.getDirection());
+        }
+
+        Metric savedMetric = metricRepository.save(metric);
+        eventPublisher.publishEvent(new MetricChangeEvent(new Metric(savedMetric), directionChanged));
+        return savedMetric;
+    }
+
+    @TransactionalEventListener
+    public void onMetricChange(MetricChangeEvent event) {
+        cache(event.getMetric());
+    }
+
+    private Metric register(String name) {
+        try {
+            return newTransaction.execute(status -> metricRepository.findByNameKey(Metric.keyOf(name))
+                    .orElseGet(() -> metricRepository.save(
+                            new Metric(name, null, MetricDirection.HIGHER_IS_BETTER))));
+        } catch (DataIntegrityViolationException ex) {
+            // Registered concurrently by another instance
+            return newTransaction.execute(status -> metricRepository.findByNameKey(Metric.keyOf(name)).orElseThrow());
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            load();
+        } catch (RuntimeException ex) {
+            logger.warn("Could not refresh the metric catalog, will retry", ex);
+        }
+    }
+
+    private Metric cache(Metric metric) {
+        Metric copy = new Metric(metric);
+        metricsById.put(copy.getId(), copy);
+        metricsByKey.put(copy.getNameKey(), copy);
+        return copy;
+    }
+}
@@ -0,0 +1,465 @@
+package org.ncu.performancetracker.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import org.ncu.performancetracker.config.ReadYourWrites;
+import org.ncu.performancetracker.dto.MetricPercentile;
+import org.ncu.performancetracker.dto.ValueDistribution;
+import org.ncu.performancetracker.event.AthleteChangeEvent;
+import org.ncu.performancetracker.event.RecordChange;
+import org.ncu.performancetracker.event.RecordChangeEvent;
+import org.ncu.performancetracker.exception.ResourceNotFoundException;
+import org.ncu.performancetracker.model.Athlete;
+import org.ncu.performancetracker.model.MetricDirection;
+import org.ncu.performancetracker.model.MetricSketch;
+import org.ncu.performancetracker.repository.AthleteRepository;
+import org.ncu.performancetracker.repository.MetricSketchRepository;
+import org.ncu.performancetracker.repository.PerformanceRecordRepository;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// QuantileSketches of every recorded value per metric, across all athletes and per sport, answering percentile
+// queries in time independent of the number of records. Committed record writes feed them incrementally; a
+// background thread writes the changed ones to metric_sketch every flush-interval, and startup reloads them,
+// rebuilding from the records when a metric's stored count no longer matches. Deleting an athlete or moving one
+// to another sport makes that thread rebuild instead, as the values to take back are not known after commit.
+@Service
+public class MetricDistributionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricDistributionService.class);
+    private static final double[] SUMMARY_QUANTILES = {0, 0.1, 0.25, 0.5, 0.75, 0.9, 1};
+
+    // A null sport is the sketch across all athletes
+    private record SketchKey(int metricId, String sport) {
+    }
+
+    private record AthleteScope(String sport) {
+    }
+
+    private final MetricSketchRepository sketchRepository;
+    private final PerformanceRecordRepository recordRepository;
+    private final AthleteRepository athleteRepository;
+    private final AthleteCache athleteCache;
+    private final RecordArchive recordArchive;
+    private final MetricCatalog metricCatalog;
+    private final ReadYourWrites readYourWrites;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate primaryRead;
+    private final double relativeAccuracy;
+    private final int maxBuckets;
+    private final Duration flushInterval;
+
+    private volatile Map<SketchKey, QuantileSketch> sketches = new ConcurrentHashMap<>();
+    private volatile Map<Long, AthleteScope> athleteScopes = new ConcurrentHashMap<>();
+    private final Set<SketchKey> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    // Serializes rebuilds and flushes. A Lock rather than synchronized: both run long JDBC reads and writes,
+    // which must not pin a virtual thread's carrier.
+    private final Lock persistLock = new ReentrantLock();
+    // Guards swapping in rebuilt sketches against record changes applied at the same time. While a rebuild
+    // scans, committed changes are also queued here and replayed onto the rebuilt sketches before they are
+    // published, as the scan's snapshot may not include them. Queued from construction until load() publishes,
+    // so changes committed at startup (e.g. journal replay) are not lost either.
+    private final Lock changeLock = new ReentrantLock();
+    private List<RecordChange> changesDuringRebuild = new ArrayList<>();
+    private ScheduledExecutorService flusher;
+
+    @Autowired
+    public MetricDistributionService(
+            MetricSketchRepository sketchRepository,
+            PerformanceRecordRepository recordRepository,
+            AthleteRepository athleteRepository,
+            AthleteCache athleteCache,
+            RecordArchive recordArchive,
+            MetricCatalog metricCatalog,
+            ReadYourWrites readYourWrites,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.sketches.relative-accuracy:0.01}") double relativeAccuracy,
+            @Value("${app.sketches.max-buckets:2048}") int maxBuckets,
+            @Value("${app.sketches.flush-interval:1m}") Duration flushInterval) {
+        this.sketchRepository = sketchRepository;
+        this.recordRepository = recordRepository;
+        this.athleteRepository = athleteRepository;
+        this.athleteCache = athleteCache;
+        this.recordArchive = recordArchive;
+        this.metricCatalog = metricCatalog;
+        this.readYourWrites = readYourWrites;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.primaryRead.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.primaryRead.setReadOnly(true);
+        this.relativeAccuracy = relativeAccuracy;
+        this.maxBuckets = maxBuckets;
+        this.flushInterval = flushInterval;
+        // Fails on bad settings at startup rather than on the first write
+        new QuantileSketch(relativeAccuracy, maxBuckets);
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metric-sketch-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher != null) {
+            flusher.shutdown();
+            flusher.awaitTermination(30, TimeUnit.SECONDS);
+        }
+        flushQuietly();
+    }
+
+    public MetricPercentile findPercentile(Long athleteId, String metricName) {
+        Athlete athlete = athleteCache.findById(athleteId)
+                .orElseThrow(() -> new ResourceNotFoundException("Athlete not found with id: " + athleteId));
+        String canonicalName = metricCatalog.canonicalName(metricName);
+        Double value = athleteCache.findPersonalBests(athleteId).get(canonicalName);
+        Integer metricId = metricCatalog.idOf(metricName);
+        if (value == null || metricId == null) {
+            throw new ResourceNotFoundException("Athlete " + athleteId + " has no value for metric: " + metricName);
+        }
+        boolean higherIsBetter = metricCatalog.directionOf(metricName) == MetricDirection.HIGHER_IS_BETTER;
+        Map<SketchKey, QuantileSketch> current = sketches;
+        ValueDistribution overall = distribution(current.get(new SketchKey(metricId, null)), value, higherIsBetter);
+        ValueDistribution withinSport = athlete.getSport() == null ? null
+                : distribution(current.get(new SketchKey(metricId, athlete.getSport())), value, higherIsBetter);
+        return new MetricPercentile(athleteId, canonicalName, athlete.getSport(), value, overall, withinSport);
+    }
+
+    // Loads the persisted sketches, or rebuilds them when they were written with other settings or a metric's
+    // count differs from its records (a flush lost in a crash, or records written before sketches existed)
+    public int load() {
+        persistLock.lock();
+        try {
+            return loadSketches();
+        } finally {
+            persistLock.unlock();
+        }
+    }
+
+    private int loadSketches() {
+        changeLock.lock();
+        try {
+            if (changesDuringRebuild == null) {
+                changesDuringRebuild = new ArrayList<>();
+            }
+        } finally {
+            changeLock.unlock();
+        }
+        try {
+            return loadSketches(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        } finally {
+            changeLock.lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                changeLock.unlock();
+            }
+        }
+    }
+
+    private int loadSketches(Map<SketchKey, QuantileSketch> loaded, Map<Long, AthleteScope> scopes) {
+        Map<Integer, Long> storedCounts = new HashMap<>();
+        Map<Integer, Long> recordCounts = new HashMap<>();
+        boolean compatible = readFromPrimary(() -> {
+            boolean sameSettings = true;
+            for (MetricSketch row : sketchRepository.findAll()) {
+                QuantileSketch sketch = QuantileSketch.fromBytes(row.getSketch());
+                sameSettings &= sketch.getRelativeAccuracy() == relativeAccuracy
+                        && sketch.getMaxBuckets() == maxBuckets;
+                loaded.put(new SketchKey(row.getMetricId(), row.getSport()), sketch);
+                if (row.getSport() == null && sketch.getCount() > 0) {
+                    storedCounts.put(row.getMetricId(), sketch.getCount());
+                }
+            }
+            for (Object[] row : recordRepository.countByMetricName()) {
+                Integer metricId = metricCatalog.idOf((String) row[0]);
+                if (metricId != null) {
+                    recordCounts.merge(metricId, (Long) row[1], Long::sum);
+                }
+            }
+            recordArchive.countByMetricId().forEach((metricId, count) -> recordCounts.merge(metricId, count, Long::sum));
+            loadScopes(scopes);
+            return sameSettings;
+        });
+        recordCounts.values().removeIf(count -> count == 0);
+        if (!compatible || !storedCounts.equals(recordCounts)) {
+            return rebuildSketches();
+        }
+        changeLock.lock();
+        try {
+            changesDuringRebuild.forEach(change -> applyChange(loaded, scopes, change));
+            sketches = loaded;
+            athleteScopes = scopes;
+        } finally {
+            changeLock.unlock();
+        }
+        return loaded.size();
+    }
+
+    // Replaces every sketch with one built from the live and archived records, and persists them all
+    public int rebuild() {
+        persistLock.lock();
+        try {
+            return rebuildSketches();
+        } finally {
+            persistLock.unlock();
+        }
+    }
+
+    // Writes the sketches changed since the last flush
+    public int flush() {
+        persistLock.lock();
+        try {
+            return flushChanged();
+        } finally {
+            persistLock.unlock();
+        }
+    }
+
+    private int rebuildSketches() {
+        rebuildRequested.set(false);
+        Set<SketchKey> dirtyAtStart;
+        changeLock.lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+            dirtyAtStart = new HashSet<>(dirty);
+        } finally {
+            changeLock.unlock();
+        }
+        try {
+            return rebuildSketches(dirtyAtStart);
+        } finally {
+            changeLock.lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                changeLock.unlock();
+            }
+        }
+    }
+
+    private int rebuildSketches(Set<SketchKey> dirtyAtStart) {
+        Map<Long, AthleteScope> scopes = new ConcurrentHashMap<>();
+        // Per sport, with athletes without a sport under a null sport; merged into the overall sketches below
+        Map<SketchKey, QuantileSketch> bySport = new HashMap<>();
+        readFromPrimary(() -> {
+            loadScopes(scopes);
+            try (Stream<Object[]> rows = recordRepository.streamAllValues()) {
+                rows.forEach(row -> {
+                    Integer metricId = metricCatalog.idOf((String) row[1]);
+                    AthleteScope scope = scopes.get((Long) row[0]);
+                    if (metricId != null && scope != null) {
+                        bySport.computeIfAbsent(new SketchKey(metricId, scope.sport()), key -> newSketch())
+                                .add((Double) row[2]);
+                    }
+                });
+            }
+            recordArchive.scanAllValues((athleteId, metricId, value) -> {
+                AthleteScope scope = scopes.get(athleteId);
+                if (scope != null) {
+                    bySport.computeIfAbsent(new SketchKey(metricId, scope.sport()), key -> newSketch()).add(value);
+                }
+            });
+            return null;
+        });
+
+        Map<SketchKey, QuantileSketch> rebuilt = new ConcurrentHashMap<>();
+        bySport.forEach((key, sketch) -> {
+            rebuilt.computeIfAbsent(new SketchKey(key.metricId(), null), k -> newSketch()).merge(sketch);
+            if (key.sport() != null) {
+                rebuilt.put(key, sketch);
+            }
+        });
+        changeLock.lock();
+        try {
+            // The rebuilt rows below cover the keys that were waiting to be flushed; the replayed ones stay dirty
+            dirty.removeAll(dirtyAtStart);
+            changesDuringRebuild.forEach(change -> applyChange(rebuilt, scopes, change));
+            sketches = rebuilt;
+            athleteScopes = scopes;
+        } finally {
+            changeLock.unlock();
+        }
+
+        List<MetricSketch> rows = new ArrayList<>();
+        rebuilt.forEach((key, sketch) -> rows.add(toRow(key, sketch)));
+        transactionTemplate.executeWithoutResult(status -> {
+            sketchRepository.deleteAllInBatch();
+            sketchRepository.saveAll(rows);
+        });
+        return rebuilt.size();
+    }
+
+    private int flushChanged() {
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+        List<SketchKey> keys = new ArrayList<>(dirty);
+        keys.forEach(dirty::remove);
+        Map<SketchKey, QuantileSketch> current = sketches;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<SketchKey, MetricSketch> rows = new HashMap<>();
+                for (MetricSketch row : sketchRepository.findAll()) {
+                    rows.put(new SketchKey(row.getMetricId(), row.getSport()), row);
+                }
+                for (SketchKey key : keys) {
+                    QuantileSketch sketch = current.get(key);
+                    if (sketch == null) {
+                        continue;
+                    }
+                    MetricSketch row = rows.get(key);
+                    if (row == null) {
+                        row = toRow(key, sketch);
+                    } else {
+                        row.setSketch(sketch.toBytes());
+                        row.setValueCount(sketch.getCount());
+                    }
+                    sketchRepository.save(row);
+                }
+            });
+        } catch (RuntimeException ex) {
+            dirty.addAll(keys);
+            throw ex;
+        }
+        return keys.size();
+    }
+
+    @TransactionalEventListener
+    public void onRecordChange(RecordChangeEvent event) {
+        changeLock.lock();
+        try {
+            Map<SketchKey, QuantileSketch> current = sketches;
+            for (RecordChange change : event.getChanges()) {
+                applyChange(current, athleteScopes, change);
+                if (changesDuringRebuild != null) {
+                    changesDuringRebuild.add(change);
+                }
+            }
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onAthleteChange(AthleteChangeEvent event) {
+        for (Long athleteId : event.getAthleteIds()) {
+            AthleteScope known = athleteScopes.get(athleteId);
+            Optional<Athlete> athlete = athleteRepository.findById(athleteId);
+            if (athlete.isEmpty()) {
+                if (athleteScopes.remove(athleteId) != null) {
+                    rebuildRequested.set(true);
+                }
+                continue;
+            }
+            AthleteScope scope = new AthleteScope(athlete.get().getSport());
+            if (known != null && !known.equals(scope)) {
+                rebuildRequested.set(true);
+            }
+            athleteScopes.put(athleteId, scope);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            if (rebuildRequested.get()) {
+                int rebuilt = rebuild();
+                logger.info("Rebuilt {} metric sketches", rebuilt);
+            } else {
+                flush();
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Could not persist metric sketches, will retry", ex);
+        }
+    }
+
+    private void applyChange(Map<SketchKey, QuantileSketch> target, Map<Long, AthleteScope> scopes, RecordChange change) {
+        Integer metricId = metricCatalog.idOf(change.getMetricName());
+        AthleteScope scope = scopeOf(scopes, change.getAthleteId());
+        if (metricId == null || scope == null) {
+            return;
+        }
+        for (SketchKey key : sketchKeys(metricId, scope)) {
+            if (change.getKind() == RecordChange.Kind.ADDED) {
+                target.computeIfAbsent(key, k -> newSketch()).add(change.getValue());
+            } else {
+                Optional.ofNullable(target.get(key)).ifPresent(sketch -> sketch.remove(change.getValue()));
+            }
+            dirty.add(key);
+        }
+    }
+
+    private AthleteScope scopeOf(Map<Long, AthleteScope> scopes, Long athleteId) {
+        AthleteScope scope = scopes.get(athleteId);
+        if (scope == null) {
+            Optional<Athlete> athlete = athleteCache.findById(athleteId);
+            if (athlete.isEmpty()) {
+                return null;
+            }
+            scope = new AthleteScope(athlete.get().getSport());
+            scopes.put(athleteId, scope);
+        }
+        return scope;
+    }
+
+    private void loadScopes(Map<Long, AthleteScope> scopes) {
+        try (Stream<Object[]> rows = athleteRepository.streamSearchFields()) {
+            rows.forEach(row -> scopes.put((Long) row[0], new AthleteScope((String) row[2])));
+        }
+    }
+
+    private <T> T readFromPrimary(Supplier<T> reader) {
+        return readYourWrites.onPrimary(() -> primaryRead.execute(status -> reader.get()));
+    }
+
+    private QuantileSketch newSketch() {
+        return new QuantileSketch(relativeAccuracy, maxBuckets);
+    }
+
+    private static MetricSketch toRow(SketchKey key, QuantileSketch sketch) {
+        return new MetricSketch(key.metricId(), key.sport(), sketch.getCount(), sketch.toBytes());
+    }
+
+    private static ValueDistribution distribution(QuantileSketch sketch, double value, boolean higherIsBetter) {
+        if (sketch == null || sketch.getCount() == 0) {
+            return null;
+        }
+        double[] quantiles = sketch.quantiles(SUMMARY_QUANTILES);
+        double below = sketch.cdf(value);
+        return new ValueDistribution(sketch.getCount(), 100 * (higherIsBetter ? below : 1 - below),
+                quantiles[0], quantiles[1], quantiles[2], quantiles[3], quantiles[4], quantiles[5], quantiles[6]);
+    }
+
+    private static List<SketchKey> sketchKeys(int metricId, AthleteScope scope) {
+        return scope.sport() == null
+                ? List.of(new SketchKey(metricId, null))
+                : List.of(new SketchKey(metricId, null), new SketchKey(metricId, scope.sport()));
+    }
+}
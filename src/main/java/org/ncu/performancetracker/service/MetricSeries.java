@@ -0,0 +1,152 @@
+package org.ncu.performancetracker.service;
+
+import java.util.Arrays;
+
+// One athlete's history of one metric as two packed primitive arrays ordered by (date, id): the epoch day and
+// the value of every record, 12 bytes per sample. Immutable once built. The scans below walk the arrays
+// sequentially and allocate nothing apart from their result; ranges are located by binary search on the days.
+public final class MetricSeries {
+
+    // Sort buffer for percentiles, kept per thread so repeated queries do not allocate
+    private static final ThreadLocal<double[]> SCRATCH = ThreadLocal.withInitial(() -> new double[1024]);
+
+    private final int[] days;
+    private final double[] values;
+    private final long dataVersion;
+
+    MetricSeries(int[] days, double[] values, long dataVersion) {
+        if (days.length != values.length) {
+            throw new IllegalArgumentException("Day and value columns differ in length");
+        }
+        this.days = days;
+        this.values = values;
+        this.dataVersion = dataVersion;
+    }
+
+    // Window found by bestWindow; from and to are sample indexes, inclusive
+    public record Span(int from, int to, double mean) {
+    }
+
+    public int size() {
+        return days.length;
+    }
+
+    public int dayAt(int index) {
+        return days[index];
+    }
+
+    public double valueAt(int index) {
+        return values[index];
+    }
+
+    // The athlete's data version the series was loaded at
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    // Heap footprint used to weigh the series against the cache budget
+    public int weightBytes() {
+        return 64 + days.length * (Integer.BYTES + Double.BYTES);
+    }
+
+    // Index of the first sample on or after the day
+    public int fromIndex(int day) {
+        int low = 0;
+        int high = days.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (days[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Index just past the last sample on or before the day
+    public int toIndex(int day) {
+        return day == Integer.MAX_VALUE ? days.length : fromIndex(day + 1);
+    }
+
+    // Count, sum, min, max and spread of the samples in [from, to)
+    public RollupAccumulator summarize(int from, int to) {
+        RollupAccumulator accumulator = new RollupAccumulator();
+        for (int i = from; i < to; i++) {
+            accumulator.add(values[i]);
+        }
+        return accumulator;
+    }
+
+    // Percentiles (0-100) of the samples in [from, to), linearly interpolated between closest ranks, written to
+    // out in the order of the requested percentiles. Returns false when the range is empty.
+    public boolean percentiles(int from, int to, double[] percentiles, double[] out) {
+        int count = to - from;
+        if (count <= 0) {
+            return false;
+        }
+        double[] sorted = SCRATCH.get();
+        if (sorted.length < count) {
+            sorted = new double[Math.max(count, sorted.length * 2)];
+            SCRATCH.set(sorted);
+        }
+        System.arraycopy(values, from, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        for (int i = 0; i < percentiles.length; i++) {
+            double rank = percentiles[i] / 100.0 * (count - 1);
+            int lower = (int) Math.floor(rank);
+            int upper = Math.min(lower + 1, count - 1);
+            out[i] = sorted[lower] + (sorted[upper] - sorted[lower]) * (rank - lower);
+        }
+        return true;
+    }
+
+    // Trailing mean over the last window samples, for every sample in [from, to) that has window samples up to
+    // and including it (earlier samples outside the range count towards the first averages). The average ending
+    // at sample i is written to out[i - from]; returns the index in out of the first average, or -1 if none.
+    public int movingAverage(int from, int to, int window, double[] out) {
+        int first = Math.max(from, window - 1);
+        if (first >= to) {
+            return -1;
+        }
+        double sum = 0;
+        for (int i = first - window + 1; i <= first; i++) {
+            sum += values[i];
+        }
+        out[first - from] = sum / window;
+        for (int i = first + 1; i < to; i++) {
+            sum += values[i] - values[i - window];
+            out[i - from] = sum / window;
+        }
+        return first - from;
+    }
+
+    // Span of windowDays consecutive calendar days, starting at a sample, whose samples have the best mean.
+    // Ties go to the earliest window. Null for an empty series.
+    public Span bestWindow(int windowDays, boolean higherIsBetter) {
+        double bestMean = 0;
+        int bestFrom = -1;
+        int bestTo = -1;
+        double sum = 0;
+        int end = 0;
+        for (int start = 0; start < days.length; start++) {
+            if (start > 0 && days[start] == days[start - 1]) {
+                // Same first day as the previous window, which already covered this sample
+                sum -= values[start];
+                continue;
+            }
+            int limit = days[start] + windowDays;
+            while (end < days.length && days[end] < limit) {
+                sum += values[end++];
+            }
+            double mean = sum / (end - start);
+            if (bestFrom < 0 || (higherIsBetter ? mean > bestMean : mean < bestMean)) {
+                bestMean = mean;
+                bestFrom = start;
+                bestTo = end - 1;
+            }
+            sum -= values[start];
+        }
+        return bestFrom < 0 ? null : new Span(bestFrom, bestTo, bestMean);
+    }
+}
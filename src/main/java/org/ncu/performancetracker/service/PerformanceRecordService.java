@@ -1,9 +1,19 @@
 package org.ncu.performancetracker.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import org.ncu.performancetracker.dto.CursorPage;
+import org.ncu.performancetracker.dto.MetricSummary;
+import org.ncu.performancetracker.dto.MetricTrend;
+import org.ncu.performancetracker.dto.RangeStats;
+import org.ncu.performancetracker.event.RecordChange;
+import org.ncu.performancetracker.event.RecordChangeEvent;
 import org.ncu.performancetracker.exception.ResourceNotFoundException;
 import org.ncu.performancetracker.model.Athlete;
 import org.ncu.performancetracker.model.PerformanceRecord;
@@ -11,107 +21,216 @@ import org.ncu.performancetracker.repository.AthleteRepository;
 import org.ncu.performancetracker.repository.PerformanceRecordRepository;
 
 import java.time.LocalDate;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class PerformanceRecordService {
 
+    private static final int MAX_COMPARED_ATHLETES = 100;
+    private static final Comparator<PerformanceRecord> DATE_ID_ORDER = Comparator
+            .comparing(PerformanceRecord::getDate)
+            .thenComparing(PerformanceRecord::getId);
+
     private final PerformanceRecordRepository recordRepository;
     private final AthleteRepository athleteRepository;
+    private final AthleteCache athleteCache;
+    private final PersonalBestService personalBestService;
+    private final RollupService rollupService;
+    private final TrendService trendService;
+    private final MetricCatalog metricCatalog;
+    private final KeysetPagination pagination;
+    private final RecordArchive recordArchive;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public PerformanceRecordService(
             PerformanceRecordRepository recordRepository,
-            AthleteRepository athleteRepository) {
+            AthleteRepository athleteRepository,
+            AthleteCache athleteCache,
+            PersonalBestService personalBestService,
+            RollupService rollupService,
+            TrendService trendService,
+            MetricCatalog metricCatalog,
+            KeysetPagination pagination,
+            RecordArchive recordArchive,
+            ApplicationEventPublisher eventPublisher) {
         this.recordRepository = recordRepository;
         this.athleteRepository = athleteRepository;
+        this.athleteCache = athleteCache;
+        this.personalBestService = personalBestService;
+        this.rollupService = rollupService;
+        this.trendService = trendService;
+        this.metricCatalog = metricCatalog;
+        this.pagination = pagination;
+        this.recordArchive = recordArchive;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Recreates the rollups and then the trends folded from them, in one transaction holding every athlete row
+    // lock, so no record write can land between the rebuild's snapshot and its new rows
+    @Transactional
+    public Map<String, Integer> rebuildRollups() {
+        athleteRepository.findAllForUpdate();
+        int rollups = rollupService.rebuild();
+        int trends = trendService.rebuild();
+        return Map.of("rollups", rollups, "trends", trends);
     }
 
     @Transactional
     public PerformanceRecord addRecordToAthlete(Long athleteId, PerformanceRecord record) {
-        Athlete athlete = athleteRepository.findById(athleteId)
+        // Before the row lock: registering a new metric commits on a connection of its own
+        String metricName = metricCatalog.resolve(record.getMetricName()).getName();
+        // Lock the athlete row so concurrent inserts for the same athlete update the personal-best index in turn
+        Athlete athlete = athleteRepository.findByIdForUpdate(athleteId)
                 .orElseThrow(() -> new ResourceNotFoundException("Athlete not found with id: " + athleteId));
 
         record.setAthlete(athlete);
-        return recordRepository.save(record);
+        record.setMetricName(metricName);
+        PerformanceRecord savedRecord = recordRepository.save(record);
+        personalBestService.recordValue(athleteId, savedRecord.getMetricName(), savedRecord.getValue());
+        rollupService.recordValue(athleteId, savedRecord.getMetricName(), savedRecord.getDate(), savedRecord.getValue());
+        trendService.recordValue(athleteId, savedRecord.getMetricName(), savedRecord.getDate(), savedRecord.getValue());
+        athleteRepository.incrementDataVersions(List.of(athleteId));
+        eventPublisher.publishEvent(new RecordChangeEvent(List.of(RecordChange.added(
+                athleteId, savedRecord.getMetricName(), savedRecord.getDate(), savedRecord.getValue()))));
+        return savedRecord;
     }
 
+    @Transactional(readOnly = true)
     public List<PerformanceRecord> findRecordsByAthleteId(Long athleteId) {
         // Verify athlete exists
-        if (!athleteRepository.existsById(athleteId)) {
+        if (!athleteCache.exists(athleteId)) {
             throw new ResourceNotFoundException("Athlete not found with id: " + athleteId);
         }
 
-        return recordRepository.findByAthleteId(athleteId);
+        return withArchived(recordArchive.findRecords(athleteId, null, null, null),
+                recordRepository.findByAthleteId(athleteId));
     }
 
+    @Transactional(readOnly = true)
     public List<PerformanceRecord> findRecordsByAthleteIdAndMetric(Long athleteId, String metricName) {
         // Verify athlete exists
-        if (!athleteRepository.existsById(athleteId)) {
+        if (!athleteCache.exists(athleteId)) {
             throw new ResourceNotFoundException("Athlete not found with id: " + athleteId);
         }
 
-        return recordRepository.findByAthleteIdAndMetricName(athleteId, metricName);
+        return withArchived(recordArchive.findRecords(athleteId, metricName, null, null),
+                recordRepository.findByAthleteIdAndMetricName(athleteId, metricName));
     }
 
+    @Transactional(readOnly = true)
     public List<PerformanceRecord> findRecordsByAthleteIdAndDateRange(
             Long athleteId, LocalDate startDate, LocalDate endDate) {
         // Verify athlete exists
-        if (!athleteRepository.existsById(athleteId)) {
+        if (!athleteCache.exists(athleteId)) {
             throw new ResourceNotFoundException("Athlete not found with id: " + athleteId);
         }
 
-        return recordRepository.findByAthleteIdAndDateBetween(athleteId, startDate, endDate);
+        return withArchived(recordArchive.findRecords(athleteId, null, startDate, endDate),
+                recordRepository.findByAthleteIdAndDateBetween(athleteId, startDate, endDate));
     }
 
-    public Map<String, Double> findPersonalBestsByAthleteId(Long athleteId) {
+    @Transactional(readOnly = true)
+    public CursorPage<PerformanceRecord> findRecordPageByAthleteId(Long athleteId, String cursor, Integer size) {
         // Verify athlete exists
-        if (!athleteRepository.existsById(athleteId)) {
+        if (!athleteCache.exists(athleteId)) {
             throw new ResourceNotFoundException("Athlete not found with id: " + athleteId);
         }
 
-        List<Object[]> results = recordRepository.findPersonalBestsByAthleteId(athleteId);
+        ScrollPosition position = pagination.recordPosition(cursor);
+        Limit limit = pagination.limit(size);
+        return page(recordRepository.findByAthleteIdOrderByDateAscIdAsc(athleteId, position, limit),
+                recordArchive.findRecordsAfter(athleteId, null, null, null, position, limit.max() + 1), limit);
+    }
 
-        Map<String, Double> personalBests = new HashMap<>();
-        for (Object[] result : results) {
-            String metricName = (String) result[0];
-            Double maxValue = (Double) result[1];
-            personalBests.put(metricName, maxValue);
+    @Transactional(readOnly = true)
+    public CursorPage<PerformanceRecord> findRecordPageByAthleteIdAndMetric(
+            Long athleteId, String metricName, String cursor, Integer size) {
+        // Verify athlete exists
+        if (!athleteCache.exists(athleteId)) {
+            throw new ResourceNotFoundException("Athlete not found with id: " + athleteId);
         }
 
-        return personalBests;
+        ScrollPosition position = pagination.recordPosition(cursor);
+        Limit limit = pagination.limit(size);
+        return page(recordRepository.findByAthleteIdAndMetricNameOrderByDateAscIdAsc(athleteId, metricName, position, limit),
+                recordArchive.findRecordsAfter(athleteId, metricName, null, null, position, limit.max() + 1), limit);
     }
 
-    public Map<String, Double> compareAthletes(Long athlete1Id, Long athlete2Id, String metricName) {
-        // Verify athletes exist
-        Athlete athlete1 = athleteRepository.findById(athlete1Id)
-                .orElseThrow(() -> new ResourceNotFoundException("Athlete not found with id: " + athlete1Id));
+    @Transactional(readOnly = true)
+    public CursorPage<PerformanceRecord> findRecordPageByAthleteIdAndDateRange(
+            Long athleteId, LocalDate startDate, LocalDate endDate, String cursor, Integer size) {
+        // Verify athlete exists
+        if (!athleteCache.exists(athleteId)) {
+            throw new ResourceNotFoundException("Athlete not found with id: " + athleteId);
+        }
 
-        Athlete athlete2 = athleteRepository.findById(athlete2Id)
-                .orElseThrow(() -> new ResourceNotFoundException("Athlete not found with id: " + athlete2Id));
+        ScrollPosition position = pagination.recordPosition(cursor);
+        Limit limit = pagination.limit(size);
+        return page(recordRepository.findByAthleteIdAndDateBetweenOrderByDateAscIdAsc(
+                        athleteId, startDate, endDate, position, limit),
+                recordArchive.findRecordsAfter(athleteId, null, startDate, endDate, position, limit.max() + 1), limit);
+    }
 
-        // Get the best performance for each athlete on the specific metric
-        List<PerformanceRecord> athlete1Records = recordRepository.findByAthleteIdAndMetricName(athlete1Id, metricName);
-        List<PerformanceRecord> athlete2Records = recordRepository.findByAthleteIdAndMetricName(athlete2Id, metricName);
+    public Map<String, Double> findPersonalBestsByAthleteId(Long athleteId) {
+        // Verify athlete exists
+        if (!athleteCache.exists(athleteId)) {
+            throw new ResourceNotFoundException("Athlete not found with id: " + athleteId);
+        }
 
-        Double athlete1Best = athlete1Records.stream()
-                .mapToDouble(PerformanceRecord::getValue)
-                .max()
-                .orElse(0.0);
+        return athleteCache.findPersonalBests(athleteId);
+    }
 
-        Double athlete2Best = athlete2Records.stream()
-                .mapToDouble(PerformanceRecord::getValue)
-                .max()
-                .orElse(0.0);
+    @Transactional(readOnly = true)
+    public RangeStats findRangeStats(Long athleteId, String metricName, LocalDate startDate, LocalDate endDate) {
+        // Verify athlete exists
+        if (!athleteCache.exists(athleteId)) {
+            throw new ResourceNotFoundException("Athlete not found with id: " + athleteId);
+        }
 
-        Map<String, Double> comparison = new HashMap<>();
-        comparison.put(athlete1.getName(), athlete1Best);
-        comparison.put(athlete2.getName(), athlete2Best);
+        return rollupService.findRangeStats(athleteId, metricCatalog.canonicalName(metricName), startDate, endDate);
+    }
 
-        return comparison;
+    @Transactional(readOnly = true)
+    public MetricTrend findTrend(Long athleteId, String metricName) {
+        // Verify athlete exists
+        if (!athleteCache.exists(athleteId)) {
+            throw new ResourceNotFoundException("Athlete not found with id: " + athleteId);
+        }
+
+        return trendService.findTrend(athleteId, metricCatalog.canonicalName(metricName));
+    }
+
+    // Per-athlete aggregates for every requested metric, keyed by athlete id and returned in request order
+    @Transactional(readOnly = true)
+    public Map<Long, Map<String, MetricSummary>> compareAthletes(List<Long> athleteIds, List<String> metricNames) {
+        Set<Long> distinctAthleteIds = new LinkedHashSet<>(athleteIds);
+        Set<String> distinctMetricNames = new LinkedHashSet<>();
+        metricNames.forEach(metricName -> distinctMetricNames.add(metricCatalog.canonicalName(metricName)));
+        if (distinctAthleteIds.isEmpty() || distinctMetricNames.isEmpty()) {
+            throw new IllegalArgumentException("At least one athlete id and one metric name are required");
+        }
+        if (distinctAthleteIds.size() > MAX_COMPARED_ATHLETES) {
+            throw new IllegalArgumentException("At most " + MAX_COMPARED_ATHLETES + " athletes can be compared at once");
+        }
+
+        // Verify athletes exist
+        Set<Long> existingIds = athleteCache.findExistingIds(distinctAthleteIds);
+        for (Long athleteId : distinctAthleteIds) {
+            if (!existingIds.contains(athleteId)) {
+                throw new ResourceNotFoundException("Athlete not found with id: " + athleteId);
+            }
+        }
+
+        return rollupService.findAllTimeSummaries(distinctAthleteIds, distinctMetricNames);
     }
 
     @Transactional
@@ -119,25 +238,79 @@ public class PerformanceRecordService {
         PerformanceRecord record = recordRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Performance record not found with id: " + id));
 
-        record.setMetricName(updatedRecord.getMetricName());
+        String metricName = metricCatalog.resolve(updatedRecord.getMetricName()).getName();
+        Long athleteId = record.getAthlete().getId();
+        athleteRepository.findByIdForUpdate(athleteId);
+
+        String previousMetricName = record.getMetricName();
+        Double previousValue = record.getValue();
+        LocalDate previousDate = record.getDate();
+
+        record.setMetricName(metricName);
         record.setValue(updatedRecord.getValue());
         record.setDate(LocalDate.now());
         record.setRemarks(updatedRecord.getRemarks());
 
-        return recordRepository.save(record);
+        PerformanceRecord savedRecord = recordRepository.save(record);
+        personalBestService.recordRemoved(athleteId, previousMetricName, previousValue);
+        personalBestService.recordValue(athleteId, savedRecord.getMetricName(), savedRecord.getValue());
+        rollupService.recordRemoved(athleteId, previousMetricName, previousDate, previousValue);
+        // Before the new value reaches the rollups, which a trend recomputation reads
+        trendService.recordRemoved(athleteId, previousMetricName, previousDate, previousValue);
+        rollupService.recordValue(athleteId, savedRecord.getMetricName(), savedRecord.getDate(), savedRecord.getValue());
+        trendService.recordValue(athleteId, savedRecord.getMetricName(), savedRecord.getDate(), savedRecord.getValue());
+        athleteRepository.incrementDataVersions(List.of(athleteId));
+        eventPublisher.publishEvent(new RecordChangeEvent(List.of(
+                RecordChange.removed(athleteId, previousMetricName, previousDate, previousValue),
+                RecordChange.added(athleteId, savedRecord.getMetricName(), savedRecord.getDate(), savedRecord.getValue()))));
+        return savedRecord;
     }
 
     @Transactional
     public void deleteRecord(Long metricId) {
-        if (!recordRepository.existsById(metricId)) {
-            throw new ResourceNotFoundException("Performance record not found with id: " + metricId);
-        }
-
-        recordRepository.deleteById(metricId);
+        PerformanceRecord record = recordRepository.findById(metricId)
+                .orElseThrow(() -> new ResourceNotFoundException("Performance record not found with id: " + metricId));
+
+        Long athleteId = record.getAthlete().getId();
+        athleteRepository.findByIdForUpdate(athleteId);
+
+        recordRepository.delete(record);
+        personalBestService.recordRemoved(athleteId, record.getMetricName(), record.getValue());
+        rollupService.recordRemoved(athleteId, record.getMetricName(), record.getDate(), record.getValue());
+        trendService.recordRemoved(athleteId, record.getMetricName(), record.getDate(), record.getValue());
+        athleteRepository.incrementDataVersions(List.of(athleteId));
+        eventPublisher.publishEvent(new RecordChangeEvent(List.of(
+                RecordChange.removed(athleteId, record.getMetricName(), record.getDate(), record.getValue()))));
     }
 
+    @Transactional(readOnly = true)
     public Optional<PerformanceRecord> findRecordById(Long id) {
         return recordRepository.findById(id);
     }
+    // These listings have no defined order; archived records are put first
+    private static List<PerformanceRecord> withArchived(List<PerformanceRecord> archived, List<PerformanceRecord> live) {
+        if (archived.isEmpty()) {
+            return live;
+        }
+        List<PerformanceRecord> records = new ArrayList<>(archived.size() + live.size());
+        records.addAll(archived);
+        records.addAll(live);
+        return records;
+    }
 
+    // Both lists are ordered by (date, id) and start after the same position, so the first limit records of
+    // their merge are the page
+    private CursorPage<PerformanceRecord> page(
+            Window<PerformanceRecord> live, List<PerformanceRecord> archived, Limit limit) {
+        if (archived.isEmpty()) {
+            return pagination.recordPage(live);
+        }
+        List<PerformanceRecord> records = new ArrayList<>(limit.max());
+        Iterator<PerformanceRecord> merged = RecordArchive.mergeSorted(
+                archived.iterator(), live.getContent().iterator(), DATE_ID_ORDER);
+        while (records.size() < limit.max() && merged.hasNext()) {
+            records.add(merged.next());
+        }
+        return pagination.recordPage(records, merged.hasNext() || live.hasNext());
+    }
 }
@@ -0,0 +1,174 @@
+package org.ncu.performancetracker.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import org.ncu.performancetracker.event.MetricChangeEvent;
+import org.ncu.performancetracker.model.MetricDirection;
+import org.ncu.performancetracker.model.PerformanceRecord;
+import org.ncu.performancetracker.model.PersonalBest;
+import org.ncu.performancetracker.repository.AthleteRepository;
+import org.ncu.performancetracker.repository.PerformanceRecordRepository;
+import org.ncu.performancetracker.repository.PersonalBestRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Service
+public class PersonalBestService {
+
+    private final PersonalBestRepository personalBestRepository;
+    private final PerformanceRecordRepository recordRepository;
+    private final AthleteRepository athleteRepository;
+    private final MetricCatalog metricCatalog;
+    private final RecordArchive recordArchive;
+
+    @Autowired
+    public PersonalBestService(
+            PersonalBestRepository personalBestRepository,
+            PerformanceRecordRepository recordRepository,
+            AthleteRepository athleteRepository,
+            MetricCatalog metricCatalog,
+            RecordArchive recordArchive) {
+        this.personalBestRepository = personalBestRepository;
+        this.recordRepository = recordRepository;
+        this.athleteRepository = athleteRepository;
+        this.metricCatalog = metricCatalog;
+        this.recordArchive = recordArchive;
+    }
+
+    public Optional<Double> findPersonalBest(Long athleteId, String metricName) {
+        return personalBestRepository.findByAthleteIdAndMetricName(athleteId, metricName)
+                .map(PersonalBest::getValue);
+    }
+
+    public Map<String, Double> findPersonalBests(Long athleteId) {
+        Map<String, Double> personalBests = new HashMap<>();
+        for (PersonalBest personalBest : personalBestRepository.findByAthleteId(athleteId)) {
+            personalBests.put(personalBest.getMetricName(), personalBest.getValue());
+        }
+        return personalBests;
+    }
+
+    // Callers must hold the athlete row lock (AthleteRepository.findByIdForUpdate) in the current transaction.
+    // Returns true when the value became the new personal best.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean recordValue(Long athleteId, String metricName, double value) {
+        Optional<PersonalBest> existing = personalBestRepository.findByAthleteIdAndMetricName(athleteId, metricName);
+
+        if (existing.isEmpty()) {
+            personalBestRepository.save(new PersonalBest(athleteId, metricName, value));
+            return true;
+        }
+
+        PersonalBest personalBest = existing.get();
+        if (metricCatalog.directionOf(metricName).isBetter(value, personalBest.getValue())) {
+            personalBest.setValue(value);
+            personalBestRepository.save(personalBest);
+            return true;
+        }
+        return false;
+    }
+
+    // Called after a record was deleted or changed. Only recomputes from history when the
+    // removed value could have been the current best.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRemoved(Long athleteId, String metricName, double value) {
+        MetricDirection direction = metricCatalog.directionOf(metricName);
+        Optional<PersonalBest> existing = personalBestRepository.findByAthleteIdAndMetricName(athleteId, metricName);
+        if (existing.isEmpty() || direction.isBetter(existing.get().getValue(), value)) {
+            return;
+        }
+
+        PersonalBest personalBest = existing.get();
+        Optional<Double> best = (direction == MetricDirection.HIGHER_IS_BETTER
+                ? recordRepository.findFirstByAthleteIdAndMetricNameOrderByValueDesc(athleteId, metricName)
+                : recordRepository.findFirstByAthleteIdAndMetricNameOrderByValueAsc(athleteId, metricName))
+                .map(PerformanceRecord::getValue);
+        Optional<Double> archivedBest = recordArchive.findValueRange(athleteId, metricName, null, null)
+                .map(range -> bestOf(direction, range));
+        if (archivedBest.isPresent() && (best.isEmpty() || direction.isBetter(archivedBest.get(), best.get()))) {
+            best = archivedBest;
+        }
+
+        if (best.isPresent()) {
+            personalBest.setValue(best.get());
+            personalBestRepository.save(personalBest);
+        } else {
+            personalBestRepository.delete(personalBest);
+        }
+    }
+
+    @Transactional
+    public void deleteByAthleteId(Long athleteId) {
+        personalBestRepository.deleteByAthleteId(athleteId);
+    }
+
+    // Recreates the whole index from the record history, e.g. after a bulk import or on first startup.
+    @Transactional
+    public int rebuild() {
+        personalBestRepository.deleteAllInBatch();
+
+        List<PersonalBest> personalBests = new ArrayList<>();
+        Map<Long, Map<String, RecordArchive.ValueRange>> archived = recordArchive.findAllValueRanges();
+        for (Object[] result : recordRepository.findAllPersonalBests()) {
+            Long athleteId = (Long) result[0];
+            String metricName = (String) result[1];
+            RecordArchive.ValueRange range = new RecordArchive.ValueRange((Double) result[3], (Double) result[2])
+                    .merge(removeRange(archived, athleteId, metricName));
+            personalBests.add(new PersonalBest(athleteId, metricName,
+                    bestOf(metricCatalog.directionOf(metricName), range)));
+        }
+        // Metrics whose records are all archived
+        archived.forEach((athleteId, ranges) -> ranges.forEach((metricName, range) -> personalBests.add(
+                new PersonalBest(athleteId, metricName, bestOf(metricCatalog.directionOf(metricName), range)))));
+
+        personalBestRepository.saveAll(personalBests);
+        return personalBests.size();
+    }
+
+    // Runs inside the transaction that changes the metric's direction, so the bests flip together with it
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onMetricChange(MetricChangeEvent event) {
+        if (!event.isDirectionChanged()) {
+            return;
+        }
+        String metricName = event.getMetric().getName();
+        MetricDirection direction = event.getMetric().getDirection();
+
+        personalBestRepository.deleteByMetricName(metricName);
+        personalBestRepository.flush();
+        List<PersonalBest> personalBests = new ArrayList<>();
+        Map<Long, RecordArchive.ValueRange> archived = recordArchive.findValueRangesByMetric(metricName);
+        for (Object[] result : recordRepository.findPersonalBestsByMetricName(metricName)) {
+            RecordArchive.ValueRange range = new RecordArchive.ValueRange((Double) result[2], (Double) result[1])
+                    .merge(archived.remove((Long) result[0]));
+            personalBests.add(new PersonalBest((Long) result[0], metricName, bestOf(direction, range)));
+        }
+        archived.forEach((athleteId, range) ->
+                personalBests.add(new PersonalBest(athleteId, metricName, bestOf(direction, range))));
+        personalBestRepository.saveAll(personalBests);
+        athleteRepository.incrementDataVersionsWithPersonalBest(metricName);
+    }
+
+    public boolean isEmpty() {
+        return personalBestRepository.count() == 0;
+    }
+
+    private static double bestOf(MetricDirection direction, RecordArchive.ValueRange range) {
+        return direction == MetricDirection.HIGHER_IS_BETTER ? range.max() : range.min();
+    }
+
+    private static RecordArchive.ValueRange removeRange(
+            Map<Long, Map<String, RecordArchive.ValueRange>> ranges, Long athleteId, String metricName) {
+        Map<String, RecordArchive.ValueRange> athleteRanges = ranges.get(athleteId);
+        return athleteRanges == null ? null : athleteRanges.remove(metricName);
+    }
+}
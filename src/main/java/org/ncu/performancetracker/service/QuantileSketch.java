@@ -0,0 +1,292 @@
+package org.ncu.performancetracker.service;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Mergeable quantile sketch with relative accuracy (the DDSketch layout). Values are counted in logarithmic
+// buckets whose width is a fixed fraction of their magnitude, so every quantile it returns is within
+// relativeAccuracy of a true value. Bucket counts are exact, which makes removing a value exact as well.
+// At most maxBuckets buckets are kept per sign; past that the buckets nearest zero are folded into one, which
+// keeps memory bounded at the cost of accuracy on the smallest magnitudes only.
+public final class QuantileSketch {
+
+    private static final byte FORMAT_VERSION = 1;
+    // Magnitudes below this are counted as zero
+    private static final double ZERO_THRESHOLD = 1e-9;
+
+    // Counts of consecutive bucket indexes [offset, offset + counts.length)
+    private static final class Buckets {
+        long[] counts = new long[0];
+        int offset;
+
+        // Slot of the bucket holding index, growing the array as needed. Once maxBuckets wide, the lowest
+        // bucket takes everything below it.
+        int slot(int index, int maxBuckets) {
+            if (counts.length == 0) {
+                counts = new long[1];
+                offset = index;
+                return 0;
+            }
+            int end = offset + counts.length;
+            if (index < offset) {
+                int low = Math.max(index, end - maxBuckets);
+                if (low < offset) {
+                    resize(low, end);
+                }
+                return 0;
+            }
+            if (index >= end) {
+                resize(Math.max(offset, index + 1 - maxBuckets), index + 1);
+            }
+            return index - offset;
+        }
+
+        private void resize(int low, int end) {
+            long[] resized = new long[end - low];
+            for (int i = 0; i < counts.length; i++) {
+                resized[Math.max(offset + i, low) - low] += counts[i];
+            }
+            counts = resized;
+            offset = low;
+        }
+    }
+
+    private final double relativeAccuracy;
+    private final double logGamma;
+    private final double bucketValueFactor;
+    private final int maxBuckets;
+    private final Buckets positive = new Buckets();
+    private final Buckets negative = new Buckets();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long zeroCount;
+    private long count;
+
+    public QuantileSketch(double relativeAccuracy, int maxBuckets) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1) || maxBuckets < 1) {
+            throw new IllegalArgumentException("Relative accuracy must be in (0, 1) and maxBuckets positive");
+        }
+        double gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.relativeAccuracy = relativeAccuracy;
+        this.logGamma = Math.log(gamma);
+        this.bucketValueFactor = 2 / (1 + gamma);
+        this.maxBuckets = maxBuckets;
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    public int getMaxBuckets() {
+        return maxBuckets;
+    }
+
+    public long getCount() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Non-finite values are ignored
+    public void add(double value) {
+        update(value, 1);
+    }
+
+    // Takes back a value added before; removing one that never was leaves its bucket at zero
+    public void remove(double value) {
+        update(value, -1);
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Sketches with different accuracies cannot be merged");
+        }
+        lock.writeLock().lock();
+        other.lock.readLock().lock();
+        try {
+            mergeBuckets(positive, other.positive);
+            mergeBuckets(negative, other.negative);
+            zeroCount += other.zeroCount;
+            count += other.count;
+        } finally {
+            other.lock.readLock().unlock();
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Values at the given quantiles (each in [0, 1]) in one pass; NaN when the sketch is empty
+    public double[] quantiles(double... quantiles) {
+        lock.readLock().lock();
+        try {
+            double[] values = new double[quantiles.length];
+            for (int i = 0; i < quantiles.length; i++) {
+                values[i] = count == 0 ? Double.NaN : valueAtRank(quantiles[i] * (count - 1));
+            }
+            return values;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Share of values below the given one, counting half of those sharing its bucket; NaN when empty
+    public double cdf(double value) {
+        lock.readLock().lock();
+        try {
+            if (count == 0) {
+                return Double.NaN;
+            }
+            long below;
+            long same;
+            if (value > ZERO_THRESHOLD) {
+                below = total(negative) + zeroCount + countBelow(positive, index(value));
+                same = countAt(positive, index(value));
+            } else if (value < -ZERO_THRESHOLD) {
+                // Larger magnitudes are further below
+                int index = index(-value);
+                below = total(negative) - countBelow(negative, index) - countAt(negative, index);
+                same = countAt(negative, index);
+            } else {
+                below = total(negative);
+                same = zeroCount;
+            }
+            return (below + same / 2.0) / count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public byte[] toBytes() {
+        lock.readLock().lock();
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(1 + 8 + 4 + 8
+                    + 8 + positive.counts.length * 8 + 8 + negative.counts.length * 8);
+            buffer.put(FORMAT_VERSION).putDouble(relativeAccuracy).putInt(maxBuckets).putLong(zeroCount);
+            for (Buckets buckets : new Buckets[]{positive, negative}) {
+                buffer.putInt(buckets.offset).putInt(buckets.counts.length);
+                for (long bucketCount : buckets.counts) {
+                    buffer.putLong(bucketCount);
+                }
+            }
+            return buffer.array();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static QuantileSketch fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.get() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported sketch format");
+        }
+        QuantileSketch sketch = new QuantileSketch(buffer.getDouble(), buffer.getInt());
+        sketch.zeroCount = buffer.getLong();
+        sketch.count = sketch.zeroCount;
+        for (Buckets buckets : new Buckets[]{sketch.positive, sketch.negative}) {
+            buckets.offset = buffer.getInt();
+            buckets.counts = new long[buffer.getInt()];
+            for (int i = 0; i < buckets.counts.length; i++) {
+                buckets.counts[i] = buffer.getLong();
+                sketch.count += buckets.counts[i];
+            }
+        }
+        return sketch;
+    }
+
+    private void update(double value, long delta) {
+        if (!Double.isFinite(value)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (value > ZERO_THRESHOLD) {
+                count += add(positive, index(value), delta);
+            } else if (value < -ZERO_THRESHOLD) {
+                count += add(negative, index(-value), delta);
+            } else {
+                long applied = Math.max(delta, -zeroCount);
+                zeroCount += applied;
+                count += applied;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Returns the change actually applied, as counts never go below zero
+    private long add(Buckets buckets, int index, long delta) {
+        int slot = buckets.slot(index, maxBuckets);
+        long applied = Math.max(delta, -buckets.counts[slot]);
+        buckets.counts[slot] += applied;
+        return applied;
+    }
+
+    private void mergeBuckets(Buckets target, Buckets source) {
+        for (int i = 0; i < source.counts.length; i++) {
+            if (source.counts[i] != 0) {
+                // The slot first, as finding it may replace the array
+                int slot = target.slot(source.offset + i, maxBuckets);
+                target.counts[slot] += source.counts[i];
+            }
+        }
+    }
+
+    // Walks the buckets in value order: negatives from the largest magnitude, zero, then positives
+    private double valueAtRank(double rank) {
+        long seen = 0;
+        for (int i = negative.counts.length - 1; i >= 0; i--) {
+            seen += negative.counts[i];
+            if (seen > rank) {
+                return -bucketValue(negative.offset + i);
+            }
+        }
+        seen += zeroCount;
+        if (seen > rank) {
+            return 0;
+        }
+        for (int i = 0; i < positive.counts.length; i++) {
+            seen += positive.counts[i];
+            if (seen > rank) {
+                return bucketValue(positive.offset + i);
+            }
+        }
+        return bucketValue(positive.offset + positive.counts.length - 1);
+    }
+
+    private int index(double magnitude) {
+        return (int) Math.ceil(Math.log(magnitude) / logGamma);
+    }
+
+    // Midpoint, relative to the bucket's width, of (gamma^(index-1), gamma^index]
+    private double bucketValue(int index) {
+        return Math.exp(index * logGamma) * bucketValueFactor;
+    }
+
+    private long countBelow(Buckets buckets, int index) {
+        long below = 0;
+        int end = Math.min(index - buckets.offset, buckets.counts.length);
+        for (int i = 0; i < end; i++) {
+            below += buckets.counts[i];
+        }
+        return below;
+    }
+
+    // Indexes below the lowest bucket were folded into it
+    private long countAt(Buckets buckets, int index) {
+        if (buckets.counts.length == 0) {
+            return 0;
+        }
+        int slot = Math.max(index, buckets.offset) - buckets.offset;
+        return slot < buckets.counts.length ? buckets.counts[slot] : 0;
+    }
+
+    private static long total(Buckets buckets) {
+        long total = 0;
+        for (long bucketCount : buckets.counts) {
+            total += bucketCount;
+        }
+        return total;
+    }
+}
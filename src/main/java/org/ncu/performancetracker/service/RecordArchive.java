@@ -0,0 +1,564 @@
+package org.ncu.performancetracker.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import org.ncu.performancetracker.config.ReadYourWrites;
+import org.ncu.performancetracker.dto.PerformanceRecordExport;
+import org.ncu.performancetracker.model.ArchivedSegment;
+import org.ncu.performancetracker.model.PerformanceRecord;
+import org.ncu.performancetracker.repository.ArchivedSegmentRepository;
+import org.ncu.performancetracker.repository.AthleteRepository;
+import org.ncu.performancetracker.repository.PerformanceRecordRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.DoubleBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Cold storage for old records. archive() moves records dated more than app.archive.after-days ago out of
+// performance_record into one ColumnarSegment file per athlete, metric and run. The archived_segment table is the
+// manifest: its rows are inserted in the transaction that deletes the records, and every read looks them up in
+// the caller's transaction, so a reader sees each record either live or archived, never both or neither.
+// Archived records are read-only.
+@Service
+public class RecordArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecordArchive.class);
+    private static final String SEGMENT_SUFFIX = ".seg";
+    // Files no manifest row refers to are left behind by archive runs that rolled back. Younger ones may belong
+    // to a run that is still in progress on another instance.
+    private static final Duration ORPHAN_GRACE = Duration.ofHours(1);
+
+    private static final Comparator<Source> ROW_ORDER = Comparator
+            .comparingLong((Source source) -> source.cursor.epochDay())
+            .thenComparingLong(source -> source.cursor.id());
+
+    // Receives the rows of a scan without materializing them
+    @FunctionalInterface
+    public interface RowConsumer {
+        void accept(long epochDay, long id, double value);
+    }
+
+    // Receives every archived value with the athlete and metric it belongs to
+    @FunctionalInterface
+    public interface ValueConsumer {
+        void accept(long athleteId, int metricId, double value);
+    }
+
+    // Both extremes of a set of values
+    public record ValueRange(double min, double max) {
+
+        public ValueRange merge(ValueRange other) {
+            return other == null ? this : new ValueRange(Math.min(min, other.min), Math.max(max, other.max));
+        }
+    }
+
+    private final ArchivedSegmentRepository segmentRepository;
+    private final PerformanceRecordRepository recordRepository;
+    private final AthleteRepository athleteRepository;
+    private final MetricCatalog metricCatalog;
+    private final ReadYourWrites readYourWrites;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directory;
+    private final int afterDays;
+    private final LoadingCache<String, ColumnarSegment> mappedSegments;
+
+    @Autowired
+    public RecordArchive(
+            ArchivedSegmentRepository segmentRepository,
+            PerformanceRecordRepository recordRepository,
+            AthleteRepository athleteRepository,
+            MetricCatalog metricCatalog,
+            ReadYourWrites readYourWrites,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.archive.dir:./data/archive}") String directory,
+            @Value("${app.archive.after-days:730}") int afterDays,
+            @Value("${app.archive.max-mapped-segments:1000}") int maxMappedSegments) {
+        this.segmentRepository = segmentRepository;
+        this.recordRepository = recordRepository;
+        this.athleteRepository = athleteRepository;
+        this.metricCatalog = metricCatalog;
+        this.readYourWrites = readYourWrites;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.directory = Path.of(directory);
+        this.afterDays = afterDays;
+        // Mappings are released by the garbage collector once evicted and no scan uses them any more
+        this.mappedSegments = Caffeine.newBuilder()
+                .maximumSize(maxMappedSegments)
+                .build(fileName -> ColumnarSegment.open(this.directory.resolve(fileName)));
+    }
+
+    @PostConstruct
+    public void removeOrphans() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        Set<String> referenced = new HashSet<>(readYourWrites.onPrimary(segmentRepository::findAllFileNames));
+        Instant orphanedBefore = Instant.now().minus(ORPHAN_GRACE);
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                String fileName = directory.relativize(file).toString().replace('\\', '/');
+                if (referenced.contains(fileName)
+                        || Files.getLastModifiedTime(file).toInstant().isAfter(orphanedBefore)) {
+                    continue;
+                }
+                logger.info("Removing orphaned archive file {}", file);
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // Archives the records of every athlete, one transaction per athlete. Returns the number of records moved.
+    public long archive() {
+        LocalDate cutoff = LocalDate.now().minusDays(afterDays);
+        long archived = 0;
+        for (Long athleteId : readYourWrites.onPrimary(() -> recordRepository.findAthleteIdsWithRecordsBefore(cutoff))) {
+            archived += archiveAthlete(athleteId, cutoff);
+        }
+        logger.info("Archived {} records dated before {}", archived, cutoff);
+        return archived;
+    }
+
+    // Segment files are written and synced before the transaction commits, and deleted again if it does not
+    int archiveAthlete(Long athleteId, LocalDate cutoff) {
+        List<String> written = new ArrayList<>();
+        try {
+            Integer archived = transactionTemplate.execute(status -> {
+                // Holds off inserts for the athlete, which would otherwise slip between the read and the delete
+                if (athleteRepository.findByIdForUpdate(athleteId).isEmpty()) {
+                    return 0;
+                }
+                List<PerformanceRecordExport> records = recordRepository.findExportByAthleteIdBefore(athleteId, cutoff);
+                Map<String, List<PerformanceRecordExport>> byMetric = records.stream().collect(Collectors.groupingBy(
+                        PerformanceRecordExport::getMetricName, LinkedHashMap::new, Collectors.toList()));
+                for (Map.Entry<String, List<PerformanceRecordExport>> metric : byMetric.entrySet()) {
+                    Integer metricId = metricCatalog.idOf(metric.getKey());
+                    String fileName = athleteId + "/" + metricId + "-" + UUID.randomUUID() + SEGMENT_SUFFIX;
+                    Path file = directory.resolve(fileName);
+                    try {
+                        Files.createDirectories(file.getParent());
+                        ColumnarSegment.write(file, athleteId, metricId, metric.getValue());
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                    written.add(fileName);
+                    ColumnarSegment segment = mappedSegments.get(fileName);
+                    segmentRepository.save(new ArchivedSegment(athleteId, metricId, fileName, segment.getCount(),
+                            segment.getFirstDate(), segment.getLastDate(), segment.getMinValue(), segment.getMaxValue()));
+                }
+                recordRepository.deleteByAthleteIdBefore(athleteId, cutoff);
+                return records.size();
+            });
+            return archived == null ? 0 : archived;
+        } catch (RuntimeException ex) {
+            written.forEach(fileName -> {
+                mappedSegments.invalidate(fileName);
+                deleteQuietly(directory.resolve(fileName));
+            });
+            throw ex;
+        }
+    }
+
+    // The athlete's archived records with the metric (any metric if null) dated within [start, end]
+    // (unbounded if null), ordered by (date, id)
+    @Transactional(readOnly = true)
+    public List<PerformanceRecord> findRecords(Long athleteId, String metricName, LocalDate start, LocalDate end) {
+        List<PerformanceRecord> records = new ArrayList<>();
+        Scan scan = scan(athleteId, metricName, start, end, ScrollPosition.keyset());
+        while (scan.next()) {
+            records.add(scan.toRecord());
+        }
+        return records;
+    }
+
+    // Like findRecords, but only the first limit records after the keyset position of a (date, id) listing
+    @Transactional(readOnly = true)
+    public List<PerformanceRecord> findRecordsAfter(Long athleteId, String metricName, LocalDate start, LocalDate end,
+                                                    ScrollPosition position, int limit) {
+        List<PerformanceRecord> records = new ArrayList<>();
+        Scan scan = scan(athleteId, metricName, start, end, position);
+        while (records.size() < limit && scan.next()) {
+            records.add(scan.toRecord());
+        }
+        return records;
+    }
+
+    // All archived records of the athlete ordered by (date, id), decoded as the stream is consumed
+    @Transactional(readOnly = true)
+    public Stream<PerformanceRecordExport> streamExport(Long athleteId) {
+        Scan scan = scan(athleteId, null, null, null, ScrollPosition.keyset());
+        return stream(new Iterator<>() {
+            private PerformanceRecordExport next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && scan.next()) {
+                    next = scan.toExport();
+                }
+                return next != null;
+            }
+
+            @Override
+            public PerformanceRecordExport next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                PerformanceRecordExport current = next;
+                next = null;
+                return current;
+            }
+        });
+    }
+
+    // Passes the athlete's archived rows of the metric to the consumer in (date, id) order
+    @Transactional(readOnly = true)
+    public void scanRows(Long athleteId, String metricName, RowConsumer consumer) {
+        Scan scan = scan(athleteId, metricName, null, null, ScrollPosition.keyset());
+        while (scan.next()) {
+            ColumnarSegment.Cursor cursor = scan.current.cursor;
+            consumer.accept(cursor.epochDay(), cursor.id(), cursor.value());
+        }
+    }
+
+    // Extremes of the athlete's archived values for the metric within [start, end] (unbounded if null).
+    // Segments entirely inside the range are answered from the manifest; the others scan their value column.
+    @Transactional(readOnly = true)
+    public Optional<ValueRange> findValueRange(Long athleteId, String metricName, LocalDate start, LocalDate end) {
+        Integer metricId = metricCatalog.idOf(metricName);
+        ValueRange range = null;
+        for (ArchivedSegment segment : segmentRepository.findByAthleteId(athleteId)) {
+            if (!segment.getMetricId().equals(metricId) || !overlaps(segment, start, end)) {
+                continue;
+            }
+            if ((start == null || !segment.getFirstDate().isBefore(start))
+                    && (end == null || !segment.getLastDate().isAfter(end))) {
+                range = new ValueRange(segment.getMinValue(), segment.getMaxValue()).merge(range);
+                continue;
+            }
+            Scan scan = new Scan(List.of(segment), start, end, null, null);
+            while (scan.next()) {
+                double value = scan.current.cursor.value();
+                range = new ValueRange(value, value).merge(range);
+            }
+        }
+        return Optional.ofNullable(range);
+    }
+
+    // Keyed by athlete id, then metric name
+    @Transactional(readOnly = true)
+    public Map<Long, Map<String, ValueRange>> findAllValueRanges() {
+        Map<Long, Map<String, ValueRange>> ranges = new HashMap<>();
+        for (Object[] row : segmentRepository.findAllValueRanges()) {
+            ranges.computeIfAbsent((Long) row[0], id -> new HashMap<>())
+                    .put(metricCatalog.nameOf((Integer) row[1]), new ValueRange((Double) row[2], (Double) row[3]));
+        }
+        return ranges;
+    }
+
+    // Keyed by athlete id
+    @Transactional(readOnly = true)
+    public Map<Long, ValueRange> findValueRangesByMetric(String metricName) {
+        Integer metricId = metricCatalog.idOf(metricName);
+        Map<Long, ValueRange> ranges = new HashMap<>();
+        if (metricId == null) {
+            return ranges;
+        }
+        for (Object[] row : segmentRepository.findValueRangesByMetricId(metricId)) {
+            ranges.put((Long) row[0], new ValueRange((Double) row[1], (Double) row[2]));
+        }
+        return ranges;
+    }
+
+    // Keyed by athlete id, then metric name: the date of the latest archived record, answered from the manifest
+    @Transactional(readOnly = true)
+    public Map<Long, Map<String, LocalDate>> findLastDates(Collection<Long> athleteIds) {
+        Map<Long, Map<String, LocalDate>> lastDates = new HashMap<>();
+        for (Object[] row : segmentRepository.findLastDatesByAthleteIds(athleteIds)) {
+            lastDates.computeIfAbsent((Long) row[0], id -> new HashMap<>())
+                    .put(metricCatalog.nameOf((Integer) row[1]), (LocalDate) row[2]);
+        }
+        return lastDates;
+    }
+
+    // Value of the athlete's latest archived record with the metric by (date, id); only the last day is scanned
+    @Transactional(readOnly = true)
+    public Optional<Double> findLatestValue(Long athleteId, String metricName) {
+        Integer metricId = metricCatalog.idOf(metricName);
+        Optional<LocalDate> lastDate = segmentRepository.findByAthleteId(athleteId).stream()
+                .filter(segment -> segment.getMetricId().equals(metricId))
+                .map(ArchivedSegment::getLastDate)
+                .max(Comparator.naturalOrder());
+        if (lastDate.isEmpty()) {
+            return Optional.empty();
+        }
+        Double latest = null;
+        Scan scan = scan(athleteId, metricName, lastDate.get(), null, ScrollPosition.keyset());
+        while (scan.next()) {
+            latest = scan.current.cursor.value();
+        }
+        return Optional.ofNullable(latest);
+    }
+
+    // Reads only the value column of every segment, in no particular order
+    @Transactional(readOnly = true)
+    public void scanAllValues(ValueConsumer consumer) {
+        for (ArchivedSegment segment : segmentRepository.findAll()) {
+            ColumnarSegment file = open(segment);
+            if (file == null) {
+                continue;
+            }
+            DoubleBuffer values = file.values();
+            while (values.hasRemaining()) {
+                consumer.accept(segment.getAthleteId(), segment.getMetricId(), values.get());
+            }
+        }
+    }
+
+    // Archived record count per metric id
+    @Transactional(readOnly = true)
+    public Map<Integer, Long> countByMetricId() {
+        Map<Integer, Long> counts = new HashMap<>();
+        for (Object[] row : segmentRepository.countRecordsByMetricId()) {
+            counts.put((Integer) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    // Day-level aggregates of all archived records, in the shape and order of
+    // PerformanceRecordRepository.streamDailyRollups: athlete id, metric, date, count, sum, min, max, sum of squares
+    @Transactional(readOnly = true)
+    public Stream<Object[]> streamDailyRollups() {
+        List<List<ArchivedSegment>> groups = new ArrayList<>();
+        ArchivedSegment previous = null;
+        for (ArchivedSegment segment : segmentRepository.findAllByOrderByAthleteIdAscMetricIdAsc()) {
+            if (previous == null || !previous.getAthleteId().equals(segment.getAthleteId())
+                    || !previous.getMetricId().equals(segment.getMetricId())) {
+                groups.add(new ArrayList<>());
+            }
+            groups.get(groups.size() - 1).add(segment);
+            previous = segment;
+        }
+        return groups.stream().flatMap(group -> stream(new Iterator<Object[]>() {
+            private final Scan scan = new Scan(group, null, null, null, null);
+            private boolean pending = scan.next();
+
+            @Override
+            public boolean hasNext() {
+                return pending;
+            }
+
+            @Override
+            public Object[] next() {
+                if (!pending) {
+                    throw new NoSuchElementException();
+                }
+                long day = scan.current.cursor.epochDay();
+                RollupAccumulator accumulator = new RollupAccumulator();
+                double sumOfSquares = 0;
+                do {
+                    double value = scan.current.cursor.value();
+                    accumulator.add(value);
+                    sumOfSquares += value * value;
+                    pending = scan.next();
+                } while (pending && scan.current.cursor.epochDay() == day);
+                return new Object[]{group.get(0).getAthleteId(), metricCatalog.nameOf(group.get(0).getMetricId()),
+                        LocalDate.ofEpochDay(day), accumulator.getCount(), accumulator.getSum(),
+                        accumulator.getMin(), accumulator.getMax(), sumOfSquares};
+            }
+        }));
+    }
+
+    // Drops the athlete's manifest rows; the files are deleted once that commits
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleteByAthleteId(Long athleteId) {
+        List<String> fileNames = segmentRepository.findByAthleteId(athleteId).stream()
+                .map(ArchivedSegment::getFileName)
+                .toList();
+        if (fileNames.isEmpty()) {
+            return;
+        }
+        segmentRepository.deleteByAthleteId(athleteId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                fileNames.forEach(fileName -> {
+                    mappedSegments.invalidate(fileName);
+                    deleteQuietly(directory.resolve(fileName));
+                });
+            }
+        });
+    }
+
+    // Merges two sequences that are each ordered by the comparator into one ordered sequence
+    static <T> Iterator<T> mergeSorted(Iterator<T> first, Iterator<T> second, Comparator<? super T> order) {
+        return new Iterator<>() {
+            private T nextFirst = first.hasNext() ? first.next() : null;
+            private T nextSecond = second.hasNext() ? second.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextFirst != null || nextSecond != null;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T result;
+                if (nextSecond == null || (nextFirst != null && order.compare(nextFirst, nextSecond) <= 0)) {
+                    result = nextFirst;
+                    nextFirst = first.hasNext() ? first.next() : null;
+                } else {
+                    result = nextSecond;
+                    nextSecond = second.hasNext() ? second.next() : null;
+                }
+                return result;
+            }
+        };
+    }
+
+    private Scan scan(Long athleteId, String metricName, LocalDate start, LocalDate end, ScrollPosition position) {
+        Integer metricId = metricName == null ? null : metricCatalog.idOf(metricName);
+        if (metricName != null && metricId == null) {
+            return new Scan(List.of(), start, end, null, null);
+        }
+        List<ArchivedSegment> segments = segmentRepository.findByAthleteId(athleteId).stream()
+                .filter(segment -> metricId == null || segment.getMetricId().equals(metricId))
+                .filter(segment -> overlaps(segment, start, end))
+                .toList();
+        LocalDate afterDate = null;
+        Long afterId = null;
+        if (position instanceof KeysetScrollPosition keyset && !keyset.isInitial()) {
+            afterDate = (LocalDate) keyset.getKeys().get("date");
+            afterId = (Long) keyset.getKeys().get("id");
+        }
+        return new Scan(segments, start, end, afterDate, afterId);
+    }
+
+    private static boolean overlaps(ArchivedSegment segment, LocalDate start, LocalDate end) {
+        return (start == null || !segment.getLastDate().isBefore(start))
+                && (end == null || !segment.getFirstDate().isAfter(end));
+    }
+
+    // Null when the file is gone, which happens when a reader's snapshot predates the athlete's deletion
+    private ColumnarSegment open(ArchivedSegment segment) {
+        try {
+            return mappedSegments.get(segment.getFileName());
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof NoSuchFileException) {
+                logger.warn("Archive file {} is missing", segment.getFileName());
+                return null;
+            }
+            if (ex.getCause() instanceof IOException io) {
+                throw new UncheckedIOException(io);
+            }
+            throw ex;
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            logger.warn("Could not delete archive file {}", file, ex);
+        }
+    }
+
+    private static <T> Stream<T> stream(Iterator<T> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+    }
+
+    // One segment's cursor, positioned on its current row
+    private record Source(ColumnarSegment.Cursor cursor, String metricName) {
+    }
+
+    // Rows of several segments within a date range and after an optional (date, id) position, merged into
+    // (date, id) order. Values are read straight from the mapped files.
+    private final class Scan {
+
+        private final PriorityQueue<Source> queue = new PriorityQueue<>(ROW_ORDER);
+        private final long startDay;
+        private final long endDay;
+        private final long afterDay;
+        private final long afterId;
+        private Source current;
+
+        Scan(List<ArchivedSegment> segments, LocalDate start, LocalDate end, LocalDate afterDate, Long afterId) {
+            this.startDay = start == null ? Long.MIN_VALUE : start.toEpochDay();
+            this.endDay = end == null ? Long.MAX_VALUE : end.toEpochDay();
+            this.afterDay = afterDate == null ? Long.MIN_VALUE : afterDate.toEpochDay();
+            this.afterId = afterId == null ? Long.MIN_VALUE : afterId;
+            for (ArchivedSegment segment : segments) {
+                ColumnarSegment file = open(segment);
+                if (file == null) {
+                    continue;
+                }
+                Source source = new Source(file.cursor(), metricCatalog.nameOf(segment.getMetricId()));
+                if (seek(source)) {
+                    queue.add(source);
+                }
+            }
+        }
+
+        boolean next() {
+            if (current != null && current.cursor.next() && current.cursor.epochDay() <= endDay) {
+                queue.add(current);
+            }
+            current = queue.poll();
+            return current != null;
+        }
+
+        PerformanceRecord toRecord() {
+            ColumnarSegment.Cursor cursor = current.cursor;
+            return new PerformanceRecord(cursor.id(), current.metricName, cursor.value(), cursor.date(),
+                    cursor.remarks(), null);
+        }
+
+        PerformanceRecordExport toExport() {
+            ColumnarSegment.Cursor cursor = current.cursor;
+            return new PerformanceRecordExport(cursor.id(), current.metricName, cursor.value(), cursor.date(),
+                    cursor.remarks());
+        }
+
+        // Moves the cursor to its first row inside the range and after the position
+        private boolean seek(Source source) {
+            ColumnarSegment.Cursor cursor = source.cursor;
+            while (cursor.next()) {
+                long day = cursor.epochDay();
+                if (day > endDay) {
+                    return false;
+                }
+                if (day >= startDay && (day > afterDay || (day == afterDay && cursor.id() > afterId))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
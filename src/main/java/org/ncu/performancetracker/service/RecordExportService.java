@@ -0,0 +1,84 @@
+package org.ncu.performancetracker.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import org.ncu.performancetracker.dto.PerformanceRecordExport;
+import org.ncu.performancetracker.exception.ResourceNotFoundException;
+import org.ncu.performancetracker.repository.PerformanceRecordRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class RecordExportService {
+
+    // Rows written between explicit flushes; the first row is flushed on its own so clients see data immediately
+    private static final int FLUSH_INTERVAL = 500;
+    private static final Comparator<PerformanceRecordExport> DATE_ID_ORDER = Comparator
+            .comparing(PerformanceRecordExport::getDate)
+            .thenComparing(PerformanceRecordExport::getId);
+
+    private final PerformanceRecordRepository recordRepository;
+    private final AthleteCache athleteCache;
+    private final RecordArchive recordArchive;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public RecordExportService(
+            PerformanceRecordRepository recordRepository,
+            AthleteCache athleteCache,
+            RecordArchive recordArchive,
+            ObjectMapper objectMapper) {
+        this.recordRepository = recordRepository;
+        this.athleteCache = athleteCache;
+        this.recordArchive = recordArchive;
+        this.objectMapper = objectMapper;
+    }
+
+    public void verifyAthleteExists(Long athleteId) {
+        if (!athleteCache.exists(athleteId)) {
+            throw new ResourceNotFoundException("Athlete not found with id: " + athleteId);
+        }
+    }
+
+    // Writes the athlete's full history as newline-delimited JSON, one record per line, ordered by (date, id).
+    // Rows are read through a JDBC cursor and written as they arrive, so memory use does not grow with history size.
+    // Archived records are merged in from their segment files the same way.
+    @Transactional(readOnly = true)
+    public long exportRecords(Long athleteId, OutputStream outputStream) throws IOException {
+        long count = 0;
+        try (Stream<PerformanceRecordExport> live = recordRepository.streamExportByAthleteId(athleteId);
+             Stream<PerformanceRecordExport> archived = recordArchive.streamExport(athleteId);
+             SequenceWriter writer = objectMapper.writerFor(PerformanceRecordExport.class)
+                     .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                     .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                     .withRootValueSeparator("\n")
+                     .writeValues(outputStream)) {
+            Iterator<PerformanceRecordExport> iterator =
+                    RecordArchive.mergeSorted(archived.iterator(), live.iterator(), DATE_ID_ORDER);
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                if (++count % FLUSH_INTERVAL == 1) {
+                    writer.flush();
+                }
+            }
+        }
+
+        // The separator only goes between values; terminate the last line as NDJSON expects
+        if (count > 0) {
+            outputStream.write("\n".getBytes(StandardCharsets.UTF_8));
+        }
+        outputStream.flush();
+        return count;
+    }
+}
@@ -0,0 +1,81 @@
+package org.ncu.performancetracker.service;
+
+import org.ncu.performancetracker.model.PerformanceRollup;
+
+// Mergeable count/sum/min/max/sum-of-squares. Used to combine values before they are written
+// to rollup rows, and to combine rollup rows when answering range queries.
+public class RollupAccumulator {
+
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double sumOfSquares;
+
+    public static RollupAccumulator of(double value) {
+        RollupAccumulator accumulator = new RollupAccumulator();
+        accumulator.add(value);
+        return accumulator;
+    }
+
+    public void add(double value) {
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        sumOfSquares += value * value;
+    }
+
+    public void add(RollupAccumulator other) {
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sumOfSquares += other.sumOfSquares;
+    }
+
+    public void add(PerformanceRollup rollup) {
+        count += rollup.getCount();
+        sum += rollup.getSum();
+        min = Math.min(min, rollup.getMin());
+        max = Math.max(max, rollup.getMax());
+        sumOfSquares += rollup.getSumOfSquares();
+    }
+
+    public void addTo(PerformanceRollup rollup) {
+        rollup.setCount(rollup.getCount() + count);
+        rollup.setSum(rollup.getSum() + sum);
+        rollup.setMin(Math.min(rollup.getMin(), min));
+        rollup.setMax(Math.max(rollup.getMax(), max));
+        rollup.setSumOfSquares(rollup.getSumOfSquares() + sumOfSquares);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public Double getMin() {
+        return count == 0 ? null : min;
+    }
+
+    public Double getMax() {
+        return count == 0 ? null : max;
+    }
+
+    public Double getMean() {
+        return count == 0 ? null : sum / count;
+    }
+
+    // Population standard deviation
+    public Double getStandardDeviation() {
+        if (count == 0) {
+            return null;
+        }
+        double mean = sum / count;
+        return Math.sqrt(Math.max(0.0, sumOfSquares / count - mean * mean));
+    }
+}
@@ -0,0 +1,307 @@
+package org.ncu.performancetracker.service;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import org.ncu.performancetracker.dto.MetricSummary;
+import org.ncu.performancetracker.dto.RangeStats;
+import org.ncu.performancetracker.model.MetricDirection;
+import org.ncu.performancetracker.model.PerformanceRollup;
+import org.ncu.performancetracker.model.RollupGranularity;
+import org.ncu.performancetracker.repository.PerformanceRecordRepository;
+import org.ncu.performancetracker.repository.PerformanceRollupRepository;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Stream;
+
+// Day, ISO-week, month and all-time rollups per (athlete, metric), so range statistics read a handful of
+// bucket rows instead of scanning the raw record history.
+@Service
+public class RollupService {
+
+    private final PerformanceRollupRepository rollupRepository;
+    private final PerformanceRecordRepository recordRepository;
+    private final MetricCatalog metricCatalog;
+    private final RecordArchive recordArchive;
+    private final EntityManager entityManager;
+    private final int jdbcBatchSize;
+
+    @Autowired
+    public RollupService(
+            PerformanceRollupRepository rollupRepository,
+            PerformanceRecordRepository recordRepository,
+            MetricCatalog metricCatalog,
+            RecordArchive recordArchive,
+            EntityManager entityManager,
+            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int jdbcBatchSize) {
+        this.rollupRepository = rollupRepository;
+        this.recordRepository = recordRepository;
+        this.metricCatalog = metricCatalog;
+        this.recordArchive = recordArchive;
+        this.entityManager = entityManager;
+        this.jdbcBatchSize = jdbcBatchSize;
+    }
+
+    // Callers must hold the athlete row lock (AthleteRepository.findByIdForUpdate) in the current transaction.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordValue(Long athleteId, String metricName, LocalDate date, double value) {
+        recordValues(athleteId, metricName, Map.of(date, RollupAccumulator.of(value)));
+    }
+
+    // Applies values for many days at once; each week and month bucket is read and written once.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordValues(Long athleteId, String metricName, Map<LocalDate, RollupAccumulator> valuesByDate) {
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            Map<LocalDate, RollupAccumulator> buckets = new HashMap<>();
+            valuesByDate.forEach((date, values) -> buckets
+                    .computeIfAbsent(granularity.bucketStart(date), bucketStart -> new RollupAccumulator())
+                    .add(values));
+
+            buckets.forEach((bucketStart, values) -> {
+                PerformanceRollup rollup = rollupRepository
+                        .findByAthleteIdAndMetricNameAndGranularityAndBucketStart(athleteId, metricName, granularity, bucketStart)
+                        .orElseGet(() -> new PerformanceRollup(athleteId, metricName, granularity, bucketStart));
+                values.addTo(rollup);
+                rollupRepository.save(rollup);
+            });
+        }
+    }
+
+    // Called after a record was deleted or changed. Count, sum and sum of squares are decremented in place;
+    // min and max cannot be, so the bucket's rows are rescanned only when the removed value was one of them.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRemoved(Long athleteId, String metricName, LocalDate date, double value) {
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            LocalDate bucketStart = granularity.bucketStart(date);
+            Optional<PerformanceRollup> existing = rollupRepository
+                    .findByAthleteIdAndMetricNameAndGranularityAndBucketStart(athleteId, metricName, granularity, bucketStart);
+            if (existing.isEmpty()) {
+                continue;
+            }
+
+            PerformanceRollup rollup = existing.get();
+            if (rollup.getCount() <= 1) {
+                rollupRepository.delete(rollup);
+                continue;
+            }
+
+            rollup.setCount(rollup.getCount() - 1);
+            rollup.setSum(rollup.getSum() - value);
+            rollup.setSumOfSquares(rollup.getSumOfSquares() - value * value);
+
+            if (value <= rollup.getMin() || value >= rollup.getMax()) {
+                boolean allTime = granularity == RollupGranularity.ALL_TIME;
+                LocalDate bucketEnd = allTime ? null : granularity.bucketEnd(bucketStart);
+                Object[] live = (allTime
+                        ? recordRepository.findValueRange(athleteId, metricName)
+                        : recordRepository.findValueRange(athleteId, metricName, bucketStart, bucketEnd))
+                        .get(0);
+                RecordArchive.ValueRange range = live[0] == null
+                        ? null
+                        : new RecordArchive.ValueRange((Double) live[0], (Double) live[1]);
+                Optional<RecordArchive.ValueRange> archived = recordArchive.findValueRange(
+                        athleteId, metricName, allTime ? null : bucketStart, bucketEnd);
+                if (archived.isPresent()) {
+                    range = archived.get().merge(range);
+                }
+                if (range == null) {
+                    rollupRepository.delete(rollup);
+                    continue;
+                }
+                rollup.setMin(range.min());
+                rollup.setMax(range.max());
+            }
+            rollupRepository.save(rollup);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public RangeStats findRangeStats(Long athleteId, String metricName, LocalDate start, LocalDate end) {
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+
+        RollupAccumulator total = new RollupAccumulator();
+        int bucketsRead = 0;
+        for (Map.Entry<RollupGranularity, List<LocalDate>> buckets : planBuckets(start, end).entrySet()) {
+            for (PerformanceRollup rollup : rollupRepository.findByAthleteIdAndMetricNameAndGranularityAndBucketStartIn(
+                    athleteId, metricName, buckets.getKey(), buckets.getValue())) {
+                total.add(rollup);
+                bucketsRead++;
+            }
+        }
+
+        return new RangeStats(athleteId, metricName, start, end, total.getCount(), total.getSum(),
+                total.getMin(), total.getMax(), total.getMean(), total.getStandardDeviation(), bucketsRead);
+    }
+
+    // Keyed by athlete id, then metric name. Reads one all-time rollup row per (athlete, metric),
+    // so the cost does not grow with the length of each athlete's history. The latest value comes from the
+    // archive instead when its last archived day is after the last live one, e.g. once everything is archived.
+    @Transactional(readOnly = true)
+    public Map<Long, Map<String, MetricSummary>> findAllTimeSummaries(
+            Collection<Long> athleteIds, Collection<String> metricNames) {
+        Map<Long, Map<String, MetricSummary>> summaries = new LinkedHashMap<>();
+        for (Long athleteId : athleteIds) {
+            summaries.put(athleteId, new TreeMap<>());
+        }
+
+        Map<Long, Map<String, LocalDate>> archivedLastDates = recordArchive.findLastDates(athleteIds);
+        for (Object[] row : rollupRepository.findAllTimeSummaries(athleteIds, metricNames)) {
+            Long athleteId = (Long) row[0];
+            String metricName = (String) row[1];
+            long count = (Long) row[2];
+            double sum = (Double) row[3];
+            double min = (Double) row[4];
+            double max = (Double) row[5];
+            double best = metricCatalog.directionOf(metricName) == MetricDirection.HIGHER_IS_BETTER ? max : min;
+            Double latestValue = (Double) row[6];
+            LocalDate liveLastDate = (LocalDate) row[7];
+            LocalDate archivedLastDate = archivedLastDates.getOrDefault(athleteId, Map.of()).get(metricName);
+            // On the same day live wins: a live record dated before the archive cutoff was added after archiving
+            if (archivedLastDate != null && (liveLastDate == null || archivedLastDate.isAfter(liveLastDate))) {
+                latestValue = recordArchive.findLatestValue(athleteId, metricName).orElse(latestValue);
+            }
+            summaries.get(athleteId).put(metricName,
+                    new MetricSummary(count, best, max, min, sum / count, latestValue));
+        }
+        return summaries;
+    }
+
+    // Covers [start, end] exactly with whole months where possible, whole ISO weeks at the edges,
+    // and single days for the rest. A week is only used if it does not eat into a month that fits the range.
+    static Map<RollupGranularity, List<LocalDate>> planBuckets(LocalDate start, LocalDate end) {
+        Map<RollupGranularity, List<LocalDate>> plan = new EnumMap<>(RollupGranularity.class);
+        LocalDate day = start;
+        while (!day.isAfter(end)) {
+            RollupGranularity granularity = RollupGranularity.DAY;
+            if (day.getDayOfMonth() == 1 && !RollupGranularity.MONTH.bucketEnd(day).isAfter(end)) {
+                granularity = RollupGranularity.MONTH;
+            } else if (day.getDayOfWeek() == DayOfWeek.MONDAY) {
+                LocalDate weekEnd = RollupGranularity.WEEK.bucketEnd(day);
+                LocalDate nextMonthStart = weekEnd.withDayOfMonth(1);
+                boolean crossesWholeMonth = weekEnd.getMonth() != day.getMonth()
+                        && !RollupGranularity.MONTH.bucketEnd(nextMonthStart).isAfter(end);
+                if (!weekEnd.isAfter(end) && !crossesWholeMonth) {
+                    granularity = RollupGranularity.WEEK;
+                }
+            }
+
+            plan.computeIfAbsent(granularity, g -> new ArrayList<>()).add(day);
+            day = granularity.bucketEnd(day).plusDays(1);
+        }
+        return plan;
+    }
+
+    @Transactional
+    public void deleteByAthleteId(Long athleteId) {
+        rollupRepository.deleteByAthleteId(athleteId);
+    }
+
+    // Recreates every rollup from the record history, e.g. after a bulk import or on first startup.
+    // Day buckets come pre-aggregated from the database; the coarser buckets are folded from them in order.
+    @Transactional
+    public int rebuild() {
+        rollupRepository.deleteAllInBatch();
+
+        List<RollupGranularity> coarser = List.of(
+                RollupGranularity.WEEK, RollupGranularity.MONTH, RollupGranularity.ALL_TIME);
+        PerformanceRollup[] open = new PerformanceRollup[coarser.size()];
+        int written = 0;
+        try (Stream<Object[]> live = recordRepository.streamDailyRollups();
+             Stream<Object[]> archived = recordArchive.streamDailyRollups()) {
+            // Both are ordered by (athlete, metric id, date); a day can have live and archived records
+            Comparator<PerformanceRollup> dayOrder = Comparator
+                    .comparing(PerformanceRollup::getAthleteId)
+                    .thenComparing(day -> metricCatalog.idOf(day.getMetricName()),
+                            Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(PerformanceRollup::getBucketStart);
+            Iterator<PerformanceRollup> days = RecordArchive.mergeSorted(
+                    live.map(RollupService::dayOf).iterator(), archived.map(RollupService::dayOf).iterator(), dayOrder);
+            PerformanceRollup pending = null;
+            while (days.hasNext()) {
+                PerformanceRollup day = days.next();
+                if (pending != null && sameBucket(pending, day)) {
+                    merge(day, pending);
+                    continue;
+                }
+                if (pending != null) {
+                    written = persistDay(pending, open, coarser, written);
+                }
+                pending = day;
+            }
+            if (pending != null) {
+                written = persistDay(pending, open, coarser, written);
+            }
+        }
+        for (PerformanceRollup bucket : open) {
+            if (bucket != null) {
+                written = persist(bucket, written);
+            }
+        }
+        return written;
+    }
+
+    public boolean isEmpty() {
+        return rollupRepository.count() == 0;
+    }
+
+    // Persists the day and folds it into the open coarser buckets, persisting those it has moved past
+    private int persistDay(PerformanceRollup day, PerformanceRollup[] open, List<RollupGranularity> coarser,
+                           int written) {
+        written = persist(day, written);
+        for (int i = 0; i < open.length; i++) {
+            if (open[i] != null && !sameBucket(open[i], day)) {
+                written = persist(open[i], written);
+                open[i] = null;
+            }
+            if (open[i] == null) {
+                RollupGranularity granularity = coarser.get(i);
+                open[i] = new PerformanceRollup(day.getAthleteId(), day.getMetricName(), granularity,
+                        granularity.bucketStart(day.getBucketStart()));
+            }
+            merge(day, open[i]);
+        }
+        return written;
+    }
+
+    private static PerformanceRollup dayOf(Object[] row) {
+        PerformanceRollup day = new PerformanceRollup((Long) row[0], (String) row[1], RollupGranularity.DAY,
+                (LocalDate) row[2]);
+        day.setCount((Long) row[3]);
+        day.setSum((Double) row[4]);
+        day.setMin((Double) row[5]);
+        day.setMax((Double) row[6]);
+        day.setSumOfSquares((Double) row[7]);
+        return day;
+    }
+
+    private int persist(PerformanceRollup rollup, int written) {
+        entityManager.persist(rollup);
+        if (++written % jdbcBatchSize == 0) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+        return written;
+    }
+
+    private static boolean sameBucket(PerformanceRollup bucket, PerformanceRollup day) {
+        return bucket.getAthleteId().equals(day.getAthleteId())
+                && bucket.getMetricName().equals(day.getMetricName())
+                && bucket.getGranularity().bucketStart(day.getBucketStart()).equals(bucket.getBucketStart());
+    }
+
+    private static void merge(PerformanceRollup day, PerformanceRollup bucket) {
+        bucket.setCount(bucket.getCount() + day.getCount());
+        bucket.setSum(bucket.getSum() + day.getSum());
+        bucket.setMin(Math.min(bucket.getMin(), day.getMin()));
+        bucket.setMax(Math.max(bucket.getMax(), day.getMax()));
+        bucket.setSumOfSquares(bucket.getSumOfSquares() + day.getSumOfSquares());
+    }
+}
@@ -0,0 +1,134 @@
+package org.ncu.performancetracker.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import org.ncu.performancetracker.dto.BestWindow;
+import org.ncu.performancetracker.dto.SeriesPercentiles;
+import org.ncu.performancetracker.dto.SeriesPoint;
+import org.ncu.performancetracker.dto.SeriesSummary;
+import org.ncu.performancetracker.exception.ResourceNotFoundException;
+import org.ncu.performancetracker.model.MetricDirection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Analytics over the in-memory MetricSeries of one athlete and metric. Start and end dates are inclusive and
+// optional; without them the whole history is used.
+@Service
+public class SeriesAnalyticsService {
+
+    private static final int MAX_PERCENTILES = 20;
+
+    private final SeriesStore seriesStore;
+    private final MetricCatalog metricCatalog;
+    private final int maxWindow;
+
+    @Autowired
+    public SeriesAnalyticsService(
+            SeriesStore seriesStore,
+            MetricCatalog metricCatalog,
+            @Value("${app.analytics.max-window:3650}") int maxWindow) {
+        this.seriesStore = seriesStore;
+        this.metricCatalog = metricCatalog;
+        this.maxWindow = maxWindow;
+    }
+
+    public SeriesSummary summarize(Long athleteId, String metricName, LocalDate start, LocalDate end) {
+        MetricSeries series = find(athleteId, metricName, start, end);
+        RollupAccumulator stats = series.summarize(fromIndex(series, start), toIndex(series, end));
+        return new SeriesSummary(athleteId, metricCatalog.canonicalName(metricName), start, end, stats.getCount(),
+                stats.getMin(), stats.getMax(), stats.getMean(), stats.getStandardDeviation());
+    }
+
+    public SeriesPercentiles percentiles(
+            Long athleteId, String metricName, LocalDate start, LocalDate end, List<Double> percentiles) {
+        if (percentiles.isEmpty() || percentiles.size() > MAX_PERCENTILES) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_PERCENTILES + " percentiles are required");
+        }
+        double[] requested = new double[percentiles.size()];
+        for (int i = 0; i < requested.length; i++) {
+            Double percentile = percentiles.get(i);
+            if (percentile == null || !(percentile >= 0 && percentile <= 100)) {
+                throw new IllegalArgumentException("Percentiles must be between 0 and 100");
+            }
+            requested[i] = percentile;
+        }
+
+        MetricSeries series = find(athleteId, metricName, start, end);
+        int from = fromIndex(series, start);
+        int to = toIndex(series, end);
+        double[] results = new double[requested.length];
+        Map<String, Double> byName = new LinkedHashMap<>();
+        if (series.percentiles(from, to, requested, results)) {
+            for (int i = 0; i < requested.length; i++) {
+                byName.put("p" + BigDecimal.valueOf(requested[i]).stripTrailingZeros().toPlainString(), results[i]);
+            }
+        }
+        return new SeriesPercentiles(athleteId, metricCatalog.canonicalName(metricName), start, end,
+                Math.max(0, to - from), byName);
+    }
+
+    // Trailing mean over the last window records, for every record in range preceded by enough history
+    public List<SeriesPoint> movingAverage(
+            Long athleteId, String metricName, LocalDate start, LocalDate end, int window) {
+        checkWindow(window);
+        MetricSeries series = find(athleteId, metricName, start, end);
+        int from = fromIndex(series, start);
+        int to = toIndex(series, end);
+        List<SeriesPoint> points = new ArrayList<>();
+        if (to <= from) {
+            return points;
+        }
+        double[] averages = new double[to - from];
+        int first = series.movingAverage(from, to, window, averages);
+        if (first < 0) {
+            return points;
+        }
+        for (int i = first; i < averages.length; i++) {
+            points.add(new SeriesPoint(LocalDate.ofEpochDay(series.dayAt(from + i)), averages[i]));
+        }
+        return points;
+    }
+
+    public BestWindow bestWindow(Long athleteId, String metricName, int days) {
+        checkWindow(days);
+        MetricSeries series = find(athleteId, metricName, null, null);
+        boolean higherIsBetter = metricCatalog.directionOf(metricName) == MetricDirection.HIGHER_IS_BETTER;
+        MetricSeries.Span best = series.bestWindow(days, higherIsBetter);
+        String canonicalName = metricCatalog.canonicalName(metricName);
+        if (best == null) {
+            return new BestWindow(athleteId, canonicalName, days, null, null, 0, null);
+        }
+        LocalDate windowStart = LocalDate.ofEpochDay(series.dayAt(best.from()));
+        return new BestWindow(athleteId, canonicalName, days, windowStart, windowStart.plusDays(days - 1),
+                best.to() - best.from() + 1, best.mean());
+    }
+
+    private MetricSeries find(Long athleteId, String metricName, LocalDate start, LocalDate end) {
+        if (start != null && end != null && start.isAfter(end)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        return seriesStore.find(athleteId, metricName)
+                .orElseThrow(() -> new ResourceNotFoundException("Athlete not found with id: " + athleteId));
+    }
+
+    private void checkWindow(int window) {
+        if (window < 1 || window > maxWindow) {
+            throw new IllegalArgumentException("Window must be between 1 and " + maxWindow);
+        }
+    }
+
+    private static int fromIndex(MetricSeries series, LocalDate start) {
+        return start == null ? 0 : series.fromIndex(Math.toIntExact(start.toEpochDay()));
+    }
+
+    private static int toIndex(MetricSeries series, LocalDate end) {
+        return end == null ? series.size() : series.toIndex(Math.toIntExact(end.toEpochDay()));
+    }
+}
@@ -0,0 +1,176 @@
+package org.ncu.performancetracker.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import org.ncu.performancetracker.config.ReadYourWrites;
+import org.ncu.performancetracker.event.AthleteChangeEvent;
+import org.ncu.performancetracker.event.RecordChange;
+import org.ncu.performancetracker.event.RecordChangeEvent;
+import org.ncu.performancetracker.repository.AthleteRepository;
+import org.ncu.performancetracker.repository.PerformanceRecordRepository;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// MetricSeries per (athlete, metric), built from live and archived records on first use and evicted least
+// recently used once their arrays exceed app.analytics.memory-budget. A cached series is only served while it is
+// at least as new as the athlete's data version, which every record write advances, so a load racing a write
+// cannot leave stale data behind. Committed writes also drop the series they touch right away.
+@Service
+public class SeriesStore {
+
+    private record SeriesKey(long athleteId, int metricId) {
+    }
+
+    private final PerformanceRecordRepository recordRepository;
+    private final AthleteRepository athleteRepository;
+    private final AthleteCache athleteCache;
+    private final RecordArchive recordArchive;
+    private final MetricCatalog metricCatalog;
+    private final ReadYourWrites readYourWrites;
+    private final TransactionTemplate primaryRead;
+    private final Cache<SeriesKey, MetricSeries> series;
+
+    @Autowired
+    public SeriesStore(
+            PerformanceRecordRepository recordRepository,
+            AthleteRepository athleteRepository,
+            AthleteCache athleteCache,
+            RecordArchive recordArchive,
+            MetricCatalog metricCatalog,
+            ReadYourWrites readYourWrites,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.analytics.memory-budget:64MB}") DataSize memoryBudget) {
+        this.recordRepository = recordRepository;
+        this.athleteRepository = athleteRepository;
+        this.athleteCache = athleteCache;
+        this.recordArchive = recordArchive;
+        this.metricCatalog = metricCatalog;
+        this.readYourWrites = readYourWrites;
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.primaryRead.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.primaryRead.setReadOnly(true);
+        this.series = Caffeine.newBuilder()
+                .maximumWeight(memoryBudget.toBytes())
+                .weigher((SeriesKey key, MetricSeries value) -> value.weightBytes())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, series, "metric-series");
+    }
+
+    // Empty for unknown athletes. Metrics the athlete has no records of give an empty series.
+    public Optional<MetricSeries> find(Long athleteId, String metricName) {
+        Optional<Long> dataVersion = athleteCache.findDataVersion(athleteId);
+        if (dataVersion.isEmpty()) {
+            return Optional.empty();
+        }
+        Integer metricId = metricCatalog.idOf(metricName);
+        if (metricId == null) {
+            return Optional.of(new MetricSeries(new int[0], new double[0], dataVersion.get()));
+        }
+
+        SeriesKey key = new SeriesKey(athleteId, metricId);
+        MetricSeries cached = series.getIfPresent(key);
+        if (cached != null && cached.getDataVersion() >= dataVersion.get()) {
+            return Optional.of(cached);
+        }
+        MetricSeries loaded = load(athleteId, metricName);
+        if (loaded == null) {
+            return Optional.empty();
+        }
+        // Concurrent loads keep whichever saw the newer data
+        series.asMap().merge(key, loaded,
+                (current, candidate) -> current.getDataVersion() >= candidate.getDataVersion() ? current : candidate);
+        return Optional.of(loaded);
+    }
+
+    @TransactionalEventListener
+    public void onRecordChange(RecordChangeEvent event) {
+        for (RecordChange change : event.getChanges()) {
+            Integer metricId = metricCatalog.idOf(change.getMetricName());
+            if (metricId != null) {
+                series.invalidate(new SeriesKey(change.getAthleteId(), metricId));
+            }
+        }
+    }
+
+    @TransactionalEventListener
+    public void onAthleteChange(AthleteChangeEvent event) {
+        Set<Long> athleteIds = new HashSet<>(event.getAthleteIds());
+        series.asMap().keySet().removeIf(key -> athleteIds.contains(key.athleteId()));
+    }
+
+    // Null when the athlete no longer exists. The version is read first, so the rows are at least as new as it.
+    private MetricSeries load(Long athleteId, String metricName) {
+        return readYourWrites.onPrimary(() -> primaryRead.execute(status -> {
+            Optional<Long> dataVersion = athleteRepository.findDataVersionById(athleteId);
+            if (dataVersion.isEmpty()) {
+                return null;
+            }
+            SeriesBuffer archived = new SeriesBuffer();
+            recordArchive.scanRows(athleteId, metricName, archived::add);
+            SeriesBuffer live = new SeriesBuffer();
+            try (Stream<Object[]> rows = recordRepository.streamSeries(athleteId, metricName)) {
+                rows.forEach(row -> live.add(((LocalDate) row[0]).toEpochDay(), (Long) row[1], (Double) row[2]));
+            }
+            return archived.mergeWith(live, dataVersion.get());
+        }));
+    }
+
+    // Growable primitive columns used while loading; ids are only kept to order samples of the same day
+    private static final class SeriesBuffer {
+
+        private int[] days = new int[64];
+        private long[] ids = new long[64];
+        private double[] values = new double[64];
+        private int size;
+
+        void add(long epochDay, long id, double value) {
+            if (size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            days[size] = Math.toIntExact(epochDay);
+            ids[size] = id;
+            values[size] = value;
+            size++;
+        }
+
+        // Both buffers are ordered by (day, id)
+        MetricSeries mergeWith(SeriesBuffer other, long dataVersion) {
+            int[] mergedDays = new int[size + other.size];
+            double[] mergedValues = new double[size + other.size];
+            int i = 0;
+            int j = 0;
+            for (int k = 0; k < mergedDays.length; k++) {
+                boolean takeThis = j >= other.size || (i < size && (days[i] < other.days[j]
+                        || (days[i] == other.days[j] && ids[i] <= other.ids[j])));
+                if (takeThis) {
+                    mergedDays[k] = days[i];
+                    mergedValues[k] = values[i++];
+                } else {
+                    mergedDays[k] = other.days[j];
+                    mergedValues[k] = other.values[j++];
+                }
+            }
+            return new MetricSeries(mergedDays, mergedValues, dataVersion);
+        }
+    }
+}
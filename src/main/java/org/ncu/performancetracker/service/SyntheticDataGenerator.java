@@ -0,0 +1,220 @@
+package org.ncu.performancetracker.service;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import org.ncu.performancetracker.model.Athlete;
+import org.ncu.performancetracker.model.Metric;
+import org.ncu.performancetracker.model.MetricDirection;
+import org.ncu.performancetracker.model.PerformanceRecord;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+// Bulk-loads a reproducible synthetic dataset into an empty database for the "loadtest" profile. History per
+// athlete follows a Zipf-like skew, so a few athletes hold a large share of the records and most hold a
+// handful. Each athlete trains a subset of the metrics over a career of up to app.loadtest.years, improving
+// at their own rate with day-to-day noise. Only athletes, metrics and records are written; personal bests,
+// rollups and the other derived data come from the startup backfill.
+@Service
+@Profile("loadtest")
+public class SyntheticDataGenerator {
+
+    private record MetricProfile(String name, String unit, MetricDirection direction, double typical) {
+    }
+
+    private static final List<MetricProfile> METRICS = List.of(
+            new MetricProfile("Sprint 100m", "s", MetricDirection.LOWER_IS_BETTER, 12.5),
+            new MetricProfile("Sprint 40m", "s", MetricDirection.LOWER_IS_BETTER, 5.4),
+            new MetricProfile("Agility T-Test", "s", MetricDirection.LOWER_IS_BETTER, 10.5),
+            new MetricProfile("5k Run", "min", MetricDirection.LOWER_IS_BETTER, 22.0),
+            new MetricProfile("Reaction Time", "ms", MetricDirection.LOWER_IS_BETTER, 250.0),
+            new MetricProfile("Resting Heart Rate", "bpm", MetricDirection.LOWER_IS_BETTER, 60.0),
+            new MetricProfile("Body Fat", "%", MetricDirection.LOWER_IS_BETTER, 14.0),
+            new MetricProfile("Top Speed", "km/h", MetricDirection.HIGHER_IS_BETTER, 30.0),
+            new MetricProfile("Vertical Jump", "cm", MetricDirection.HIGHER_IS_BETTER, 55.0),
+            new MetricProfile("Broad Jump", "cm", MetricDirection.HIGHER_IS_BETTER, 240.0),
+            new MetricProfile("Bench Press", "kg", MetricDirection.HIGHER_IS_BETTER, 90.0),
+            new MetricProfile("Squat", "kg", MetricDirection.HIGHER_IS_BETTER, 130.0),
+            new MetricProfile("Deadlift", "kg", MetricDirection.HIGHER_IS_BETTER, 160.0),
+            new MetricProfile("Pull-ups", "reps", MetricDirection.HIGHER_IS_BETTER, 12.0),
+            new MetricProfile("VO2 Max", "ml/kg/min", MetricDirection.HIGHER_IS_BETTER, 50.0),
+            new MetricProfile("Yo-Yo Test", "m", MetricDirection.HIGHER_IS_BETTER, 1800.0));
+
+    private static final String[][] SPORTS = {
+            {"Football", "Goalkeeper", "Defender", "Midfielder", "Forward"},
+            {"Basketball", "Point Guard", "Shooting Guard", "Forward", "Center"},
+            {"Rugby", "Prop", "Lock", "Flanker", "Scrum-half", "Wing", "Fullback"},
+            {"Athletics", "Sprinter", "Middle Distance", "Jumper", "Thrower"},
+            {"Volleyball", "Setter", "Libero", "Outside Hitter", "Middle Blocker"},
+            {"Hockey", "Goalie", "Defense", "Wing", "Center"}};
+
+    private static final String[] FIRST_NAMES = {"Alex", "Sam", "Jordan", "Maria", "Chen", "Aisha", "Lukas",
+            "Sofia", "Kenji", "Amara", "Mateo", "Ingrid", "Ravi", "Zoe", "Tariq", "Elena", "Noah", "Yuki"};
+    private static final String[] LAST_NAMES = {"Smith", "Garcia", "Okafor", "Nguyen", "Muller", "Rossi",
+            "Kowalski", "Silva", "Tanaka", "Haddad", "Johansson", "Patel", "Dubois", "Kim", "Novak", "Walsh"};
+
+    // Records written per transaction, so a multi-million record load never holds one huge transaction open
+    private static final int RECORDS_PER_TRANSACTION = 50_000;
+
+    private final MetricCatalog metricCatalog;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transaction;
+    private final int jdbcBatchSize;
+    private final int athletes;
+    private final long records;
+    private final int metrics;
+    private final int years;
+    private final double skew;
+    private final long seed;
+
+    @Autowired
+    public SyntheticDataGenerator(
+            MetricCatalog metricCatalog,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int jdbcBatchSize,
+            @Value("${app.loadtest.athletes:100000}") int athletes,
+            @Value("${app.loadtest.records:5000000}") long records,
+            @Value("${app.loadtest.metrics:24}") int metrics,
+            @Value("${app.loadtest.years:5}") int years,
+            @Value("${app.loadtest.skew:1.1}") double skew,
+            @Value("${app.loadtest.seed:42}") long seed) {
+        if (athletes < 1 || records < athletes || metrics < 1 || years < 1 || skew < 0) {
+            throw new IllegalArgumentException("Load-test dataset needs at least one athlete, metric and year, " +
+                    "at least one record per athlete and a non-negative skew");
+        }
+        this.metricCatalog = metricCatalog;
+        this.entityManager = entityManager;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.jdbcBatchSize = jdbcBatchSize;
+        this.athletes = athletes;
+        this.records = records;
+        this.metrics = metrics;
+        this.years = years;
+        this.skew = skew;
+        this.seed = seed;
+    }
+
+    // Returns the number of records written
+    public long generate() {
+        Random random = new Random(seed);
+        List<MetricProfile> catalog = registerMetrics();
+        int[] recordCounts = recordCounts(random);
+        LocalDate today = LocalDate.now();
+
+        long written = 0;
+        int athlete = 0;
+        long nextReport = records / 10;
+        while (athlete < athletes) {
+            int first = athlete;
+            long[] chunk = new long[2];
+            transaction.executeWithoutResult(status -> {
+                int index = first;
+                long chunkRecords = 0;
+                while (index < athletes && chunkRecords < RECORDS_PER_TRANSACTION) {
+                    chunkRecords += writeAthlete(index, recordCounts[index], catalog, today, random);
+                    index++;
+                }
+                entityManager.flush();
+                entityManager.clear();
+                chunk[0] = index;
+                chunk[1] = chunkRecords;
+            });
+            athlete = (int) chunk[0];
+            written += chunk[1];
+            if (written >= nextReport) {
+                System.out.println("Synthetic dataset: " + athlete + " athletes, " + written + " records written.");
+                nextReport += records / 10;
+            }
+        }
+        return written;
+    }
+
+    // The built-in metrics first, then numbered variants of them up to the configured count
+    private List<MetricProfile> registerMetrics() {
+        List<MetricProfile> catalog = new ArrayList<>(metrics);
+        for (int i = 0; i < metrics; i++) {
+            MetricProfile base = METRICS.get(i % METRICS.size());
+            MetricProfile profile = i < METRICS.size() ? base : new MetricProfile(
+                    base.name() + " " + (i / METRICS.size() + 1), base.unit(), base.direction(), base.typical());
+            if (metricCatalog.find(profile.name()).isEmpty()) {
+                metricCatalog.create(new Metric(profile.name(), profile.unit(), profile.direction()));
+            }
+            catalog.add(profile);
+        }
+        return catalog;
+    }
+
+    // Zipf weights 1 / rank^skew, shuffled across athletes; every athlete gets at least one record
+    private int[] recordCounts(Random random) {
+        double[] weights = new double[athletes];
+        double total = 0;
+        for (int rank = 1; rank <= athletes; rank++) {
+            weights[rank - 1] = 1 / Math.pow(rank, skew);
+            total += weights[rank - 1];
+        }
+        List<Integer> order = new ArrayList<>(athletes);
+        for (int i = 0; i < athletes; i++) {
+            order.add(i);
+        }
+        Collections.shuffle(order, random);
+
+        int[] counts = new int[athletes];
+        for (int rank = 0; rank < athletes; rank++) {
+            counts[order.get(rank)] = (int) Math.max(1, Math.round(records * weights[rank] / total));
+        }
+        return counts;
+    }
+
+    private int writeAthlete(int index, int recordCount, List<MetricProfile> catalog, LocalDate today,
+                             Random random) {
+        String[] sport = SPORTS[random.nextInt(SPORTS.length)];
+        Athlete athlete = new Athlete(
+                FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)]
+                        + " " + (index + 1),
+                sport[0], sport[1 + random.nextInt(sport.length - 1)]);
+        entityManager.persist(athlete);
+
+        // A few metrics per athlete, each with its own level and rate of improvement per year
+        int trained = Math.min(catalog.size(), 3 + random.nextInt(8));
+        List<MetricProfile> chosen = new ArrayList<>(catalog);
+        Collections.shuffle(chosen, random);
+        chosen = chosen.subList(0, trained);
+        double[] level = new double[trained];
+        double[] improvement = new double[trained];
+        for (int m = 0; m < trained; m++) {
+            level[m] = chosen.get(m).typical() * (0.8 + 0.4 * random.nextDouble());
+            improvement[m] = 0.08 * random.nextDouble();
+        }
+
+        int careerDays = 30 + random.nextInt(years * 365 - 29);
+        LocalDate careerStart = today.minusDays(careerDays);
+        for (int i = 0; i < recordCount; i++) {
+            int m = random.nextInt(trained);
+            MetricProfile metric = chosen.get(m);
+            int day = random.nextInt(careerDays + 1);
+            double progress = improvement[m] * day / 365.0;
+            double trend = metric.direction() == MetricDirection.HIGHER_IS_BETTER ? 1 + progress : 1 / (1 + progress);
+            double value = level[m] * trend * (1 + 0.04 * random.nextGaussian());
+
+            PerformanceRecord record = new PerformanceRecord(metric.name(), Math.round(value * 100) / 100.0,
+                    careerStart.plusDays(day), i % 10 == 0 ? "Session " + (i + 1) : null);
+            record.setAthlete(athlete);
+            entityManager.persist(record);
+            if ((i + 1) % (jdbcBatchSize * 20) == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        return recordCount;
+    }
+}
@@ -0,0 +1,201 @@
+package org.ncu.performancetracker.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import org.ncu.performancetracker.dto.MetricTrend;
+import org.ncu.performancetracker.exception.ResourceNotFoundException;
+import org.ncu.performancetracker.model.MetricDirection;
+import org.ncu.performancetracker.model.PerformanceRollup;
+import org.ncu.performancetracker.model.PerformanceTrend;
+import org.ncu.performancetracker.model.RollupGranularity;
+import org.ncu.performancetracker.repository.PerformanceRollupRepository;
+import org.ncu.performancetracker.repository.PerformanceTrendRepository;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+// Exponentially weighted moving average per (athlete, metric), with a half-life in days. Only its decayed sum
+// and weight are stored, so a record on or after the latest day is folded in with O(1) work. A value landing
+// before that day, or one removed, is handled by recomputing from the day rollups within the horizon beyond
+// which old days weigh too little to matter. Rolling means and slope come from at most 28 day rollups.
+@Service
+public class TrendService {
+
+    static final int LONG_WINDOW_DAYS = 28;
+    static final int SHORT_WINDOW_DAYS = 7;
+    // Days past which a value's weight has halved 20 times, i.e. fallen below one in a million
+    private static final int HORIZON_HALF_LIVES = 20;
+
+    private final PerformanceTrendRepository trendRepository;
+    private final PerformanceRollupRepository rollupRepository;
+    private final MetricCatalog metricCatalog;
+    private final double halfLifeDays;
+    private final int horizonDays;
+
+    @Autowired
+    public TrendService(
+            PerformanceTrendRepository trendRepository,
+            PerformanceRollupRepository rollupRepository,
+            MetricCatalog metricCatalog,
+            @Value("${app.trends.half-life-days:14}") double halfLifeDays) {
+        if (!(halfLifeDays > 0)) {
+            throw new IllegalArgumentException("Trend half-life must be positive");
+        }
+        this.trendRepository = trendRepository;
+        this.rollupRepository = rollupRepository;
+        this.metricCatalog = metricCatalog;
+        this.halfLifeDays = halfLifeDays;
+        this.horizonDays = (int) Math.ceil(halfLifeDays * HORIZON_HALF_LIVES);
+    }
+
+    // Callers must hold the athlete row lock (AthleteRepository.findByIdForUpdate) in the current transaction,
+    // and must have applied the value to the rollups first.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordValue(Long athleteId, String metricName, LocalDate date, double value) {
+        recordValues(athleteId, metricName, Map.of(date, RollupAccumulator.of(value)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordValues(Long athleteId, String metricName, Map<LocalDate, RollupAccumulator> valuesByDate) {
+        if (valuesByDate.isEmpty()) {
+            return;
+        }
+        TreeMap<LocalDate, RollupAccumulator> days = new TreeMap<>(valuesByDate);
+        Optional<PerformanceTrend> existing = trendRepository.findByAthleteIdAndMetricName(athleteId, metricName);
+        if (existing.isPresent() && days.firstKey().isBefore(existing.get().getLastDate())) {
+            // Out of order: later days have already been decayed past it
+            recompute(athleteId, metricName);
+            return;
+        }
+
+        PerformanceTrend trend = existing.orElseGet(() -> new PerformanceTrend(athleteId, metricName, days.firstKey()));
+        days.forEach((date, values) -> fold(trend, date, values.getCount(), values.getSum()));
+        trendRepository.save(trend);
+    }
+
+    // Called after a record was deleted or changed, once the rollups no longer hold its value
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRemoved(Long athleteId, String metricName, LocalDate date, double value) {
+        Optional<PerformanceTrend> existing = trendRepository.findByAthleteIdAndMetricName(athleteId, metricName);
+        if (existing.isPresent() && date.isBefore(existing.get().getLastDate().minusDays(horizonDays))) {
+            // Already outside the horizon a recomputation would read
+            return;
+        }
+        recompute(athleteId, metricName);
+    }
+
+    @Transactional(readOnly = true)
+    public MetricTrend findTrend(Long athleteId, String metricName) {
+        PerformanceTrend trend = trendRepository.findByAthleteIdAndMetricName(athleteId, metricName)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Athlete " + athleteId + " has no records for metric: " + metricName));
+        LocalDate lastDate = trend.getLastDate();
+
+        RollupAccumulator shortWindow = new RollupAccumulator();
+        RollupAccumulator longWindow = new RollupAccumulator();
+        // Least-squares sums over every value in the long window, with x the day relative to lastDate
+        double sumX = 0;
+        double sumXX = 0;
+        double sumXY = 0;
+        for (PerformanceRollup day : rollupRepository
+                .findByAthleteIdAndMetricNameAndGranularityAndBucketStartBetweenOrderByBucketStartAsc(
+                        athleteId, metricName, RollupGranularity.DAY, lastDate.minusDays(LONG_WINDOW_DAYS - 1), lastDate)) {
+            long x = ChronoUnit.DAYS.between(lastDate, day.getBucketStart());
+            longWindow.add(day);
+            if (x > -SHORT_WINDOW_DAYS) {
+                shortWindow.add(day);
+            }
+            sumX += (double) x * day.getCount();
+            sumXX += (double) x * x * day.getCount();
+            sumXY += x * day.getSum();
+        }
+
+        long n = longWindow.getCount();
+        double denominator = n * sumXX - sumX * sumX;
+        Double slope = n == 0 || denominator <= 0 ? null : (n * sumXY - sumX * longWindow.getSum()) / denominator;
+        Double improvement = slope == null ? null
+                : metricCatalog.directionOf(metricName) == MetricDirection.HIGHER_IS_BETTER ? slope : -slope;
+
+        return new MetricTrend(athleteId, metricName, lastDate, halfLifeDays,
+                trend.getEwmaSum() / trend.getEwmaWeight(),
+                shortWindow.getMean(), longWindow.getMean(), slope, improvement);
+    }
+
+    @Transactional
+    public void deleteByAthleteId(Long athleteId) {
+        trendRepository.deleteByAthleteId(athleteId);
+    }
+
+    // Recreates every trend from the day rollups, so it must run after RollupService.rebuild
+    @Transactional
+    public int rebuild() {
+        trendRepository.deleteAllInBatch();
+
+        int written = 0;
+        PerformanceTrend trend = null;
+        try (Stream<PerformanceRollup> days = rollupRepository.streamDays()) {
+            for (PerformanceRollup day : (Iterable<PerformanceRollup>) days::iterator) {
+                if (trend == null || !trend.getAthleteId().equals(day.getAthleteId())
+                        || !trend.getMetricName().equals(day.getMetricName())) {
+                    if (trend != null) {
+                        trendRepository.save(trend);
+                        written++;
+                    }
+                    trend = new PerformanceTrend(day.getAthleteId(), day.getMetricName(), day.getBucketStart());
+                }
+                fold(trend, day.getBucketStart(), day.getCount(), day.getSum());
+            }
+        }
+        if (trend != null) {
+            trendRepository.save(trend);
+            written++;
+        }
+        return written;
+    }
+
+    public boolean isEmpty() {
+        return trendRepository.count() == 0;
+    }
+
+    // Refolds the day rollups within the horizon of the latest one; drops the trend once no day is left
+    private void recompute(Long athleteId, String metricName) {
+        Optional<PerformanceTrend> existing = trendRepository.findByAthleteIdAndMetricName(athleteId, metricName);
+        Optional<PerformanceRollup> latest = rollupRepository
+                .findFirstByAthleteIdAndMetricNameAndGranularityOrderByBucketStartDesc(
+                        athleteId, metricName, RollupGranularity.DAY);
+        if (latest.isEmpty()) {
+            existing.ifPresent(trendRepository::delete);
+            return;
+        }
+
+        LocalDate lastDate = latest.get().getBucketStart();
+        List<PerformanceRollup> days = rollupRepository
+                .findByAthleteIdAndMetricNameAndGranularityAndBucketStartBetweenOrderByBucketStartAsc(
+                        athleteId, metricName, RollupGranularity.DAY, lastDate.minusDays(horizonDays), lastDate);
+        PerformanceTrend trend = existing.orElseGet(() -> new PerformanceTrend(athleteId, metricName, lastDate));
+        trend.setLastDate(days.get(0).getBucketStart());
+        trend.setEwmaSum(0);
+        trend.setEwmaWeight(0);
+        for (PerformanceRollup day : days) {
+            fold(trend, day.getBucketStart(), day.getCount(), day.getSum());
+        }
+        trendRepository.save(trend);
+    }
+
+    // Decays the state to date, which must not be before lastDate, then adds the day's values at full weight
+    private void fold(PerformanceTrend trend, LocalDate date, long count, double sum) {
+        double decay = Math.pow(0.5, ChronoUnit.DAYS.between(trend.getLastDate(), date) / halfLifeDays);
+        trend.setEwmaSum(trend.getEwmaSum() * decay + sum);
+        trend.setEwmaWeight(trend.getEwmaWeight() * decay + count);
+        trend.setLastDate(date);
+    }
+}
@@ -0,0 +1,358 @@
+package org.ncu.performancetracker.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import org.ncu.performancetracker.dto.BatchIngestResponse;
+import org.ncu.performancetracker.dto.BatchRecordRequest;
+import org.ncu.performancetracker.exception.ResourceNotFoundException;
+import org.ncu.performancetracker.model.IngestionCheckpoint;
+import org.ncu.performancetracker.model.PerformanceRecord;
+import org.ncu.performancetracker.repository.IngestionCheckpointRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Optional asynchronous ingestion (app.ingestion.write-behind.enabled). A record is acknowledged once it is in
+// the local IngestionJournal and the bounded in-memory buffer; a single writer thread drains the buffer and
+// inserts up to batch-size records per transaction through BatchIngestionService, advancing the journal's
+// IngestionCheckpoint in the same transaction. On start, journal entries past the checkpoint are inserted
+// before new records are accepted. When the buffer is full, submit waits up to accept-timeout for room and
+// then fails with RejectedExecutionException (503).
+//
+// Buffered records reach the read endpoints, personal bests and ETags only when their batch commits.
+@Service
+@ConditionalOnProperty(name = "app.ingestion.write-behind.enabled", havingValue = "true")
+public class WriteBehindIngestion {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindIngestion.class);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofSeconds(5);
+
+    private final BatchIngestionService batchIngestionService;
+    private final IngestionCheckpointRepository checkpointRepository;
+    private final AthleteCache athleteCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Path journalDirectory;
+    private final String journalId;
+    private final long segmentBytes;
+    private final int batchSize;
+    private final Duration maxBatchDelay;
+    private final Duration acceptTimeout;
+
+    private final BlockingQueue<IngestionJournal.Entry> buffer;
+    // One permit per free buffer slot; taken before the journal append so the buffer add can never block
+    private final Semaphore freeSlots;
+
+    private final Counter acceptedCounter;
+    private final Counter rejectedCounter;
+    private final Counter droppedCounter;
+    private final Timer flushTimer;
+
+    private IngestionJournal journal;
+    // Last sequence the stored checkpoint is known to have reached; only touched by start and the writer thread
+    private long checkpointedSequence;
+    private Thread writer;
+    private volatile boolean running;
+
+    @Autowired
+    public WriteBehindIngestion(
+            BatchIngestionService batchIngestionService,
+            IngestionCheckpointRepository checkpointRepository,
+            AthleteCache athleteCache,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.ingestion.write-behind.journal-dir:./data/ingestion-journal}") String journalDirectory,
+            @Value("${app.ingestion.write-behind.journal-id:default}") String journalId,
+            @Value("${app.ingestion.write-behind.segment-size:64MB}") DataSize segmentSize,
+            @Value("${app.ingestion.write-behind.capacity:10000}") int capacity,
+            @Value("${app.ingestion.write-behind.batch-size:500}") int batchSize,
+            @Value("${app.ingestion.write-behind.max-batch-delay:20ms}") Duration maxBatchDelay,
+            @Value("${app.ingestion.write-behind.accept-timeout:100ms}") Duration acceptTimeout) {
+        this.batchIngestionService = batchIngestionService;
+        this.checkpointRepository = checkpointRepository;
+        this.athleteCache = athleteCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journalDirectory = Path.of(journalDirectory);
+        this.journalId = journalId;
+        this.segmentBytes = segmentSize.toBytes();
+        this.batchSize = batchSize;
+        this.maxBatchDelay = maxBatchDelay;
+        this.acceptTimeout = acceptTimeout;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.freeSlots = new Semaphore(capacity);
+
+        Gauge.builder("ingestion.write-behind.buffered", buffer, BlockingQueue::size)
+                .description("Accepted records not yet written to the database")
+                .register(meterRegistry);
+        this.acceptedCounter = Counter.builder("ingestion.write-behind.accepted")
+                .description("Records journaled and acknowledged")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("ingestion.write-behind.rejected")
+                .description("Records refused because the buffer stayed full")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("ingestion.write-behind.dropped")
+                .description("Acknowledged records the database refused, e.g. for an athlete deleted meanwhile")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("ingestion.write-behind.flush")
+                .description("Time to insert one batch and advance the checkpoint")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        journal = IngestionJournal.open(journalDirectory, segmentBytes);
+        long checkpoint = checkpointRepository.findById(journalId)
+                .map(IngestionCheckpoint::getLastSequence)
+                .orElse(0L);
+        // A journal directory lost or replaced since the last run must not reuse already checkpointed numbers
+        journal.continueAfter(checkpoint);
+        checkpointedSequence = checkpoint;
+
+        List<IngestionJournal.Entry> pending = new ArrayList<>();
+        int[] recovered = {0};
+        journal.replay(checkpoint, entry -> {
+            pending.add(entry);
+            recovered[0]++;
+            if (pending.size() == batchSize) {
+                flushPending(pending);
+            }
+        });
+        flushPending(pending);
+        if (recovered[0] > 0) {
+            logger.info("Recovered {} journaled records after sequence {}", recovered[0], checkpoint);
+        }
+        journal.release(journal.lastSequence());
+
+        running = true;
+        writer = new Thread(this::drain, "write-behind-ingestion");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Returns the record's journal sequence once it is on disk. Missing athletes and invalid records are
+    // refused here; anything the database refuses later is logged and counted as dropped.
+    public long submit(Long athleteId, PerformanceRecord record) {
+        if (!running) {
+            throw new RejectedExecutionException("Write-behind ingestion is shutting down");
+        }
+        if (!athleteCache.exists(athleteId)) {
+            throw new ResourceNotFoundException("Athlete not found with id: " + athleteId);
+        }
+        if (record.getMetricName() == null || record.getMetricName().isBlank() || record.getValue() == null) {
+            throw new IllegalArgumentException("Metric name and value are required");
+        }
+        // Fixed now, so a record replayed after midnight keeps the day it was taken
+        LocalDate date = record.getDate() == null ? LocalDate.now() : record.getDate();
+        BatchRecordRequest request = new BatchRecordRequest(
+                athleteId, record.getMetricName(), record.getValue(), date, record.getRemarks());
+
+        try {
+            if (!freeSlots.tryAcquire(acceptTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                rejectedCounter.increment();
+                throw new RejectedExecutionException("Ingestion buffer is full, retry shortly");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for buffer space", ex);
+        }
+
+        long sequence;
+        try {
+            sequence = journal.append(request, buffer::add);
+        } catch (IOException ex) {
+            freeSlots.release();
+            throw new UncheckedIOException("Could not journal the record", ex);
+        }
+        try {
+            journal.awaitDurable(sequence);
+        } catch (IOException ex) {
+            // Already buffered, so it will usually still be written; the client just cannot rely on it
+            throw new UncheckedIOException("Could not sync the ingestion journal", ex);
+        }
+        acceptedCounter.increment();
+        return sequence;
+    }
+
+    public int getBufferedCount() {
+        return buffer.size();
+    }
+
+    // Stops accepting and writes out what is buffered; whatever is left is replayed from the journal on start
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(Duration.ofSeconds(30).toMillis());
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private void drain() {
+        List<IngestionJournal.Entry> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                IngestionJournal.Entry first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Linger briefly so a burst of single-record requests shares one transaction
+                long deadline = System.nanoTime() + maxBatchDelay.toNanos();
+                while (batch.size() < batchSize) {
+                    buffer.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    IngestionJournal.Entry next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                if (!flushUntilWritten(batch)) {
+                    return;
+                }
+                freeSlots.release(batch.size());
+                journal.release(batch.get(batch.size() - 1).sequence());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException ex) {
+                logger.warn("Could not delete flushed journal segments: {}", ex.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Any other failure, such as the checkpoint write itself, is retried with backoff too: moving on to the
+    // next batch would advance the checkpoint past these records. Returns false when shutdown interrupts the
+    // retries; the records then stay in the journal and are replayed on start.
+    private boolean flushUntilWritten(List<IngestionJournal.Entry> batch) throws InterruptedException {
+        List<IngestionJournal.Entry> remaining = batch;
+        long delayMillis = 100;
+        while (true) {
+            try {
+                flushWithRetry(remaining);
+                return true;
+            } catch (RuntimeException ex) {
+                if (!running) {
+                    logger.error("Write-behind batch of {} records failed during shutdown, they stay in the journal",
+                            remaining.size(), ex);
+                    return false;
+                }
+                logger.error("Write-behind batch of {} records failed, retrying in {} ms",
+                        remaining.size(), delayMillis, ex);
+                Thread.sleep(delayMillis);
+                delayMillis = Math.min(delayMillis * 2, MAX_RETRY_DELAY.toMillis());
+                // Records the record-by-record fallback already committed must not be inserted twice
+                long written = checkpointedSequence;
+                remaining = remaining.stream().filter(entry -> entry.sequence() > written).toList();
+                if (remaining.isEmpty()) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    // A batch the database refuses as a whole is written again record by record, so only the offending
+    // record is dropped
+    private void flushWithRetry(List<IngestionJournal.Entry> batch) throws InterruptedException {
+        try {
+            retryingTransientFailures(() -> flush(batch));
+        } catch (RuntimeException ex) {
+            if (batch.size() > 1) {
+                for (IngestionJournal.Entry entry : batch) {
+                    flushWithRetry(List.of(entry));
+                }
+                return;
+            }
+            IngestionJournal.Entry entry = batch.get(0);
+            logger.error("Dropping journaled record {} for athlete {}: {}",
+                    entry.sequence(), entry.record().getAthleteId(), ex.getMessage());
+            droppedCounter.increment();
+            retryingTransientFailures(() -> advanceCheckpoint(entry.sequence()));
+        }
+    }
+
+    // Connection failures are retried with backoff for as long as they last; meanwhile the buffer fills up
+    // and pushes back on clients
+    private void retryingTransientFailures(Runnable work) throws InterruptedException {
+        long delayMillis = 100;
+        while (true) {
+            try {
+                work.run();
+                return;
+            } catch (TransientDataAccessException | DataAccessResourceFailureException
+                     | CannotCreateTransactionException ex) {
+                logger.warn("Write-behind flush failed, retrying in {} ms: {}", delayMillis, ex.getMessage());
+                Thread.sleep(delayMillis);
+                delayMillis = Math.min(delayMillis * 2, MAX_RETRY_DELAY.toMillis());
+            }
+        }
+    }
+
+    private void flushPending(List<IngestionJournal.Entry> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            flushWithRetry(pending);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying the ingestion journal", ex);
+        }
+        pending.clear();
+    }
+
+    private void flush(List<IngestionJournal.Entry> batch) {
+        List<BatchRecordRequest> records = batch.stream().map(IngestionJournal.Entry::record).toList();
+        long lastSequence = batch.get(batch.size() - 1).sequence();
+        flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+            BatchIngestResponse response = batchIngestionService.ingest(records);
+            response.getErrors().forEach(error -> {
+                logger.error("Dropping journaled record {} for athlete {}: {}",
+                        batch.get(error.getIndex()).sequence(), error.getAthleteId(), error.getMessage());
+                droppedCounter.increment();
+            });
+            checkpointRepository.save(new IngestionCheckpoint(journalId, lastSequence));
+        }));
+        checkpointedSequence = lastSequence;
+    }
+
+    private void advanceCheckpoint(long sequence) {
+        transactionTemplate.executeWithoutResult(status ->
+                checkpointRepository.save(new IngestionCheckpoint(journalId, sequence)));
+        checkpointedSequence = sequence;
+    }
+}
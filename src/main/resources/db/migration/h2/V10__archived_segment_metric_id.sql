@@ -0,0 +1,2 @@
+-- H2 counterpart of the MySQL archived_segment metric id migration.
+ALTER TABLE archived_segment ALTER COLUMN metric_id SMALLINT NOT NULL;
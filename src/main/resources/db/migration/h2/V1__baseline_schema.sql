@@ -0,0 +1,59 @@
+-- H2 counterpart of the MySQL baseline, used by embedded-database tests.
+
+CREATE TABLE app_user (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    username       VARCHAR(255),
+    password       VARCHAR(255),
+    role           VARCHAR(255),
+    token_version  INTEGER      NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE athlete (
+    id        BIGINT       NOT NULL,
+    name      VARCHAR(255),
+    sport     VARCHAR(255),
+    position  VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE SEQUENCE athlete_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE performance_record (
+    id           BIGINT       NOT NULL,
+    athlete_id   BIGINT,
+    metric_name  VARCHAR(255),
+    value        FLOAT(53),
+    date         DATE,
+    remarks      VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_performance_record_athlete FOREIGN KEY (athlete_id) REFERENCES athlete (id)
+);
+
+CREATE SEQUENCE performance_record_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE personal_best (
+    id           BIGINT        NOT NULL AUTO_INCREMENT,
+    athlete_id   BIGINT        NOT NULL,
+    metric_name  VARCHAR(255)  NOT NULL,
+    value        FLOAT(53)     NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_personal_best_athlete_metric UNIQUE (athlete_id, metric_name)
+);
+
+CREATE TABLE performance_rollup (
+    id                    BIGINT        NOT NULL,
+    athlete_id            BIGINT        NOT NULL,
+    metric_name           VARCHAR(255)  NOT NULL,
+    granularity           VARCHAR(8)    NOT NULL,
+    bucket_start          DATE          NOT NULL,
+    record_count          BIGINT        NOT NULL,
+    value_sum             FLOAT(53)     NOT NULL,
+    value_min             FLOAT(53)     NOT NULL,
+    value_max             FLOAT(53)     NOT NULL,
+    value_sum_of_squares  FLOAT(53)     NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_performance_rollup_bucket UNIQUE (athlete_id, metric_name, granularity, bucket_start)
+);
+
+CREATE SEQUENCE performance_rollup_seq START WITH 1 INCREMENT BY 50;
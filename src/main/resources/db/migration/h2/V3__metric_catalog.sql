@@ -0,0 +1,44 @@
+-- H2 counterpart of the MySQL catalog migration.
+
+CREATE TABLE metric (
+    id         SMALLINT      NOT NULL AUTO_INCREMENT,
+    name       VARCHAR(255)  NOT NULL,
+    name_key   VARCHAR(255)  NOT NULL,
+    unit       VARCHAR(32),
+    direction  VARCHAR(16)   NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_metric_name_key UNIQUE (name_key)
+);
+
+INSERT INTO metric (name, name_key, direction)
+SELECT MIN(TRIM(metric_name)), LOWER(TRIM(metric_name)), 'HIGHER_IS_BETTER'
+FROM performance_record
+WHERE metric_name IS NOT NULL
+GROUP BY LOWER(TRIM(metric_name));
+
+DELETE FROM personal_best;
+DELETE FROM performance_rollup;
+
+ALTER TABLE performance_record ADD COLUMN metric_id SMALLINT;
+UPDATE performance_record
+SET metric_id = (SELECT m.id FROM metric m WHERE m.name_key = LOWER(TRIM(performance_record.metric_name)));
+
+DROP INDEX idx_performance_record_athlete_metric_date;
+DROP INDEX idx_performance_record_athlete_metric_value;
+ALTER TABLE performance_record DROP COLUMN metric_name;
+ALTER TABLE performance_record ALTER COLUMN metric_id SET NOT NULL;
+CREATE INDEX idx_performance_record_athlete_metric_date
+    ON performance_record (athlete_id, metric_id, date, id);
+CREATE INDEX idx_performance_record_athlete_metric_value
+    ON performance_record (athlete_id, metric_id, value);
+
+ALTER TABLE personal_best DROP CONSTRAINT uk_personal_best_athlete_metric;
+ALTER TABLE personal_best DROP COLUMN metric_name;
+ALTER TABLE personal_best ADD COLUMN metric_id SMALLINT NOT NULL;
+ALTER TABLE personal_best ADD CONSTRAINT uk_personal_best_athlete_metric UNIQUE (athlete_id, metric_id);
+
+ALTER TABLE performance_rollup DROP CONSTRAINT uk_performance_rollup_bucket;
+ALTER TABLE performance_rollup DROP COLUMN metric_name;
+ALTER TABLE performance_rollup ADD COLUMN metric_id SMALLINT NOT NULL;
+ALTER TABLE performance_rollup ADD CONSTRAINT uk_performance_rollup_bucket
+    UNIQUE (athlete_id, metric_id, granularity, bucket_start);
@@ -0,0 +1,2 @@
+-- Advanced by every write that changes what the athlete's endpoints return; conditional GETs use it as the ETag
+ALTER TABLE athlete ADD COLUMN data_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,6 @@
+-- Progress of each write-behind ingestion journal; see IngestionCheckpoint
+CREATE TABLE ingestion_checkpoint (
+    journal_id     VARCHAR(64)  NOT NULL,
+    last_sequence  BIGINT       NOT NULL,
+    PRIMARY KEY (journal_id)
+);
@@ -0,0 +1,16 @@
+-- Manifest of the columnar archive segment files that hold records moved out of performance_record
+CREATE TABLE archived_segment (
+    id            BIGINT        NOT NULL AUTO_INCREMENT,
+    athlete_id    BIGINT        NOT NULL,
+    metric_id     INT           NOT NULL,
+    file_name     VARCHAR(255)  NOT NULL,
+    record_count  INT           NOT NULL,
+    first_date    DATE          NOT NULL,
+    last_date     DATE          NOT NULL,
+    min_value     FLOAT(53)     NOT NULL,
+    max_value     FLOAT(53)     NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_archived_segment_file UNIQUE (file_name)
+);
+
+CREATE INDEX idx_archived_segment_athlete ON archived_segment (athlete_id);
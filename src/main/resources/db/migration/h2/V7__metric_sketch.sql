@@ -0,0 +1,9 @@
+-- Periodically persisted quantile sketches of each metric's values, overall and per sport; see MetricSketch
+CREATE TABLE metric_sketch (
+    id           BIGINT        NOT NULL AUTO_INCREMENT,
+    metric_id    INT           NOT NULL,
+    sport        VARCHAR(255),
+    value_count  BIGINT        NOT NULL,
+    sketch       BLOB          NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,11 @@
+-- Exponentially weighted moving average state per (athlete, metric); see PerformanceTrend
+CREATE TABLE performance_trend (
+    id           BIGINT     NOT NULL AUTO_INCREMENT,
+    athlete_id   BIGINT     NOT NULL,
+    metric_id    SMALLINT   NOT NULL,
+    last_date    DATE       NOT NULL,
+    ewma_sum     FLOAT(53)  NOT NULL,
+    ewma_weight  FLOAT(53)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_performance_trend_athlete_metric UNIQUE (athlete_id, metric_id)
+);
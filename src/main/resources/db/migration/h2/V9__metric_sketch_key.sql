@@ -0,0 +1,8 @@
+-- H2 counterpart of the MySQL metric_sketch key migration.
+
+DELETE FROM metric_sketch;
+
+ALTER TABLE metric_sketch ALTER COLUMN metric_id SMALLINT NOT NULL;
+ALTER TABLE metric_sketch ADD COLUMN sport_key VARCHAR(256)
+    GENERATED ALWAYS AS (CASE WHEN sport IS NULL THEN '' ELSE CONCAT('=', sport) END) NOT NULL;
+ALTER TABLE metric_sketch ADD CONSTRAINT uk_metric_sketch_metric_sport UNIQUE (metric_id, sport_key);
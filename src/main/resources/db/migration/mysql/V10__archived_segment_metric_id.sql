@@ -0,0 +1,2 @@
+-- archived_segment references the catalog by its 2-byte id like the other tables
+ALTER TABLE archived_segment MODIFY metric_id SMALLINT NOT NULL;
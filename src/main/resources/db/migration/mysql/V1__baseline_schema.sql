@@ -0,0 +1,70 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update).
+-- Existing databases are baselined at this version and only receive later migrations.
+
+CREATE TABLE app_user (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    username       VARCHAR(255),
+    password       VARCHAR(255),
+    role           VARCHAR(255),
+    token_version  INTEGER      NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE athlete (
+    id        BIGINT       NOT NULL,
+    name      VARCHAR(255),
+    sport     VARCHAR(255),
+    position  VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- MySQL has no sequences; Hibernate emulates pooled sequences with single-row tables
+CREATE TABLE athlete_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+INSERT INTO athlete_seq VALUES (1);
+
+CREATE TABLE performance_record (
+    id           BIGINT       NOT NULL,
+    athlete_id   BIGINT,
+    metric_name  VARCHAR(255),
+    value        FLOAT(53),
+    date         DATE,
+    remarks      VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_performance_record_athlete FOREIGN KEY (athlete_id) REFERENCES athlete (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE performance_record_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+INSERT INTO performance_record_seq VALUES (1);
+
+CREATE TABLE personal_best (
+    id           BIGINT        NOT NULL AUTO_INCREMENT,
+    athlete_id   BIGINT        NOT NULL,
+    metric_name  VARCHAR(255)  NOT NULL,
+    value        FLOAT(53)     NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_personal_best_athlete_metric UNIQUE (athlete_id, metric_name)
+) ENGINE = InnoDB;
+
+CREATE TABLE performance_rollup (
+    id                    BIGINT        NOT NULL,
+    athlete_id            BIGINT        NOT NULL,
+    metric_name           VARCHAR(255)  NOT NULL,
+    granularity           VARCHAR(8)    NOT NULL,
+    bucket_start          DATE          NOT NULL,
+    record_count          BIGINT        NOT NULL,
+    value_sum             FLOAT(53)     NOT NULL,
+    value_min             FLOAT(53)     NOT NULL,
+    value_max             FLOAT(53)     NOT NULL,
+    value_sum_of_squares  FLOAT(53)     NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_performance_rollup_bucket UNIQUE (athlete_id, metric_name, granularity, bucket_start)
+) ENGINE = InnoDB;
+
+CREATE TABLE performance_rollup_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+INSERT INTO performance_rollup_seq VALUES (1);
@@ -0,0 +1,17 @@
+-- Composite indexes matching the performance_record access paths. All lead with athlete_id, so any of them
+-- also backs the athlete foreign key.
+
+-- Per-athlete history and date ranges, ordered by (date, id) for keyset pagination and exports
+CREATE INDEX idx_performance_record_athlete_date
+    ON performance_record (athlete_id, date, id);
+
+-- Per-metric history, date-bounded min/max and the latest value of a metric
+CREATE INDEX idx_performance_record_athlete_metric_date
+    ON performance_record (athlete_id, metric_name, date, id);
+
+-- Covers per-metric MAX/MIN and the personal-best GROUP BY without touching the table rows
+CREATE INDEX idx_performance_record_athlete_metric_value
+    ON performance_record (athlete_id, metric_name, value);
+
+-- Databases baselined from ddl-auto may hold granularity as ENUM('DAY','WEEK','MONTH'), which rejects ALL_TIME
+ALTER TABLE performance_rollup MODIFY granularity VARCHAR(8) NOT NULL;
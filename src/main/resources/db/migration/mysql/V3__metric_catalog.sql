@@ -0,0 +1,49 @@
+-- Metric catalog: records, personal bests and rollups reference metrics by a 2-byte id instead of
+-- repeating the name in every row and index entry.
+
+CREATE TABLE metric (
+    id         SMALLINT      NOT NULL AUTO_INCREMENT,
+    name       VARCHAR(255)  NOT NULL,
+    name_key   VARCHAR(255)  NOT NULL,
+    unit       VARCHAR(32),
+    direction  VARCHAR(16)   NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_metric_name_key UNIQUE (name_key)
+) ENGINE = InnoDB;
+
+-- Spelling variants ("Speed", "speed ") collapse into one entry
+INSERT INTO metric (name, name_key, direction)
+SELECT MIN(TRIM(metric_name)), LOWER(TRIM(metric_name)), 'HIGHER_IS_BETTER'
+FROM performance_record
+WHERE metric_name IS NOT NULL
+GROUP BY LOWER(TRIM(metric_name));
+
+-- Both derived tables are rebuilt from the records on the next start, which also merges the variants
+DELETE FROM personal_best;
+DELETE FROM performance_rollup;
+
+ALTER TABLE performance_record ADD COLUMN metric_id SMALLINT;
+UPDATE performance_record
+SET metric_id = (SELECT m.id FROM metric m WHERE m.name_key = LOWER(TRIM(performance_record.metric_name)));
+
+DROP INDEX idx_performance_record_athlete_metric_date ON performance_record;
+DROP INDEX idx_performance_record_athlete_metric_value ON performance_record;
+ALTER TABLE performance_record
+    DROP COLUMN metric_name,
+    MODIFY metric_id SMALLINT NOT NULL;
+CREATE INDEX idx_performance_record_athlete_metric_date
+    ON performance_record (athlete_id, metric_id, date, id);
+CREATE INDEX idx_performance_record_athlete_metric_value
+    ON performance_record (athlete_id, metric_id, value);
+
+ALTER TABLE personal_best
+    DROP INDEX uk_personal_best_athlete_metric,
+    DROP COLUMN metric_name,
+    ADD COLUMN metric_id SMALLINT NOT NULL,
+    ADD CONSTRAINT uk_personal_best_athlete_metric UNIQUE (athlete_id, metric_id);
+
+ALTER TABLE performance_rollup
+    DROP INDEX uk_performance_rollup_bucket,
+    DROP COLUMN metric_name,
+    ADD COLUMN metric_id SMALLINT NOT NULL,
+    ADD CONSTRAINT uk_performance_rollup_bucket UNIQUE (athlete_id, metric_id, granularity, bucket_start);
@@ -0,0 +1,12 @@
+-- metric_sketch references the catalog by its 2-byte id like the other tables, and holds one row per
+-- (metric, sport). sport is null for the sketch across all athletes, so the unique key uses a generated
+-- column that is never null and cannot collide with a real sport.
+
+-- The sketches are rebuilt from the records on the next start, which also drops any duplicate rows
+DELETE FROM metric_sketch;
+
+ALTER TABLE metric_sketch
+    MODIFY metric_id SMALLINT NOT NULL,
+    ADD COLUMN sport_key VARCHAR(256)
+        AS (CASE WHEN sport IS NULL THEN '' ELSE CONCAT('=', sport) END) STORED NOT NULL,
+    ADD CONSTRAINT uk_metric_sketch_metric_sport UNIQUE (metric_id, sport_key);
@@ -0,0 +1,138 @@
+package org.ncu.performancetracker.benchmark;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Closed-loop HTTP load: each client sends a request, waits for the response, then sends the next.
+// Clients run on virtual threads so the driver itself is never the concurrency bottleneck.
+public class ClosedLoopLoad {
+
+    public record Scenario(String name, int weight, Supplier<HttpRequest> request) {
+    }
+
+    // requests and latencyMicros cover successful responses only; failed requests (status >= 400, timeouts,
+    // connection errors) are counted in errors with their own latencies, so fast failures cannot flatter the
+    // success percentiles. scenarioLatencyMicros holds each scenario's share of latencyMicros, keyed by name.
+    public record Result(String label, long requests, long errors, double seconds, Histogram latencyMicros,
+                         Histogram errorLatencyMicros, Map<String, Histogram> scenarioLatencyMicros) {
+
+        public double throughput() {
+            return requests / seconds;
+        }
+
+        public String summary() {
+            String line = summary(label, requests, latencyMicros) + String.format("  errors=%d", errors);
+            if (errors > 0) {
+                line += String.format(" (p50=%.2f ms, p99=%.2f ms)",
+                        errorLatencyMicros.getValueAtPercentile(50) / 1000.0,
+                        errorLatencyMicros.getValueAtPercentile(99) / 1000.0);
+            }
+            return line;
+        }
+
+        public List<String> scenarioSummaries() {
+            return scenarioLatencyMicros.entrySet().stream()
+                    .map(scenario -> summary("  " + scenario.getKey(), scenario.getValue().getTotalCount(),
+                            scenario.getValue()))
+                    .toList();
+        }
+
+        private String summary(String name, long count, Histogram histogram) {
+            return String.format("%-24s %10.1f req/s  p50=%8.2f ms  p99=%8.2f ms  p999=%8.2f ms",
+                    name, count / seconds,
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0);
+        }
+    }
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    public Result run(String label, List<Scenario> scenarios, int concurrency, Duration warmup, Duration duration)
+            throws InterruptedException {
+        drive(scenarios, concurrency, warmup, null, null, null, new LongAdder(), new LongAdder());
+
+        Histogram latencyMicros = new ConcurrentHistogram(3);
+        Histogram errorLatencyMicros = new ConcurrentHistogram(3);
+        Map<String, Histogram> scenarioLatencyMicros = new LinkedHashMap<>();
+        scenarios.forEach(scenario -> scenarioLatencyMicros.put(scenario.name(), new ConcurrentHistogram(3)));
+        LongAdder requests = new LongAdder();
+        LongAdder errors = new LongAdder();
+        long start = System.nanoTime();
+        drive(scenarios, concurrency, duration, latencyMicros, errorLatencyMicros, scenarioLatencyMicros,
+                requests, errors);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        return new Result(label, requests.sum(), errors.sum(), seconds, latencyMicros, errorLatencyMicros,
+                scenarioLatencyMicros);
+    }
+
+    private void drive(List<Scenario> scenarios, int concurrency, Duration duration, Histogram latencyMicros,
+                       Histogram errorLatencyMicros, Map<String, Histogram> scenarioLatencyMicros,
+                       LongAdder requests, LongAdder errors) throws InterruptedException {
+        int totalWeight = scenarios.stream().mapToInt(Scenario::weight).sum();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        List<Thread> clients = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            clients.add(Thread.ofVirtual().start(() -> {
+                while (System.nanoTime() < deadline) {
+                    Scenario scenario = pick(scenarios, totalWeight);
+                    HttpRequest request = scenario.request().get();
+                    long sent = System.nanoTime();
+                    boolean failed;
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        failed = response.statusCode() >= 400;
+                    } catch (Exception ex) {
+                        failed = true;
+                    }
+                    long micros = Math.max(1, (System.nanoTime() - sent) / 1000);
+                    if (failed) {
+                        errors.increment();
+                        if (errorLatencyMicros != null) {
+                            errorLatencyMicros.recordValue(micros);
+                        }
+                        continue;
+                    }
+                    if (latencyMicros != null) {
+                        latencyMicros.recordValue(micros);
+                        scenarioLatencyMicros.get(scenario.name()).recordValue(micros);
+                    }
+                    requests.increment();
+                }
+            }));
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+    }
+
+    private static Scenario pick(List<Scenario> scenarios, int totalWeight) {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Scenario scenario : scenarios) {
+            roll -= scenario.weight();
+            if (roll < 0) {
+                return scenario;
+            }
+        }
+        return scenarios.get(scenarios.size() - 1);
+    }
+}
@@ -0,0 +1,187 @@
+package org.ncu.performancetracker.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.ncu.performancetracker.PerformanceTrackerApplication;
+import org.ncu.performancetracker.service.MetricCatalog;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+// Mixed read/write load against the loadtest profile. Boots the application on its embedded H2 database (the
+// synthetic dataset is generated on first use, which takes a while at the default size), then drives a
+// closed-loop mix of API reads and authenticated record writes for athletes and metrics present in the data.
+// Writes throughput and p50/p99/p999 per scenario to target/benchmarks/loadtest-<timestamp>/summary.txt, plus
+// each scenario's full latency distribution as an HdrHistogram percentile file (<scenario>.hgrm) for plotting.
+//
+// Not part of the regular build. Run with:
+//   mvn test -Dtest=LoadTestBenchmark -Dbenchmark=true [-Dbenchmark.concurrency=200]
+//       [-Dbenchmark.duration-seconds=60] [-Dbenchmark.write-percent=10] [-Dapp.loadtest.records=...]
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class LoadTestBenchmark {
+
+    private static final String USERNAME = "loadtest";
+    private static final String PASSWORD = "loadtest-password";
+    // Athlete-metric pairs sampled from the personal-best index, so metric reads hit existing histories
+    private static final int SAMPLED_PAIRS = 100_000;
+
+    private final int concurrency = Integer.getInteger("benchmark.concurrency", 200);
+    private final int writePercent = Integer.getInteger("benchmark.write-percent", 10);
+    private final Duration warmup = Duration.ofSeconds(Integer.getInteger("benchmark.warmup-seconds", 10));
+    private final Duration duration = Duration.ofSeconds(Integer.getInteger("benchmark.duration-seconds", 60));
+
+    private record Pair(long athleteId, String metricName) {
+    }
+
+    @Test
+    public void mixedReadWriteLoad() throws Exception {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(PerformanceTrackerApplication.class)
+                .profiles("loadtest")
+                .properties("server.port=0");
+
+        try (ConfigurableApplicationContext context = builder.run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port;
+            MetricCatalog metricCatalog = context.getBean(MetricCatalog.class);
+            List<Pair> pairs = context.getBean(JdbcTemplate.class).query(
+                    "SELECT athlete_id, metric_id FROM personal_best ORDER BY id LIMIT " + SAMPLED_PAIRS,
+                    (row, index) -> new Pair(row.getLong(1), metricCatalog.nameOf(row.getInt(2))));
+            String token = "Bearer " + login(baseUrl);
+
+            int readWeight = 100 - writePercent;
+            List<ClosedLoopLoad.Scenario> scenarios = Stream.of(
+                    new ClosedLoopLoad.Scenario("athlete", readWeight * 15, () ->
+                            get(baseUrl + "/api/athletes/" + pick(pairs).athleteId())),
+                    new ClosedLoopLoad.Scenario("personal-bests", readWeight * 20, () ->
+                            get(baseUrl + "/api/performance-records/" + pick(pairs).athleteId() + "/personal-bests")),
+                    new ClosedLoopLoad.Scenario("records-page", readWeight * 20, () ->
+                            get(baseUrl + "/api/performance-records/" + pick(pairs).athleteId() + "?size=20")),
+                    new ClosedLoopLoad.Scenario("range-stats", readWeight * 15, () -> {
+                        Pair pair = pick(pairs);
+                        return get(baseUrl + "/api/performance-records/" + pair.athleteId() + "/stats?metricName="
+                                + encode(pair.metricName()) + "&start=" + LocalDate.now().minusYears(1)
+                                + "&end=" + LocalDate.now());
+                    }),
+                    new ClosedLoopLoad.Scenario("trend", readWeight * 10, () -> {
+                        Pair pair = pick(pairs);
+                        return get(baseUrl + "/api/performance-records/" + pair.athleteId() + "/trends/"
+                                + encode(pair.metricName()));
+                    }),
+                    new ClosedLoopLoad.Scenario("leaderboard", readWeight * 10, () ->
+                            get(baseUrl + "/api/leaderboards/" + encode(pick(pairs).metricName()))),
+                    new ClosedLoopLoad.Scenario("percentile", readWeight * 10, () -> {
+                        Pair pair = pick(pairs);
+                        return get(baseUrl + "/api/leaderboards/" + encode(pair.metricName()) + "/athletes/"
+                                + pair.athleteId() + "/percentile");
+                    }),
+                    new ClosedLoopLoad.Scenario("add-record", writePercent * 80, () -> {
+                        Pair pair = pick(pairs);
+                        return post(baseUrl + "/api/performance-records/" + pair.athleteId(), token,
+                                recordJson(null, pair.metricName()));
+                    }),
+                    new ClosedLoopLoad.Scenario("batch-20", writePercent * 20, () -> {
+                        List<String> items = new ArrayList<>(20);
+                        for (int i = 0; i < 20; i++) {
+                            Pair pair = pick(pairs);
+                            items.add(recordJson(pair.athleteId(), pair.metricName()));
+                        }
+                        return post(baseUrl + "/api/performance-records/batch", token, "[" + String.join(",", items) + "]");
+                    }))
+                    .filter(scenario -> scenario.weight() > 0)
+                    .toList();
+
+            ClosedLoopLoad.Result result = new ClosedLoopLoad().run("mixed", scenarios, concurrency, warmup, duration);
+
+            StringBuilder report = new StringBuilder()
+                    .append("Load test, concurrency=").append(concurrency)
+                    .append(", write-percent=").append(writePercent)
+                    .append(", duration=").append(duration.toSeconds()).append("s")
+                    .append(", sampled pairs=").append(pairs.size()).append('\n')
+                    .append(result.summary()).append('\n');
+            result.scenarioSummaries().forEach(line -> report.append(line).append('\n'));
+
+            System.out.print(report);
+            Path directory = Path.of("target", "benchmarks",
+                    "loadtest-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+            Files.createDirectories(directory);
+            Files.writeString(directory.resolve("summary.txt"), report);
+            Files.writeString(directory.resolve("all.hgrm"), percentiles(result.latencyMicros()));
+            for (Map.Entry<String, Histogram> scenario : result.scenarioLatencyMicros().entrySet()) {
+                Files.writeString(directory.resolve(scenario.getKey() + ".hgrm"), percentiles(scenario.getValue()));
+            }
+        }
+    }
+
+    private static String login(String baseUrl) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        String credentials = "{\"username\":\"" + USERNAME + "\",\"password\":\"" + PASSWORD + "\"}";
+        // Already registered when the database is reused; the login below decides
+        client.send(post(baseUrl + "/auth/register", null, credentials), HttpResponse.BodyHandlers.discarding());
+        HttpResponse<String> response = client.send(post(baseUrl + "/auth/login", null, credentials),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Load-test login failed: " + response.statusCode() + " " + response.body());
+        }
+        return new ObjectMapper().readTree(response.body()).get("token").asText();
+    }
+
+    private static Pair pick(List<Pair> pairs) {
+        return pairs.get(ThreadLocalRandom.current().nextInt(pairs.size()));
+    }
+
+    private static String recordJson(Long athleteId, String metricName) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return "{" + (athleteId == null ? "" : "\"athleteId\":" + athleteId + ",")
+                + "\"metricName\":\"" + metricName + "\",\"value\":" + Math.round(random.nextDouble(1, 200) * 100) / 100.0
+                + ",\"date\":\"" + LocalDate.now().minusDays(random.nextInt(30)) + "\"}";
+    }
+
+    // Percentile distribution in milliseconds, in HdrHistogram's .hgrm text format
+    private static String percentiles(Histogram latencyMicros) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        latencyMicros.outputPercentileDistribution(new PrintStream(output, true), 1000.0);
+        return output.toString();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private static HttpRequest get(String url) {
+        return ThreadModeBenchmark.get(url);
+    }
+
+    private static HttpRequest post(String url, String authorization, String json) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (authorization != null) {
+            request.header("Authorization", authorization);
+        }
+        return request.build();
+    }
+}
@@ -0,0 +1,92 @@
+package org.ncu.performancetracker.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.ncu.performancetracker.PerformanceTrackerApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+// Compares platform-thread and virtual-thread request handling under high read concurrency.
+// Boots the application once per mode against the configured database, drives the same closed-loop
+// read mix against each, and writes throughput and latency percentiles to target/benchmarks.
+// Both modes get the virtual-threads profile's pool size, concurrency cap and open-in-view setting, so only
+// spring.threads.virtual.enabled differs between the runs.
+//
+// Not part of the regular build. Run with:
+//   mvn test -Dtest=ThreadModeBenchmark -Dbenchmark=true [-Dbenchmark.concurrency=2000]
+//       [-Dbenchmark.duration-seconds=30] [-Dspring.datasource.url=...]
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ThreadModeBenchmark {
+
+    private final int concurrency = Integer.getInteger("benchmark.concurrency", 1000);
+    private final Duration warmup = Duration.ofSeconds(Integer.getInteger("benchmark.warmup-seconds", 5));
+    private final Duration duration = Duration.ofSeconds(Integer.getInteger("benchmark.duration-seconds", 30));
+
+    // Mirrors application-virtual-threads.properties apart from the thread mode itself
+    private static final String[] SHARED_PROPERTIES = {
+            "server.port=0",
+            "spring.jpa.show-sql=false",
+            "spring.datasource.hikari.maximum-pool-size=20",
+            "app.db.max-concurrency=20",
+            "app.db.acquire-timeout-ms=30000",
+            "spring.jpa.open-in-view=false"
+    };
+
+    @Test
+    public void comparePlatformAndVirtualThreads() throws Exception {
+        List<ClosedLoopLoad.Result> results = new ArrayList<>();
+        results.add(runMode("platform-threads", false));
+        results.add(runMode("virtual-threads", true));
+
+        StringBuilder report = new StringBuilder()
+                .append("Thread mode benchmark, concurrency=").append(concurrency)
+                .append(", duration=").append(duration.toSeconds()).append("s\n");
+        results.forEach(result -> report.append(result.summary()).append('\n'));
+
+        System.out.print(report);
+        write("thread-mode", report.toString());
+    }
+
+    private ClosedLoopLoad.Result runMode(String mode, boolean virtualThreads) throws InterruptedException {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(PerformanceTrackerApplication.class)
+                .properties(SHARED_PROPERTIES)
+                .properties("spring.threads.virtual.enabled=" + virtualThreads);
+
+        try (ConfigurableApplicationContext context = builder.run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port;
+
+            List<ClosedLoopLoad.Scenario> reads = List.of(
+                    new ClosedLoopLoad.Scenario("athlete", 3, () -> get(baseUrl + "/api/athletes/1")),
+                    new ClosedLoopLoad.Scenario("personal-bests", 3,
+                            () -> get(baseUrl + "/api/performance-records/1/personal-bests")),
+                    new ClosedLoopLoad.Scenario("records-page", 4,
+                            () -> get(baseUrl + "/api/performance-records/1?size=20")));
+
+            return new ClosedLoopLoad().run(mode, reads, concurrency, warmup, duration);
+        }
+    }
+
+    static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    static void write(String name, String report) throws IOException {
+        Path directory = Path.of("target", "benchmarks");
+        Files.createDirectories(directory);
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Files.writeString(directory.resolve(name + "-" + timestamp + ".txt"), report);
+    }
+}
@@ -0,0 +1,89 @@
+package org.ncu.performancetracker.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ConcurrencyLimitingDataSourceTest {
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    @Test
+    public void testGetConnection_ReleasesPermitOnceOnClose() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(target, 2, 100);
+
+        Connection borrowed = dataSource.getConnection();
+        assertEquals(1, dataSource.getAvailablePermits());
+
+        borrowed.close();
+        borrowed.close();
+        assertEquals(2, dataSource.getAvailablePermits());
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    public void testGetConnection_TimesOutWhenAllPermitsAreTaken() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(target, 1, 10);
+
+        dataSource.getConnection();
+
+        CompletableFuture<Connection> other = CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException ex) {
+                throw new CompletionException(ex);
+            }
+        });
+        ExecutionException failure = assertThrows(ExecutionException.class, other::get);
+        assertInstanceOf(SQLTransientConnectionException.class, failure.getCause());
+        verify(target, times(1)).getConnection();
+    }
+
+    @Test
+    public void testGetConnection_NestedConnectionSharesThePermit() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(target, 1, 10);
+
+        Connection outer = dataSource.getConnection();
+        // e.g. a REQUIRES_NEW transaction while the outer one is open
+        Connection nested = dataSource.getConnection();
+        assertEquals(0, dataSource.getAvailablePermits());
+
+        nested.close();
+        assertEquals(0, dataSource.getAvailablePermits());
+        outer.close();
+        assertEquals(1, dataSource.getAvailablePermits());
+        // The next borrow on this thread needs a permit again
+        Connection next = dataSource.getConnection();
+        assertEquals(0, dataSource.getAvailablePermits());
+        next.close();
+    }
+
+    @Test
+    public void testGetConnection_ReleasesPermitWhenTargetFails() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("down"));
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(target, 1, 10);
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+}
@@ -0,0 +1,202 @@
+package org.ncu.performancetracker.config;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against three separate in-memory H2 databases, each holding a single row naming itself
+public class ReadWriteRoutingDataSourceTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = nanos::get;
+
+    private String databasePrefix;
+    private ReadYourWrites readYourWrites;
+
+    @BeforeEach
+    public void setUp() {
+        databasePrefix = "routing-" + UUID.randomUUID() + "-";
+        readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), 100, ticker);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        readYourWrites.clearClient();
+    }
+
+    @Test
+    public void testReadOnlyTransactions_AlternateBetweenReplicas() {
+        Routing routing = routing(ReadWriteRoutingDataSource.Selection.ROUND_ROBIN);
+
+        assertEquals(List.of("replica-0", "replica-1", "replica-0"),
+                List.of(routing.readOrigin(), routing.readOrigin(), routing.readOrigin()));
+    }
+
+    @Test
+    public void testReadWriteTransactions_UsePrimary() {
+        Routing routing = routing(ReadWriteRoutingDataSource.Selection.ROUND_ROBIN);
+
+        assertEquals("primary", routing.writeTransaction.execute(status -> routing.origin()));
+    }
+
+    @Test
+    public void testReadOnlyTransaction_StaysOnPrimaryWithinWindowAfterClientWrite() {
+        Routing routing = routing(ReadWriteRoutingDataSource.Selection.ROUND_ROBIN);
+        readYourWrites.bindClient(List.of("user:coach", "addr:10.0.0.1"));
+
+        routing.writeTransaction.executeWithoutResult(status ->
+                routing.jdbcTemplate.update("UPDATE origin SET name = 'primary-updated'"));
+        assertEquals("primary-updated", routing.readOrigin());
+
+        // Same address, now anonymous
+        readYourWrites.bindClient(List.of("addr:10.0.0.1"));
+        assertEquals("primary-updated", routing.readOrigin());
+
+        readYourWrites.bindClient(List.of("addr:10.0.0.2"));
+        assertTrue(routing.readOrigin().startsWith("replica-"));
+
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+        readYourWrites.bindClient(List.of("user:coach"));
+        assertTrue(routing.readOrigin().startsWith("replica-"));
+    }
+
+    @Test
+    public void testReadOnlyTransaction_DoesNotStartWindow() {
+        Routing routing = routing(ReadWriteRoutingDataSource.Selection.ROUND_ROBIN);
+        readYourWrites.bindClient(List.of("user:coach"));
+
+        routing.readOrigin();
+
+        assertFalse(readYourWrites.requiresPrimary());
+    }
+
+    @Test
+    public void testRolledBackWrite_DoesNotStartWindow() {
+        Routing routing = routing(ReadWriteRoutingDataSource.Selection.ROUND_ROBIN);
+        readYourWrites.bindClient(List.of("user:coach"));
+
+        routing.writeTransaction.executeWithoutResult(status -> {
+            routing.jdbcTemplate.update("UPDATE origin SET name = 'discarded'");
+            status.setRollbackOnly();
+        });
+
+        assertFalse(readYourWrites.requiresPrimary());
+    }
+
+    @Test
+    public void testOnPrimary_PinsNestedReadsToPrimary() {
+        Routing routing = routing(ReadWriteRoutingDataSource.Selection.ROUND_ROBIN);
+
+        String origin = readYourWrites.onPrimary(() -> readYourWrites.onPrimary(routing::readOrigin));
+
+        assertEquals("primary", origin);
+        assertFalse(readYourWrites.requiresPrimary());
+    }
+
+    @Test
+    public void testLeastLoaded_PicksReplicaWithFewestBorrowedConnections() throws SQLException {
+        Routing routing = routing(ReadWriteRoutingDataSource.Selection.LEAST_LOADED);
+
+        try (Connection held = routing.dataSource.getConnection()) {
+            held.setReadOnly(true);
+            String heldOrigin = origin(held);
+            assertEquals(heldOrigin.equals("replica-0") ? List.of(1, 0) : List.of(0, 1),
+                    routing.dataSource.getReplicaConnectionsInUse());
+
+            // Every read while the connection is held goes to the other replica
+            String other = heldOrigin.equals("replica-0") ? "replica-1" : "replica-0";
+            assertEquals(other, routing.readOrigin());
+            assertEquals(other, routing.readOrigin());
+        }
+        assertEquals(List.of(0, 0), routing.dataSource.getReplicaConnectionsInUse());
+    }
+
+    @Test
+    public void testUnavailableReplica_IsSkipped() {
+        DataSource down = new DriverManagerDataSource("jdbc:h2:mem:" + databasePrefix + "down;IFEXISTS=TRUE");
+        Routing routing = new Routing(new ReadWriteRoutingDataSource(
+                database("primary"), List.of(down, database("replica-1")),
+                ReadWriteRoutingDataSource.Selection.ROUND_ROBIN, readYourWrites));
+
+        assertEquals(List.of("replica-1", "replica-1"), List.of(routing.readOrigin(), routing.readOrigin()));
+    }
+
+    @Test
+    public void testUnavailableReplicas_FallBackToPrimary() {
+        DataSource down = new DriverManagerDataSource("jdbc:h2:mem:" + databasePrefix + "down;IFEXISTS=TRUE");
+        Routing routing = new Routing(new ReadWriteRoutingDataSource(
+                database("primary"), List.of(down), ReadWriteRoutingDataSource.Selection.ROUND_ROBIN, readYourWrites));
+
+        assertEquals("primary", routing.readOrigin());
+    }
+
+    @Test
+    public void testConstructor_RequiresReplica() {
+        assertThrows(IllegalArgumentException.class, () -> new ReadWriteRoutingDataSource(
+                database("primary"), new ArrayList<>(), ReadWriteRoutingDataSource.Selection.ROUND_ROBIN,
+                readYourWrites));
+    }
+
+    private Routing routing(ReadWriteRoutingDataSource.Selection selection) {
+        return new Routing(new ReadWriteRoutingDataSource(
+                database("primary"), List.of(database("replica-0"), database("replica-1")), selection, readYourWrites));
+    }
+
+    private DataSource database(String name) {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:" + databasePrefix + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE origin (name VARCHAR(32))");
+        jdbcTemplate.update("INSERT INTO origin (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static String origin(Connection connection) throws SQLException {
+        try (var statement = connection.createStatement(); var resultSet = statement.executeQuery("SELECT name FROM origin")) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    private class Routing {
+
+        private final ReadWriteRoutingDataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        private final TransactionTemplate readOnlyTransaction;
+        private final TransactionTemplate writeTransaction;
+
+        private Routing(ReadWriteRoutingDataSource dataSource) {
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            transactionManager.addListener(readYourWrites);
+            this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+            this.readOnlyTransaction.setReadOnly(true);
+            this.writeTransaction = new TransactionTemplate(transactionManager);
+        }
+
+        private String readOrigin() {
+            return readOnlyTransaction.execute(status -> origin());
+        }
+
+        private String origin() {
+            return jdbcTemplate.queryForObject("SELECT name FROM origin", String.class);
+        }
+    }
+}
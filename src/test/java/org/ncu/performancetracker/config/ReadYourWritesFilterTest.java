@@ -0,0 +1,60 @@
+package org.ncu.performancetracker.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+public class ReadYourWritesFilterTest {
+
+    private final ReadYourWrites readYourWrites = mock(ReadYourWrites.class);
+
+    @AfterEach
+    public void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testDoFilter_KeysAnonymousClientsByClientIdNotAddress() throws Exception {
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(readYourWrites, "X-Client-Id", false);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/athletes/7");
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader("X-Client-Id", "c-42");
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(readYourWrites).bindClient(List.of("client:c-42"));
+        verify(readYourWrites).clearClient();
+    }
+
+    @Test
+    public void testDoFilter_KeysByUserAndOptInAddress() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "u1", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(readYourWrites, "X-Client-Id", true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/athletes/7");
+        request.setRemoteAddr("203.0.113.9");
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(readYourWrites).bindClient(List.of("user:u1", "addr:203.0.113.9"));
+    }
+
+    @Test
+    public void testDoFilter_BindsNoKeysForAnAnonymousRequestWithoutClientId() throws Exception {
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(readYourWrites, "X-Client-Id", false);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/athletes/7"), new MockHttpServletResponse(),
+                new MockFilterChain());
+
+        verify(readYourWrites).bindClient(List.of());
+    }
+}
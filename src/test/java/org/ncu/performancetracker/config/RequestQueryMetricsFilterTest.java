@@ -0,0 +1,43 @@
+package org.ncu.performancetracker.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestQueryMetricsFilterTest {
+
+    @Test
+    public void testDoFilter_RecordsStatementsRunByTheRequest() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RequestQueryMetricsFilter filter = new RequestQueryMetricsFilter(meterRegistry);
+        QueryCounter queryCounter = new QueryCounter();
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) {
+                request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/athletes/{id}");
+                queryCounter.inspect("select 1");
+                queryCounter.inspect("select 2");
+            }
+        };
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/athletes/7"), new MockHttpServletResponse(),
+                new MockFilterChain(servlet));
+
+        DistributionSummary queries = meterRegistry.get("http.server.queries")
+                .tag("method", "GET").tag("uri", "/api/athletes/{id}").summary();
+        assertEquals(1, queries.count());
+        assertEquals(2, queries.totalAmount());
+        // Counting stops with the request
+        queryCounter.inspect("select 3");
+        assertEquals(0, QueryCounter.stop());
+    }
+}
@@ -0,0 +1,42 @@
+package org.ncu.performancetracker.config;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SchemaIndexVerifierTest {
+
+    private JdbcDataSource dataSource;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:index_check_" + System.nanoTime()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/h2").load().migrate();
+    }
+
+    @Test
+    public void testVerify_MigratedSchemaPasses() {
+        assertDoesNotThrow(() -> new SchemaIndexVerifier(dataSource).verify());
+    }
+
+    @Test
+    public void testVerify_MissingIndexFails() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP INDEX idx_performance_record_athlete_metric_value");
+        }
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> new SchemaIndexVerifier(dataSource).verify());
+        assertTrue(ex.getMessage().contains("[athlete_id, metric_id, value]"), ex.getMessage());
+    }
+}
@@ -0,0 +1,73 @@
+package org.ncu.performancetracker.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ncu.performancetracker.service.AthleteCache;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AthleteETagsTest {
+
+    @Mock
+    private AthleteCache athleteCache;
+
+    private AthleteETags athleteETags;
+
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    public void setUp() {
+        athleteETags = new AthleteETags(athleteCache);
+        request = new MockHttpServletRequest("GET", "/api/performance-records/1/personal-bests");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    public void testCheckNotModified_FirstRequestIsTagged() {
+        when(athleteCache.findDataVersion(1L)).thenReturn(Optional.of(7L));
+
+        assertFalse(athleteETags.checkNotModified(1L, new ServletWebRequest(request, response)));
+        assertEquals("\"1.7\"", response.getHeader("ETag"));
+        assertEquals("no-cache", response.getHeader("Cache-Control"));
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    public void testCheckNotModified_MatchingTagIsNotModified() {
+        when(athleteCache.findDataVersion(1L)).thenReturn(Optional.of(7L));
+        request.addHeader("If-None-Match", "\"1.7\"");
+
+        assertTrue(athleteETags.checkNotModified(1L, new ServletWebRequest(request, response)));
+        assertEquals(304, response.getStatus());
+    }
+
+    @Test
+    public void testCheckNotModified_NewerVersionIsServed() {
+        when(athleteCache.findDataVersion(1L)).thenReturn(Optional.of(8L));
+        request.addHeader("If-None-Match", "\"1.7\"");
+
+        assertFalse(athleteETags.checkNotModified(1L, new ServletWebRequest(request, response)));
+        assertEquals("\"1.8\"", response.getHeader("ETag"));
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    public void testCheckNotModified_UnknownAthleteIsNotTagged() {
+        when(athleteCache.findDataVersion(9L)).thenReturn(Optional.empty());
+        request.addHeader("If-None-Match", "*");
+
+        assertFalse(athleteETags.checkNotModified(9L, new ServletWebRequest(request, response)));
+        assertNull(response.getHeader("ETag"));
+    }
+}
@@ -0,0 +1,88 @@
+package org.ncu.performancetracker.repository;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Applies the migrations to an embedded H2 database and checks that the performance_record queries
+// issued by PerformanceRecordRepository are planned against the composite indexes rather than full scans.
+// H2 does not weigh ORDER BY when choosing an index, so sort avoidance for keyset pages is not asserted here.
+public class PerformanceRecordQueryPlanTest {
+
+    private static Connection connection;
+
+    @BeforeAll
+    public static void migrateAndSeed() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:query_plans;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/h2").load().migrate();
+
+        connection = dataSource.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO athlete (id, name, sport, position) " +
+                    "SELECT x, 'Athlete ' || x, 'Sport', 'Position' FROM SYSTEM_RANGE(1, 200) AS r(x)");
+            statement.execute("INSERT INTO metric (name, name_key, direction) " +
+                    "SELECT 'Metric ' || x, 'metric ' || x, 'HIGHER_IS_BETTER' FROM SYSTEM_RANGE(1, 7) AS r(x)");
+            statement.execute("INSERT INTO performance_record (id, athlete_id, metric_id, value, date) " +
+                    "SELECT x, MOD(x, 200) + 1, MOD(x, 7) + 1, RAND() * 100, DATE '2024-01-01' + MOD(x, 365) " +
+                    "FROM SYSTEM_RANGE(1, 20000) AS r(x)");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @AfterAll
+    public static void close() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void testMetricHistory_UsesAthleteMetricIndex() throws SQLException {
+        String plan = explain("SELECT * FROM performance_record WHERE athlete_id = 1 AND metric_id = 1");
+
+        assertTrue(plan.contains("idx_performance_record_athlete_metric_"), plan);
+    }
+
+    @Test
+    public void testDateRange_UsesAthleteDateIndex() throws SQLException {
+        String plan = explain("SELECT * FROM performance_record WHERE athlete_id = 1 " +
+                "AND date BETWEEN DATE '2024-02-01' AND DATE '2024-03-01'");
+
+        assertTrue(plan.contains("idx_performance_record_athlete_date"), plan);
+    }
+
+    @Test
+    public void testPersonalBests_UseCoveringValueIndex() throws SQLException {
+        String plan = explain("SELECT metric_id, MAX(value), MIN(value) FROM performance_record WHERE athlete_id = 1 " +
+                "GROUP BY metric_id");
+
+        assertTrue(plan.contains("idx_performance_record_athlete_metric_value"), plan);
+    }
+
+    @Test
+    public void testDateBoundedValueRange_UsesAthleteMetricDateIndex() throws SQLException {
+        String plan = explain("SELECT MIN(value), MAX(value) FROM performance_record WHERE athlete_id = 1 " +
+                "AND metric_id = 1 AND date BETWEEN DATE '2024-02-01' AND DATE '2024-03-01'");
+
+        assertTrue(plan.contains("idx_performance_record_athlete_metric_date"), plan);
+    }
+
+    private static String explain(String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql);
+             ResultSet rows = statement.executeQuery()) {
+            assertTrue(rows.next());
+            return rows.getString(1);
+        }
+    }
+}
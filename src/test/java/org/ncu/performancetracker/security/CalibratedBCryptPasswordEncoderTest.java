@@ -0,0 +1,25 @@
+package org.ncu.performancetracker.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CalibratedBCryptPasswordEncoderTest {
+
+    @Test
+    public void testUpgradeEncoding_OnlyWhenStoredCostIsLower() {
+        CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(5);
+
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+        assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+    }
+
+    @Test
+    public void testCalibrate_StaysWithinBounds() {
+        assertEquals(4, CalibratedBCryptPasswordEncoder.calibrate(0, 4, 6));
+        assertEquals(5, CalibratedBCryptPasswordEncoder.calibrate(Long.MAX_VALUE, 4, 5));
+    }
+}
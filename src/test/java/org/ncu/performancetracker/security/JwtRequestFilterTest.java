@@ -0,0 +1,133 @@
+package org.ncu.performancetracker.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class JwtRequestFilterTest {
+
+    @Spy
+    private JwtUtil jwtUtil = new JwtUtil(new SimpleMeterRegistry(), 100);
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Mock
+    private TokenRevocationRegistry revocationRegistry;
+
+    @InjectMocks
+    private JwtRequestFilter jwtRequestFilter;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(jwtRequestFilter, "statelessAuthorities", true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testAuthenticatesFromClaimsWithoutUserLookup() throws Exception {
+        String token = jwtUtil.generateToken(new AppUserDetails("coach", "hash",
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN")), 2));
+        when(revocationRegistry.isRevoked("coach", 2)).thenReturn(false);
+
+        jwtRequestFilter.doFilter(bearer(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("coach", authentication.getName());
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_ADMIN")), List.copyOf(authentication.getAuthorities()));
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    public void testRevokedTokenIsNotAuthenticated() throws Exception {
+        String token = jwtUtil.generateToken(new AppUserDetails("coach", "hash",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")), 0));
+        when(revocationRegistry.isRevoked("coach", 0)).thenReturn(true);
+
+        jwtRequestFilter.doFilter(bearer(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    public void testTokenWithoutAuthoritiesFallsBackToUserLookup() throws Exception {
+        // A token issued before authorities were embedded in the claims
+        String token = Jwts.builder()
+                .setSubject("coach")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor("my_super_secret_key_which_is_very_secure_123!"
+                        .getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+        when(userDetailsService.loadUserByUsername("coach")).thenReturn(
+                new User("coach", "hash", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        jwtRequestFilter.doFilter(bearer(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals("coach", SecurityContextHolder.getContext().getAuthentication().getName());
+        verify(userDetailsService, times(1)).loadUserByUsername(anyString());
+        verifyNoInteractions(revocationRegistry);
+    }
+
+    @Test
+    public void testUserLookupRejectsTokenWithStaleVersion() throws Exception {
+        ReflectionTestUtils.setField(jwtRequestFilter, "statelessAuthorities", false);
+        String token = jwtUtil.generateToken(new AppUserDetails("coach", "hash",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")), 1));
+        when(userDetailsService.loadUserByUsername("coach")).thenReturn(new AppUserDetails("coach", "hash",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")), 2));
+
+        jwtRequestFilter.doFilter(bearer(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    public void testUserLookupAcceptsTokenWithCurrentVersion() throws Exception {
+        ReflectionTestUtils.setField(jwtRequestFilter, "statelessAuthorities", false);
+        String token = jwtUtil.generateToken(new AppUserDetails("coach", "hash",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")), 2));
+        when(userDetailsService.loadUserByUsername("coach")).thenReturn(new AppUserDetails("coach", "hash",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")), 2));
+
+        jwtRequestFilter.doFilter(bearer(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals("coach", SecurityContextHolder.getContext().getAuthentication().getName());
+    }
+
+    private MockHttpServletRequest bearer(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/athletes");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
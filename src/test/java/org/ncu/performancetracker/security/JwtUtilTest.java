@@ -0,0 +1,58 @@
+package org.ncu.performancetracker.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtUtilTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtUtil jwtUtil;
+    private UserDetails userDetails;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtUtil = new JwtUtil(meterRegistry, 100);
+        userDetails = new User("coach", "secret", List.of());
+    }
+
+    @Test
+    public void testGenerateAndValidateToken() {
+        String token = jwtUtil.generateToken(userDetails);
+
+        assertEquals("coach", jwtUtil.extractUsername(token));
+        assertTrue(jwtUtil.validateToken(token, userDetails));
+        assertFalse(jwtUtil.validateToken(token, new User("someone-else", "secret", List.of())));
+    }
+
+    @Test
+    public void testExtractClaims_RepeatedTokenIsServedFromCache() {
+        String token = jwtUtil.generateToken(userDetails);
+
+        Claims first = jwtUtil.extractClaims(token);
+        Claims second = jwtUtil.extractClaims(token);
+
+        assertSame(first, second);
+        assertEquals(1, meterRegistry.get("jwt.verification").tag("result", "valid").timer().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "jwt-verified-tokens").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    public void testExtractClaims_TamperedTokenIsRejected() {
+        String token = jwtUtil.generateToken(userDetails);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtUtil.extractClaims(tampered));
+        assertEquals(1, meterRegistry.get("jwt.verification").tag("result", "invalid").timer().count());
+    }
+}
@@ -0,0 +1,69 @@
+package org.ncu.performancetracker.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHashingExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingExecutor executor;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new PasswordHashingExecutor(meterRegistry, 1, 1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testSubmit_RecordsHashLatency() throws Exception {
+        assertEquals("hash", executor.submit(() -> "hash").get(5, TimeUnit.SECONDS));
+
+        assertEquals(1, meterRegistry.get("password.hashing.duration").timer().count());
+        assertEquals(1, meterRegistry.get("password.hashing.queue.wait").timer().count());
+    }
+
+    @Test
+    public void testSubmit_RejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        // One task occupies the single worker, one waits in the queue of capacity 1
+        CompletableFuture<Boolean> running = executor.submit(() -> {
+            started.countDown();
+            return await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = executor.submit(() -> true);
+        assertEquals(1, executor.getQueueDepth());
+
+        assertThrows(RejectedExecutionException.class, () -> executor.submit(() -> true));
+        assertEquals(1.0, meterRegistry.get("password.hashing.rejected").counter().count());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.ncu.performancetracker.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ncu.performancetracker.config.ReadYourWrites;
+import org.ncu.performancetracker.model.AppUser;
+import org.ncu.performancetracker.repository.AppUserRepository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenRevocationRegistryTest {
+
+    @Mock
+    private AppUserRepository userRepo;
+
+    @Mock
+    private ReadYourWrites readYourWrites;
+
+    @InjectMocks
+    private TokenRevocationRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        AppUser user = new AppUser();
+        user.setUsername("coach");
+        user.setTokenVersion(1);
+        lenient().when(userRepo.findByUsername("coach")).thenReturn(Optional.of(user));
+        lenient().when(readYourWrites.onPrimary(any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    public void testRevokeAll_AppliedAfterCommit() {
+        assertEquals(2, registry.revokeAll("coach"));
+        assertFalse(registry.isRevoked("coach", 1));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertTrue(registry.isRevoked("coach", 1));
+        assertFalse(registry.isRevoked("coach", 2));
+    }
+
+    @Test
+    public void testRevokeAll_RolledBackRevokeIsNeverApplied() {
+        registry.revokeAll("coach");
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertFalse(registry.isRevoked("coach", 1));
+    }
+
+    @Test
+    public void testLoad_PicksUpRevokesFromOtherInstancesWithoutLowering() {
+        AppUser revokedElsewhere = new AppUser();
+        revokedElsewhere.setUsername("analyst");
+        revokedElsewhere.setTokenVersion(3);
+        AppUser stale = new AppUser();
+        stale.setUsername("coach");
+        stale.setTokenVersion(1);
+        when(userRepo.findByTokenVersionGreaterThan(0)).thenReturn(List.of(revokedElsewhere, stale));
+        registry.revokeAll("coach");
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        registry.load();
+
+        assertTrue(registry.isRevoked("analyst", 2));
+        assertFalse(registry.isRevoked("analyst", 3));
+        // A read that started before the local revoke to version 2 committed must not undo it
+        assertTrue(registry.isRevoked("coach", 1));
+    }
+}
@@ -0,0 +1,172 @@
+package org.ncu.performancetracker.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.ArgumentCaptor;
+import org.ncu.performancetracker.config.ReadYourWrites;
+import org.ncu.performancetracker.event.AthleteChangeEvent;
+import org.ncu.performancetracker.event.MetricChangeEvent;
+import org.ncu.performancetracker.event.RecordChange;
+import org.ncu.performancetracker.event.RecordChangeEvent;
+import org.ncu.performancetracker.model.Athlete;
+import org.ncu.performancetracker.model.Metric;
+import org.ncu.performancetracker.model.MetricDirection;
+import org.ncu.performancetracker.repository.AthleteRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AthleteCacheTest {
+
+    @Mock
+    private AthleteRepository athleteRepository;
+
+    @Mock
+    private PersonalBestService personalBestService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ReadYourWrites readYourWrites;
+
+    private AthleteCache athleteCache;
+
+    private Athlete athlete;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), 100);
+        athleteCache = new AthleteCache(athleteRepository, personalBestService, readYourWrites, transactionManager,
+                meterRegistry,
+                100, Duration.ofMinutes(10), 100, Duration.ofMinutes(10));
+
+        athlete = new Athlete(1L, "John Doe", "Basketball", "Forward", 3L, null);
+    }
+
+    @Test
+    public void testFindById_LoadsOnce() {
+        when(athleteRepository.findById(1L)).thenReturn(Optional.of(athlete));
+
+        assertEquals("John Doe", athleteCache.findById(1L).orElseThrow().getName());
+        assertTrue(athleteCache.exists(1L));
+        assertEquals("John Doe", athleteCache.findById(1L).orElseThrow().getName());
+
+        verify(athleteRepository, times(1)).findById(1L);
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "athletes").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "athletes").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    public void testFindById_LoadsFromPrimaryInReadOnlyTransaction() {
+        when(athleteRepository.findById(1L)).thenAnswer(invocation -> {
+            assertTrue(readYourWrites.requiresPrimary());
+            return Optional.of(athlete);
+        });
+
+        assertTrue(athleteCache.exists(1L));
+        assertFalse(readYourWrites.requiresPrimary());
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertTrue(definition.getValue().isReadOnly());
+        assertEquals(TransactionDefinition.PROPAGATION_REQUIRES_NEW, definition.getValue().getPropagationBehavior());
+    }
+
+    @Test
+    public void testFindById_ReturnsIndependentCopies() {
+        when(athleteRepository.findById(1L)).thenReturn(Optional.of(athlete));
+
+        athleteCache.findById(1L).orElseThrow().setName("Changed");
+
+        assertEquals("John Doe", athleteCache.findById(1L).orElseThrow().getName());
+    }
+
+    @Test
+    public void testExists_MissingAthleteIsCachedUntilCreated() {
+        when(athleteRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertFalse(athleteCache.exists(2L));
+        assertFalse(athleteCache.exists(2L));
+        verify(athleteRepository, times(1)).findById(2L);
+
+        when(athleteRepository.findById(2L)).thenReturn(Optional.of(new Athlete(2L, "Jane Doe", "Tennis", "Singles", 0L, null)));
+        athleteCache.onAthleteChange(new AthleteChangeEvent(List.of(2L)));
+
+        assertTrue(athleteCache.exists(2L));
+    }
+
+    @Test
+    public void testFindExistingIds_ChecksMissesInOneQuery() {
+        when(athleteRepository.findById(1L)).thenReturn(Optional.of(athlete));
+        athleteCache.findById(1L);
+        when(athleteRepository.findExistingIds(Set.of(2L, 3L))).thenReturn(List.of(2L));
+
+        assertEquals(Set.of(1L, 2L), athleteCache.findExistingIds(List.of(1L, 2L, 3L)));
+
+        verify(athleteRepository, times(1)).findExistingIds(Set.of(2L, 3L));
+        verify(athleteRepository, never()).findById(2L);
+    }
+
+    @Test
+    public void testFindDataVersion_ReloadedAfterRecordChange() {
+        when(athleteRepository.findById(1L)).thenReturn(Optional.of(athlete));
+        assertEquals(Optional.of(3L), athleteCache.findDataVersion(1L));
+        assertEquals(Optional.of(3L), athleteCache.findDataVersion(1L));
+
+        when(athleteRepository.findById(1L)).thenReturn(Optional.of(new Athlete(1L, "John Doe", "Basketball", "Forward", 4L, null)));
+        athleteCache.onRecordChange(new RecordChangeEvent(List.of(RecordChange.added(1L, "Speed", LocalDate.now(), 13.0))));
+
+        assertEquals(Optional.of(4L), athleteCache.findDataVersion(1L));
+        assertEquals(Optional.empty(), athleteCache.findDataVersion(2L));
+    }
+
+    @Test
+    public void testFindPersonalBests_InvalidatedByRecordChangeOfThatAthlete() {
+        when(personalBestService.findPersonalBests(1L)).thenReturn(new HashMap<>(Map.of("Speed", 12.5)));
+        when(personalBestService.findPersonalBests(2L)).thenReturn(new HashMap<>(Map.of("Speed", 9.0)));
+        athleteCache.findPersonalBests(1L);
+        athleteCache.findPersonalBests(2L);
+
+        athleteCache.onRecordChange(new RecordChangeEvent(List.of(RecordChange.added(1L, "Speed", LocalDate.now(), 13.0))));
+        athleteCache.findPersonalBests(1L);
+        athleteCache.findPersonalBests(2L);
+
+        verify(personalBestService, times(2)).findPersonalBests(1L);
+        verify(personalBestService, times(1)).findPersonalBests(2L);
+        assertThrows(UnsupportedOperationException.class, () -> athleteCache.findPersonalBests(2L).put("Speed", 1.0));
+    }
+
+    @Test
+    public void testFindPersonalBests_DirectionChangeInvalidatesAll() {
+        when(personalBestService.findPersonalBests(1L)).thenReturn(Map.of("Speed", 12.5));
+        athleteCache.findPersonalBests(1L);
+
+        Metric speed = new Metric(1, "Speed", "speed", null, MetricDirection.LOWER_IS_BETTER);
+        athleteCache.onMetricChange(new MetricChangeEvent(speed, false));
+        athleteCache.findPersonalBests(1L);
+        athleteCache.onMetricChange(new MetricChangeEvent(speed, true));
+        athleteCache.findPersonalBests(1L);
+
+        verify(personalBestService, times(2)).findPersonalBests(1L);
+    }
+}
@@ -0,0 +1,95 @@
+package org.ncu.performancetracker.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ncu.performancetracker.dto.AthleteSearchResult;
+import org.ncu.performancetracker.event.AthleteChangeEvent;
+import org.ncu.performancetracker.model.Athlete;
+import org.ncu.performancetracker.repository.AthleteRepository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AthleteSearchIndexTest {
+
+    @Mock
+    private AthleteRepository athleteRepository;
+
+    private AthleteSearchIndex searchIndex;
+
+    @BeforeEach
+    public void setUp() {
+        searchIndex = new AthleteSearchIndex(athleteRepository);
+        when(athleteRepository.streamSearchFields()).thenReturn(Stream.of(
+                new Object[]{1L, "John Smith", "Basketball", "Forward"},
+                new Object[]{2L, "Johnny Walker", "Soccer", "Goalkeeper"},
+                new Object[]{3L, "Anna Johnson", "Tennis", "Singles"},
+                new Object[]{4L, "José Álvarez", "Soccer", "Forward"},
+                new Object[]{5L, "Mike Forward", "Rugby", "Wing"}));
+        searchIndex.rebuild();
+    }
+
+    @Test
+    public void testSearch_RanksNamePrefixesFirst() {
+        // Names starting with the query, then names with a later word starting with it
+        assertEquals(List.of(1L, 2L, 3L), ids(searchIndex.search("john", 10)));
+        assertEquals(List.of(1L, 2L), ids(searchIndex.search("john", 2)));
+        // Substring matches in the name come before matches in sport or position
+        assertEquals(List.of(3L, 1L, 2L), ids(searchIndex.search("ohn", 10)));
+        assertEquals(List.of(5L, 1L, 4L), ids(searchIndex.search("forward", 10)));
+    }
+
+    @Test
+    public void testSearch_IgnoresCaseAndAccents() {
+        assertEquals(List.of(4L), ids(searchIndex.search("JOSE alv", 10)));
+        assertEquals(List.of(4L), ids(searchIndex.search("álvarez", 10)));
+    }
+
+    @Test
+    public void testSearch_ShortQueryUsesNamePrefixes() {
+        assertEquals(List.of(3L, 4L), ids(searchIndex.search("a", 10)));
+        assertEquals(List.of(), searchIndex.search("zz", 10));
+        assertEquals(List.of(), searchIndex.search("  ", 10));
+    }
+
+    @Test
+    public void testAutocomplete() {
+        assertEquals(List.of(1L, 2L, 4L, 3L), ids(searchIndex.autocomplete("jo", 10)));
+        assertEquals(List.of(1L), ids(searchIndex.autocomplete("jo", 1)));
+        assertEquals(List.of(3L), ids(searchIndex.autocomplete("johns", 10)));
+        assertEquals(List.of(), searchIndex.autocomplete("sing", 10));
+    }
+
+    @Test
+    public void testFindIdsByNameContaining() {
+        assertEquals(List.of(1L, 2L, 3L), searchIndex.findIdsByNameContaining("JOHN"));
+        assertEquals(List.of(2L, 3L), searchIndex.findIdsByNameContaining("nn"));
+        assertEquals(List.of(), searchIndex.findIdsByNameContaining("xyz"));
+    }
+
+    @Test
+    public void testOnAthleteChange_UpdatesAndRemoves() {
+        Athlete renamed = new Athlete("Jon Smythe", "Basketball", "Forward");
+        renamed.setId(1L);
+        when(athleteRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(renamed));
+
+        searchIndex.onAthleteChange(new AthleteChangeEvent(List.of(1L, 2L)));
+
+        assertEquals(List.of(3L), ids(searchIndex.search("john", 10)));
+        assertEquals(List.of(1L), ids(searchIndex.search("smythe", 10)));
+        assertEquals(List.of(), searchIndex.autocomplete("walk", 10));
+        assertEquals(List.of(), searchIndex.search("goalkeeper", 10));
+        assertEquals(4, searchIndex.size());
+    }
+
+    private static List<Long> ids(List<AthleteSearchResult> results) {
+        return results.stream().map(AthleteSearchResult::getId).toList();
+    }
+}
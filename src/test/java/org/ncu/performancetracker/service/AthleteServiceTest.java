@@ -6,9 +6,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.ncu.performancetracker.event.AthleteChangeEvent;
 import org.ncu.performancetracker.model.Athlete;
+import org.ncu.performancetracker.model.PerformanceRecord;
 import org.ncu.performancetracker.repository.AthleteRepository;
 
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -24,6 +29,27 @@ public class AthleteServiceTest {
     @Mock
     private AthleteRepository athleteRepository;
 
+    @Mock
+    private AthleteCache athleteCache;
+
+    @Mock
+    private PersonalBestService personalBestService;
+
+    @Mock
+    private RollupService rollupService;
+
+    @Mock
+    private TrendService trendService;
+
+    @Mock
+    private AthleteSearchIndex searchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private RecordArchive recordArchive;
+
     @InjectMocks
     private AthleteService athleteService;
 
@@ -68,7 +94,7 @@ public class AthleteServiceTest {
     @Test
     public void testFindAthleteById() {
         // Given
-        when(athleteRepository.findById(1L)).thenReturn(Optional.of(athlete1));
+        when(athleteCache.findById(1L)).thenReturn(Optional.of(athlete1));
 
         // When
         Optional<Athlete> result = athleteService.findAthleteById(1L);
@@ -76,26 +102,27 @@ public class AthleteServiceTest {
         // Then
         assertTrue(result.isPresent());
         assertEquals("John Smith", result.get().getName());
-        verify(athleteRepository, times(1)).findById(1L);
+        verify(athleteCache, times(1)).findById(1L);
     }
 
     @Test
     public void testFindAthleteById_NotFound() {
         // Given
-        when(athleteRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(athleteCache.findById(anyLong())).thenReturn(Optional.empty());
 
         // When
         Optional<Athlete> result = athleteService.findAthleteById(999L);
 
         // Then
         assertFalse(result.isPresent());
-        verify(athleteRepository, times(1)).findById(999L);
+        verify(athleteCache, times(1)).findById(999L);
     }
 
     @Test
     public void testFindAthletesByName() {
         // Given
-        when(athleteRepository.findAthletesByName("John Smith")).thenReturn(List.of(athlete1));
+        when(searchIndex.findIdsByNameContaining("John Smith")).thenReturn(List.of(1L));
+        when(athleteRepository.findAllById(List.of(1L))).thenReturn(List.of(athlete1));
 
         // When
         List<Athlete> result = athleteService.findAthletesByName("John Smith");
@@ -103,7 +130,7 @@ public class AthleteServiceTest {
         // Then
         assertEquals(1, result.size());
         assertEquals("John Smith", result.getFirst().getName());
-        verify(athleteRepository, times(1)).findAthletesByName("John Smith");
+        verify(searchIndex, times(1)).findIdsByNameContaining("John Smith");
     }
 
     @Test
@@ -114,7 +141,9 @@ public class AthleteServiceTest {
         newAthlete.setSport("Tennis");
         newAthlete.setPosition("Singles");
 
-        when(athleteRepository.save(any(Athlete.class))).thenReturn(newAthlete);
+        Athlete savedAthlete = new Athlete("New Athlete", "Tennis", "Singles");
+        savedAthlete.setId(3L);
+        when(athleteRepository.save(any(Athlete.class))).thenReturn(savedAthlete);
 
         // When
         Athlete result = athleteService.saveAthlete(newAthlete);
@@ -125,6 +154,38 @@ public class AthleteServiceTest {
         assertEquals("Tennis", result.getSport());
         assertEquals("Singles", result.getPosition());
         verify(athleteRepository, times(1)).save(newAthlete);
+        verify(athleteRepository, times(1)).incrementDataVersions(List.of(3L));
+        verify(eventPublisher, times(1)).publishEvent(new AthleteChangeEvent(List.of(3L)));
+    }
+
+    @Test
+    public void testUpdateAthlete_KeepsRecordsAndDerivedIndexes() {
+        // Given
+        PerformanceRecord record = new PerformanceRecord("Speed", 12.5, LocalDate.of(2024, 5, 1), null);
+        athlete1.addPerformanceRecord(record);
+        when(athleteRepository.findById(1L)).thenReturn(Optional.of(athlete1));
+        Athlete changes = new Athlete("John Doe", "Basketball", "Center");
+
+        // When
+        Optional<Athlete> result = athleteService.updateAthlete(1L, changes);
+
+        // Then
+        assertSame(athlete1, result.orElseThrow());
+        assertEquals("John Doe", athlete1.getName());
+        assertEquals("Center", athlete1.getPosition());
+        assertEquals(List.of(record), athlete1.getPerformanceRecords());
+        verify(athleteRepository, never()).save(any(Athlete.class));
+        verify(athleteRepository, times(1)).incrementDataVersions(List.of(1L));
+        verify(eventPublisher, times(1)).publishEvent(new AthleteChangeEvent(List.of(1L)));
+        verifyNoInteractions(personalBestService, rollupService, trendService, recordArchive);
+    }
+
+    @Test
+    public void testUpdateAthlete_UnknownAthleteIsEmpty() {
+        when(athleteRepository.findById(9L)).thenReturn(Optional.empty());
+
+        assertTrue(athleteService.updateAthlete(9L, new Athlete("John Doe", "Basketball", "Center")).isEmpty());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -150,5 +211,7 @@ public class AthleteServiceTest {
 
         // Then
         verify(athleteRepository, times(1)).deleteById(1L);
+        verify(personalBestService, times(1)).deleteByAthleteId(1L);
+        verify(rollupService, times(1)).deleteByAthleteId(1L);
     }
 }
\ No newline at end of file
@@ -0,0 +1,168 @@
+package org.ncu.performancetracker.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ncu.performancetracker.dto.BatchIngestResponse;
+import org.ncu.performancetracker.dto.BatchRecordRequest;
+import org.ncu.performancetracker.model.Athlete;
+import org.ncu.performancetracker.model.Metric;
+import org.ncu.performancetracker.model.MetricDirection;
+import org.ncu.performancetracker.model.PerformanceRecord;
+import org.ncu.performancetracker.repository.AthleteRepository;
+import org.ncu.performancetracker.repository.PerformanceRecordRepository;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BatchIngestionServiceTest {
+
+    @Mock
+    private PerformanceRecordRepository recordRepository;
+
+    @Mock
+    private AthleteRepository athleteRepository;
+
+    @Mock
+    private AthleteCache athleteCache;
+
+    @Mock
+    private PersonalBestService personalBestService;
+
+    @Mock
+    private RollupService rollupService;
+
+    @Mock
+    private TrendService trendService;
+
+    @Mock
+    private MetricCatalog metricCatalog;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private BatchIngestionService batchIngestionService;
+
+    private Athlete athlete;
+
+    @BeforeEach
+    public void setUp() {
+        batchIngestionService = new BatchIngestionService(recordRepository, athleteRepository, athleteCache, personalBestService,
+                rollupService, trendService, metricCatalog, entityManager, Validation.buildDefaultValidatorFactory().getValidator(), eventPublisher, 2, 100);
+
+        athlete = new Athlete();
+        athlete.setId(1L);
+        athlete.setName("John Doe");
+
+        // Only athlete 1 exists
+        lenient().when(athleteCache.findExistingIds(any())).thenAnswer(invocation ->
+                invocation.<Collection<Long>>getArgument(0).contains(1L) ? Set.of(1L) : Set.of());
+        lenient().when(metricCatalog.resolve(anyString())).thenAnswer(invocation -> new Metric(
+                invocation.<String>getArgument(0).trim(), null, MetricDirection.HIGHER_IS_BETTER));
+    }
+
+    @Test
+    public void testIngest_ReportsInvalidItemsAndKeepsTheRest() {
+        when(athleteRepository.findAllByIdForUpdate(Set.of(1L))).thenReturn(List.of(athlete));
+
+        BatchIngestResponse response = batchIngestionService.ingest(List.of(
+                new BatchRecordRequest(1L, "Speed", 10.5, LocalDate.now(), null),
+                new BatchRecordRequest(2L, "Speed", 11.0, LocalDate.now(), null),
+                new BatchRecordRequest(1L, "", 9.0, LocalDate.now(), null),
+                new BatchRecordRequest(null, "Speed", 9.0, LocalDate.now(), null),
+                new BatchRecordRequest(1L, "Speed", 12.5, LocalDate.now(), null)));
+
+        assertEquals(5, response.getReceived());
+        assertEquals(2, response.getAccepted());
+        assertEquals(List.of(1, 2, 3), response.getErrors().stream().map(e -> e.getIndex()).toList());
+        assertEquals("Athlete not found with id: 2", response.getErrors().get(0).getMessage());
+        assertEquals("Metric name is required", response.getErrors().get(1).getMessage());
+
+        verify(recordRepository, times(2)).save(any(PerformanceRecord.class));
+        verify(entityManager, times(1)).flush();
+        verify(entityManager, times(1)).clear();
+        // The two accepted Speed records collapse into one personal-best update
+        verify(personalBestService, times(1)).recordValue(1L, "Speed", 12.5);
+        verify(rollupService, times(1)).recordValues(eq(1L), eq("Speed"), argThat(days -> days.size() == 1
+                && days.get(LocalDate.now()).getCount() == 2 && days.get(LocalDate.now()).getSum() == 23.0));
+        verify(athleteRepository, times(1)).incrementDataVersions(Set.of(1L));
+    }
+
+    @Test
+    public void testIngest_DoesNotRegisterMetricsOfUnknownAthletes() {
+        when(athleteRepository.findAllByIdForUpdate(Set.of(1L))).thenReturn(List.of(athlete));
+
+        BatchIngestResponse response = batchIngestionService.ingest(List.of(
+                new BatchRecordRequest(1L, "Speed", 10.5, LocalDate.now(), null),
+                new BatchRecordRequest(2L, "Vertical Jump", 60.0, LocalDate.now(), null)));
+
+        assertEquals(1, response.getAccepted());
+        assertEquals("Athlete not found with id: 2", response.getErrors().get(0).getMessage());
+        verify(metricCatalog).resolve("Speed");
+        verify(metricCatalog, never()).resolve("Vertical Jump");
+    }
+
+    @Test
+    public void testIngest_ResolvesAthletesOnce() {
+        when(athleteRepository.findAllByIdForUpdate(Set.of(1L))).thenReturn(List.of(athlete));
+
+        batchIngestionService.ingest(List.of(
+                new BatchRecordRequest(1L, "Speed", 10.5, LocalDate.now(), null),
+                new BatchRecordRequest(1L, "Agility", 8.3, LocalDate.now(), null),
+                new BatchRecordRequest(1L, "Speed", 9.5, LocalDate.now(), null)));
+
+        verify(athleteRepository, times(1)).findAllByIdForUpdate(any());
+        verify(athleteRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testIngest_LowerIsBetterKeepsFastestTime() {
+        when(athleteRepository.findAllByIdForUpdate(Set.of(1L))).thenReturn(List.of(athlete));
+        when(metricCatalog.resolve("sprint 100m")).thenReturn(
+                new Metric(2, "Sprint 100m", "sprint 100m", "s", MetricDirection.LOWER_IS_BETTER));
+
+        batchIngestionService.ingest(List.of(
+                new BatchRecordRequest(1L, "sprint 100m", 11.4, LocalDate.now(), null),
+                new BatchRecordRequest(1L, "sprint 100m", 10.9, LocalDate.now(), null),
+                new BatchRecordRequest(1L, "sprint 100m", 11.1, LocalDate.now(), null)));
+
+        // Stored and indexed under the catalog spelling
+        verify(recordRepository, times(3)).save(argThat(record -> record.getMetricName().equals("Sprint 100m")));
+        verify(personalBestService, times(1)).recordValue(1L, "Sprint 100m", 10.9);
+    }
+
+    @Test
+    public void testIngest_EmptyBatch() {
+        BatchIngestResponse response = batchIngestionService.ingest(Collections.emptyList());
+
+        assertEquals(0, response.getAccepted());
+        verifyNoInteractions(athleteRepository, recordRepository);
+    }
+
+    @Test
+    public void testIngest_TooManyItems() {
+        List<BatchRecordRequest> items = Collections.nCopies(101,
+                new BatchRecordRequest(1L, "Speed", 10.5, LocalDate.now(), null));
+
+        assertThrows(IllegalArgumentException.class, () -> batchIngestionService.ingest(items));
+    }
+}
@@ -0,0 +1,76 @@
+package org.ncu.performancetracker.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.ncu.performancetracker.dto.PerformanceRecordExport;
+
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarSegmentTest {
+
+    private static final LocalDate DAY = LocalDate.of(2021, 3, 1);
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testWrite_RoundTripsEveryColumn() throws IOException {
+        List<PerformanceRecordExport> records = List.of(
+                new PerformanceRecordExport(10L, "Speed", 12.5, DAY, "windy"),
+                new PerformanceRecordExport(11L, "Speed", 11.0, DAY, null),
+                new PerformanceRecordExport(7L, "Speed", 13.25, DAY.plusDays(400), "Ünïcode ✓"),
+                new PerformanceRecordExport(12L, "Speed", -1.5, DAY.plusDays(401), ""));
+        Path file = directory.resolve("1-1.seg");
+
+        ColumnarSegment.write(file, 4L, 2, records);
+        ColumnarSegment segment = ColumnarSegment.open(file);
+
+        assertEquals(4, segment.getCount());
+        assertEquals(4L, segment.getAthleteId());
+        assertEquals(2, segment.getMetricId());
+        assertEquals(DAY, segment.getFirstDate());
+        assertEquals(DAY.plusDays(401), segment.getLastDate());
+        assertEquals(-1.5, segment.getMinValue());
+        assertEquals(13.25, segment.getMaxValue());
+
+        List<PerformanceRecordExport> read = new ArrayList<>();
+        ColumnarSegment.Cursor cursor = segment.cursor();
+        while (cursor.next()) {
+            read.add(new PerformanceRecordExport(cursor.id(), "Speed", cursor.value(), cursor.date(), cursor.remarks()));
+        }
+        assertEquals(records, read);
+        assertFalse(Files.exists(directory.resolve("1-1.seg.tmp")));
+    }
+
+    @Test
+    public void testValues_IsViewOfMappedColumn() throws IOException {
+        Path file = directory.resolve("1-1.seg");
+        ColumnarSegment.write(file, 1L, 1, List.of(
+                new PerformanceRecordExport(1L, "Speed", 1.0, DAY, null),
+                new PerformanceRecordExport(2L, "Speed", 2.0, DAY.plusDays(1), null)));
+
+        DoubleBuffer values = ColumnarSegment.open(file).values();
+
+        assertFalse(values.hasArray());
+        assertEquals(2, values.remaining());
+        assertEquals(2.0, values.get(1));
+    }
+
+    @Test
+    public void testWrite_RejectsUnorderedRecords() {
+        List<PerformanceRecordExport> records = List.of(
+                new PerformanceRecordExport(1L, "Speed", 1.0, DAY.plusDays(1), null),
+                new PerformanceRecordExport(2L, "Speed", 2.0, DAY, null));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> ColumnarSegment.write(directory.resolve("1-1.seg"), 1L, 1, records));
+    }
+}
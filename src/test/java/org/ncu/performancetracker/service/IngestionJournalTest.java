@@ -0,0 +1,159 @@
+package org.ncu.performancetracker.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.ncu.performancetracker.dto.BatchRecordRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IngestionJournalTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 1);
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testReplay_ReturnsEntriesAfterSequenceAcrossRestart() throws IOException {
+        try (IngestionJournal journal = IngestionJournal.open(directory, 1 << 20)) {
+            journal.append(new BatchRecordRequest(1L, "Speed", 10.5, DAY, null), entry -> { });
+            journal.append(new BatchRecordRequest(2L, "Sprint 100m", 11.2, DAY, "wet track"), entry -> { });
+            long last = journal.append(new BatchRecordRequest(1L, "Speed", 12.0, DAY.plusDays(1), null), entry -> { });
+            journal.awaitDurable(last);
+        }
+
+        try (IngestionJournal journal = IngestionJournal.open(directory, 1 << 20)) {
+            List<IngestionJournal.Entry> replayed = new ArrayList<>();
+            journal.replay(1, replayed::add);
+
+            assertEquals(List.of(
+                    new IngestionJournal.Entry(2, new BatchRecordRequest(2L, "Sprint 100m", 11.2, DAY, "wet track")),
+                    new IngestionJournal.Entry(3, new BatchRecordRequest(1L, "Speed", 12.0, DAY.plusDays(1), null))),
+                    replayed);
+            assertEquals(4, journal.append(new BatchRecordRequest(1L, "Speed", 9.0, DAY, null), entry -> { }));
+        }
+    }
+
+    @Test
+    public void testReplay_KeepsRemarksLongerThan64KB() throws IOException {
+        String remarks = "x".repeat(100_000);
+        try (IngestionJournal journal = IngestionJournal.open(directory, 1 << 20)) {
+            journal.append(new BatchRecordRequest(1L, "Speed", 10.5, DAY, remarks), entry -> { });
+        }
+
+        try (IngestionJournal journal = IngestionJournal.open(directory, 1 << 20)) {
+            List<IngestionJournal.Entry> replayed = new ArrayList<>();
+            journal.replay(0, replayed::add);
+
+            assertEquals(List.of(new IngestionJournal.Entry(1, new BatchRecordRequest(1L, "Speed", 10.5, DAY, remarks))),
+                    replayed);
+        }
+    }
+
+    @Test
+    public void testOpen_CutsOffTornTail() throws IOException {
+        try (IngestionJournal journal = IngestionJournal.open(directory, 1 << 20)) {
+            journal.append(new BatchRecordRequest(1L, "Speed", 10.5, DAY, null), entry -> { });
+            journal.append(new BatchRecordRequest(1L, "Speed", 11.5, DAY, null), entry -> { });
+        }
+        Path segment = segments().get(0);
+        long intactSize = Files.size(segment);
+        // Half an entry: a length header promising more bytes than follow
+        Files.write(segment, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (IngestionJournal journal = IngestionJournal.open(directory, 1 << 20)) {
+            assertEquals(2, journal.lastSequence());
+            assertEquals(intactSize, Files.size(segment));
+            journal.append(new BatchRecordRequest(1L, "Speed", 12.5, DAY, null), entry -> { });
+
+            List<Long> sequences = new ArrayList<>();
+            journal.replay(0, entry -> sequences.add(entry.sequence()));
+            assertEquals(List.of(1L, 2L, 3L), sequences);
+        }
+    }
+
+    @Test
+    public void testRelease_DeletesOnlyFullyFlushedSegments() throws IOException {
+        try (IngestionJournal journal = IngestionJournal.open(directory, 100)) {
+            for (int i = 0; i < 6; i++) {
+                journal.append(new BatchRecordRequest(1L, "Speed", (double) i, DAY, null), entry -> { });
+            }
+            int segmentCount = segments().size();
+            assertTrue(segmentCount > 2);
+
+            journal.release(3);
+
+            assertTrue(segments().size() < segmentCount);
+            List<Long> sequences = new ArrayList<>();
+            journal.replay(3, entry -> sequences.add(entry.sequence()));
+            assertEquals(List.of(4L, 5L, 6L), sequences);
+
+            journal.release(6);
+            assertEquals(1, segments().size());
+        }
+    }
+
+    @Test
+    public void testAppend_ConcurrentWritersGetDistinctDurableSequences() throws Exception {
+        Set<Long> handedOver = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (IngestionJournal journal = IngestionJournal.open(directory, 4096)) {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        long sequence = journal.append(new BatchRecordRequest(1L, "Speed", (double) i, DAY, null),
+                                entry -> handedOver.add(entry.sequence()));
+                        journal.awaitDurable(sequence);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+
+            assertEquals(800, handedOver.size());
+            List<Long> sequences = new ArrayList<>();
+            journal.replay(0, entry -> sequences.add(entry.sequence()));
+            assertEquals(800, sequences.size());
+            for (int i = 0; i < sequences.size(); i++) {
+                assertEquals(i + 1, sequences.get(i));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testContinueAfter_SkipsCheckpointedSequences() throws IOException {
+        try (IngestionJournal journal = IngestionJournal.open(directory, 1 << 20)) {
+            journal.continueAfter(41);
+
+            assertEquals(42, journal.append(new BatchRecordRequest(1L, "Speed", 1.0, DAY, null), entry -> { }));
+        }
+        try (IngestionJournal journal = IngestionJournal.open(directory, 1 << 20)) {
+            assertEquals(42, journal.lastSequence());
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package org.ncu.performancetracker.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ncu.performancetracker.config.ReadYourWrites;
+import org.ncu.performancetracker.dto.LeaderboardEntry;
+import org.ncu.performancetracker.event.AthleteChangeEvent;
+import org.ncu.performancetracker.event.MetricChangeEvent;
+import org.ncu.performancetracker.event.RecordChange;
+import org.ncu.performancetracker.event.RecordChangeEvent;
+import org.ncu.performancetracker.exception.ResourceNotFoundException;
+import org.ncu.performancetracker.model.Athlete;
+import org.ncu.performancetracker.model.Metric;
+import org.ncu.performancetracker.model.MetricDirection;
+import org.ncu.performancetracker.model.PersonalBest;
+import org.ncu.performancetracker.repository.AthleteRepository;
+import org.ncu.performancetracker.repository.PersonalBestRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LeaderboardServiceTest {
+
+    @Mock
+    private PersonalBestRepository personalBestRepository;
+
+    @Mock
+    private AthleteRepository athleteRepository;
+
+    @Mock
+    private MetricCatalog metricCatalog;
+
+    @Mock
+    private ReadYourWrites readYourWrites;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LeaderboardService leaderboardService;
+
+    @BeforeEach
+    public void setUp() {
+        lenient().when(metricCatalog.canonicalName(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(metricCatalog.directionOf(anyString())).thenReturn(MetricDirection.HIGHER_IS_BETTER);
+        lenient().when(readYourWrites.onPrimary(any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        leaderboardService = newLeaderboardService();
+        when(personalBestRepository.streamAllWithAthleteScope()).thenReturn(Stream.of(
+                new Object[]{1L, "Speed", 10.0, "Football", "Forward"},
+                new Object[]{2L, "Speed", 12.0, "Football", "Defender"},
+                new Object[]{3L, "Speed", 11.0, "Tennis", "Singles"}));
+        leaderboardService.rebuild();
+    }
+
+    @Test
+    public void testFindTop_Scopes() {
+        assertEquals(List.of(2L, 3L, 1L), athleteIds(leaderboardService.findTop("Speed", null, null, 10)));
+        assertEquals(List.of(2L, 1L), athleteIds(leaderboardService.findTop("Speed", "Football", null, 10)));
+        assertEquals(List.of(1L), athleteIds(leaderboardService.findTop("Speed", "Football", "Forward", 10)));
+        assertEquals(List.of(), leaderboardService.findTop("Agility", null, null, 10));
+    }
+
+    @Test
+    public void testFindTop_InvalidLimit() {
+        assertThrows(IllegalArgumentException.class, () -> leaderboardService.findTop("Speed", null, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> leaderboardService.findTop("Speed", null, null, 101));
+    }
+
+    @Test
+    public void testFindRank() {
+        assertEquals(3, leaderboardService.findRank("Speed", null, null, 1L).getRank());
+        assertEquals(2, leaderboardService.findRank("Speed", "Football", null, 1L).getRank());
+        assertThrows(ResourceNotFoundException.class, () -> leaderboardService.findRank("Speed", "Tennis", null, 1L));
+    }
+
+    @Test
+    public void testOnRecordChange_AppliesCommittedBest() {
+        when(personalBestRepository.findByAthleteIdAndMetricName(1L, "Speed"))
+                .thenReturn(Optional.of(new PersonalBest(1L, "Speed", 13.0)));
+
+        leaderboardService.onRecordChange(new RecordChangeEvent(List.of(
+                RecordChange.added(1L, "Speed", LocalDate.now(), 13.0),
+                RecordChange.added(1L, "Speed", LocalDate.now(), 9.0))));
+
+        assertEquals(1, leaderboardService.findRank("Speed", null, null, 1L).getRank());
+        verify(personalBestRepository, times(1)).findByAthleteIdAndMetricName(1L, "Speed");
+    }
+
+    @Test
+    public void testOnRecordChange_RemovesAthleteWithoutBest() {
+        when(personalBestRepository.findByAthleteIdAndMetricName(2L, "Speed")).thenReturn(Optional.empty());
+
+        leaderboardService.onRecordChange(new RecordChangeEvent(List.of(
+                RecordChange.removed(2L, "Speed", LocalDate.now(), 12.0))));
+
+        assertEquals(List.of(3L, 1L), athleteIds(leaderboardService.findTop("Speed", null, null, 10)));
+        assertEquals(List.of(1L), athleteIds(leaderboardService.findTop("Speed", "Football", null, 10)));
+    }
+
+    @Test
+    public void testOnAthleteChange_MovesAthleteBetweenScopes() {
+        Athlete athlete = new Athlete("John Doe", "Tennis", "Singles");
+        athlete.setId(1L);
+        when(athleteRepository.findById(1L)).thenReturn(Optional.of(athlete));
+        when(personalBestRepository.findByAthleteId(1L)).thenReturn(List.of(new PersonalBest(1L, "Speed", 10.0)));
+
+        leaderboardService.onAthleteChange(new AthleteChangeEvent(List.of(1L)));
+
+        assertEquals(List.of(2L), athleteIds(leaderboardService.findTop("Speed", "Football", null, 10)));
+        assertEquals(List.of(3L, 1L), athleteIds(leaderboardService.findTop("Speed", "Tennis", null, 10)));
+    }
+
+    @Test
+    public void testOnAthleteChange_DeletedAthleteLeavesEveryBoard() {
+        when(athleteRepository.findById(2L)).thenReturn(Optional.empty());
+
+        leaderboardService.onAthleteChange(new AthleteChangeEvent(List.of(2L)));
+
+        assertEquals(List.of(3L, 1L), athleteIds(leaderboardService.findTop("Speed", null, null, 10)));
+        assertThrows(ResourceNotFoundException.class, () -> leaderboardService.findRank("Speed", null, null, 2L));
+    }
+
+    @Test
+    public void testFindTop_CanonicalMetricName() {
+        when(metricCatalog.canonicalName("speed")).thenReturn("Speed");
+
+        assertEquals(List.of(2L, 3L, 1L), athleteIds(leaderboardService.findTop("speed", null, null, 10)));
+    }
+
+    @Test
+    public void testOnMetricChange_DirectionChangeReversesBoards() {
+        when(personalBestRepository.findByMetricNameWithAthleteScope("Speed")).thenReturn(List.of(
+                new Object[]{1L, "Speed", 10.0, "Football", "Forward"},
+                new Object[]{2L, "Speed", 12.0, "Football", "Defender"},
+                new Object[]{3L, "Speed", 9.5, "Tennis", "Singles"}));
+
+        leaderboardService.onMetricChange(new MetricChangeEvent(
+                new Metric(1, "Speed", "speed", "s", MetricDirection.LOWER_IS_BETTER), true));
+
+        assertEquals(List.of(3L, 1L, 2L), athleteIds(leaderboardService.findTop("Speed", null, null, 10)));
+        assertEquals(List.of(1L, 2L), athleteIds(leaderboardService.findTop("Speed", "Football", null, 10)));
+        assertEquals(1, leaderboardService.findRank("Speed", "Tennis", null, 3L).getRank());
+    }
+
+    @Test
+    public void testRebuild_ReplaysChangesCommittedDuringTheScan() {
+        LeaderboardService rebuilding = newLeaderboardService();
+        when(personalBestRepository.findByAthleteIdAndMetricName(1L, "Speed"))
+                .thenReturn(Optional.of(new PersonalBest(1L, "Speed", 13.0)));
+        // The scan still sees the old best of athlete 1; the new one commits while it runs
+        when(personalBestRepository.streamAllWithAthleteScope()).thenAnswer(invocation -> {
+            rebuilding.onRecordChange(new RecordChangeEvent(List.of(
+                    RecordChange.added(1L, "Speed", LocalDate.now(), 13.0))));
+            return Stream.<Object[]>of(
+                    new Object[]{1L, "Speed", 10.0, "Football", "Forward"},
+                    new Object[]{2L, "Speed", 12.0, "Football", "Defender"});
+        });
+
+        rebuilding.rebuild();
+
+        assertEquals(List.of(1L, 2L), athleteIds(rebuilding.findTop("Speed", null, null, 10)));
+    }
+
+    private LeaderboardService newLeaderboardService() {
+        return new LeaderboardService(personalBestRepository, athleteRepository, metricCatalog,
+                readYourWrites, transactionManager, 100);
+    }
+
+    private static List<Long> athleteIds(List<LeaderboardEntry> entries) {
+        return entries.stream().map(LeaderboardEntry::getAthleteId).toList();
+    }
+}
@@ -0,0 +1,100 @@
+package org.ncu.performancetracker.service;
+
+import org.junit.jupiter.api.Test;
+import org.ncu.performancetracker.dto.LeaderboardEntry;
+import org.ncu.performancetracker.model.MetricDirection;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LeaderboardTest {
+
+    @Test
+    public void testTopAndRank_TiesShareRank() {
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.put(1L, 10.0);
+        leaderboard.put(2L, 12.0);
+        leaderboard.put(3L, 12.0);
+        leaderboard.put(4L, 8.0);
+
+        List<LeaderboardEntry> top = leaderboard.top(3);
+
+        assertEquals(List.of(2L, 3L, 1L), top.stream().map(LeaderboardEntry::getAthleteId).toList());
+        assertEquals(List.of(1, 1, 3), top.stream().map(LeaderboardEntry::getRank).toList());
+        assertEquals(3, leaderboard.rankOf(1L).orElseThrow().getRank());
+        assertEquals(4, leaderboard.rankOf(4L).orElseThrow().getRank());
+        assertTrue(leaderboard.rankOf(5L).isEmpty());
+    }
+
+    @Test
+    public void testTopAndRank_LowerIsBetter() {
+        Leaderboard leaderboard = new Leaderboard(MetricDirection.LOWER_IS_BETTER);
+        leaderboard.put(1L, 10.9);
+        leaderboard.put(2L, 11.4);
+        leaderboard.put(3L, 10.9);
+        leaderboard.put(4L, 12.0);
+
+        List<LeaderboardEntry> top = leaderboard.top(3);
+
+        assertEquals(List.of(1L, 3L, 2L), top.stream().map(LeaderboardEntry::getAthleteId).toList());
+        assertEquals(List.of(1, 1, 3), top.stream().map(LeaderboardEntry::getRank).toList());
+        assertEquals(4, leaderboard.rankOf(4L).orElseThrow().getRank());
+    }
+
+    @Test
+    public void testPut_ReplacesPreviousValue() {
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.put(1L, 10.0);
+        leaderboard.put(2L, 12.0);
+
+        leaderboard.put(1L, 15.0);
+
+        assertEquals(2, leaderboard.size());
+        assertEquals(1, leaderboard.rankOf(1L).orElseThrow().getRank());
+        assertEquals(15.0, leaderboard.top(1).get(0).getValue());
+    }
+
+    @Test
+    public void testRemove() {
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.put(1L, 10.0);
+        leaderboard.put(2L, 12.0);
+
+        leaderboard.remove(2L);
+        leaderboard.remove(3L);
+
+        assertEquals(1, leaderboard.size());
+        assertEquals(1, leaderboard.rankOf(1L).orElseThrow().getRank());
+    }
+
+    @Test
+    public void testRandomOperations_MatchSortedReference() {
+        Random random = new Random(42);
+        Leaderboard leaderboard = new Leaderboard();
+        Map<Long, Double> reference = new HashMap<>();
+
+        for (int i = 0; i < 5000; i++) {
+            long athleteId = random.nextInt(300);
+            if (random.nextInt(4) == 0) {
+                leaderboard.remove(athleteId);
+                reference.remove(athleteId);
+            } else {
+                double value = random.nextInt(50);
+                leaderboard.put(athleteId, value);
+                reference.put(athleteId, value);
+            }
+        }
+
+        List<Map.Entry<Long, Double>> sorted = new ArrayList<>(reference.entrySet());
+        sorted.sort(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+        assertEquals(sorted.size(), leaderboard.size());
+        assertEquals(sorted.stream().map(Map.Entry::getKey).toList(),
+                leaderboard.top(sorted.size()).stream().map(LeaderboardEntry::getAthleteId).toList());
+        for (Map.Entry<Long, Double> entry : sorted) {
+            long better = reference.values().stream().filter(value -> value > entry.getValue()).count();
+            assertEquals(better + 1, leaderboard.rankOf(entry.getKey()).orElseThrow().getRank());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.ncu.performancetracker.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ncu.performancetracker.config.ReadYourWrites;
+import org.ncu.performancetracker.event.MetricChangeEvent;
+import org.ncu.performancetracker.exception.ResourceNotFoundException;
+import org.ncu.performancetracker.model.Metric;
+import org.ncu.performancetracker.model.MetricDirection;
+import org.ncu.performancetracker.repository.MetricRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MetricCatalogTest {
+
+    @Mock
+    private MetricRepository metricRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MetricCatalog metricCatalog;
+
+    @BeforeEach
+    public void setUp() {
+        metricCatalog = new MetricCatalog(metricRepository, eventPublisher,
+                new ReadYourWrites(Duration.ofSeconds(5), 100), transactionManager, Duration.ofMinutes(1));
+        when(metricRepository.findAll()).thenReturn(List.of(
+                new Metric(1, "Speed", "speed", "m/s", MetricDirection.HIGHER_IS_BETTER),
+                new Metric(2, "Sprint 100m", "sprint 100m", "s", MetricDirection.LOWER_IS_BETTER)));
+        metricCatalog.load();
+    }
+
+    @Test
+    public void testLookups_IgnoreCaseAndWhitespace() {
+        assertEquals(1, metricCatalog.idOf(" SPEED "));
+        assertEquals("Sprint 100m", metricCatalog.canonicalName("sprint 100M"));
+        assertEquals("Sprint 100m", metricCatalog.nameOf(2));
+        assertEquals(MetricDirection.LOWER_IS_BETTER, metricCatalog.directionOf("sprint 100m"));
+    }
+
+    @Test
+    public void testLookups_UnknownName() {
+        assertNull(metricCatalog.idOf("Agility"));
+        assertEquals("Agility", metricCatalog.canonicalName("Agility"));
+        assertEquals(MetricDirection.HIGHER_IS_BETTER, metricCatalog.directionOf("Agility"));
+        assertThrows(IllegalStateException.class, () -> metricCatalog.nameOf(9));
+    }
+
+    @Test
+    public void testLookups_MetricRegisteredElsewhereIsLoadedOnMiss() {
+        Metric reaction = new Metric(7, "Reaction", "reaction", "ms", MetricDirection.LOWER_IS_BETTER);
+        when(metricRepository.findById(7)).thenReturn(Optional.of(reaction));
+
+        assertEquals("Reaction", metricCatalog.nameOf(7));
+        assertEquals("Reaction", metricCatalog.nameOf(7));
+        assertEquals(MetricDirection.LOWER_IS_BETTER, metricCatalog.directionOf("reaction"));
+        verify(metricRepository, times(1)).findById(7);
+        verify(metricRepository, never()).findByNameKey(any());
+    }
+
+    @Test
+    public void testLoad_PicksUpDirectionChangedElsewhere() {
+        when(metricRepository.findAll()).thenReturn(List.of(
+                new Metric(1, "Speed", "speed", "km/h", MetricDirection.LOWER_IS_BETTER)));
+
+        metricCatalog.load();
+
+        assertEquals(MetricDirection.LOWER_IS_BETTER, metricCatalog.directionOf("Speed"));
+        assertEquals("km/h", metricCatalog.find("speed").orElseThrow().getUnit());
+    }
+
+    @Test
+    public void testResolve_RegistersUnknownNameOnce() {
+        when(metricRepository.findByNameKey("agility")).thenReturn(Optional.empty());
+        when(metricRepository.save(any(Metric.class))).thenAnswer(invocation -> {
+            Metric metric = invocation.getArgument(0);
+            metric.setId(3);
+            return metric;
+        });
+
+        Metric registered = metricCatalog.resolve(" Agility ");
+
+        assertEquals(3, registered.getId());
+        assertEquals("Agility", registered.getName());
+        assertEquals(MetricDirection.HIGHER_IS_BETTER, registered.getDirection());
+        assertEquals(3, metricCatalog.resolve("agility").getId());
+        verify(metricRepository, times(1)).save(any(Metric.class));
+    }
+
+    @Test
+    public void testResolve_KnownNameSkipsDatabase() {
+        assertEquals(1, metricCatalog.resolve("speed").getId());
+
+        verify(metricRepository, never()).findByNameKey(any());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    public void testCreate_DuplicateName() {
+        when(metricRepository.findByNameKey("speed")).thenReturn(Optional.of(
+                new Metric(1, "Speed", "speed", "m/s", MetricDirection.HIGHER_IS_BETTER)));
+
+        assertThrows(IllegalArgumentException.class, () ->
+                metricCatalog.create(new Metric("speed", null, MetricDirection.HIGHER_IS_BETTER)));
+    }
+
+    @Test
+    public void testUpdate_DirectionChangeIsPublished() {
+        Metric speed = new Metric(1, "Speed", "speed", "m/s", MetricDirection.HIGHER_IS_BETTER);
+        when(metricRepository.findById(1)).thenReturn(Optional.of(speed));
+        when(metricRepository.save(speed)).thenReturn(speed);
+
+        metricCatalog.update(1, new Metric("Speed", "km/h", MetricDirection.LOWER_IS_BETTER));
+
+        verify(eventPublisher).publishEvent(argThat((MetricChangeEvent event) -> event.isDirectionChanged()
+                && event.getMetric().getDirection() == MetricDirection.LOWER_IS_BETTER
+                && event.getMetric().getUnit().equals("km/h")));
+    }
+
+    @Test
+    public void testUpdate_MetricNotFound() {
+        when(metricRepository.findById(9)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () ->
+                metricCatalog.update(9, new Metric("Speed", null, MetricDirection.HIGHER_IS_BETTER)));
+    }
+}
@@ -0,0 +1,188 @@
+package org.ncu.performancetracker.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ncu.performancetracker.config.ReadYourWrites;
+import org.ncu.performancetracker.dto.MetricPercentile;
+import org.ncu.performancetracker.event.RecordChange;
+import org.ncu.performancetracker.event.RecordChangeEvent;
+import org.ncu.performancetracker.exception.ResourceNotFoundException;
+import org.ncu.performancetracker.model.Athlete;
+import org.ncu.performancetracker.model.MetricDirection;
+import org.ncu.performancetracker.model.MetricSketch;
+import org.ncu.performancetracker.repository.AthleteRepository;
+import org.ncu.performancetracker.repository.MetricSketchRepository;
+import org.ncu.performancetracker.repository.PerformanceRecordRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MetricDistributionServiceTest {
+
+    @Mock
+    private MetricSketchRepository sketchRepository;
+
+    @Mock
+    private PerformanceRecordRepository recordRepository;
+
+    @Mock
+    private AthleteRepository athleteRepository;
+
+    @Mock
+    private AthleteCache athleteCache;
+
+    @Mock
+    private RecordArchive recordArchive;
+
+    @Mock
+    private MetricCatalog metricCatalog;
+
+    @Mock
+    private ReadYourWrites readYourWrites;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MetricDistributionService distributionService;
+
+    @BeforeEach
+    public void setUp() {
+        lenient().when(metricCatalog.idOf("Speed")).thenReturn(1);
+        lenient().when(metricCatalog.canonicalName("Speed")).thenReturn("Speed");
+        lenient().when(readYourWrites.onPrimary(any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        lenient().when(athleteRepository.streamSearchFields()).thenAnswer(invocation -> Stream.of(
+                new Object[]{1L, "Ann", "Rugby", "Wing"},
+                new Object[]{2L, "Ben", "Rugby", "Prop"},
+                new Object[]{3L, "Cy", null, null}));
+        distributionService = new MetricDistributionService(sketchRepository, recordRepository, athleteRepository,
+                athleteCache, recordArchive, metricCatalog, readYourWrites, transactionManager,
+                0.01, 2048, Duration.ofMinutes(1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRebuild_MergesLiveAndArchivedValuesPerSport() {
+        when(recordRepository.streamAllValues()).thenReturn(Stream.of(
+                new Object[]{1L, "Speed", 10.0},
+                new Object[]{3L, "Speed", 30.0}));
+        doAnswer(invocation -> {
+            RecordArchive.ValueConsumer consumer = invocation.getArgument(0);
+            consumer.accept(2L, 1, 20.0);
+            return null;
+        }).when(recordArchive).scanAllValues(any());
+
+        assertEquals(2, distributionService.rebuild());
+
+        ArgumentCaptor<List<MetricSketch>> rows = ArgumentCaptor.forClass(List.class);
+        verify(sketchRepository).deleteAllInBatch();
+        verify(sketchRepository).saveAll(rows.capture());
+        Map<String, Long> counts = rows.getValue().stream()
+                .collect(Collectors.toMap(row -> String.valueOf(row.getSport()), MetricSketch::getValueCount));
+        assertEquals(Map.of("null", 3L, "Rugby", 2L), counts);
+    }
+
+    @Test
+    public void testRebuild_KeepsChangesCommittedDuringTheScan() {
+        Athlete athlete = new Athlete("Ann", "Rugby", "Wing");
+        athlete.setId(1L);
+        lenient().when(athleteCache.findById(1L)).thenReturn(Optional.of(athlete));
+        when(athleteCache.findPersonalBests(1L)).thenReturn(Map.of("Speed", 10.0));
+        when(metricCatalog.directionOf("Speed")).thenReturn(MetricDirection.HIGHER_IS_BETTER);
+        when(recordRepository.streamAllValues()).thenAnswer(invocation -> {
+            // Commits after the scan's snapshot was taken, so the scan does not see it
+            distributionService.onRecordChange(new RecordChangeEvent(List.of(
+                    RecordChange.added(1L, "Speed", LocalDate.now(), 20.0))));
+            return Stream.<Object[]>of(new Object[]{1L, "Speed", 10.0});
+        });
+        when(sketchRepository.findAll()).thenReturn(List.of());
+
+        distributionService.rebuild();
+
+        assertEquals(2, distributionService.findPercentile(1L, "Speed").getOverall().getCount());
+        // Still dirty, so the next flush writes the replayed change
+        assertEquals(2, distributionService.flush());
+    }
+
+    @Test
+    public void testLoad_ReplaysChangesCommittedWhileLoading() {
+        Athlete athlete = new Athlete("Ann", "Rugby", "Wing");
+        athlete.setId(1L);
+        lenient().when(athleteCache.findById(1L)).thenReturn(Optional.of(athlete));
+        when(athleteCache.findPersonalBests(1L)).thenReturn(Map.of("Speed", 10.0));
+        when(metricCatalog.directionOf("Speed")).thenReturn(MetricDirection.HIGHER_IS_BETTER);
+        QuantileSketch stored = new QuantileSketch(0.01, 2048);
+        stored.add(10.0);
+        when(sketchRepository.findAll()).thenReturn(List.of(
+                new MetricSketch(1, null, 1L, stored.toBytes()), new MetricSketch(1, "Rugby", 1L, stored.toBytes())));
+        when(recordRepository.countByMetricName()).thenAnswer(invocation -> {
+            // Commits after the counts were read, e.g. a journal replay at startup
+            distributionService.onRecordChange(new RecordChangeEvent(List.of(
+                    RecordChange.added(1L, "Speed", LocalDate.now(), 20.0))));
+            return List.<Object[]>of(new Object[]{"Speed", 1L});
+        });
+
+        assertEquals(2, distributionService.load());
+
+        assertEquals(2, distributionService.findPercentile(1L, "Speed").getOverall().getCount());
+        verify(recordRepository, never()).streamAllValues();
+    }
+
+    @Test
+    public void testFindPercentile_PlacesPersonalBestByDirection() {
+        Athlete athlete = new Athlete("Ann", "Rugby", "Wing");
+        athlete.setId(1L);
+        when(athleteCache.findById(1L)).thenReturn(Optional.of(athlete));
+        when(athleteCache.findPersonalBests(1L)).thenReturn(Map.of("Speed", 30.0));
+        when(metricCatalog.directionOf("Speed")).thenReturn(MetricDirection.LOWER_IS_BETTER);
+        distributionService.onRecordChange(new RecordChangeEvent(List.of(
+                RecordChange.added(1L, "Speed", LocalDate.now(), 10.0),
+                RecordChange.added(1L, "Speed", LocalDate.now(), 20.0),
+                RecordChange.added(1L, "Speed", LocalDate.now(), 30.0),
+                RecordChange.added(1L, "Speed", LocalDate.now(), 40.0))));
+
+        MetricPercentile percentile = distributionService.findPercentile(1L, "Speed");
+
+        // Lower is better: 30 beats only 40, plus half of itself
+        assertEquals(37.5, percentile.getOverall().getPercentile(), 1e-9);
+        assertEquals(4, percentile.getWithinSport().getCount());
+        assertEquals(40.0, percentile.getOverall().getMax(), 0.4);
+    }
+
+    @Test
+    public void testFlush_WritesOnlyChangedSketches() {
+        when(athleteCache.findById(3L)).thenReturn(Optional.of(new Athlete("Cy", null, null)));
+        when(sketchRepository.findAll()).thenReturn(List.of());
+
+        distributionService.onRecordChange(new RecordChangeEvent(List.of(
+                RecordChange.added(3L, "Speed", LocalDate.now(), 12.0))));
+
+        assertEquals(1, distributionService.flush());
+        assertEquals(0, distributionService.flush());
+        verify(sketchRepository, times(1)).save(any(MetricSketch.class));
+    }
+
+    @Test
+    public void testFindPercentile_WithoutValueIsNotFound() {
+        when(athleteCache.findById(1L)).thenReturn(Optional.of(new Athlete("Ann", "Rugby", "Wing")));
+        when(athleteCache.findPersonalBests(1L)).thenReturn(Map.of());
+
+        assertThrows(ResourceNotFoundException.class, () -> distributionService.findPercentile(1L, "Speed"));
+    }
+}
@@ -0,0 +1,70 @@
+package org.ncu.performancetracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricSeriesTest {
+
+    // Days 10, 11, 11, 14, 20 with values 4, 8, 6, 2, 10
+    private final MetricSeries series = new MetricSeries(
+            new int[]{10, 11, 11, 14, 20}, new double[]{4.0, 8.0, 6.0, 2.0, 10.0}, 1L);
+
+    @Test
+    public void testIndexes_CoverInclusiveDayRange() {
+        assertEquals(1, series.fromIndex(11));
+        assertEquals(3, series.toIndex(11));
+        assertEquals(3, series.fromIndex(12));
+        assertEquals(3, series.toIndex(13));
+        assertEquals(0, series.fromIndex(Integer.MIN_VALUE));
+        assertEquals(5, series.toIndex(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testSummarize_Range() {
+        RollupAccumulator stats = series.summarize(series.fromIndex(11), series.toIndex(14));
+
+        assertEquals(3, stats.getCount());
+        assertEquals(2.0, stats.getMin());
+        assertEquals(8.0, stats.getMax());
+        assertEquals(16.0 / 3, stats.getMean(), 1e-9);
+    }
+
+    @Test
+    public void testPercentiles_InterpolateBetweenRanks() {
+        double[] out = new double[3];
+
+        assertTrue(series.percentiles(0, 5, new double[]{0, 50, 90}, out));
+
+        // Sorted: 2, 4, 6, 8, 10
+        assertArrayEquals(new double[]{2.0, 6.0, 9.2}, out, 1e-9);
+        assertFalse(series.percentiles(2, 2, new double[]{50}, out));
+    }
+
+    @Test
+    public void testMovingAverage_UsesSamplesBeforeTheRange() {
+        double[] out = new double[3];
+
+        int first = series.movingAverage(2, 5, 3, out);
+
+        assertEquals(0, first);
+        assertArrayEquals(new double[]{6.0, 16.0 / 3, 6.0}, out, 1e-9);
+        assertEquals(-1, series.movingAverage(0, 2, 3, new double[2]));
+    }
+
+    @Test
+    public void testBestWindow_FollowsDirection() {
+        // Windows of 2 days: [10,11] mean 6, [11,12] mean 7, [14,15] mean 2, [20,21] mean 10
+        MetricSeries.Span highest = series.bestWindow(2, true);
+        assertEquals(new MetricSeries.Span(4, 4, 10.0), highest);
+
+        MetricSeries.Span lowest = series.bestWindow(2, false);
+        assertEquals(new MetricSeries.Span(3, 3, 2.0), lowest);
+
+        // Weeks: [10,16] mean 5, [11,17] mean 16/3, [14,20] mean 6, [20,26] mean 10
+        MetricSeries.Span week = series.bestWindow(7, false);
+        assertEquals(new MetricSeries.Span(0, 3, 5.0), week);
+
+        assertNull(new MetricSeries(new int[0], new double[0], 1L).bestWindow(7, true));
+    }
+}
@@ -5,18 +5,32 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.ncu.performancetracker.dto.CursorPage;
+import org.ncu.performancetracker.dto.MetricSummary;
 import org.ncu.performancetracker.exception.ResourceNotFoundException;
 import org.ncu.performancetracker.model.Athlete;
+import org.ncu.performancetracker.model.Metric;
+import org.ncu.performancetracker.model.MetricDirection;
 import org.ncu.performancetracker.model.PerformanceRecord;
 import org.ncu.performancetracker.repository.AthleteRepository;
 import org.ncu.performancetracker.repository.PerformanceRecordRepository;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class) // Use Mockito extension instead of SpringBootTest
@@ -28,6 +42,30 @@ public class PerformanceRecordServiceTest {
     @Mock
     private AthleteRepository athleteRepository;
 
+    @Mock
+    private AthleteCache athleteCache;
+
+    @Mock
+    private PersonalBestService personalBestService;
+
+    @Mock
+    private RollupService rollupService;
+
+    @Mock
+    private TrendService trendService;
+
+    @Mock
+    private MetricCatalog metricCatalog;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private RecordArchive recordArchive;
+
+    @Spy
+    private KeysetPagination pagination = new KeysetPagination(100, 1000);
+
     @InjectMocks
     private PerformanceRecordService performanceRecordService;
 
@@ -49,25 +87,33 @@ public class PerformanceRecordServiceTest {
         record.setValue(10.5);
         record.setDate(LocalDate.now());
         record.setAthlete(athlete);
+
+        lenient().when(metricCatalog.resolve(anyString())).thenAnswer(invocation -> new Metric(
+                invocation.<String>getArgument(0), null, MetricDirection.HIGHER_IS_BETTER));
+        lenient().when(metricCatalog.canonicalName(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
     }
 
     @Test
     public void testAddRecordToAthlete() {
         // Make sure to set stubbing before calling the method
-        when(athleteRepository.findById(1L)).thenReturn(Optional.of(athlete));
+        when(athleteRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(athlete));
         when(recordRepository.save(any(PerformanceRecord.class))).thenReturn(record);
 
         PerformanceRecord savedRecord = performanceRecordService.addRecordToAthlete(1L, record);
 
         assertNotNull(savedRecord);
         assertEquals("Speed", savedRecord.getMetricName());
-        verify(athleteRepository, times(1)).findById(1L);
+        verify(athleteRepository, times(1)).findByIdForUpdate(1L);
         verify(recordRepository, times(1)).save(record);
+        verify(personalBestService, times(1)).recordValue(1L, "Speed", 10.5);
+        verify(rollupService, times(1)).recordValue(1L, "Speed", record.getDate(), 10.5);
+        verify(trendService, times(1)).recordValue(1L, "Speed", record.getDate(), 10.5);
+        verify(athleteRepository, times(1)).incrementDataVersions(List.of(1L));
     }
 
     @Test
     public void testAddRecordToAthlete_AthleteNotFound() {
-        when(athleteRepository.findById(1L)).thenReturn(Optional.empty());
+        when(athleteRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> {
             performanceRecordService.addRecordToAthlete(1L, record);
@@ -76,7 +122,7 @@ public class PerformanceRecordServiceTest {
 
     @Test
     public void testFindRecordsByAthleteId() {
-        when(athleteRepository.existsById(1L)).thenReturn(true);
+        when(athleteCache.exists(1L)).thenReturn(true);
         when(recordRepository.findByAthleteId(1L)).thenReturn(List.of(record));
 
         assertFalse(performanceRecordService.findRecordsByAthleteId(1L).isEmpty());
@@ -85,16 +131,87 @@ public class PerformanceRecordServiceTest {
 
     @Test
     public void testFindRecordsByAthleteId_AthleteNotFound() {
-        when(athleteRepository.existsById(1L)).thenReturn(false);
+        when(athleteCache.exists(1L)).thenReturn(false);
 
         assertThrows(ResourceNotFoundException.class, () -> {
             performanceRecordService.findRecordsByAthleteId(1L);
         });
     }
 
+    @Test
+    public void testFindRecordPageByAthleteId() {
+        PerformanceRecord record2 = new PerformanceRecord("Speed", 11.0, LocalDate.of(2025, 3, 2), null);
+        record2.setId(7L);
+        when(athleteCache.exists(1L)).thenReturn(true);
+        when(recordRepository.findByAthleteIdOrderByDateAscIdAsc(eq(1L), any(ScrollPosition.class), eq(Limit.of(2))))
+                .thenReturn(Window.from(List.of(record, record2),
+                        i -> ScrollPosition.forward(Map.of("date", record2.getDate(), "id", record2.getId())), true));
+
+        CursorPage<PerformanceRecord> page = performanceRecordService.findRecordPageByAthleteId(1L, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertNotNull(page.getNextCursor());
+
+        // The cursor resumes strictly after the last (date, id) of the page
+        ScrollPosition next = pagination.recordPosition(page.getNextCursor());
+        assertEquals(ScrollPosition.forward(Map.of("date", LocalDate.of(2025, 3, 2), "id", 7L)), next);
+    }
+
+    @Test
+    public void testFindRecordPageByAthleteId_LastPageHasNoCursor() {
+        when(athleteCache.exists(1L)).thenReturn(true);
+        when(recordRepository.findByAthleteIdOrderByDateAscIdAsc(eq(1L), any(ScrollPosition.class), eq(Limit.of(100))))
+                .thenReturn(Window.from(List.of(record), i -> ScrollPosition.keyset(), false));
+
+        CursorPage<PerformanceRecord> page = performanceRecordService.findRecordPageByAthleteId(1L, null, null);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testFindRecordPageByAthleteId_InvalidCursor() {
+        when(athleteCache.exists(1L)).thenReturn(true);
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            performanceRecordService.findRecordPageByAthleteId(1L, "not-a-cursor", 10);
+        });
+    }
+
+    @Test
+    public void testFindRecordPageByAthleteId_CursorDateOutOfRange() {
+        when(athleteCache.exists(1L)).thenReturn(true);
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("r:" + Long.MAX_VALUE + ":1").getBytes(StandardCharsets.UTF_8));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> {
+            performanceRecordService.findRecordPageByAthleteId(1L, cursor, 10);
+        });
+        assertEquals("Invalid cursor", ex.getMessage());
+    }
+
+    @Test
+    public void testFindRecordPageByAthleteId_MergesArchivedRecords() {
+        PerformanceRecord live = new PerformanceRecord("Speed", 11.0, LocalDate.of(2022, 6, 1), null);
+        live.setId(50L);
+        PerformanceRecord archived1 = new PerformanceRecord(3L, "Speed", 9.0, LocalDate.of(2021, 1, 4), null, null);
+        PerformanceRecord archived2 = new PerformanceRecord(4L, "Speed", 9.5, LocalDate.of(2023, 1, 4), null, null);
+        when(athleteCache.exists(1L)).thenReturn(true);
+        when(recordRepository.findByAthleteIdOrderByDateAscIdAsc(eq(1L), any(ScrollPosition.class), eq(Limit.of(2))))
+                .thenReturn(Window.from(List.of(live), i -> ScrollPosition.keyset(), false));
+        when(recordArchive.findRecordsAfter(eq(1L), isNull(), isNull(), isNull(), any(ScrollPosition.class), eq(3)))
+                .thenReturn(List.of(archived1, archived2));
+
+        CursorPage<PerformanceRecord> page = performanceRecordService.findRecordPageByAthleteId(1L, null, 2);
+
+        assertEquals(List.of(archived1, live), page.getItems());
+        assertEquals(ScrollPosition.forward(Map.of("date", LocalDate.of(2022, 6, 1), "id", 50L)),
+                pagination.recordPosition(page.getNextCursor()));
+    }
+
     @Test
     public void testFindRecordsByAthleteIdAndMetric() {
-        when(athleteRepository.existsById(1L)).thenReturn(true);
+        when(athleteCache.exists(1L)).thenReturn(true);
         when(recordRepository.findByAthleteIdAndMetricName(1L, "Speed")).thenReturn(List.of(record));
 
         assertFalse(performanceRecordService.findRecordsByAthleteIdAndMetric(1L, "Speed").isEmpty());
@@ -103,7 +220,7 @@ public class PerformanceRecordServiceTest {
 
     @Test
     public void testFindRecordsByAthleteIdAndMetric_AthleteNotFound() {
-        when(athleteRepository.existsById(1L)).thenReturn(false);
+        when(athleteCache.exists(1L)).thenReturn(false);
 
         assertThrows(ResourceNotFoundException.class, () -> {
             performanceRecordService.findRecordsByAthleteIdAndMetric(1L, "Speed");
@@ -112,19 +229,17 @@ public class PerformanceRecordServiceTest {
 
     @Test
     public void testFindPersonalBestsByAthleteId() {
-        when(athleteRepository.existsById(1L)).thenReturn(true);
-
-        List<Object[]> mockResults = new ArrayList<>();
-        mockResults.add(new Object[] {"Speed", 12.5});
+        when(athleteCache.exists(1L)).thenReturn(true);
 
-        when(recordRepository.findPersonalBestsByAthleteId(1L))
-                .thenReturn(mockResults);
+        when(athleteCache.findPersonalBests(1L))
+                .thenReturn(Map.of("Speed", 12.5));
 
         var personalBests = performanceRecordService.findPersonalBestsByAthleteId(1L);
         assertNotNull(personalBests);
         assertTrue(personalBests.containsKey("Speed"));
         assertEquals(12.5, personalBests.get("Speed"));
-        verify(recordRepository, times(1)).findPersonalBestsByAthleteId(1L);
+        verify(athleteCache, times(1)).findPersonalBests(1L);
+        verify(recordRepository, never()).findPersonalBestsByAthleteId(1L);
     }
 
     @Test
@@ -145,21 +260,33 @@ public class PerformanceRecordServiceTest {
         assertEquals(12.0, result.getValue());
         verify(recordRepository, times(1)).findById(1L);
         verify(recordRepository, times(1)).save(any(PerformanceRecord.class));
+        verify(personalBestService, times(1)).recordRemoved(1L, "Speed", 10.5);
+        verify(personalBestService, times(1)).recordValue(1L, "New Speed", 12.0);
+        // The trend recomputes from rollups that no longer hold the old value and not yet the new one
+        InOrder rollupsThenTrends = inOrder(rollupService, trendService);
+        rollupsThenTrends.verify(rollupService).recordRemoved(eq(1L), eq("Speed"), any(LocalDate.class), eq(10.5));
+        rollupsThenTrends.verify(trendService).recordRemoved(eq(1L), eq("Speed"), any(LocalDate.class), eq(10.5));
+        rollupsThenTrends.verify(rollupService).recordValue(1L, "New Speed", updatedRecord.getDate(), 12.0);
+        rollupsThenTrends.verify(trendService).recordValue(1L, "New Speed", updatedRecord.getDate(), 12.0);
     }
 
     @Test
     public void testDeleteRecord() {
-        when(recordRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(recordRepository).deleteById(1L);
+        when(recordRepository.findById(1L)).thenReturn(Optional.of(record));
+        doNothing().when(recordRepository).delete(record);
 
         performanceRecordService.deleteRecord(1L);
 
-        verify(recordRepository, times(1)).deleteById(1L);
+        verify(recordRepository, times(1)).delete(record);
+        verify(personalBestService, times(1)).recordRemoved(1L, "Speed", 10.5);
+        verify(rollupService, times(1)).recordRemoved(1L, "Speed", record.getDate(), 10.5);
+        verify(trendService, times(1)).recordRemoved(1L, "Speed", record.getDate(), 10.5);
+        verify(athleteRepository, times(1)).incrementDataVersions(List.of(1L));
     }
 
     @Test
     public void testDeleteRecord_RecordNotFound() {
-        when(recordRepository.existsById(1L)).thenReturn(false);
+        when(recordRepository.findById(1L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> {
             performanceRecordService.deleteRecord(1L);
@@ -168,24 +295,44 @@ public class PerformanceRecordServiceTest {
 
     @Test
     public void testCompareAthletes() {
-        Athlete athlete2 = new Athlete();
-        athlete2.setId(2L);
-        athlete2.setName("Jane Doe");
-
-        PerformanceRecord record2 = new PerformanceRecord();
-        record2.setAthlete(athlete2);
-        record2.setMetricName("Speed");
-        record2.setValue(13.5);
-        record2.setDate(LocalDate.now());
-
-        when(athleteRepository.findById(1L)).thenReturn(Optional.of(athlete));
-        when(athleteRepository.findById(2L)).thenReturn(Optional.of(athlete2));
-        when(recordRepository.findByAthleteIdAndMetricName(1L, "Speed")).thenReturn(List.of(record));
-        when(recordRepository.findByAthleteIdAndMetricName(2L, "Speed")).thenReturn(List.of(record2));
+        Map<Long, Map<String, MetricSummary>> summaries = Map.of(
+                1L, Map.of("Speed", new MetricSummary(3, 12.0, 12.0, 9.0, 10.5, 11.0)),
+                2L, Map.of());
+        when(athleteCache.findExistingIds(Set.of(1L, 2L))).thenReturn(Set.of(1L, 2L));
+        when(rollupService.findAllTimeSummaries(Set.of(1L, 2L), Set.of("Speed"))).thenReturn(summaries);
+
+        var comparison = performanceRecordService.compareAthletes(List.of(1L, 2L, 1L), List.of("Speed"));
+
+        assertEquals(12.0, comparison.get(1L).get("Speed").getMax());
+        assertTrue(comparison.get(2L).isEmpty());
+        verify(recordRepository, never()).findByAthleteIdAndMetricName(any(), any());
+    }
+
+    @Test
+    public void testCompareAthletes_AthleteNotFound() {
+        when(athleteCache.findExistingIds(Set.of(1L, 3L))).thenReturn(Set.of(1L));
+
+        assertThrows(ResourceNotFoundException.class, () ->
+                performanceRecordService.compareAthletes(List.of(1L, 3L), List.of("Speed")));
+        verifyNoInteractions(rollupService);
+    }
+
+    @Test
+    public void testCompareAthletes_RequiresMetric() {
+        assertThrows(IllegalArgumentException.class, () ->
+                performanceRecordService.compareAthletes(List.of(1L, 2L), List.of()));
+    }
+
+    @Test
+    public void testRebuildRollups_LocksEveryAthleteBeforeRebuilding() {
+        when(rollupService.rebuild()).thenReturn(12);
+        when(trendService.rebuild()).thenReturn(3);
 
-        var comparison = performanceRecordService.compareAthletes(1L, 2L, "Speed");
+        assertEquals(Map.of("rollups", 12, "trends", 3), performanceRecordService.rebuildRollups());
 
-        assertEquals(10.5, comparison.get("John Doe"));
-        assertEquals(13.5, comparison.get("Jane Doe"));
+        InOrder order = inOrder(athleteRepository, rollupService, trendService);
+        order.verify(athleteRepository).findAllForUpdate();
+        order.verify(rollupService).rebuild();
+        order.verify(trendService).rebuild();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,185 @@
+package org.ncu.performancetracker.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ncu.performancetracker.event.MetricChangeEvent;
+import org.ncu.performancetracker.model.Metric;
+import org.ncu.performancetracker.model.MetricDirection;
+import org.ncu.performancetracker.model.PerformanceRecord;
+import org.ncu.performancetracker.model.PersonalBest;
+import org.ncu.performancetracker.repository.AthleteRepository;
+import org.ncu.performancetracker.repository.PerformanceRecordRepository;
+import org.ncu.performancetracker.repository.PersonalBestRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PersonalBestServiceTest {
+
+    @Mock
+    private PersonalBestRepository personalBestRepository;
+
+    @Mock
+    private PerformanceRecordRepository recordRepository;
+
+    @Mock
+    private AthleteRepository athleteRepository;
+
+    @Mock
+    private MetricCatalog metricCatalog;
+
+    @Mock
+    private RecordArchive recordArchive;
+
+    @InjectMocks
+    private PersonalBestService personalBestService;
+
+    @BeforeEach
+    public void setUp() {
+        lenient().when(metricCatalog.directionOf("Speed")).thenReturn(MetricDirection.HIGHER_IS_BETTER);
+        lenient().when(metricCatalog.directionOf("Sprint 100m")).thenReturn(MetricDirection.LOWER_IS_BETTER);
+    }
+
+    @Test
+    public void testRecordValue_FirstValueCreatesEntry() {
+        when(personalBestRepository.findByAthleteIdAndMetricName(1L, "Speed")).thenReturn(Optional.empty());
+
+        assertTrue(personalBestService.recordValue(1L, "Speed", 10.5));
+
+        verify(personalBestRepository, times(1)).save(any(PersonalBest.class));
+    }
+
+    @Test
+    public void testRecordValue_HigherValueReplacesBest() {
+        PersonalBest personalBest = new PersonalBest(1L, "Speed", 10.5);
+        when(personalBestRepository.findByAthleteIdAndMetricName(1L, "Speed")).thenReturn(Optional.of(personalBest));
+
+        assertTrue(personalBestService.recordValue(1L, "Speed", 12.0));
+
+        assertEquals(12.0, personalBest.getValue());
+        verify(personalBestRepository, times(1)).save(personalBest);
+    }
+
+    @Test
+    public void testRecordValue_LowerValueKeepsBest() {
+        PersonalBest personalBest = new PersonalBest(1L, "Speed", 10.5);
+        when(personalBestRepository.findByAthleteIdAndMetricName(1L, "Speed")).thenReturn(Optional.of(personalBest));
+
+        assertFalse(personalBestService.recordValue(1L, "Speed", 9.0));
+
+        assertEquals(10.5, personalBest.getValue());
+        verify(personalBestRepository, never()).save(any(PersonalBest.class));
+    }
+
+    @Test
+    public void testRecordValue_LowerIsBetterKeepsFastestTime() {
+        PersonalBest personalBest = new PersonalBest(1L, "Sprint 100m", 11.2);
+        when(personalBestRepository.findByAthleteIdAndMetricName(1L, "Sprint 100m"))
+                .thenReturn(Optional.of(personalBest));
+
+        assertFalse(personalBestService.recordValue(1L, "Sprint 100m", 11.9));
+        assertTrue(personalBestService.recordValue(1L, "Sprint 100m", 10.8));
+
+        assertEquals(10.8, personalBest.getValue());
+        verify(personalBestRepository, times(1)).save(personalBest);
+    }
+
+    @Test
+    public void testRecordRemoved_LowerIsBetterRecomputesFromFastest() {
+        PersonalBest personalBest = new PersonalBest(1L, "Sprint 100m", 10.8);
+        PerformanceRecord remaining = new PerformanceRecord("Sprint 100m", 11.2, LocalDate.now(), null);
+        when(personalBestRepository.findByAthleteIdAndMetricName(1L, "Sprint 100m"))
+                .thenReturn(Optional.of(personalBest));
+        when(recordRepository.findFirstByAthleteIdAndMetricNameOrderByValueAsc(1L, "Sprint 100m"))
+                .thenReturn(Optional.of(remaining));
+
+        personalBestService.recordRemoved(1L, "Sprint 100m", 12.5);
+        verifyNoInteractions(recordRepository);
+
+        personalBestService.recordRemoved(1L, "Sprint 100m", 10.8);
+        assertEquals(11.2, personalBest.getValue());
+    }
+
+    @Test
+    public void testRecordRemoved_BestValueIsRecomputed() {
+        PersonalBest personalBest = new PersonalBest(1L, "Speed", 12.0);
+        PerformanceRecord remaining = new PerformanceRecord("Speed", 10.5, LocalDate.now(), null);
+        when(personalBestRepository.findByAthleteIdAndMetricName(1L, "Speed")).thenReturn(Optional.of(personalBest));
+        when(recordRepository.findFirstByAthleteIdAndMetricNameOrderByValueDesc(1L, "Speed"))
+                .thenReturn(Optional.of(remaining));
+
+        personalBestService.recordRemoved(1L, "Speed", 12.0);
+
+        assertEquals(10.5, personalBest.getValue());
+        verify(personalBestRepository, times(1)).save(personalBest);
+    }
+
+    @Test
+    public void testRecordRemoved_LastRecordDeletesEntry() {
+        PersonalBest personalBest = new PersonalBest(1L, "Speed", 12.0);
+        when(personalBestRepository.findByAthleteIdAndMetricName(1L, "Speed")).thenReturn(Optional.of(personalBest));
+        when(recordRepository.findFirstByAthleteIdAndMetricNameOrderByValueDesc(1L, "Speed"))
+                .thenReturn(Optional.empty());
+
+        personalBestService.recordRemoved(1L, "Speed", 12.0);
+
+        verify(personalBestRepository, times(1)).delete(personalBest);
+    }
+
+    @Test
+    public void testRecordRemoved_NonBestValueSkipsHistory() {
+        PersonalBest personalBest = new PersonalBest(1L, "Speed", 12.0);
+        when(personalBestRepository.findByAthleteIdAndMetricName(1L, "Speed")).thenReturn(Optional.of(personalBest));
+
+        personalBestService.recordRemoved(1L, "Speed", 9.0);
+
+        verifyNoInteractions(recordRepository);
+    }
+
+    @Test
+    public void testFindPersonalBests() {
+        when(personalBestRepository.findByAthleteId(1L)).thenReturn(List.of(
+                new PersonalBest(1L, "Speed", 12.0),
+                new PersonalBest(1L, "Agility", 8.3)));
+
+        Map<String, Double> personalBests = personalBestService.findPersonalBests(1L);
+
+        assertEquals(2, personalBests.size());
+        assertEquals(12.0, personalBests.get("Speed"));
+        assertEquals(8.3, personalBests.get("Agility"));
+    }
+
+    @Test
+    public void testOnMetricChange_DirectionFlipRecomputesBestsAndVersions() {
+        List<Object[]> bests = List.<Object[]>of(new Object[]{1L, 12.0, 9.0}, new Object[]{2L, 11.0, 10.0});
+        when(recordRepository.findPersonalBestsByMetricName("Speed")).thenReturn(bests);
+        Metric speed = new Metric(1, "Speed", "speed", null, MetricDirection.LOWER_IS_BETTER);
+
+        personalBestService.onMetricChange(new MetricChangeEvent(speed, true));
+
+        verify(personalBestRepository, times(1)).deleteByMetricName("Speed");
+        verify(personalBestRepository, times(1)).saveAll(argThat(saved -> saved instanceof List<?> list
+                && list.equals(List.of(new PersonalBest(1L, "Speed", 9.0), new PersonalBest(2L, "Speed", 10.0)))));
+        verify(athleteRepository, times(1)).incrementDataVersionsWithPersonalBest("Speed");
+    }
+
+    @Test
+    public void testOnMetricChange_UnitOnlyChangeIsIgnored() {
+        Metric speed = new Metric(1, "Speed", "speed", "m/s", MetricDirection.HIGHER_IS_BETTER);
+
+        personalBestService.onMetricChange(new MetricChangeEvent(speed, false));
+
+        verifyNoInteractions(personalBestRepository, recordRepository, athleteRepository);
+    }
+}
@@ -0,0 +1,79 @@
+package org.ncu.performancetracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuantileSketchTest {
+
+    @Test
+    public void testQuantiles_WithinRelativeAccuracy() {
+        QuantileSketch sketch = new QuantileSketch(0.01, 2048);
+        for (int i = 1; i <= 10_000; i++) {
+            sketch.add(i);
+        }
+
+        double[] quantiles = sketch.quantiles(0, 0.5, 0.9, 1);
+
+        assertEquals(1, quantiles[0], 0.01);
+        assertEquals(5000, quantiles[1], 5000 * 0.011);
+        assertEquals(9000, quantiles[2], 9000 * 0.011);
+        assertEquals(10_000, quantiles[3], 10_000 * 0.011);
+        assertEquals(0.5, sketch.cdf(5000), 0.01);
+    }
+
+    @Test
+    public void testRemove_RestoresEarlierState() {
+        QuantileSketch sketch = new QuantileSketch(0.01, 2048);
+        sketch.add(3.5);
+        sketch.add(-2);
+        double[] before = sketch.quantiles(0, 0.5, 1);
+
+        sketch.add(120);
+        sketch.add(0);
+        sketch.remove(120);
+        sketch.remove(0);
+        // Never added: ignored rather than going negative
+        sketch.remove(7);
+
+        assertArrayEquals(before, sketch.quantiles(0, 0.5, 1));
+        assertEquals(2, sketch.getCount());
+        assertEquals(0.75, sketch.cdf(3.5), 1e-9);
+    }
+
+    @Test
+    public void testMerge_MatchesSingleSketchAndRoundTrips() {
+        QuantileSketch all = new QuantileSketch(0.02, 512);
+        QuantileSketch first = new QuantileSketch(0.02, 512);
+        QuantileSketch second = new QuantileSketch(0.02, 512);
+        for (int i = -50; i <= 50; i++) {
+            double value = i * 1.7;
+            all.add(value);
+            (i % 2 == 0 ? first : second).add(value);
+        }
+
+        first.merge(second);
+        QuantileSketch restored = QuantileSketch.fromBytes(first.toBytes());
+
+        assertArrayEquals(all.quantiles(0, 0.25, 0.5, 0.75, 1), restored.quantiles(0, 0.25, 0.5, 0.75, 1));
+        assertEquals(101, restored.getCount());
+        assertEquals(0.5, restored.cdf(0), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> all.merge(new QuantileSketch(0.01, 512)));
+    }
+
+    @Test
+    public void testBucketLimit_FoldsSmallestMagnitudes() {
+        QuantileSketch sketch = new QuantileSketch(0.01, 64);
+        for (int exponent = -6; exponent <= 6; exponent++) {
+            sketch.add(Math.pow(10, exponent));
+        }
+
+        double[] quantiles = sketch.quantiles(0, 1);
+
+        // Everything below the lowest kept bucket reads as that bucket; the largest values stay accurate
+        assertTrue(quantiles[0] > 1e-6);
+        assertEquals(1e6, quantiles[1], 1e6 * 0.011);
+        assertTrue(sketch.toBytes().length <= 1 + 8 + 4 + 8 + 8 + 64 * 8 + 8);
+        assertEquals(13, sketch.getCount());
+    }
+}
@@ -0,0 +1,190 @@
+package org.ncu.performancetracker.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ncu.performancetracker.config.ReadYourWrites;
+import org.ncu.performancetracker.dto.PerformanceRecordExport;
+import org.ncu.performancetracker.model.ArchivedSegment;
+import org.ncu.performancetracker.model.Athlete;
+import org.ncu.performancetracker.model.PerformanceRecord;
+import org.ncu.performancetracker.repository.ArchivedSegmentRepository;
+import org.ncu.performancetracker.repository.AthleteRepository;
+import org.ncu.performancetracker.repository.PerformanceRecordRepository;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RecordArchiveTest {
+
+    private static final LocalDate DAY = LocalDate.of(2021, 3, 1);
+
+    @Mock
+    private ArchivedSegmentRepository segmentRepository;
+
+    @Mock
+    private PerformanceRecordRepository recordRepository;
+
+    @Mock
+    private AthleteRepository athleteRepository;
+
+    @Mock
+    private MetricCatalog metricCatalog;
+
+    @Mock
+    private ReadYourWrites readYourWrites;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path directory;
+
+    private RecordArchive recordArchive;
+
+    @BeforeEach
+    public void setUp() {
+        lenient().when(metricCatalog.idOf("Speed")).thenReturn(1);
+        lenient().when(metricCatalog.idOf("Agility")).thenReturn(2);
+        lenient().when(metricCatalog.nameOf(1)).thenReturn("Speed");
+        lenient().when(metricCatalog.nameOf(2)).thenReturn("Agility");
+        lenient().when(readYourWrites.onPrimary(any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        recordArchive = new RecordArchive(segmentRepository, recordRepository, athleteRepository, metricCatalog,
+                readYourWrites, transactionManager, directory.toString(), 730, 100);
+    }
+
+    @Test
+    public void testArchiveAthlete_WritesSegmentPerMetricAndDeletesRows() throws IOException {
+        when(athleteRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(new Athlete()));
+        when(recordRepository.findExportByAthleteIdBefore(1L, DAY.plusYears(1))).thenReturn(List.of(
+                new PerformanceRecordExport(5L, "Speed", 10.0, DAY, null),
+                new PerformanceRecordExport(6L, "Agility", 7.0, DAY, "cones"),
+                new PerformanceRecordExport(8L, "Speed", 12.0, DAY.plusDays(3), null)));
+
+        assertEquals(3, recordArchive.archiveAthlete(1L, DAY.plusYears(1)));
+
+        ArgumentCaptor<ArchivedSegment> saved = ArgumentCaptor.forClass(ArchivedSegment.class);
+        verify(segmentRepository, times(2)).save(saved.capture());
+        ArchivedSegment speed = saved.getAllValues().get(0);
+        assertEquals(1, speed.getMetricId());
+        assertEquals(2, speed.getRecordCount());
+        assertEquals(DAY, speed.getFirstDate());
+        assertEquals(DAY.plusDays(3), speed.getLastDate());
+        assertEquals(10.0, speed.getMinValue());
+        assertEquals(12.0, speed.getMaxValue());
+        assertTrue(Files.exists(directory.resolve(speed.getFileName())));
+        verify(recordRepository).deleteByAthleteIdBefore(1L, DAY.plusYears(1));
+    }
+
+    @Test
+    public void testArchiveAthlete_RollbackDeletesWrittenFiles() throws IOException {
+        when(athleteRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(new Athlete()));
+        when(recordRepository.findExportByAthleteIdBefore(1L, DAY)).thenReturn(List.of(
+                new PerformanceRecordExport(5L, "Speed", 10.0, DAY.minusDays(1), null)));
+        when(recordRepository.deleteByAthleteIdBefore(1L, DAY)).thenThrow(new IllegalStateException("lock timeout"));
+
+        assertThrows(IllegalStateException.class, () -> recordArchive.archiveAthlete(1L, DAY));
+
+        try (Stream<Path> files = Files.walk(directory)) {
+            assertTrue(files.noneMatch(Files::isRegularFile));
+        }
+    }
+
+    @Test
+    public void testFindRecordsAfter_MergesSegmentsInDateIdOrder() throws IOException {
+        ArchivedSegment first = segment(1L, 1, "1/1-a.seg", List.of(
+                new PerformanceRecordExport(1L, "Speed", 10.0, DAY, null),
+                new PerformanceRecordExport(4L, "Speed", 11.0, DAY.plusDays(2), "hill")));
+        ArchivedSegment second = segment(1L, 1, "1/1-b.seg", List.of(
+                new PerformanceRecordExport(2L, "Speed", 9.0, DAY, null),
+                new PerformanceRecordExport(3L, "Speed", 12.0, DAY.plusDays(1), null),
+                new PerformanceRecordExport(9L, "Speed", 13.0, DAY.plusDays(5), null)));
+        ArchivedSegment agility = segment(1L, 2, "1/2-a.seg", List.of(
+                new PerformanceRecordExport(7L, "Agility", 6.0, DAY.plusDays(1), null)));
+        when(segmentRepository.findByAthleteId(1L)).thenReturn(List.of(first, second, agility));
+
+        List<PerformanceRecord> all = recordArchive.findRecords(1L, null, null, null);
+        assertEquals(List.of(1L, 2L, 3L, 7L, 4L, 9L), all.stream().map(PerformanceRecord::getId).toList());
+        assertEquals("hill", all.get(4).getRemarks());
+
+        List<PerformanceRecord> page = recordArchive.findRecordsAfter(1L, "Speed", null, DAY.plusDays(4),
+                ScrollPosition.forward(Map.of("date", DAY, "id", 1L)), 10);
+        assertEquals(List.of(2L, 3L, 4L), page.stream().map(PerformanceRecord::getId).toList());
+    }
+
+    @Test
+    public void testFindValueRange_ScansOnlySegmentsCutByTheRange() throws IOException {
+        ArchivedSegment inside = segment(1L, 1, "1/1-a.seg", List.of(
+                new PerformanceRecordExport(1L, "Speed", 10.0, DAY, null),
+                new PerformanceRecordExport(2L, "Speed", 20.0, DAY.plusDays(1), null)));
+        ArchivedSegment cut = segment(1L, 1, "1/1-b.seg", List.of(
+                new PerformanceRecordExport(3L, "Speed", 5.0, DAY.plusDays(2), null),
+                new PerformanceRecordExport(4L, "Speed", 30.0, DAY.plusDays(40), null)));
+        when(segmentRepository.findByAthleteId(1L)).thenReturn(List.of(inside, cut));
+
+        assertEquals(Optional.of(new RecordArchive.ValueRange(5.0, 20.0)),
+                recordArchive.findValueRange(1L, "Speed", DAY, DAY.plusDays(10)));
+        assertEquals(Optional.of(new RecordArchive.ValueRange(5.0, 30.0)),
+                recordArchive.findValueRange(1L, "Speed", null, null));
+        assertEquals(Optional.empty(), recordArchive.findValueRange(1L, "Agility", null, null));
+    }
+
+    @Test
+    public void testFindLatestValue_LastRowByDateAndIdAcrossSegments() throws IOException {
+        ArchivedSegment first = segment(1L, 1, "1/1-a.seg", List.of(
+                new PerformanceRecordExport(1L, "Speed", 10.0, DAY, null),
+                new PerformanceRecordExport(6L, "Speed", 14.0, DAY.plusDays(3), null)));
+        ArchivedSegment second = segment(1L, 1, "1/1-b.seg", List.of(
+                new PerformanceRecordExport(2L, "Speed", 12.0, DAY.plusDays(1), null),
+                new PerformanceRecordExport(4L, "Speed", 11.0, DAY.plusDays(3), null)));
+        when(segmentRepository.findByAthleteId(1L)).thenReturn(List.of(first, second));
+
+        assertEquals(Optional.of(14.0), recordArchive.findLatestValue(1L, "Speed"));
+        assertEquals(Optional.empty(), recordArchive.findLatestValue(1L, "Agility"));
+    }
+
+    @Test
+    public void testStreamDailyRollups_AggregatesDaysAcrossSegments() throws IOException {
+        ArchivedSegment first = segment(1L, 1, "1/1-a.seg", List.of(
+                new PerformanceRecordExport(1L, "Speed", 2.0, DAY, null),
+                new PerformanceRecordExport(2L, "Speed", 4.0, DAY.plusDays(1), null)));
+        ArchivedSegment second = segment(1L, 1, "1/1-b.seg", List.of(
+                new PerformanceRecordExport(3L, "Speed", 3.0, DAY, null)));
+        when(segmentRepository.findAllByOrderByAthleteIdAscMetricIdAsc()).thenReturn(List.of(first, second));
+
+        List<Object[]> days = recordArchive.streamDailyRollups().toList();
+
+        assertEquals(2, days.size());
+        assertArrayEquals(new Object[]{1L, "Speed", DAY, 2L, 5.0, 2.0, 3.0, 13.0}, days.get(0));
+        assertArrayEquals(new Object[]{1L, "Speed", DAY.plusDays(1), 1L, 4.0, 4.0, 4.0, 16.0}, days.get(1));
+    }
+
+    private ArchivedSegment segment(Long athleteId, int metricId, String fileName,
+                                    List<PerformanceRecordExport> records) throws IOException {
+        Path file = directory.resolve(fileName);
+        Files.createDirectories(file.getParent());
+        ColumnarSegment.write(file, athleteId, metricId, records);
+        ColumnarSegment segment = ColumnarSegment.open(file);
+        return new ArchivedSegment(athleteId, metricId, fileName, segment.getCount(), segment.getFirstDate(),
+                segment.getLastDate(), segment.getMinValue(), segment.getMaxValue());
+    }
+}
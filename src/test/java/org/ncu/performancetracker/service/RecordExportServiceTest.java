@@ -0,0 +1,79 @@
+package org.ncu.performancetracker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ncu.performancetracker.dto.PerformanceRecordExport;
+import org.ncu.performancetracker.exception.ResourceNotFoundException;
+import org.ncu.performancetracker.repository.PerformanceRecordRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RecordExportServiceTest {
+
+    @Mock
+    private PerformanceRecordRepository recordRepository;
+
+    @Mock
+    private AthleteCache athleteCache;
+
+    @Mock
+    private RecordArchive recordArchive;
+
+    private RecordExportService recordExportService;
+
+    @BeforeEach
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        recordExportService = new RecordExportService(recordRepository, athleteCache, recordArchive, objectMapper);
+    }
+
+    @Test
+    public void testExportRecords_WritesOneJsonObjectPerLine() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(recordRepository.streamExportByAthleteId(1L)).thenReturn(Stream.of(
+                new PerformanceRecordExport(1L, "Speed", 12.5, LocalDate.of(2025, 1, 5), "Good pace"),
+                new PerformanceRecordExport(2L, "Agility", 8.3, LocalDate.of(2025, 1, 6), null))
+                .onClose(() -> closed.set(true)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = recordExportService.exportRecords(1L, out);
+
+        assertEquals(2, count);
+        assertEquals("""
+                {"id":1,"metricName":"Speed","value":12.5,"date":"2025-01-05","remarks":"Good pace"}
+                {"id":2,"metricName":"Agility","value":8.3,"date":"2025-01-06","remarks":null}
+                """, out.toString(StandardCharsets.UTF_8));
+        assertTrue(closed.get(), "the cursor-backed stream must be closed");
+    }
+
+    @Test
+    public void testExportRecords_EmptyHistory() throws Exception {
+        when(recordRepository.streamExportByAthleteId(1L)).thenReturn(Stream.empty());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, recordExportService.exportRecords(1L, out));
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    public void testVerifyAthleteExists_AthleteNotFound() {
+        when(athleteCache.exists(1L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> recordExportService.verifyAthleteExists(1L));
+    }
+}
@@ -0,0 +1,230 @@
+package org.ncu.performancetracker.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ncu.performancetracker.dto.MetricSummary;
+import org.ncu.performancetracker.dto.RangeStats;
+import org.ncu.performancetracker.model.MetricDirection;
+import org.ncu.performancetracker.model.PerformanceRollup;
+import org.ncu.performancetracker.model.RollupGranularity;
+import org.ncu.performancetracker.repository.PerformanceRecordRepository;
+import org.ncu.performancetracker.repository.PerformanceRollupRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RollupServiceTest {
+
+    @Mock
+    private PerformanceRollupRepository rollupRepository;
+
+    @Mock
+    private PerformanceRecordRepository recordRepository;
+
+    @Mock
+    private MetricCatalog metricCatalog;
+
+    @Mock
+    private RecordArchive recordArchive;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private RollupService rollupService;
+
+    @BeforeEach
+    public void setUp() {
+        rollupService = new RollupService(rollupRepository, recordRepository, metricCatalog, recordArchive, entityManager, 50);
+    }
+
+    @Test
+    public void testPlanBuckets_UsesMonthsWeeksAndDays() {
+        // Thursday 2024-01-25 .. Tuesday 2024-04-09
+        Map<RollupGranularity, List<LocalDate>> plan =
+                RollupService.planBuckets(LocalDate.of(2024, 1, 25), LocalDate.of(2024, 4, 9));
+
+        assertEquals(List.of(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 1)), plan.get(RollupGranularity.MONTH));
+        // The week starting 2024-01-29 would cut into February, so January's tail is covered by days
+        assertEquals(List.of(LocalDate.of(2024, 4, 1)), plan.get(RollupGranularity.WEEK));
+        assertEquals(7 + 2, plan.get(RollupGranularity.DAY).size());
+        assertCoversExactly(plan, LocalDate.of(2024, 1, 25), LocalDate.of(2024, 4, 9));
+    }
+
+    @Test
+    public void testPlanBuckets_CoversArbitraryRangesExactly() {
+        LocalDate start = LocalDate.of(2023, 11, 3);
+        for (int length = 0; length < 120; length += 7) {
+            assertCoversExactly(RollupService.planBuckets(start, start.plusDays(length)), start, start.plusDays(length));
+        }
+    }
+
+    @Test
+    public void testRecordValue_UpdatesEveryGranularity() {
+        LocalDate date = LocalDate.of(2024, 3, 14);
+        PerformanceRollup month = rollup(RollupGranularity.MONTH, LocalDate.of(2024, 3, 1), 2, 20.0, 9.0, 11.0);
+        when(rollupRepository.findByAthleteIdAndMetricNameAndGranularityAndBucketStart(
+                eq(1L), eq("Speed"), any(RollupGranularity.class), any(LocalDate.class))).thenReturn(Optional.empty());
+        when(rollupRepository.findByAthleteIdAndMetricNameAndGranularityAndBucketStart(
+                1L, "Speed", RollupGranularity.MONTH, LocalDate.of(2024, 3, 1))).thenReturn(Optional.of(month));
+
+        rollupService.recordValue(1L, "Speed", date, 12.0);
+
+        assertEquals(3, month.getCount());
+        assertEquals(32.0, month.getSum());
+        assertEquals(12.0, month.getMax());
+        assertEquals(9.0, month.getMin());
+        verify(rollupRepository, times(4)).save(any(PerformanceRollup.class));
+    }
+
+    @Test
+    public void testRecordRemoved_RescansOnlyWhenExtremeRemoved() {
+        LocalDate date = LocalDate.of(2024, 3, 14);
+        PerformanceRollup day = rollup(RollupGranularity.DAY, date, 3, 30.0, 9.0, 11.0);
+        when(rollupRepository.findByAthleteIdAndMetricNameAndGranularityAndBucketStart(
+                eq(1L), eq("Speed"), any(RollupGranularity.class), any(LocalDate.class))).thenReturn(Optional.empty());
+        when(rollupRepository.findByAthleteIdAndMetricNameAndGranularityAndBucketStart(
+                1L, "Speed", RollupGranularity.DAY, date)).thenReturn(Optional.of(day));
+
+        rollupService.recordRemoved(1L, "Speed", date, 10.0);
+
+        assertEquals(2, day.getCount());
+        assertEquals(20.0, day.getSum());
+        verify(recordRepository, never()).findValueRange(any(), any(), any(), any());
+
+        List<Object[]> range = new ArrayList<>();
+        range.add(new Object[]{9.0, 9.0});
+        when(recordRepository.findValueRange(1L, "Speed", date, date)).thenReturn(range);
+
+        rollupService.recordRemoved(1L, "Speed", date, 11.0);
+
+        assertEquals(1, day.getCount());
+        assertEquals(9.0, day.getMax());
+        verify(rollupRepository, times(2)).save(day);
+    }
+
+    @Test
+    public void testRecordRemoved_LastValueDeletesBucket() {
+        LocalDate date = LocalDate.of(2024, 3, 14);
+        PerformanceRollup day = rollup(RollupGranularity.DAY, date, 1, 10.0, 10.0, 10.0);
+        when(rollupRepository.findByAthleteIdAndMetricNameAndGranularityAndBucketStart(
+                eq(1L), eq("Speed"), any(RollupGranularity.class), any(LocalDate.class))).thenReturn(Optional.empty());
+        when(rollupRepository.findByAthleteIdAndMetricNameAndGranularityAndBucketStart(
+                1L, "Speed", RollupGranularity.DAY, date)).thenReturn(Optional.of(day));
+
+        rollupService.recordRemoved(1L, "Speed", date, 10.0);
+
+        verify(rollupRepository, times(1)).delete(day);
+    }
+
+    @Test
+    public void testFindRangeStats_CombinesBuckets() {
+        LocalDate start = LocalDate.of(2024, 3, 1);
+        LocalDate end = LocalDate.of(2024, 3, 31);
+        when(rollupRepository.findByAthleteIdAndMetricNameAndGranularityAndBucketStartIn(
+                1L, "Speed", RollupGranularity.MONTH, List.of(start)))
+                .thenReturn(List.of(rollup(RollupGranularity.MONTH, start, 4, 40.0, 8.0, 12.0)));
+
+        RangeStats stats = rollupService.findRangeStats(1L, "Speed", start, end);
+
+        assertEquals(4, stats.getCount());
+        assertEquals(10.0, stats.getMean());
+        assertEquals(8.0, stats.getMin());
+        assertEquals(12.0, stats.getMax());
+        assertEquals(1, stats.getBucketsRead());
+    }
+
+    @Test
+    public void testFindAllTimeSummaries_KeyedByAthleteId() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{2L, "Speed", 4L, 40.0, 8.0, 12.0, 11.0, LocalDate.of(2024, 3, 2)});
+        rows.add(new Object[]{2L, "Sprint 100m", 2L, 22.0, 10.8, 11.2, 10.8, LocalDate.of(2024, 3, 2)});
+        when(rollupRepository.findAllTimeSummaries(List.of(1L, 2L), List.of("Speed", "Sprint 100m"))).thenReturn(rows);
+        when(metricCatalog.directionOf("Speed")).thenReturn(MetricDirection.HIGHER_IS_BETTER);
+        when(metricCatalog.directionOf("Sprint 100m")).thenReturn(MetricDirection.LOWER_IS_BETTER);
+
+        Map<Long, Map<String, MetricSummary>> summaries =
+                rollupService.findAllTimeSummaries(List.of(1L, 2L), List.of("Speed", "Sprint 100m"));
+
+        assertEquals(List.of(1L, 2L), List.copyOf(summaries.keySet()));
+        assertTrue(summaries.get(1L).isEmpty());
+        MetricSummary speed = summaries.get(2L).get("Speed");
+        assertEquals(4, speed.getCount());
+        assertEquals(10.0, speed.getAverage());
+        assertEquals(11.0, speed.getLatestValue());
+        assertEquals(12.0, speed.getBest());
+        assertEquals(10.8, summaries.get(2L).get("Sprint 100m").getBest());
+    }
+
+    @Test
+    public void testFindAllTimeSummaries_LatestValueFromArchiveWhenNewer() {
+        List<Object[]> rows = new ArrayList<>();
+        // Everything archived: no live record left
+        rows.add(new Object[]{1L, "Speed", 3L, 30.0, 9.0, 11.0, null, null});
+        // Live records, but a backfilled one is older than the archived tail
+        rows.add(new Object[]{2L, "Speed", 4L, 40.0, 8.0, 12.0, 8.0, LocalDate.of(2023, 1, 5)});
+        // Live records newer than anything archived
+        rows.add(new Object[]{3L, "Speed", 2L, 20.0, 9.5, 10.5, 10.5, LocalDate.of(2024, 3, 2)});
+        when(rollupRepository.findAllTimeSummaries(List.of(1L, 2L, 3L), List.of("Speed"))).thenReturn(rows);
+        when(metricCatalog.directionOf("Speed")).thenReturn(MetricDirection.HIGHER_IS_BETTER);
+        when(recordArchive.findLastDates(List.of(1L, 2L, 3L))).thenReturn(Map.of(
+                1L, Map.of("Speed", LocalDate.of(2023, 6, 1)),
+                2L, Map.of("Speed", LocalDate.of(2023, 6, 1)),
+                3L, Map.of("Speed", LocalDate.of(2023, 6, 1))));
+        when(recordArchive.findLatestValue(1L, "Speed")).thenReturn(Optional.of(10.0));
+        when(recordArchive.findLatestValue(2L, "Speed")).thenReturn(Optional.of(12.0));
+
+        Map<Long, Map<String, MetricSummary>> summaries =
+                rollupService.findAllTimeSummaries(List.of(1L, 2L, 3L), List.of("Speed"));
+
+        assertEquals(10.0, summaries.get(1L).get("Speed").getLatestValue());
+        assertEquals(12.0, summaries.get(2L).get("Speed").getLatestValue());
+        assertEquals(10.5, summaries.get(3L).get("Speed").getLatestValue());
+        verify(recordArchive, never()).findLatestValue(3L, "Speed");
+    }
+
+    @Test
+    public void testFindRangeStats_EmptyRange() {
+        RangeStats stats = rollupService.findRangeStats(1L, "Speed", LocalDate.of(2024, 3, 5), LocalDate.of(2024, 3, 5));
+
+        assertEquals(0, stats.getCount());
+        assertNull(stats.getMean());
+    }
+
+    @Test
+    public void testFindRangeStats_StartAfterEnd() {
+        assertThrows(IllegalArgumentException.class, () ->
+                rollupService.findRangeStats(1L, "Speed", LocalDate.of(2024, 3, 5), LocalDate.of(2024, 3, 4)));
+    }
+
+    private static PerformanceRollup rollup(RollupGranularity granularity, LocalDate bucketStart,
+                                            long count, double sum, double min, double max) {
+        PerformanceRollup rollup = new PerformanceRollup(1L, "Speed", granularity, bucketStart);
+        rollup.setCount(count);
+        rollup.setSum(sum);
+        rollup.setMin(min);
+        rollup.setMax(max);
+        rollup.setSumOfSquares(sum * sum / count);
+        return rollup;
+    }
+
+    private static void assertCoversExactly(Map<RollupGranularity, List<LocalDate>> plan, LocalDate start, LocalDate end) {
+        List<LocalDate> covered = new ArrayList<>();
+        plan.forEach((granularity, bucketStarts) -> bucketStarts.forEach(bucketStart ->
+                bucketStart.datesUntil(granularity.bucketEnd(bucketStart).plusDays(1)).forEach(covered::add)));
+        covered.sort(null);
+        assertEquals(start.datesUntil(end.plusDays(1)).toList(), covered);
+    }
+}
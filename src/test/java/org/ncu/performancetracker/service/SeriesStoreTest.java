@@ -0,0 +1,127 @@
+package org.ncu.performancetracker.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ncu.performancetracker.config.ReadYourWrites;
+import org.ncu.performancetracker.event.RecordChange;
+import org.ncu.performancetracker.event.RecordChangeEvent;
+import org.ncu.performancetracker.repository.AthleteRepository;
+import org.ncu.performancetracker.repository.PerformanceRecordRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SeriesStoreTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 1);
+
+    @Mock
+    private PerformanceRecordRepository recordRepository;
+
+    @Mock
+    private AthleteRepository athleteRepository;
+
+    @Mock
+    private AthleteCache athleteCache;
+
+    @Mock
+    private RecordArchive recordArchive;
+
+    @Mock
+    private MetricCatalog metricCatalog;
+
+    @Mock
+    private ReadYourWrites readYourWrites;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SeriesStore seriesStore;
+
+    @BeforeEach
+    public void setUp() {
+        lenient().when(metricCatalog.idOf("Speed")).thenReturn(1);
+        lenient().when(readYourWrites.onPrimary(any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        seriesStore = new SeriesStore(recordRepository, athleteRepository, athleteCache, recordArchive, metricCatalog,
+                readYourWrites, transactionManager, new SimpleMeterRegistry(), DataSize.ofMegabytes(1));
+    }
+
+    @Test
+    public void testFind_MergesArchivedAndLiveRowsInDateIdOrder() {
+        when(athleteCache.findDataVersion(1L)).thenReturn(Optional.of(3L));
+        when(athleteRepository.findDataVersionById(1L)).thenReturn(Optional.of(3L));
+        doAnswer(invocation -> {
+            RecordArchive.RowConsumer consumer = invocation.getArgument(2);
+            consumer.accept(DAY.minusDays(10).toEpochDay(), 2L, 5.0);
+            consumer.accept(DAY.toEpochDay(), 4L, 6.0);
+            return null;
+        }).when(recordArchive).scanRows(eq(1L), eq("Speed"), any());
+        when(recordRepository.streamSeries(1L, "Speed")).thenReturn(Stream.of(
+                new Object[]{DAY, 3L, 7.0},
+                new Object[]{DAY.plusDays(1), 9L, 8.0}));
+
+        MetricSeries series = seriesStore.find(1L, "Speed").orElseThrow();
+
+        assertEquals(4, series.size());
+        assertEquals(DAY.minusDays(10).toEpochDay(), series.dayAt(0));
+        assertEquals(7.0, series.valueAt(1));
+        assertEquals(6.0, series.valueAt(2));
+        assertEquals(8.0, series.valueAt(3));
+    }
+
+    @Test
+    public void testFind_ReloadsWhenDataVersionAdvanced() {
+        when(athleteCache.findDataVersion(1L))
+                .thenReturn(Optional.of(3L))
+                .thenReturn(Optional.of(3L))
+                .thenReturn(Optional.of(4L));
+        when(athleteRepository.findDataVersionById(1L))
+                .thenReturn(Optional.of(3L))
+                .thenReturn(Optional.of(4L));
+        when(recordRepository.streamSeries(1L, "Speed"))
+                .thenAnswer(invocation -> Stream.<Object[]>of(new Object[]{DAY, 3L, 7.0}))
+                .thenAnswer(invocation -> Stream.<Object[]>of(new Object[]{DAY, 3L, 7.0}, new Object[]{DAY, 5L, 9.0}));
+
+        assertEquals(1, seriesStore.find(1L, "Speed").orElseThrow().size());
+        assertEquals(1, seriesStore.find(1L, "Speed").orElseThrow().size());
+        assertEquals(2, seriesStore.find(1L, "Speed").orElseThrow().size());
+        verify(recordRepository, times(2)).streamSeries(1L, "Speed");
+    }
+
+    @Test
+    public void testOnRecordChange_DropsTouchedSeries() {
+        when(athleteCache.findDataVersion(1L)).thenReturn(Optional.of(3L));
+        when(athleteRepository.findDataVersionById(1L)).thenReturn(Optional.of(3L));
+        when(recordRepository.streamSeries(1L, "Speed")).thenAnswer(invocation -> Stream.of());
+
+        seriesStore.find(1L, "Speed");
+        seriesStore.onRecordChange(new RecordChangeEvent(List.of(RecordChange.added(1L, "Speed", DAY, 1.0))));
+        seriesStore.find(1L, "Speed");
+
+        verify(recordRepository, times(2)).streamSeries(1L, "Speed");
+    }
+
+    @Test
+    public void testFind_UnknownAthleteIsEmpty() {
+        when(athleteCache.findDataVersion(9L)).thenReturn(Optional.empty());
+
+        assertTrue(seriesStore.find(9L, "Speed").isEmpty());
+        verifyNoInteractions(recordRepository);
+    }
+}
@@ -0,0 +1,139 @@
+package org.ncu.performancetracker.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ncu.performancetracker.dto.MetricTrend;
+import org.ncu.performancetracker.exception.ResourceNotFoundException;
+import org.ncu.performancetracker.model.MetricDirection;
+import org.ncu.performancetracker.model.PerformanceRollup;
+import org.ncu.performancetracker.model.PerformanceTrend;
+import org.ncu.performancetracker.model.RollupGranularity;
+import org.ncu.performancetracker.repository.PerformanceRollupRepository;
+import org.ncu.performancetracker.repository.PerformanceTrendRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TrendServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 1);
+
+    @Mock
+    private PerformanceTrendRepository trendRepository;
+
+    @Mock
+    private PerformanceRollupRepository rollupRepository;
+
+    @Mock
+    private MetricCatalog metricCatalog;
+
+    private TrendService trendService;
+
+    @BeforeEach
+    public void setUp() {
+        trendService = new TrendService(trendRepository, rollupRepository, metricCatalog, 14);
+    }
+
+    @Test
+    public void testRecordValues_FoldsLaterDaysWithoutReadingRollups() {
+        PerformanceTrend trend = new PerformanceTrend(1L, 1L, "Speed", DAY, 10.0, 1.0);
+        when(trendRepository.findByAthleteIdAndMetricName(1L, "Speed")).thenReturn(Optional.of(trend));
+
+        RollupAccumulator sameDay = RollupAccumulator.of(12.0);
+        sameDay.add(14.0);
+        trendService.recordValues(1L, "Speed", Map.of(DAY.plusDays(14), RollupAccumulator.of(20.0), DAY, sameDay));
+
+        // The old state has one half-life to decay by: (10 + 26) / 2 + 20 over (1 + 2) / 2 + 1
+        assertEquals(DAY.plusDays(14), trend.getLastDate());
+        assertEquals(38.0, trend.getEwmaSum(), 1e-9);
+        assertEquals(2.5, trend.getEwmaWeight(), 1e-9);
+        verify(trendRepository).save(trend);
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    public void testRecordValue_OutOfOrderRecomputesFromDayRollups() {
+        PerformanceTrend trend = new PerformanceTrend(1L, 1L, "Speed", DAY, 10.0, 1.0);
+        when(trendRepository.findByAthleteIdAndMetricName(1L, "Speed")).thenReturn(Optional.of(trend));
+        when(rollupRepository.findFirstByAthleteIdAndMetricNameAndGranularityOrderByBucketStartDesc(
+                1L, "Speed", RollupGranularity.DAY)).thenReturn(Optional.of(day(DAY, 1, 10.0)));
+        when(rollupRepository.findByAthleteIdAndMetricNameAndGranularityAndBucketStartBetweenOrderByBucketStartAsc(
+                1L, "Speed", RollupGranularity.DAY, DAY.minusDays(280), DAY))
+                .thenReturn(List.of(day(DAY.minusDays(14), 1, 4.0), day(DAY, 1, 10.0)));
+
+        trendService.recordValue(1L, "Speed", DAY.minusDays(14), 4.0);
+
+        assertEquals(DAY, trend.getLastDate());
+        assertEquals(12.0, trend.getEwmaSum(), 1e-9);
+        assertEquals(1.5, trend.getEwmaWeight(), 1e-9);
+        verify(trendRepository).save(trend);
+    }
+
+    @Test
+    public void testRecordRemoved_SkipsBeyondHorizonAndDropsEmptyTrend() {
+        PerformanceTrend trend = new PerformanceTrend(1L, 1L, "Speed", DAY, 10.0, 1.0);
+        when(trendRepository.findByAthleteIdAndMetricName(1L, "Speed")).thenReturn(Optional.of(trend));
+
+        trendService.recordRemoved(1L, "Speed", DAY.minusDays(281), 3.0);
+        verifyNoInteractions(rollupRepository);
+
+        when(rollupRepository.findFirstByAthleteIdAndMetricNameAndGranularityOrderByBucketStartDesc(
+                1L, "Speed", RollupGranularity.DAY)).thenReturn(Optional.empty());
+        trendService.recordRemoved(1L, "Speed", DAY, 10.0);
+
+        verify(trendRepository).delete(trend);
+        verify(trendRepository, never()).save(any());
+    }
+
+    @Test
+    public void testFindTrend_WindowsAndSlopeFromDayRollups() {
+        when(trendRepository.findByAthleteIdAndMetricName(1L, "Time"))
+                .thenReturn(Optional.of(new PerformanceTrend(1L, 1L, "Time", DAY, 30.0, 2.0)));
+        when(metricCatalog.directionOf("Time")).thenReturn(MetricDirection.LOWER_IS_BETTER);
+        // 12 on day -20, 10 and 12 on day -10, 8 on the last day: one second faster every five days
+        when(rollupRepository.findByAthleteIdAndMetricNameAndGranularityAndBucketStartBetweenOrderByBucketStartAsc(
+                1L, "Time", RollupGranularity.DAY, DAY.minusDays(27), DAY))
+                .thenReturn(List.of(day(DAY.minusDays(20), 1, 12.0), day(DAY.minusDays(10), 2, 22.0),
+                        day(DAY, 1, 8.0)));
+
+        MetricTrend trend = trendService.findTrend(1L, "Time");
+
+        assertEquals(15.0, trend.getEwma(), 1e-9);
+        assertEquals(8.0, trend.getRollingMean7(), 1e-9);
+        assertEquals(10.5, trend.getRollingMean28(), 1e-9);
+        assertEquals(-0.2, trend.getSlopePerDay(), 1e-9);
+        assertEquals(0.2, trend.getImprovementPerDay(), 1e-9);
+        assertThrows(ResourceNotFoundException.class, () -> trendService.findTrend(1L, "Speed"));
+    }
+
+    @Test
+    public void testRebuild_FoldsEachAthleteMetricRun() {
+        when(rollupRepository.streamDays()).thenReturn(Stream.of(
+                day(DAY, 1, 10.0), day(DAY.plusDays(14), 1, 20.0)));
+
+        assertEquals(1, trendService.rebuild());
+
+        ArgumentCaptor<PerformanceTrend> saved = ArgumentCaptor.forClass(PerformanceTrend.class);
+        verify(trendRepository).save(saved.capture());
+        assertEquals(25.0 / 1.5, saved.getValue().getEwmaSum() / saved.getValue().getEwmaWeight(), 1e-9);
+    }
+
+    private static PerformanceRollup day(LocalDate date, long count, double sum) {
+        PerformanceRollup day = new PerformanceRollup(1L, "Speed", RollupGranularity.DAY, date);
+        day.setCount(count);
+        day.setSum(sum);
+        return day;
+    }
+}
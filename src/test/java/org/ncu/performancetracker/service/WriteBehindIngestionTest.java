@@ -0,0 +1,180 @@
+package org.ncu.performancetracker.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ncu.performancetracker.dto.BatchIngestResponse;
+import org.ncu.performancetracker.dto.BatchRecordRequest;
+import org.ncu.performancetracker.exception.ResourceNotFoundException;
+import org.ncu.performancetracker.model.IngestionCheckpoint;
+import org.ncu.performancetracker.model.PerformanceRecord;
+import org.ncu.performancetracker.repository.IngestionCheckpointRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class WriteBehindIngestionTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 1);
+
+    @Mock
+    private BatchIngestionService batchIngestionService;
+
+    @Mock
+    private IngestionCheckpointRepository checkpointRepository;
+
+    @Mock
+    private AthleteCache athleteCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path directory;
+
+    private WriteBehindIngestion writeBehindIngestion;
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (writeBehindIngestion != null) {
+            writeBehindIngestion.stop();
+        }
+    }
+
+    @Test
+    public void testSubmit_IsWrittenInBatchWithCheckpoint() throws Exception {
+        when(athleteCache.exists(1L)).thenReturn(true);
+        when(batchIngestionService.ingest(anyList())).thenAnswer(invocation ->
+                new BatchIngestResponse(invocation.<List<?>>getArgument(0).size(), 0, List.of()));
+        writeBehindIngestion = start(100);
+
+        long first = writeBehindIngestion.submit(1L, new PerformanceRecord("Speed", 10.5, DAY, null));
+        long second = writeBehindIngestion.submit(1L, new PerformanceRecord("Speed", 11.0, DAY, "PB attempt"));
+
+        assertEquals(1, first);
+        assertEquals(2, second);
+        verify(checkpointRepository, timeout(2000)).save(new IngestionCheckpoint("default", 2L));
+        verify(batchIngestionService, atLeastOnce()).ingest(anyList());
+    }
+
+    @Test
+    public void testSubmit_UnknownAthleteIsRefused() throws Exception {
+        when(athleteCache.exists(9L)).thenReturn(false);
+        writeBehindIngestion = start(100);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> writeBehindIngestion.submit(9L, new PerformanceRecord("Speed", 10.5, DAY, null)));
+        verifyNoInteractions(batchIngestionService);
+    }
+
+    @Test
+    public void testSubmit_RejectsWhenBufferStaysFull() throws Exception {
+        when(athleteCache.exists(1L)).thenReturn(true);
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(batchIngestionService.ingest(anyList())).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new BatchIngestResponse(1, 1, List.of());
+        });
+        writeBehindIngestion = start(1);
+
+        writeBehindIngestion.submit(1L, new PerformanceRecord("Speed", 10.5, DAY, null));
+        assertTrue(flushing.await(2, TimeUnit.SECONDS));
+
+        // The only slot is held until the batch in flight commits
+        assertThrows(RejectedExecutionException.class,
+                () -> writeBehindIngestion.submit(1L, new PerformanceRecord("Speed", 11.0, DAY, null)));
+
+        release.countDown();
+        verify(checkpointRepository, timeout(2000)).save(new IngestionCheckpoint("default", 1L));
+        assertEquals(2, writeBehindIngestion.submit(1L, new PerformanceRecord("Speed", 11.0, DAY, null)));
+    }
+
+    @Test
+    public void testStart_ReplaysJournalEntriesAfterCheckpoint() throws Exception {
+        try (IngestionJournal journal = IngestionJournal.open(directory, 1 << 20)) {
+            journal.append(new BatchRecordRequest(1L, "Speed", 10.0, DAY, null), entry -> { });
+            journal.append(new BatchRecordRequest(1L, "Speed", 11.0, DAY, null), entry -> { });
+            journal.append(new BatchRecordRequest(2L, "Speed", 12.0, DAY, null), entry -> { });
+        }
+        when(checkpointRepository.findById("default")).thenReturn(Optional.of(new IngestionCheckpoint("default", 1L)));
+        when(batchIngestionService.ingest(anyList())).thenReturn(new BatchIngestResponse(2, 2, List.of()));
+
+        writeBehindIngestion = start(100);
+
+        verify(batchIngestionService).ingest(List.of(
+                new BatchRecordRequest(1L, "Speed", 11.0, DAY, null),
+                new BatchRecordRequest(2L, "Speed", 12.0, DAY, null)));
+        verify(checkpointRepository).save(new IngestionCheckpoint("default", 3L));
+    }
+
+    @Test
+    public void testFlush_RefusedBatchIsRetriedRecordByRecord() throws Exception {
+        try (IngestionJournal journal = IngestionJournal.open(directory, 1 << 20)) {
+            journal.append(new BatchRecordRequest(1L, "Speed", 10.0, DAY, null), entry -> { });
+            journal.append(new BatchRecordRequest(2L, "Speed", 11.0, DAY, null), entry -> { });
+            journal.append(new BatchRecordRequest(1L, "Speed", 12.0, DAY, null), entry -> { });
+        }
+        when(batchIngestionService.ingest(anyList())).thenAnswer(invocation -> {
+            List<BatchRecordRequest> records = invocation.getArgument(0);
+            if (records.stream().anyMatch(record -> record.getAthleteId() == 2L)) {
+                throw new IllegalStateException("constraint violation");
+            }
+            return new BatchIngestResponse(records.size(), records.size(), List.of());
+        });
+
+        writeBehindIngestion = start(100);
+
+        verify(batchIngestionService, times(4)).ingest(anyList());
+        verify(batchIngestionService).ingest(List.of(new BatchRecordRequest(1L, "Speed", 12.0, DAY, null)));
+        verify(checkpointRepository).save(new IngestionCheckpoint("default", 2L));
+        verify(checkpointRepository).save(new IngestionCheckpoint("default", 3L));
+    }
+
+    @Test
+    public void testDrain_FailedCheckpointWriteIsRetriedNotSkipped() throws Exception {
+        when(athleteCache.exists(1L)).thenReturn(true);
+        when(batchIngestionService.ingest(anyList())).thenReturn(new BatchIngestResponse(1, 1, List.of()));
+        when(checkpointRepository.save(any(IngestionCheckpoint.class)))
+                .thenThrow(new IllegalStateException("checkpoint table locked"))
+                .thenThrow(new IllegalStateException("checkpoint table locked"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        writeBehindIngestion = start(100);
+
+        writeBehindIngestion.submit(1L, new PerformanceRecord("Speed", 10.5, DAY, null));
+
+        verify(batchIngestionService, timeout(2000).times(2))
+                .ingest(List.of(new BatchRecordRequest(1L, "Speed", 10.5, DAY, null)));
+        verify(checkpointRepository, timeout(2000).times(3)).save(new IngestionCheckpoint("default", 1L));
+
+        writeBehindIngestion.submit(1L, new PerformanceRecord("Speed", 11.0, DAY, null));
+        verify(checkpointRepository, timeout(2000)).save(new IngestionCheckpoint("default", 2L));
+    }
+
+    private WriteBehindIngestion start(int capacity) throws Exception {
+        WriteBehindIngestion ingestion = new WriteBehindIngestion(batchIngestionService, checkpointRepository,
+                athleteCache, transactionManager, new SimpleMeterRegistry(), directory.toString(), "default",
+                DataSize.ofMegabytes(1), capacity, 50, Duration.ofMillis(5), Duration.ofMillis(50));
+        ingestion.start();
+        return ingestion;
+    }
+}